@@ -1,11 +1,52 @@
 package io.github.steanky.polymer;
 
-import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.preload.ConfigPreloader;
+import io.github.steanky.polymer.config.preload.PreloadEntrypoint;
+import io.github.steanky.polymer.config.preload.PreloadReport;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.entrypoint.EntrypointContainer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Polymer implements ModInitializer {
+    public static final String MOD_ID = "polymer";
+
+    private static final Logger LOGGER = LogManager.getLogger(MOD_ID);
+    private static final ConfigPreloader PRELOADER = new ConfigPreloader();
+    private static final AtomicBoolean REPORT_LOGGED = new AtomicBoolean();
+
+    /**
+     * Gets the shared {@link ConfigPreloader}, which contains the configs registered by every
+     * {@link PreloadEntrypoint}. All of these configs will have finished loading before the server starts.
+     * @return the shared ConfigPreloader
+     */
+    public static @NotNull ConfigPreloader getPreloader() {
+        return PRELOADER;
+    }
+
     @Override
     public void onInitialize() {
+        for(EntrypointContainer<PreloadEntrypoint> container : FabricLoader.getInstance()
+                .getEntrypointContainers(PreloadEntrypoint.KEY, PreloadEntrypoint.class)) {
+            String modId = container.getProvider().getMetadata().getId();
+            container.getEntrypoint().registerConfigs(PRELOADER.registrar(modId));
+        }
+
+        PRELOADER.start();
+
+        //configs must be available before any worlds are loaded
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            PreloadReport report = PRELOADER.await();
 
+            //an integrated server starts again for every world that is opened, but configs are only loaded once
+            if(REPORT_LOGGED.compareAndSet(false, true)) {
+                LOGGER.info(report.format());
+            }
+        });
     }
 }
@@ -12,9 +12,33 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class BasicTreeBuilder implements TreeBuilder {
-    public static final BasicTreeBuilder INSTANCE = new BasicTreeBuilder();
+    /**
+     * The default BasicTreeBuilder, which stores every list in an {@link ArrayConfigList}.
+     */
+    public static final BasicTreeBuilder INSTANCE = new BasicTreeBuilder(false);
 
-    private BasicTreeBuilder() {}
+    /**
+     * A BasicTreeBuilder which stores large homogeneous lists of integers, longs, doubles, or booleans in
+     * primitive-backed {@link ConfigList}s such as {@link LongConfigList}, using far less memory. Such lists only accept
+     * values which can be converted to their element type without loss, and {@link ConfigList#get(int)} returns a new
+     * {@link ConfigPrimitive} on every call, so this builder should only be used for data which is known to be
+     * homogeneous and is modified through the list rather than through its elements.
+     */
+    public static final BasicTreeBuilder PRIMITIVE_LIST_INSTANCE = new BasicTreeBuilder(true);
+
+    /**
+     * The minimum number of elements a homogeneous list of integers, longs, doubles, or booleans must contain before
+     * {@link BasicTreeBuilder#PRIMITIVE_LIST_INSTANCE} stores it in a primitive-backed {@link ConfigList}. Smaller
+     * lists use {@link ArrayConfigList}, which can contain elements of any type. Java arrays of int, long, double, or
+     * boolean are always stored in a primitive-backed list by that builder, regardless of their size.
+     */
+    public static final int PRIMITIVE_LIST_THRESHOLD = 16;
+
+    private final boolean primitiveLists;
+
+    private BasicTreeBuilder(boolean primitiveLists) {
+        this.primitiveLists = primitiveLists;
+    }
 
     protected record Node<TOut>(Object inputContainer, BiConsumer<String, TOut> output) {}
 
@@ -31,16 +55,22 @@ public class BasicTreeBuilder implements TreeBuilder {
                                     @NotNull Set<Object> visited,
                                     @NotNull Node<TOut> currentNode,
                                     @Nullable String keyString,
-                                    @NotNull Supplier<TMap> mapSupplier,
+                                    @NotNull Function<Map<?, ?>, TMap> mapFactory,
                                     @NotNull Supplier<TCollection> collectionSupplier,
-                                    @NotNull Function<Object, TOut> converter) {
+                                    @NotNull Function<Object, TOut> converter,
+                                    @NotNull Function<Object, TOut> containerConverter) {
         if(isContainer(value)) {
-            if(visited.add(value)) {
+            //some containers can be converted in their entirety, without needing to visit each element
+            TOut converted = containerConverter.apply(value);
+            if(converted != null) {
+                currentNode.output.accept(keyString, converted);
+            }
+            else if(visited.add(value)) {
                 BiConsumer<String, TOut> consumer;
                 Object output;
 
-                if(value instanceof Map<?, ?>) {
-                    TMap newMap = mapSupplier.get();
+                if(value instanceof Map<?, ?> inputMap) {
+                    TMap newMap = mapFactory.apply(inputMap);
                     output = newMap;
                     consumer = newMap::put;
                 }
@@ -64,9 +94,10 @@ public class BasicTreeBuilder implements TreeBuilder {
             TCollection extends Collection<TOut>,
             TOut> @NotNull TRootMap processMap(@NotNull Map<String, ?> input,
                                       @NotNull Supplier<TRootMap> rootMapSupplier,
-                                      @NotNull Supplier<TSubMap> subMapSupplier,
+                                      @NotNull Function<Map<?, ?>, TSubMap> subMapFactory,
                                       @NotNull Supplier<TCollection> collection,
-                                      @NotNull Function<Object, TOut> converter) {
+                                      @NotNull Function<Object, TOut> converter,
+                                      @NotNull Function<Object, TOut> containerConverter) {
         TRootMap topLevel = rootMapSupplier.get();
 
         Deque<Node<TOut>> stack = new ArrayDeque<>();
@@ -81,7 +112,8 @@ public class BasicTreeBuilder implements TreeBuilder {
             if(node.inputContainer instanceof Map<?, ?> inputMap) {
                 for(Map.Entry<?, ?> entry : inputMap.entrySet()) {
                     if(entry.getKey() instanceof String key) {
-                        processValue(entry.getValue(), stack, visited, node, key, subMapSupplier, collection, converter);
+                        processValue(entry.getValue(), stack, visited, node, key, subMapFactory, collection, converter,
+                                containerConverter);
                     }
                     else {
                         throw new IllegalArgumentException("key is not a string");
@@ -90,7 +122,15 @@ public class BasicTreeBuilder implements TreeBuilder {
             }
             else if(node.inputContainer instanceof Collection<?> inputCollection) {
                 for(Object value : inputCollection) {
-                    processValue(value, stack, visited, node, null, subMapSupplier, collection, converter);
+                    processValue(value, stack, visited, node, null, subMapFactory, collection, converter,
+                            containerConverter);
+                }
+            }
+            else if(node.inputContainer instanceof Object[] inputArray) {
+                //avoid reflective access for object arrays
+                for(Object value : inputArray) {
+                    processValue(value, stack, visited, node, null, subMapFactory, collection, converter,
+                            containerConverter);
                 }
             }
             else {
@@ -98,7 +138,8 @@ public class BasicTreeBuilder implements TreeBuilder {
 
                 for(int i = 0; i < length; i++) {
                     Object value = Array.get(node.inputContainer, i);
-                    processValue(value, stack, visited, node, null, subMapSupplier, collection, converter);
+                    processValue(value, stack, visited, node, null, subMapFactory, collection, converter,
+                            containerConverter);
                 }
             }
         }
@@ -112,7 +153,7 @@ public class BasicTreeBuilder implements TreeBuilder {
         Validate.notNull(raw);
         Validate.notNull(nodeSupplier);
 
-        return processMap(raw, nodeSupplier, LinkedConfigNode::new, ArrayConfigList::new, value -> {
+        return processMap(raw, nodeSupplier, this::makeSubNode, ArrayConfigList::new, value -> {
             if(value instanceof ConfigElement element) {
                 return element;
             }
@@ -120,7 +161,30 @@ public class BasicTreeBuilder implements TreeBuilder {
                 //if value is of a type unrecognized by ConfigPrimitive, an exception will be thrown
                 return new ConfigPrimitive(value);
             }
-        });
+        }, primitiveLists ? this::makePrimitiveList : value -> null);
+    }
+
+    /**
+     * Converts a single raw value into an equivalent {@link ConfigElement}. Maps, collections, and arrays are converted
+     * in the same way as they would be by {@link BasicTreeBuilder#makeNode(Map, Supplier)}; other values are wrapped
+     * in a {@link ConfigPrimitive}.
+     * @param raw the raw value to convert, which may be null
+     * @return the converted element
+     * @throws IllegalArgumentException if the value, or any value it contains, cannot be converted
+     */
+    public @NotNull ConfigElement makeElement(@Nullable Object raw) {
+        if(raw instanceof ConfigElement element) {
+            return element;
+        }
+        else if(!isContainer(raw)) {
+            return new ConfigPrimitive(raw);
+        }
+
+        //wrap the container so it can be processed like any other value, then remove the result from the wrapper node,
+        //which would otherwise stay registered as an owner of it
+        Map<String, Object> wrapper = new HashMap<>(1);
+        wrapper.put("", raw);
+        return makeNode(wrapper, LinkedConfigNode::new).remove("");
     }
 
     @Override
@@ -129,13 +193,98 @@ public class BasicTreeBuilder implements TreeBuilder {
         Validate.notNull(node);
         Validate.notNull(mapSupplier);
 
-        return processMap(node, mapSupplier, LinkedHashMap::new, ArrayList::new, value -> {
+        return processMap(node, mapSupplier, map -> new LinkedHashMap<>(), ArrayList::new, value -> {
             if(value instanceof ConfigPrimitive primitive) {
                 return primitive.getObject();
             }
             else {
                 return value;
             }
-        });
+        }, value -> null);
+    }
+
+    //most nested nodes are small, and CompactConfigNode needs far less memory for them than LinkedConfigNode
+    private @NotNull ConfigNode makeSubNode(@NotNull Map<?, ?> input) {
+        int size = input.size();
+        return size <= CompactConfigNode.THRESHOLD ? new CompactConfigNode(size) : new LinkedConfigNode();
+    }
+
+    //returns a primitive-backed list if the container is a large enough homogeneous collection or array, else null
+    private @Nullable ConfigList makePrimitiveList(@NotNull Object container) {
+        if(container instanceof int[] ints) {
+            return new IntConfigList(ints);
+        }
+        else if(container instanceof long[] longs) {
+            return new LongConfigList(longs);
+        }
+        else if(container instanceof double[] doubles) {
+            return new DoubleConfigList(doubles);
+        }
+        else if(container instanceof boolean[] booleans) {
+            return new BooleanConfigList(booleans);
+        }
+
+        Collection<?> collection;
+        if(container instanceof Collection<?> inputCollection) {
+            collection = inputCollection;
+        }
+        else if(container instanceof Object[] inputArray) {
+            collection = Arrays.asList(inputArray);
+        }
+        else {
+            return null;
+        }
+
+        if(collection.size() < PRIMITIVE_LIST_THRESHOLD) {
+            return null;
+        }
+
+        Iterator<?> iterator = collection.iterator();
+        Object first = iterator.next();
+        Class<?> type = first == null ? null : first.getClass();
+        if(type != Integer.class && type != Long.class && type != Double.class && type != Boolean.class) {
+            return null;
+        }
+
+        while(iterator.hasNext()) {
+            Object next = iterator.next();
+            if(next == null || next.getClass() != type) {
+                return null;
+            }
+        }
+
+        int i = 0;
+        if(type == Integer.class) {
+            int[] values = new int[collection.size()];
+            for(Object value : collection) {
+                values[i++] = (Integer) value;
+            }
+
+            return new IntConfigList(values);
+        }
+        else if(type == Long.class) {
+            long[] values = new long[collection.size()];
+            for(Object value : collection) {
+                values[i++] = (Long) value;
+            }
+
+            return new LongConfigList(values);
+        }
+        else if(type == Double.class) {
+            double[] values = new double[collection.size()];
+            for(Object value : collection) {
+                values[i++] = (Double) value;
+            }
+
+            return new DoubleConfigList(values);
+        }
+        else {
+            boolean[] values = new boolean[collection.size()];
+            for(Object value : collection) {
+                values[i++] = (Boolean) value;
+            }
+
+            return new BooleanConfigList(values);
+        }
     }
 }
\ No newline at end of file
@@ -2,8 +2,12 @@ package io.github.steanky.polymer.config;
 
 import io.github.steanky.polymer.config.collection.ConfigList;
 import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.ConfigTraversal;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Spliterator;
+
 /**
  * Represents a particular value from a configuration file. More specific sub-interfaces are {@link ConfigNode} and
  * {@link ConfigList}. A direct implementation is {@link ConfigPrimitive}.
@@ -62,4 +66,49 @@ public interface ConfigElement {
      * @return the ElementType representing the type of this ConfigElement
      */
     @NotNull ElementType getType();
+
+    /**
+     * Computes a 64-bit fingerprint of the contents of this element. Elements with equal contents have equal
+     * fingerprints, and fingerprints depend only on contents, so they are stable between runs and may be persisted.
+     * Unlike {@link Object#hashCode()}, fingerprints of nodes do not depend on iteration order. Container
+     * implementations may cache their fingerprint until they, or any of their descendants, are modified.
+     *
+     * <p>This is the way to compare the contents of two trees. {@link ConfigPrimitive} is mutable and uses identity
+     * equality, so {@link Object#equals(Object)} on containers is only true if they hold the same primitive instances,
+     * and two trees decoded separately from the same data are never equal. Comparing fingerprints instead takes
+     * constant time for unmodified trees whose fingerprints are already cached.</p>
+     * @return the fingerprint of this element
+     */
+    long fingerprint();
+
+    /**
+     * Visits this element and all of its descendants in depth-first pre-order, passing each to the given visitor. The
+     * traversal itself does not create any objects for each element visited, although some containers may create
+     * their elements on access (such as primitive-backed lists, whose elements are created by
+     * {@link java.util.List#get(int)}). The tree must not contain cycles, and must not be modified during the
+     * traversal.
+     * @param visitor the visitor
+     * @return true if every element was visited, false if the visitor stopped the traversal early
+     */
+    default boolean traverse(@NotNull ConfigVisitor visitor) {
+        return ConfigTraversal.traverse(this, visitor);
+    }
+
+    /**
+     * Creates a {@link Spliterator} over this element and all of its descendants, each paired with its path relative
+     * to this element, in depth-first pre-order. The spliterator can be split so that large trees may be processed in
+     * parallel; see {@link ConfigNode#parallelStream()}. The tree must not contain cycles, and must not be modified
+     * while the spliterator is in use.
+     * @return a new spliterator, whose first entry is this element with the root path
+     */
+    default @NotNull Spliterator<TreeEntry> treeSpliterator() {
+        return ConfigTraversal.spliterator(this);
+    }
+
+    /**
+     * Discards any information this element has cached about its contents, such as hashes. Elements call this on
+     * the containers that hold them whenever they change, so it should not normally need to be called directly.
+     */
+    @ApiStatus.Internal
+    default void invalidateCache() {}
 }
@@ -15,4 +15,13 @@ public class ConfigParseException extends IOException {
     public ConfigParseException(Throwable throwable) {
         super(throwable);
     }
+
+    /**
+     * Creates a new ConfigParseException with a message describing the problem. This is used by codecs that parse
+     * input themselves, rather than delegating to a third-party library.
+     * @param message the message describing why parsing failed
+     */
+    public ConfigParseException(String message) {
+        super(message);
+    }
 }
@@ -0,0 +1,161 @@
+package io.github.steanky.polymer.config;
+
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * <p>An immutable path from the root of a configuration tree to one of its elements. Each segment of a path is either
+ * a key, which selects an entry of a {@link io.github.steanky.polymer.config.collection.ConfigNode}, or an index,
+ * which selects an element of a {@link io.github.steanky.polymer.config.collection.ConfigList}.</p>
+ *
+ * <p>Paths are stored as a chain of segments linked to their parent, so extending a path takes constant time and
+ * paths to siblings share their common prefix.</p>
+ */
+public final class ConfigPath {
+    private static final ConfigPath ROOT = new ConfigPath(null, null, -1);
+
+    private final ConfigPath parent;
+    private final String key;
+    private final int index;
+    private final int depth;
+
+    private ConfigPath(ConfigPath parent, String key, int index) {
+        this.parent = parent;
+        this.key = key;
+        this.index = index;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+    }
+
+    /**
+     * Returns the empty path, which refers to the root of a tree.
+     * @return the root path
+     */
+    public static @NotNull ConfigPath root() {
+        return ROOT;
+    }
+
+    /**
+     * Creates a new path by appending a key to this one.
+     * @param key the key
+     * @return the new path
+     */
+    public @NotNull ConfigPath key(@NotNull String key) {
+        return new ConfigPath(this, Validate.notNull(key), -1);
+    }
+
+    /**
+     * Creates a new path by appending a list index to this one.
+     * @param index the index
+     * @return the new path
+     * @throws IllegalArgumentException if index is negative
+     */
+    public @NotNull ConfigPath index(int index) {
+        Validate.isTrue(index >= 0, "index must not be negative");
+        return new ConfigPath(this, null, index);
+    }
+
+    /**
+     * Returns the path to the container of the element this path refers to.
+     * @return the parent path, or null if this is the root path
+     */
+    public @Nullable ConfigPath getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the key of the last segment of this path.
+     * @return the key, or null if the last segment is an index or this is the root path
+     */
+    public @Nullable String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the index of the last segment of this path.
+     * @return the index, or -1 if the last segment is a key or this is the root path
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the number of segments in this path, which is 0 for the root path.
+     * @return the depth of this path
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Determines whether this is the root path.
+     * @return true if this path has no segments, false otherwise
+     */
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj) {
+            return true;
+        }
+
+        if(!(obj instanceof ConfigPath other) || other.depth != depth) {
+            return false;
+        }
+
+        ConfigPath current = this;
+        while(current != null && current != other) {
+            if(current.index != other.index || !Objects.equals(current.key, other.key)) {
+                return false;
+            }
+
+            current = current.parent;
+            other = other.parent;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for(ConfigPath current = this; current.parent != null; current = current.parent) {
+            hash = 31 * hash + (current.key == null ? current.index : current.key.hashCode());
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns a string representation of this path, in which keys are separated by periods and indices are enclosed
+     * in square brackets; for example, {@code servers[2].name}. The root path is represented by an empty string.
+     * @return a string representation of this path
+     */
+    @Override
+    public String toString() {
+        ConfigPath[] segments = new ConfigPath[depth];
+        for(ConfigPath current = this; current.parent != null; current = current.parent) {
+            segments[current.depth - 1] = current;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for(ConfigPath segment : segments) {
+            if(segment.key == null) {
+                builder.append('[').append(segment.index).append(']');
+            }
+            else {
+                if(segment.depth > 1) {
+                    builder.append('.');
+                }
+
+                builder.append(segment.key);
+            }
+        }
+
+        return builder.toString();
+    }
+}
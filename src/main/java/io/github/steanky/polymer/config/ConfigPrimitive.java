@@ -1,5 +1,7 @@
 package io.github.steanky.polymer.config;
 
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -9,10 +11,22 @@ import org.jetbrains.annotations.Nullable;
  * char (and with the addition of String) are compatible. The exclusion of char is due to the inconsistent support for
  * primitive characters in some config formats; for example, many will use single-character strings rather than proper
  * chars.
+ *
+ * <p>Since ConfigPrimitive is mutable, it uses identity equality, so that changing the wrapped object does not corrupt
+ * hash-based collections holding it. Use {@link ConfigPrimitive#fingerprint()} to compare contents.</p>
+ *
+ * <p>Subclasses may defer creating the wrapped object until it is first needed, by using
+ * {@link ConfigPrimitive#ConfigPrimitive(ElementType)} and overriding {@link ConfigPrimitive#decode()}. This lets
+ * codecs avoid decoding values which are never read.</p>
  */
 public class ConfigPrimitive implements ConfigElement {
+    //marks an object that has not been decoded yet
+    private static final Object UNDECODED = new Object();
+
     private Object object;
     private ElementType type;
+    //the containers holding this primitive, as maintained by ElementHashing
+    private Object owners;
 
     /**
      * Creates a new ConfigPrimitive instance wrapping the provided {@link Object}. The object may only subclass one of
@@ -26,6 +40,42 @@ public class ConfigPrimitive implements ConfigElement {
         this.object = object;
     }
 
+    /**
+     * Creates a new ConfigPrimitive of the given type, whose object will be created by {@link ConfigPrimitive#decode()}
+     * the first time it is needed.
+     * @param type the type of the object that will be decoded, which may not be {@link ElementType#NODE} or
+     *             {@link ElementType#ARRAY}
+     * @throws IllegalArgumentException if type is not a primitive type
+     */
+    protected ConfigPrimitive(@NotNull ElementType type) {
+        Validate.isTrue(type != ElementType.NODE && type != ElementType.ARRAY, "type must be primitive");
+        this.type = type;
+        this.object = UNDECODED;
+    }
+
+    /**
+     * Decodes the object wrapped by this ConfigPrimitive, for primitives created using
+     * {@link ConfigPrimitive#ConfigPrimitive(ElementType)}. The result is remembered, so this is normally only called
+     * the first time the object is needed, and never if {@link ConfigPrimitive#setObject(Object)} is called first. The
+     * result must match the type given at construction. Since primitives are not thread-safe, concurrent first reads
+     * may decode the object more than once, so this method should not have side effects.
+     * @return the decoded object
+     * @throws UnsupportedOperationException if this primitive was not created lazily
+     */
+    protected @Nullable Object decode() {
+        throw new UnsupportedOperationException("this primitive was not created lazily");
+    }
+
+    private Object object() {
+        Object object = this.object;
+        if(object == UNDECODED) {
+            object = decode();
+            this.object = object;
+        }
+
+        return object;
+    }
+
     private static ElementType getType(Object object) {
         if (object instanceof String) {
             return ElementType.STRING;
@@ -47,7 +97,7 @@ public class ConfigPrimitive implements ConfigElement {
 
     private <T> T convert(ElementType elementType, Class<T> classType) {
         if(type == elementType) {
-            return classType.cast(object);
+            return classType.cast(object());
         }
 
         throw new IllegalStateException("element may not be converted to a " + classType.getSimpleName());
@@ -78,7 +128,7 @@ public class ConfigPrimitive implements ConfigElement {
      * @return The object wrapped by this ConfigPrimitive, or null
      */
     public @Nullable Object getObject() {
-        return object;
+        return object();
     }
 
     /**
@@ -89,5 +139,30 @@ public class ConfigPrimitive implements ConfigElement {
     public void setObject(@Nullable Object object) {
         this.type = getType(object);
         this.object = object;
+        ElementHashing.invalidateOwners(owners);
+    }
+
+    /**
+     * Records that a container holds this primitive, so that its cached fingerprints can be invalidated when this
+     * primitive's value changes.
+     * @param owner the container
+     */
+    @ApiStatus.Internal
+    public void addOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.addOwner(owners, owner);
+    }
+
+    /**
+     * Records that a container no longer holds this primitive.
+     * @param owner the container
+     */
+    @ApiStatus.Internal
+    public void removeOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.removeOwner(owners, owner);
+    }
+
+    @Override
+    public long fingerprint() {
+        return ElementHashing.primitive(object());
     }
-}
\ No newline at end of file
+}
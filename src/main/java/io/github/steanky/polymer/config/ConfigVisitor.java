@@ -0,0 +1,43 @@
+package io.github.steanky.polymer.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Receives the elements of a configuration tree, in depth-first pre-order, during a call to
+ * {@link ConfigElement#traverse(ConfigVisitor)}. Rather than a {@link ConfigPath}, each call receives only the last
+ * segment of the element's path and its depth, so that no objects need to be created for each element visited.
+ * Visitors that need complete paths can maintain them using the depth.
+ */
+@FunctionalInterface
+public interface ConfigVisitor {
+    /**
+     * Determines how a traversal proceeds after visiting an element.
+     */
+    enum Result {
+        /**
+         * Continue the traversal, including the children of the element if it is a container.
+         */
+        CONTINUE,
+
+        /**
+         * Continue the traversal, but skip the children of the element.
+         */
+        SKIP_CHILDREN,
+
+        /**
+         * End the traversal immediately.
+         */
+        STOP
+    }
+
+    /**
+     * Visits a single element.
+     * @param element the element
+     * @param key the key of the element in its parent node, or null if its parent is a list or it is the root
+     * @param index the index of the element in its parent list, or -1 if its parent is a node or it is the root
+     * @param depth the depth of the element, which is 0 for the root
+     * @return how the traversal should proceed
+     */
+    @NotNull Result visit(@NotNull ConfigElement element, @Nullable String key, int index, int depth);
+}
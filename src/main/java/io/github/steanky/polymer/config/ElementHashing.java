@@ -0,0 +1,209 @@
+package io.github.steanky.polymer.config;
+
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static utilities shared by {@link ConfigElement} implementations for computing fingerprints, and for tracking the
+ * containers ("owners") that hold an element, so that the hashes they cache can be invalidated when the element
+ * changes. Fingerprints are computed using only the contents of elements, so they are stable between runs.
+ */
+@ApiStatus.Internal
+public final class ElementHashing {
+    private static final long NULL_SEED = 0x6A09E667F3BCC908L;
+    private static final long FALSE_SEED = 0xBB67AE8584CAA73BL;
+    private static final long TRUE_SEED = 0x3C6EF372FE94F82BL;
+    private static final long INTEGER_SEED = 0xA54FF53A5F1D36F1L;
+    private static final long FLOAT_SEED = 0x510E527FADE682D1L;
+    private static final long STRING_SEED = 0x9B05688C2B3E6C1FL;
+    private static final long OTHER_SEED = 0x1F83D9ABFB41BD6BL;
+    private static final long NODE_SEED = 0x5BE0CD19137E2179L;
+
+    /**
+     * The initial value used when computing the fingerprint of a list. Each element is then added using
+     * {@link ElementHashing#combine(long, long)}, with the current value as the first argument.
+     */
+    public static final long LIST_START = 0xCBBB9D5DC1059ED8L;
+
+    private ElementHashing() {}
+
+    private static long scramble(long value) {
+        //finalizer from MurmurHash3, which spreads every input bit across the whole output
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Combines two fingerprints. The result depends on the order of the arguments.
+     * @param first the first fingerprint
+     * @param second the second fingerprint
+     * @return the combined fingerprint
+     */
+    public static long combine(long first, long second) {
+        return scramble(first * 0x9E3779B97F4A7C15L + second);
+    }
+
+    private static long string(String string) {
+        long hash = STRING_SEED;
+        for(int i = 0; i < string.length(); i++) {
+            hash = (hash ^ string.charAt(i)) * 0x100000001B3L;
+        }
+
+        return scramble(hash + string.length());
+    }
+
+    /**
+     * Computes the fingerprint of a value that may be wrapped by a {@link ConfigPrimitive}. All integral numbers with
+     * the same value have the same fingerprint regardless of their type, as do all floating-point numbers.
+     * @param object the value
+     * @return the fingerprint of the value
+     */
+    public static long primitive(@Nullable Object object) {
+        if(object == null) {
+            return NULL_SEED;
+        }
+        else if(object instanceof String string) {
+            return string(string);
+        }
+        else if(object instanceof Boolean bool) {
+            return bool ? TRUE_SEED : FALSE_SEED;
+        }
+        else if(object instanceof Long || object instanceof Integer || object instanceof Short ||
+                object instanceof Byte) {
+            return combine(INTEGER_SEED, ((Number) object).longValue());
+        }
+        else if(object instanceof Double || object instanceof Float) {
+            return combine(FLOAT_SEED, Double.doubleToLongBits(((Number) object).doubleValue()));
+        }
+
+        return combine(OTHER_SEED, string(object.toString()));
+    }
+
+    /**
+     * Computes the contribution of a single entry to the fingerprint of a node.
+     * @param key the key of the entry
+     * @param valueFingerprint the fingerprint of the value of the entry
+     * @return the fingerprint of the entry
+     */
+    public static long entry(@NotNull String key, long valueFingerprint) {
+        return combine(string(key), valueFingerprint);
+    }
+
+    /**
+     * Computes the fingerprint of a node from the sum of the fingerprints of its entries (computed using
+     * {@link ElementHashing#entry(String, long)}), which makes it independent of iteration order.
+     * @param entrySum the sum of the fingerprints of every entry
+     * @param size the number of entries
+     * @return the fingerprint of the node
+     */
+    public static long node(long entrySum, int size) {
+        return combine(combine(NODE_SEED, size), entrySum);
+    }
+
+    /**
+     * Computes the fingerprint of a node by computing the fingerprint of each of its entries, without caching.
+     * @param node the node
+     * @return the fingerprint of the node
+     */
+    public static long node(@NotNull Map<String, ? extends ConfigElement> node) {
+        long sum = 0;
+        for(Map.Entry<String, ? extends ConfigElement> entry : node.entrySet()) {
+            sum += entry(entry.getKey(), entry.getValue().fingerprint());
+        }
+
+        return node(sum, node.size());
+    }
+
+    /**
+     * Computes the fingerprint of a list by computing the fingerprint of each of its elements, without caching.
+     * @param list the list
+     * @return the fingerprint of the list
+     */
+    public static long list(@NotNull List<? extends ConfigElement> list) {
+        long fingerprint = LIST_START;
+        for(ConfigElement element : list) {
+            fingerprint = combine(fingerprint, element.fingerprint());
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Adds an owner to a set of owners. Since most elements are held by a single container, a set containing one owner
+     * is represented by the owner itself, and only larger sets use an array. The same owner may be added more than
+     * once, if it holds the element more than once.
+     * @param owners the current owners, or null if there are none
+     * @param owner the owner to add
+     * @return the new set of owners
+     */
+    public static @NotNull Object addOwner(@Nullable Object owners, @NotNull ConfigElement owner) {
+        Validate.notNull(owner);
+
+        if(owners == null) {
+            return owner;
+        }
+        else if(owners instanceof ConfigElement single) {
+            return new ConfigElement[] {single, owner};
+        }
+
+        ConfigElement[] array = (ConfigElement[]) owners;
+        ConfigElement[] newOwners = Arrays.copyOf(array, array.length + 1);
+        newOwners[array.length] = owner;
+        return newOwners;
+    }
+
+    /**
+     * Removes one occurrence of an owner from a set of owners created by
+     * {@link ElementHashing#addOwner(Object, ConfigElement)}.
+     * @param owners the current owners, or null if there are none
+     * @param owner the owner to remove
+     * @return the new set of owners, which is null if there are none left
+     */
+    public static @Nullable Object removeOwner(@Nullable Object owners, @NotNull ConfigElement owner) {
+        if(owners == owner) {
+            return null;
+        }
+        else if(owners instanceof ConfigElement[] array) {
+            for(int i = 0; i < array.length; i++) {
+                if(array[i] == owner) {
+                    if(array.length == 2) {
+                        return array[1 - i];
+                    }
+
+                    ConfigElement[] newOwners = new ConfigElement[array.length - 1];
+                    System.arraycopy(array, 0, newOwners, 0, i);
+                    System.arraycopy(array, i + 1, newOwners, i, array.length - i - 1);
+                    return newOwners;
+                }
+            }
+        }
+
+        return owners;
+    }
+
+    /**
+     * Invalidates the caches of every owner in a set of owners created by
+     * {@link ElementHashing#addOwner(Object, ConfigElement)}.
+     * @param owners the owners, or null if there are none
+     */
+    public static void invalidateOwners(@Nullable Object owners) {
+        if(owners instanceof ConfigElement single) {
+            single.invalidateCache();
+        }
+        else if(owners instanceof ConfigElement[] array) {
+            for(ConfigElement owner : array) {
+                owner.invalidateCache();
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.steanky.polymer.config;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An element of a configuration tree, together with its path from the root of the tree.
+ * @param path the path to the element
+ * @param element the element
+ */
+public record TreeEntry(@NotNull ConfigPath path, @NotNull ConfigElement element) {}
@@ -0,0 +1,735 @@
+package io.github.steanky.polymer.config.binary;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigParseException;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.ElementType;
+import io.github.steanky.polymer.config.collection.*;
+import io.netty.buffer.ByteBuf;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * <p>Serializes {@link ConfigElement} trees to and from a compact binary format, intended for sending configuration
+ * over the network. Integers are written as variable-length quantities, strings as length-prefixed UTF-8, and
+ * primitive-backed lists (such as {@link IntConfigList}) as packed arrays. Both {@link ByteBuffer} and Netty's
+ * {@link ByteBuf} are supported.</p>
+ *
+ * <p>In addition to full trees, this class can encode the difference between two versions of the same tree as a
+ * <i>delta</i>, which contains only the paths that have changed. The receiver applies the delta to its copy of the
+ * previous version using {@link BinaryConfigSerializer#applyDelta(ConfigElement, ByteBuffer)}. The sender must keep
+ * an unmodified copy of whatever it last sent in order to compute the next delta; {@link
+ * BinaryConfigSerializer#snapshot(ConfigElement)} can be used to create one.</p>
+ *
+ * <p>Integer numbers are decoded as Integer (if they were written as Byte, Short or Integer) or Long. Floating point
+ * numbers are decoded as Float or Double. Other Number implementations are not supported. Nodes are decoded as
+ * {@link LinkedConfigNode}, lists as {@link ArrayConfigList} or the corresponding primitive-backed list.</p>
+ */
+public final class BinaryConfigSerializer {
+    private static final int INITIAL_CAPACITY = 256;
+
+    //element tags
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte FLOAT = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte STRING = 7;
+    private static final byte NODE = 8;
+    private static final byte LIST = 9;
+    private static final byte INT_LIST = 10;
+    private static final byte LONG_LIST = 11;
+    private static final byte DOUBLE_LIST = 12;
+    private static final byte BOOLEAN_LIST = 13;
+
+    //delta operations
+    private static final byte SET = 0;
+    private static final byte REMOVE = 1;
+
+    //path segment tags
+    private static final byte KEY = 0;
+    private static final byte INDEX = 1;
+
+    private interface Sink {
+        void put(byte value);
+
+        void put(byte[] bytes);
+    }
+
+    private interface Source {
+        byte get();
+
+        void get(byte[] bytes);
+
+        int remaining();
+    }
+
+    //a ByteBuffer sink which grows as necessary
+    private static final class BufferSink implements Sink {
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+        private void ensureRemaining(int count) {
+            if(buffer.remaining() < count) {
+                ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+                        buffer.position() + count));
+                buffer.flip();
+                newBuffer.put(buffer);
+                buffer = newBuffer;
+            }
+        }
+
+        @Override
+        public void put(byte value) {
+            ensureRemaining(1);
+            buffer.put(value);
+        }
+
+        @Override
+        public void put(byte[] bytes) {
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private record BufferSource(ByteBuffer buffer) implements Source {
+        @Override
+        public byte get() {
+            return buffer.get();
+        }
+
+        @Override
+        public void get(byte[] bytes) {
+            buffer.get(bytes);
+        }
+
+        @Override
+        public int remaining() {
+            return buffer.remaining();
+        }
+    }
+
+    private record ByteBufSink(ByteBuf buf) implements Sink {
+        @Override
+        public void put(byte value) {
+            buf.writeByte(value);
+        }
+
+        @Override
+        public void put(byte[] bytes) {
+            buf.writeBytes(bytes);
+        }
+    }
+
+    private record ByteBufSource(ByteBuf buf) implements Source {
+        @Override
+        public byte get() {
+            return buf.readByte();
+        }
+
+        @Override
+        public void get(byte[] bytes) {
+            buf.readBytes(bytes);
+        }
+
+        @Override
+        public int remaining() {
+            return buf.readableBytes();
+        }
+    }
+
+    private BinaryConfigSerializer() {}
+
+    /**
+     * Encodes an element tree into a new buffer.
+     * @param element the root of the tree
+     * @return a buffer containing the encoded tree, positioned at the start of the data
+     * @throws IllegalArgumentException if the tree contains itself, or a number of an unsupported type
+     */
+    public static @NotNull ByteBuffer encode(@NotNull ConfigElement element) {
+        Validate.notNull(element);
+
+        BufferSink sink = new BufferSink();
+        new Encoder(sink).element(element);
+        return sink.buffer.flip();
+    }
+
+    /**
+     * Encodes an element tree, appending it to the given Netty buffer.
+     * @param element the root of the tree
+     * @param buf the buffer to write to
+     * @throws IllegalArgumentException if the tree contains itself, or a number of an unsupported type
+     */
+    public static void encode(@NotNull ConfigElement element, @NotNull ByteBuf buf) {
+        Validate.notNull(element);
+        Validate.notNull(buf);
+
+        new Encoder(new ByteBufSink(buf)).element(element);
+    }
+
+    /**
+     * Decodes an element tree from a buffer, advancing its position past the encoded data.
+     * @param buffer the buffer to read from
+     * @return the decoded tree
+     * @throws ConfigParseException if the data is malformed
+     */
+    public static @NotNull ConfigElement decode(@NotNull ByteBuffer buffer) throws ConfigParseException {
+        return decode(new BufferSource(Validate.notNull(buffer)));
+    }
+
+    /**
+     * Decodes an element tree from a Netty buffer, advancing its reader index past the encoded data.
+     * @param buf the buffer to read from
+     * @return the decoded tree
+     * @throws ConfigParseException if the data is malformed
+     */
+    public static @NotNull ConfigElement decode(@NotNull ByteBuf buf) throws ConfigParseException {
+        return decode(new ByteBufSource(Validate.notNull(buf)));
+    }
+
+    private static ConfigElement decode(Source source) throws ConfigParseException {
+        try {
+            return new Decoder(source).element();
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException exception) {
+            throw new ConfigParseException(exception);
+        }
+    }
+
+    /**
+     * Creates a deep copy of an element tree, which is suitable for use as the previous version passed to
+     * {@link BinaryConfigSerializer#encodeDelta(ConfigElement, ConfigElement)}.
+     * @param element the tree to copy
+     * @return a copy of the tree
+     */
+    public static @NotNull ConfigElement snapshot(@NotNull ConfigElement element) {
+        try {
+            return decode(encode(element));
+        }
+        catch (ConfigParseException exception) {
+            //we just encoded this ourselves
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Encodes the changes needed to turn one version of a tree into another.
+     * @param previous the previous version of the tree, as it was last sent
+     * @param current the current version of the tree
+     * @return a buffer containing the encoded delta, positioned at the start of the data
+     * @throws IllegalArgumentException if the current tree contains itself, or a number of an unsupported type
+     */
+    public static @NotNull ByteBuffer encodeDelta(@NotNull ConfigElement previous, @NotNull ConfigElement current) {
+        BufferSink sink = new BufferSink();
+        encodeDelta(previous, current, sink);
+        return sink.buffer.flip();
+    }
+
+    /**
+     * Encodes the changes needed to turn one version of a tree into another, appending them to the given Netty
+     * buffer.
+     * @param previous the previous version of the tree, as it was last sent
+     * @param current the current version of the tree
+     * @param buf the buffer to write to
+     * @throws IllegalArgumentException if the current tree contains itself, or a number of an unsupported type
+     */
+    public static void encodeDelta(@NotNull ConfigElement previous, @NotNull ConfigElement current,
+                                   @NotNull ByteBuf buf) {
+        encodeDelta(previous, current, new ByteBufSink(Validate.notNull(buf)));
+    }
+
+    private static void encodeDelta(ConfigElement previous, ConfigElement current, Sink sink) {
+        Validate.notNull(previous);
+        Validate.notNull(current);
+
+        List<Operation> operations = new ArrayList<>();
+        diff(previous, current, new ArrayDeque<>(), operations);
+
+        Encoder encoder = new Encoder(sink);
+        encoder.varInt(operations.size());
+        for(Operation operation : operations) {
+            sink.put(operation.value == null ? REMOVE : SET);
+            encoder.varInt(operation.path.size());
+            for(Object segment : operation.path) {
+                if(segment instanceof String key) {
+                    sink.put(KEY);
+                    encoder.string(key);
+                }
+                else {
+                    sink.put(INDEX);
+                    encoder.varInt((Integer) segment);
+                }
+            }
+
+            if(operation.value != null) {
+                encoder.element(operation.value);
+            }
+        }
+    }
+
+    /**
+     * Applies a delta to a tree, modifying it in place where possible.
+     * @param target the tree to modify, which must be equivalent to the previous version the delta was encoded with
+     * @param delta the buffer containing the delta
+     * @return the resulting tree; this is the same object as target, unless the delta replaced the root element
+     * @throws ConfigParseException if the delta is malformed, or does not apply to the target
+     */
+    public static @NotNull ConfigElement applyDelta(@NotNull ConfigElement target, @NotNull ByteBuffer delta)
+            throws ConfigParseException {
+        return applyDelta(target, new BufferSource(Validate.notNull(delta)));
+    }
+
+    /**
+     * Applies a delta read from a Netty buffer to a tree, modifying it in place where possible.
+     * @param target the tree to modify, which must be equivalent to the previous version the delta was encoded with
+     * @param buf the buffer containing the delta
+     * @return the resulting tree; this is the same object as target, unless the delta replaced the root element
+     * @throws ConfigParseException if the delta is malformed, or does not apply to the target
+     */
+    public static @NotNull ConfigElement applyDelta(@NotNull ConfigElement target, @NotNull ByteBuf buf)
+            throws ConfigParseException {
+        return applyDelta(target, new ByteBufSource(Validate.notNull(buf)));
+    }
+
+    private static ConfigElement applyDelta(ConfigElement target, Source source) throws ConfigParseException {
+        Validate.notNull(target);
+
+        try {
+            Decoder decoder = new Decoder(source);
+            ConfigElement root = target;
+
+            int operationCount = decoder.varInt();
+            for(int i = 0; i < operationCount; i++) {
+                byte operation = source.get();
+                int depth = decoder.varInt();
+                if(depth == 0) {
+                    if(operation != SET) {
+                        throw new ConfigParseException("cannot remove the root element");
+                    }
+
+                    root = decoder.element();
+                    continue;
+                }
+
+                //navigate to the parent of the changed element
+                ConfigElement parent = root;
+                Object segment = null;
+                for(int j = 0; j < depth; j++) {
+                    if(segment != null) {
+                        parent = child(parent, segment);
+                    }
+
+                    segment = decoder.segment();
+                }
+
+                if(operation == SET) {
+                    ConfigElement value = decoder.element();
+                    if(segment instanceof String key && parent.getType().isNode()) {
+                        parent.asConfigNode().put(key, value);
+                    }
+                    else if(segment instanceof Integer index && parent.getType().isArray()) {
+                        parent.asConfigList().set(index, value);
+                    }
+                    else {
+                        throw new ConfigParseException("delta path does not match target");
+                    }
+                }
+                else if(operation == REMOVE && segment instanceof String key && parent.getType().isNode()) {
+                    parent.asConfigNode().remove(key);
+                }
+                else {
+                    throw new ConfigParseException("invalid delta operation");
+                }
+            }
+
+            return root;
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException exception) {
+            throw new ConfigParseException(exception);
+        }
+    }
+
+    private static ConfigElement child(ConfigElement parent, Object segment) throws ConfigParseException {
+        ConfigElement child = null;
+        if(segment instanceof String key && parent.getType().isNode()) {
+            child = parent.asConfigNode().get(key);
+        }
+        else if(segment instanceof Integer index && parent.getType().isArray()) {
+            child = parent.asConfigList().get(index);
+        }
+
+        if(child == null) {
+            throw new ConfigParseException("delta path does not match target");
+        }
+
+        return child;
+    }
+
+    //value is null for removals
+    private record Operation(List<Object> path, ConfigElement value) {}
+
+    private static void diff(ConfigElement previous, ConfigElement current, Deque<Object> path,
+                             List<Operation> operations) {
+        ElementType type = current.getType();
+        if(type != previous.getType()) {
+            operations.add(new Operation(List.copyOf(path), current));
+        }
+        else if(type.isNode()) {
+            ConfigNode previousNode = previous.asConfigNode();
+            ConfigNode currentNode = current.asConfigNode();
+
+            for(Map.Entry<String, ConfigElement> entry : currentNode.entrySet()) {
+                path.addLast(entry.getKey());
+
+                ConfigElement previousChild = previousNode.get(entry.getKey());
+                if(previousChild == null) {
+                    operations.add(new Operation(List.copyOf(path), entry.getValue()));
+                }
+                else {
+                    diff(previousChild, entry.getValue(), path, operations);
+                }
+
+                path.removeLast();
+            }
+
+            for(String key : previousNode.keySet()) {
+                if(!currentNode.containsKey(key)) {
+                    path.addLast(key);
+                    operations.add(new Operation(List.copyOf(path), null));
+                    path.removeLast();
+                }
+            }
+        }
+        else if(type.isArray()) {
+            ConfigList previousList = previous.asConfigList();
+            ConfigList currentList = current.asConfigList();
+
+            //lists can only be patched element-wise if their structure is unchanged
+            if(previousList.size() != currentList.size() || previousList.getClass() != currentList.getClass()) {
+                operations.add(new Operation(List.copyOf(path), current));
+                return;
+            }
+
+            for(int i = 0; i < currentList.size(); i++) {
+                path.addLast(i);
+                diff(previousList.get(i), currentList.get(i), path, operations);
+                path.removeLast();
+            }
+        }
+        else if(!primitiveEquals(previous, current)) {
+            operations.add(new Operation(List.copyOf(path), current));
+        }
+    }
+
+    private static boolean primitiveEquals(ConfigElement first, ConfigElement second) {
+        return switch (first.getType()) {
+            case STRING -> first.asString().equals(second.asString());
+            case NUMBER -> first.asNumber().equals(second.asNumber());
+            case BOOLEAN -> first.asBoolean() == second.asBoolean();
+            default -> true;
+        };
+    }
+
+    private static final class Encoder {
+        private final Sink sink;
+        private final Set<ConfigElement> active = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Encoder(Sink sink) {
+            this.sink = sink;
+        }
+
+        private void varLong(long value) {
+            while((value & ~0x7FL) != 0) {
+                sink.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+
+            sink.put((byte) value);
+        }
+
+        private void varInt(int value) {
+            varLong(value & 0xFFFFFFFFL);
+        }
+
+        private void zigZag(long value) {
+            varLong((value << 1) ^ (value >> 63));
+        }
+
+        private void fixedLong(long value) {
+            for(int shift = 56; shift >= 0; shift -= 8) {
+                sink.put((byte) (value >>> shift));
+            }
+        }
+
+        private void string(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            varInt(bytes.length);
+            sink.put(bytes);
+        }
+
+        private void element(ConfigElement element) {
+            switch (element.getType()) {
+                case NODE -> {
+                    ConfigNode node = element.asConfigNode();
+                    enter(node);
+                    sink.put(NODE);
+                    varInt(node.size());
+                    for(Map.Entry<String, ConfigElement> entry : node.entrySet()) {
+                        string(entry.getKey());
+                        element(entry.getValue());
+                    }
+                    active.remove(node);
+                }
+                case ARRAY -> list(element.asConfigList());
+                case STRING -> {
+                    sink.put(STRING);
+                    string(element.asString());
+                }
+                case NUMBER -> number(element.asNumber());
+                case BOOLEAN -> sink.put(element.asBoolean() ? TRUE : FALSE);
+                case NULL -> sink.put(NULL);
+            }
+        }
+
+        private void enter(ConfigElement container) {
+            Validate.isTrue(active.add(container), "cannot encode a container which contains itself");
+        }
+
+        private void list(ConfigList list) {
+            int size = list.size();
+            if(list instanceof IntConfigList ints) {
+                sink.put(INT_LIST);
+                varInt(size);
+                for(int i = 0; i < size; i++) {
+                    zigZag(ints.getInt(i));
+                }
+            }
+            else if(list instanceof LongConfigList longs) {
+                sink.put(LONG_LIST);
+                varInt(size);
+                for(int i = 0; i < size; i++) {
+                    zigZag(longs.getLong(i));
+                }
+            }
+            else if(list instanceof DoubleConfigList doubles) {
+                sink.put(DOUBLE_LIST);
+                varInt(size);
+                for(int i = 0; i < size; i++) {
+                    fixedLong(Double.doubleToRawLongBits(doubles.getDouble(i)));
+                }
+            }
+            else if(list instanceof BooleanConfigList booleans) {
+                sink.put(BOOLEAN_LIST);
+                varInt(size);
+
+                //eight booleans per byte
+                for(int i = 0; i < size; i += 8) {
+                    int bits = 0;
+                    for(int j = 0; j < 8 && i + j < size; j++) {
+                        if(booleans.getBoolean(i + j)) {
+                            bits |= 1 << j;
+                        }
+                    }
+
+                    sink.put((byte) bits);
+                }
+            }
+            else {
+                enter(list);
+                sink.put(LIST);
+                varInt(size);
+                for(ConfigElement element : list) {
+                    element(element);
+                }
+                active.remove(list);
+            }
+        }
+
+        private void number(Number number) {
+            if(number instanceof Integer || number instanceof Short || number instanceof Byte) {
+                sink.put(INT);
+                zigZag(number.intValue());
+            }
+            else if(number instanceof Long) {
+                sink.put(LONG);
+                zigZag(number.longValue());
+            }
+            else if(number instanceof Float) {
+                sink.put(FLOAT);
+                int bits = Float.floatToRawIntBits(number.floatValue());
+                for(int shift = 24; shift >= 0; shift -= 8) {
+                    sink.put((byte) (bits >>> shift));
+                }
+            }
+            else if(number instanceof Double) {
+                sink.put(DOUBLE);
+                fixedLong(Double.doubleToRawLongBits(number.doubleValue()));
+            }
+            else {
+                throw new IllegalArgumentException("unsupported number type " + number.getClass().getName());
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final Source source;
+
+        private Decoder(Source source) {
+            this.source = source;
+        }
+
+        private long varLong() throws ConfigParseException {
+            long value = 0;
+            for(int shift = 0; shift < 64; shift += 7) {
+                byte next = source.get();
+                value |= (long) (next & 0x7F) << shift;
+                if((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new ConfigParseException("variable-length number is too long");
+        }
+
+        private int varInt() throws ConfigParseException {
+            long value = varLong();
+            if(value < 0 || value > Integer.MAX_VALUE) {
+                throw new ConfigParseException("invalid length or index " + value);
+            }
+
+            return (int) value;
+        }
+
+        //reads the length of something whose elements each take up at least the given number of bits, rejecting lengths
+        //that could not possibly fit in the remaining input before anything is allocated
+        private int length(int minimumBits) throws ConfigParseException {
+            int length = varInt();
+            if((long) length * minimumBits > (long) source.remaining() * 8) {
+                throw new ConfigParseException("length " + length + " exceeds remaining input");
+            }
+
+            return length;
+        }
+
+        private long zigZag() throws ConfigParseException {
+            long value = varLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long fixedLong() {
+            long value = 0;
+            for(int i = 0; i < 8; i++) {
+                value = (value << 8) | (source.get() & 0xFF);
+            }
+
+            return value;
+        }
+
+        private String string() throws ConfigParseException {
+            byte[] bytes = new byte[length(8)];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private Object segment() throws ConfigParseException {
+            byte tag = source.get();
+            return switch (tag) {
+                case KEY -> string();
+                case INDEX -> varInt();
+                default -> throw new ConfigParseException("invalid path segment tag " + tag);
+            };
+        }
+
+        private ConfigElement element() throws ConfigParseException {
+            byte tag = source.get();
+            switch (tag) {
+                case NULL:
+                    return new ConfigPrimitive(null);
+                case FALSE:
+                    return new ConfigPrimitive(false);
+                case TRUE:
+                    return new ConfigPrimitive(true);
+                case INT:
+                    return new ConfigPrimitive((int) zigZag());
+                case LONG:
+                    return new ConfigPrimitive(zigZag());
+                case FLOAT: {
+                    int bits = 0;
+                    for(int i = 0; i < 4; i++) {
+                        bits = (bits << 8) | (source.get() & 0xFF);
+                    }
+
+                    return new ConfigPrimitive(Float.intBitsToFloat(bits));
+                }
+                case DOUBLE:
+                    return new ConfigPrimitive(Double.longBitsToDouble(fixedLong()));
+                case STRING:
+                    return new ConfigPrimitive(string());
+                case NODE: {
+                    int size = length(8);
+                    ConfigNode node = new LinkedConfigNode();
+                    for(int i = 0; i < size; i++) {
+                        String key = string();
+                        node.put(key, element());
+                    }
+
+                    return node;
+                }
+                case LIST: {
+                    int size = length(8);
+                    ConfigList list = new ArrayConfigList();
+                    for(int i = 0; i < size; i++) {
+                        list.add(element());
+                    }
+
+                    return list;
+                }
+                case INT_LIST: {
+                    int[] values = new int[length(8)];
+                    for(int i = 0; i < values.length; i++) {
+                        values[i] = (int) zigZag();
+                    }
+
+                    return new IntConfigList(values);
+                }
+                case LONG_LIST: {
+                    long[] values = new long[length(8)];
+                    for(int i = 0; i < values.length; i++) {
+                        values[i] = zigZag();
+                    }
+
+                    return new LongConfigList(values);
+                }
+                case DOUBLE_LIST: {
+                    double[] values = new double[length(64)];
+                    for(int i = 0; i < values.length; i++) {
+                        values[i] = Double.longBitsToDouble(fixedLong());
+                    }
+
+                    return new DoubleConfigList(values);
+                }
+                case BOOLEAN_LIST: {
+                    boolean[] values = new boolean[length(1)];
+                    int bits = 0;
+                    for(int i = 0; i < values.length; i++) {
+                        if(i % 8 == 0) {
+                            bits = source.get();
+                        }
+
+                        values[i] = (bits & (1 << (i % 8))) != 0;
+                    }
+
+                    return new BooleanConfigList(values);
+                }
+                default:
+                    throw new ConfigParseException("invalid element tag " + tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.codec.CodecRegistry;
+import io.github.steanky.polymer.config.codec.ConfigCodec;
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * <p>A read-only {@link ConfigBridge} implementation which reads files directly out of a zip or jar archive, without
+ * extracting them first. This is useful for reading default configuration files that are bundled inside a mod
+ * jar.</p>
+ *
+ * <p>The archive is memory-mapped, and its central directory is parsed only once (during the first read) and kept for
+ * the lifetime of this object. Individual entries are decompressed and decoded using the provided {@link Executor},
+ * which may decode many entries in parallel. The resulting tree has the same structure as one produced by a
+ * {@link FilesystemBridgeAbstract} reading an equivalent extracted directory.</p>
+ *
+ * <p>Archives using ZIP64 extensions, encryption, or compression methods other than STORED and DEFLATE are not
+ * supported.</p>
+ */
+public class ArchiveConfigBridge implements ConfigBridge<FileConfigNode> {
+    /**
+     * The default entry filter, which only accepts entries whose extension has a registered codec. This mirrors
+     * {@link FilesystemBridgeAbstract#DEFAULT_READ_FILTER}.
+     */
+    public static final Predicate<String> DEFAULT_ENTRY_FILTER = name -> CodecRegistry.INSTANCE
+            .hasCodec(CodecRegistry.extension(name));
+
+    /**
+     * The default key function, whose returned keys are just the entry's name (without any extension or parent
+     * directories). This mirrors {@link FilesystemBridgeAbstract#DEFAULT_KEY_FUNCTION}.
+     */
+    public static final Function<String, String> DEFAULT_KEY_FUNCTION = CodecRegistry::baseName;
+
+    /**
+     * The default codec function, which searches the codec registry using the entry's extension. This mirrors
+     * {@link FilesystemBridgeAbstract#DEFAULT_CODEC_FUNCTION}.
+     */
+    public static final Function<String, ConfigCodec> DEFAULT_CODEC_FUNCTION = name -> CodecRegistry.INSTANCE
+            .getCodec(CodecRegistry.extension(name));
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+    private static final int END_LENGTH = 22;
+    private static final int CENTRAL_LENGTH = 46;
+    private static final int LOCAL_LENGTH = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private final Path archive;
+    private final String root;
+    private final Predicate<String> entryFilter;
+    private final Function<String, ConfigCodec> codecFunction;
+    private final Function<String, String> keyFunction;
+    private final Executor executor;
+
+    private volatile Index index;
+
+    private record Entry(String name, int method, int compressedSize, int uncompressedSize, int headerOffset) {}
+
+    private record Index(ByteBuffer buffer, List<Entry> entries) {}
+
+    /**
+     * Creates a new ArchiveConfigBridge.
+     * @param archive the path to the zip or jar file
+     * @param root the directory (or single file) within the archive to read from, using forward slashes as
+     *             separators; the empty string refers to the root of the archive
+     * @param entryFilter the filter used to determine which file entries are read, or null to read every file entry
+     * @param codecFunction the function used to determine the codec for a given entry name
+     * @param keyFunction the function used to determine the key for a given file or directory name
+     * @param executor the executor used to decompress and decode entries
+     */
+    public ArchiveConfigBridge(@NotNull Path archive,
+                               @NotNull String root,
+                               @Nullable Predicate<String> entryFilter,
+                               @NotNull Function<String, ConfigCodec> codecFunction,
+                               @NotNull Function<String, String> keyFunction,
+                               @NotNull Executor executor) {
+        this.archive = Validate.notNull(archive);
+        this.root = normalizeRoot(Validate.notNull(root));
+        this.entryFilter = entryFilter;
+        this.codecFunction = Validate.notNull(codecFunction);
+        this.keyFunction = Validate.notNull(keyFunction);
+        this.executor = Validate.notNull(executor);
+    }
+
+    /**
+     * Creates a new ArchiveConfigBridge using the default filter, codec function, and key function, which decodes
+     * entries using the provided executor.
+     * @param archive the path to the zip or jar file
+     * @param root the directory (or single file) within the archive to read from
+     * @param executor the executor used to decompress and decode entries
+     */
+    public ArchiveConfigBridge(@NotNull Path archive, @NotNull String root, @NotNull Executor executor) {
+        this(archive, root, DEFAULT_ENTRY_FILTER, DEFAULT_CODEC_FUNCTION, DEFAULT_KEY_FUNCTION, executor);
+    }
+
+    /**
+     * Creates a new ArchiveConfigBridge using the default filter, codec function, and key function, which decodes
+     * all entries synchronously on the thread calling {@link ArchiveConfigBridge#read()}.
+     * @param archive the path to the zip or jar file
+     * @param root the directory (or single file) within the archive to read from
+     */
+    public ArchiveConfigBridge(@NotNull Path archive, @NotNull String root) {
+        this(archive, root, Runnable::run);
+    }
+
+    private static String normalizeRoot(String root) {
+        String normalized = root.replace('\\', '/');
+        while(normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+
+        return normalized;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the root of this bridge is a single file entry which is rejected by the entry filter, the returned future
+     * completes with null. If a file entry and a directory map to the same key (for example, {@code a.json} and
+     * {@code a/b.json} using the default key function), the returned future completes exceptionally with an
+     * {@link IOException}.</p>
+     */
+    @Override
+    public @NotNull Future<FileConfigNode> read() throws IOException {
+        Index index = getIndex();
+
+        String directoryPrefix = root.isEmpty() || root.endsWith("/") ? root : root + "/";
+        List<Entry> selected = new ArrayList<>();
+        for(Entry entry : index.entries) {
+            String name = entry.name;
+            if(name.equals(root) && !root.isEmpty() && !root.endsWith("/")) {
+                //root refers to a single file, so read only that file and nothing else, if the filter accepts it
+                return entryFilter == null || entryFilter.test(name) ? decodeAsync(index, entry) :
+                        CompletableFuture.completedFuture(null);
+            }
+
+            if(name.startsWith(directoryPrefix) && !name.endsWith("/") && (entryFilter == null ||
+                    entryFilter.test(name))) {
+                selected.add(entry);
+            }
+        }
+
+        List<CompletableFuture<FileConfigNode>> futures = new ArrayList<>(selected.size());
+        for(Entry entry : selected) {
+            futures.add(decodeAsync(index, entry));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            FileConfigNode rootNode = new FileConfigNode();
+            for(int i = 0; i < selected.size(); i++) {
+                String name = selected.get(i).name;
+                putFile(rootNode, name.substring(directoryPrefix.length()), futures.get(i).join(), keyFunction,
+                        "entry " + name + " in archive " + archive);
+            }
+
+            return rootNode;
+        });
+    }
+
+    /**
+     * Puts a decoded file into a tree of directory nodes at the given relative path (using forward slashes as
+     * separators), creating any missing directory nodes. Shared with {@link HttpConfigBridge}, which builds its tree
+     * from a list of paths in the same way.
+     * @throws CompletionException wrapping an {@link IOException} if a file and a directory map to the same key, since
+     * they cannot both be represented in the tree
+     */
+    static void putFile(@NotNull FileConfigNode root, @NotNull String path, @NotNull FileConfigNode file,
+                        @NotNull Function<String, String> keyFunction, @NotNull String source) {
+        String[] parts = path.split("/");
+
+        FileConfigNode current = root;
+        for(int i = 0; i < parts.length - 1; i++) {
+            String key = keyFunction.apply(parts[i]);
+            ConfigElement child = current.get(key);
+            if(child == null) {
+                FileConfigNode directory = new FileConfigNode();
+                current.put(key, directory);
+                current = directory;
+            }
+            else if(child instanceof FileConfigNode directory && directory.isDirectory()) {
+                current = directory;
+            }
+            else {
+                throw conflict(source, key);
+            }
+        }
+
+        String key = keyFunction.apply(parts[parts.length - 1]);
+        if(current.get(key) instanceof FileConfigNode existing && existing.isDirectory()) {
+            throw conflict(source, key);
+        }
+
+        current.put(key, file);
+    }
+
+    private static CompletionException conflict(String source, String key) {
+        return new CompletionException(new IOException(source + " conflicts with a file or directory with key " +
+                key));
+    }
+
+    @Override
+    public @NotNull Future<Void> write(@NotNull FileConfigNode node) {
+        throw new IllegalStateException("archives are read-only");
+    }
+
+    @Override
+    public @NotNull Future<Void> writeSubtree(@NotNull FileConfigNode node, @NotNull String... path) {
+        throw new IllegalStateException("archives are read-only");
+    }
+
+    @Override
+    public boolean readOnly() {
+        return true;
+    }
+
+    private CompletableFuture<FileConfigNode> decodeAsync(Index index, Entry entry) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return decode(index, entry);
+            }
+            catch (IOException exception) {
+                throw new CompletionException(exception);
+            }
+        }, executor);
+    }
+
+    private FileConfigNode decode(Index index, Entry entry) throws IOException {
+        ConfigCodec codec = codecFunction.apply(entry.name);
+        if(codec == null) {
+            //couldn't find a codec to decode this entry, users should filter out entries they can't read
+            throw new IllegalArgumentException("unable to find a codec for entry " + entry.name);
+        }
+
+        ByteBuffer buffer = index.buffer;
+        int headerOffset = entry.headerOffset;
+        if(buffer.getInt(headerOffset) != LOCAL_SIGNATURE) {
+            throw new IOException("invalid local header for entry " + entry.name);
+        }
+
+        int dataOffset = headerOffset + LOCAL_LENGTH + Short.toUnsignedInt(buffer.getShort(headerOffset + 26)) +
+                Short.toUnsignedInt(buffer.getShort(headerOffset + 28));
+        ByteBuffer data = buffer.slice(dataOffset, entry.compressedSize);
+
+        InputStream input = switch (entry.method) {
+            case METHOD_STORED -> new ByteBufferInputStream(data);
+            case METHOD_DEFLATED -> new ByteBufferInputStream(ByteBuffer.wrap(inflate(data, entry)));
+            default -> throw new IOException("unsupported compression method " + entry.method + " for entry " +
+                    entry.name);
+        };
+
+        return codec.getBuilder().makeNode(codec.decode(input, true), () -> new FileConfigNode(codec));
+    }
+
+    private static byte[] inflate(ByteBuffer data, Entry entry) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+
+            byte[] output = new byte[entry.uncompressedSize];
+            int written = 0;
+            while(written < output.length) {
+                int count = inflater.inflate(output, written, output.length - written);
+                if(count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                written += count;
+            }
+
+            if(written != output.length) {
+                throw new IOException("unexpected end of compressed data for entry " + entry.name);
+            }
+
+            return output;
+        }
+        catch (DataFormatException exception) {
+            throw new IOException("invalid compressed data for entry " + entry.name, exception);
+        }
+        finally {
+            inflater.end();
+        }
+    }
+
+    private Index getIndex() throws IOException {
+        Index index = this.index;
+        if(index == null) {
+            synchronized (this) {
+                index = this.index;
+                if(index == null) {
+                    index = readIndex();
+                    this.index = index;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    private Index readIndex() throws IOException {
+        MappedByteBuffer mapped;
+        try(FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("archive too large: " + archive);
+            }
+
+            //the mapping remains valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        int end = findEndRecord(buffer);
+
+        int entryCount = Short.toUnsignedInt(buffer.getShort(end + 10));
+        int directoryOffset = buffer.getInt(end + 16);
+        if(entryCount == 0xFFFF || directoryOffset == -1) {
+            throw new IOException("ZIP64 archives are not supported: " + archive);
+        }
+
+        try {
+            List<Entry> entries = new ArrayList<>(entryCount);
+            int offset = directoryOffset;
+            for(int i = 0; i < entryCount; i++) {
+                if(buffer.getInt(offset) != CENTRAL_SIGNATURE) {
+                    throw new IOException("invalid central directory in archive " + archive);
+                }
+
+                int flags = Short.toUnsignedInt(buffer.getShort(offset + 8));
+                int method = Short.toUnsignedInt(buffer.getShort(offset + 10));
+                int compressedSize = buffer.getInt(offset + 20);
+                int uncompressedSize = buffer.getInt(offset + 24);
+                int nameLength = Short.toUnsignedInt(buffer.getShort(offset + 28));
+                int extraLength = Short.toUnsignedInt(buffer.getShort(offset + 30));
+                int commentLength = Short.toUnsignedInt(buffer.getShort(offset + 32));
+                int headerOffset = buffer.getInt(offset + 42);
+
+                byte[] nameBytes = new byte[nameLength];
+                buffer.get(offset + CENTRAL_LENGTH, nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+                if((flags & 1) != 0) {
+                    throw new IOException("encrypted entries are not supported: " + name);
+                }
+
+                if(compressedSize < 0 || uncompressedSize < 0 || headerOffset < 0) {
+                    throw new IOException("ZIP64 entries are not supported: " + name);
+                }
+
+                entries.add(new Entry(name, method, compressedSize, uncompressedSize, headerOffset));
+                offset += CENTRAL_LENGTH + nameLength + extraLength + commentLength;
+            }
+
+            return new Index(buffer, List.copyOf(entries));
+        }
+        catch (IndexOutOfBoundsException exception) {
+            throw new IOException("truncated central directory in archive " + archive, exception);
+        }
+    }
+
+    private int findEndRecord(ByteBuffer buffer) throws IOException {
+        int last = buffer.limit() - END_LENGTH;
+        int first = Math.max(0, last - MAX_COMMENT_LENGTH);
+
+        //the end record is followed by a variable-length comment, so search backwards for its signature
+        for(int i = last; i >= first; i--) {
+            if(buffer.getInt(i) == END_SIGNATURE) {
+                return i;
+            }
+        }
+
+        throw new IOException("not a valid zip archive: " + archive);
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+        }
+
+        @Override
+        public int read(byte @NotNull [] bytes, int offset, int length) {
+            if(length == 0) {
+                return 0;
+            }
+
+            if(!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.steanky.polymer.config.bridge;
 
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.TreeBuilder;
 import io.github.steanky.polymer.config.codec.ConfigCodec;
 import io.github.steanky.polymer.config.collection.FileConfigNode;
 import org.apache.commons.lang3.Validate;
@@ -8,22 +10,85 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Function;
 
+/**
+ * <p>A {@link FilesystemBridgeAbstract} which performs reads and writes using an {@link ExecutorService}.</p>
+ *
+ * <p>Concurrent reads of the same part of the filesystem (with no target to merge into) are coalesced: while such a
+ * read is in progress, further identical reads do not start another walk of the filesystem, but complete when the
+ * first one does. Optionally, a completed result may be reused for a short time; it is discarded whenever this bridge
+ * writes. Each caller receives its own {@link Future}, so cancelling one does not affect the others, and its own copy
+ * of the {@link FileConfigNode}, so changes made by one caller are not seen by the others. Copies are made by
+ * converting each file back into a map and rebuilding it with the builder of its codec.</p>
+ *
+ * <p>At most a fixed number of operations are submitted to the executor at once; further operations wait in a queue
+ * until one of them completes, so a burst of reads or writes cannot flood the executor. Subclasses submit their own
+ * tasks through the same limit.</p>
+ */
 public class AsyncFilesystemBridge extends FilesystemBridgeAbstract {
+    /**
+     * The default maximum number of operations that a single bridge will submit to its executor at once.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = Runtime.getRuntime().availableProcessors();
+
+    private record ReadKey(@Nullable String glob, List<String> path) {}
+
+    private record CachedRead(FileConfigNode node, long expiresAt) {}
+
+    //the callers waiting for a read which is in flight
+    private record InFlightRead(List<CompletableFuture<FileConfigNode>> callers) {}
+
     private final ExecutorService executorService;
+    private final int maxInFlight;
+    private final long resultTtl;
 
+    private final Object lock = new Object();
+    private final Map<ReadKey, InFlightRead> inFlightReads = new HashMap<>();
+    private final Map<ReadKey, CachedRead> cachedReads = new HashMap<>();
+    private final Deque<Task<?>> queued = new ArrayDeque<>();
+    private int inFlight;
+
+    //incremented when a write starts and when it completes; reads which overlapped a write are not cached
+    private long writeGeneration;
+
+    /**
+     * Creates a new AsyncFilesystemBridge.
+     * @param root the root file or directory
+     * @param readFilter the filter used to determine which files are read, or null to read every file
+     * @param codecFunction the function used to determine the codec for a given file
+     * @param fileKeyFunction the function used to determine the key for a given file or directory
+     * @param executorService the executor used to perform reads and writes
+     * @param maxInFlight the maximum number of operations submitted to the executor at once
+     * @param resultTtl how long a completed read may be reused by identical reads; zero disables reuse
+     */
     public AsyncFilesystemBridge(@NotNull Path root,
                                  @Nullable FileFilter readFilter,
                                  @NotNull Function<File, ConfigCodec> codecFunction,
                                  @NotNull Function<File, String> fileKeyFunction,
-                                 @NotNull ExecutorService executorService) {
+                                 @NotNull ExecutorService executorService,
+                                 int maxInFlight,
+                                 @NotNull Duration resultTtl) {
         super(root, readFilter, codecFunction, fileKeyFunction);
+        Validate.isTrue(maxInFlight > 0, "maxInFlight must be positive");
+        Validate.isTrue(!resultTtl.isNegative(), "resultTtl cannot be negative");
+
         this.executorService = Validate.notNull(executorService);
+        this.maxInFlight = maxInFlight;
+        this.resultTtl = resultTtl.toNanos();
+    }
+
+    public AsyncFilesystemBridge(@NotNull Path root,
+                                 @Nullable FileFilter readFilter,
+                                 @NotNull Function<File, ConfigCodec> codecFunction,
+                                 @NotNull Function<File, String> fileKeyFunction,
+                                 @NotNull ExecutorService executorService) {
+        this(root, readFilter, codecFunction, fileKeyFunction, executorService, DEFAULT_MAX_IN_FLIGHT, Duration.ZERO);
     }
 
     public AsyncFilesystemBridge(@NotNull Path root, @NotNull ExecutorService executorService) {
@@ -31,12 +96,190 @@ public class AsyncFilesystemBridge extends FilesystemBridgeAbstract {
     }
 
     @Override
-    protected Future<FileConfigNode> doReadOperation(@NotNull Callable<FileConfigNode> callable) {
-        return executorService.submit(callable);
+    public @NotNull Future<FileConfigNode> readSubtree(@Nullable FileConfigNode target, @Nullable String glob,
+                                                       @NotNull String... path) throws IOException {
+        if(target != null) {
+            //each caller has its own target, so there is nothing to share
+            return super.readSubtree(target, glob, path);
+        }
+
+        Validate.noNullElements(path);
+        ReadKey key = new ReadKey(glob, List.of(path));
+
+        CompletableFuture<FileConfigNode> caller = new CompletableFuture<>();
+        CachedRead cached;
+        synchronized (lock) {
+            InFlightRead shared = inFlightReads.get(key);
+            if(shared != null) {
+                shared.callers.add(caller);
+                return caller;
+            }
+
+            cached = cachedReads.get(key);
+            if(cached == null || System.nanoTime() - cached.expiresAt >= 0) {
+                cachedReads.remove(key);
+                startRead(key, caller, glob, path);
+                return caller;
+            }
+        }
+
+        //the cached node itself is never handed out, so it cannot have been changed
+        caller.complete(copy(cached.node));
+        return caller;
+    }
+
+    private void startRead(ReadKey key, CompletableFuture<FileConfigNode> caller, String glob, String[] path)
+            throws IOException {
+        //doReadOperation always returns a CompletableFuture
+        CompletableFuture<FileConfigNode> future = (CompletableFuture<FileConfigNode>) super.readSubtree(null, glob,
+                path);
+        long generation = writeGeneration;
+
+        InFlightRead read = new InFlightRead(new ArrayList<>(2));
+        read.callers.add(caller);
+        inFlightReads.put(key, read);
+
+        future.whenComplete((node, error) -> {
+            //callers are only completed after the read is no longer in flight, so that a caller which reads again
+            //once its future completes starts a new read (or uses the cached result) instead of joining this one
+            boolean shareable;
+            synchronized (lock) {
+                inFlightReads.remove(key, read);
+
+                //a write which started or completed during the read may have made the result stale
+                boolean cache = error == null && resultTtl > 0 && generation == writeGeneration;
+                if(cache) {
+                    cachedReads.put(key, new CachedRead(node, System.nanoTime() + resultTtl));
+                }
+
+                //no caller can join once the read is removed, so the list will not change
+                shareable = !cache && read.callers.size() == 1;
+            }
+
+            for(CompletableFuture<FileConfigNode> waiting : read.callers) {
+                if(error != null) {
+                    waiting.completeExceptionally(error);
+                }
+                else if(!waiting.isDone()) {
+                    try {
+                        //a sole caller may keep the original if it is not cached
+                        waiting.complete(shareable ? node : copy(node));
+                    }
+                    catch (RuntimeException exception) {
+                        waiting.completeExceptionally(exception);
+                    }
+                }
+            }
+        });
+    }
+
+    //copies a node read by this bridge, which only contains directories and files built by their codec
+    private static FileConfigNode copy(FileConfigNode node) {
+        if(node == null) {
+            return null;
+        }
+
+        if(!node.isDirectory()) {
+            ConfigCodec codec = node.getCodec();
+            TreeBuilder builder = codec.getBuilder();
+            return builder.makeNode(builder.makeMap(node, LinkedHashMap::new), () -> new FileConfigNode(codec));
+        }
+
+        FileConfigNode copy = new FileConfigNode();
+        for(Map.Entry<String, ConfigElement> entry : node.entrySet()) {
+            copy.put(entry.getKey(), copy((FileConfigNode) entry.getValue()));
+        }
+
+        return copy;
+    }
+
+    @Override
+    protected CompletableFuture<FileConfigNode> doReadOperation(@NotNull Callable<FileConfigNode> callable) {
+        return submit(callable);
     }
 
     @Override
-    protected Future<Void> doWriteOperation(@NotNull Callable<Void> callable) {
-        return executorService.submit(callable);
+    protected CompletableFuture<Void> doWriteOperation(@NotNull Callable<Void> callable) {
+        synchronized (lock) {
+            writeGeneration++;
+            cachedReads.clear();
+        }
+
+        return submit(callable).whenComplete((ignored, error) -> {
+            synchronized (lock) {
+                writeGeneration++;
+                cachedReads.clear();
+            }
+        });
+    }
+
+    private final class Task<T> implements Runnable {
+        private final Callable<T> callable;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Task(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            try {
+                //the future may have been cancelled while this task was queued
+                if(!future.isDone()) {
+                    future.complete(callable.call());
+                }
+            }
+            catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+            finally {
+                next();
+            }
+        }
+
+        private void reject(RejectedExecutionException exception) {
+            future.completeExceptionally(exception);
+            next();
+        }
+    }
+
+    //runs the callable on the executor once fewer than maxInFlight operations are running; if the executor rejects
+    //it, the returned future completes exceptionally with the RejectedExecutionException
+    <T> @NotNull CompletableFuture<T> submit(@NotNull Callable<T> callable) {
+        Task<T> task = new Task<>(callable);
+
+        synchronized (lock) {
+            if(inFlight == maxInFlight) {
+                queued.add(task);
+                return task.future;
+            }
+
+            inFlight++;
+        }
+
+        execute(task);
+        return task.future;
+    }
+
+    private void next() {
+        Task<?> task;
+        synchronized (lock) {
+            task = queued.poll();
+            if(task == null) {
+                inFlight--;
+                return;
+            }
+        }
+
+        execute(task);
+    }
+
+    private void execute(Task<?> task) {
+        try {
+            executorService.execute(task);
+        }
+        catch (RejectedExecutionException exception) {
+            task.reject(exception);
+        }
     }
 }
@@ -2,6 +2,7 @@ package io.github.steanky.polymer.config.bridge;
 
 import io.github.steanky.polymer.config.collection.ConfigNode;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.concurrent.Future;
@@ -32,10 +33,44 @@ public interface ConfigBridge<T extends ConfigNode> {
      */
     @NotNull Future<Void> write(@NotNull T node) throws IOException;
 
+    /**
+     * Loads only the part of this bridge's source found at the given path of keys, without touching the rest of it.
+     * The result has the same structure as the tree returned by {@link ConfigBridge#read()}, but contains only the
+     * selected part. If a target is supplied, the selected part is merged into it instead: elements which are read
+     * replace those in the target with the same key, and everything else in the target is left as-is. This allows a
+     * tree to be loaded (or reloaded) piece by piece.
+     * @param target the tree to merge into, or null to create a new tree
+     * @param glob a glob pattern (as used by {@link java.nio.file.FileSystem#getPathMatcher(String)}) which further
+     *             restricts which parts of the source are read, or null to read everything at the path. Its
+     *             interpretation is implementation-specific
+     * @param path the keys leading to the part of the source to read; if empty, everything is selected
+     * @return A {@link Future} object which will contain the tree once the selected part has been read and merged
+     * @throws IOException if an IO error occurs
+     * @throws UnsupportedOperationException if this bridge does not support reading part of its source
+     */
+    default @NotNull Future<T> readSubtree(@Nullable T target, @Nullable String glob, @NotNull String... path)
+            throws IOException {
+        throw new UnsupportedOperationException("this bridge does not support reading part of its source");
+    }
+
+    /**
+     * Writes only the part of the given tree found at the given path of keys, leaving the rest of this bridge's source
+     * untouched. The tree has the same structure as one passed to {@link ConfigBridge#write(ConfigNode)}.
+     * @param node the tree containing the part to write
+     * @param path the keys leading to the part of the tree to write; if empty, the whole tree is written
+     * @return A {@link Future} object, which may be used to query or await the completion of the write task
+     * @throws IOException if an IO error occurs
+     * @throws IllegalStateException if the bridge does not support writing at this current time
+     * @throws UnsupportedOperationException if this bridge does not support writing part of its source
+     */
+    default @NotNull Future<Void> writeSubtree(@NotNull T node, @NotNull String... path) throws IOException {
+        throw new UnsupportedOperationException("this bridge does not support writing part of its source");
+    }
+
     /**
      * Used to query if this ConfigBridge supports writes as well as reads. If this method returns true, any
      * implementation <i>must</i> immediately throw an IllegalStateException when {@link ConfigBridge#write(ConfigNode)}
-     * is invoked.
+     * or {@link ConfigBridge#writeSubtree(ConfigNode, String...)} is invoked.
      * @return true if this object is read-only (does not support writing); false otherwise
      */
     boolean readOnly();
@@ -53,11 +88,22 @@ public interface ConfigBridge<T extends ConfigNode> {
                 return ConfigBridge.this.read();
             }
 
+            @Override
+            public @NotNull Future<T> readSubtree(@Nullable T target, @Nullable String glob,
+                                                  @NotNull String... path) throws IOException {
+                return ConfigBridge.this.readSubtree(target, glob, path);
+            }
+
             @Override
             public @NotNull Future<Void> write(@NotNull T node) {
                 throw new IllegalStateException();
             }
 
+            @Override
+            public @NotNull Future<Void> writeSubtree(@NotNull T node, @NotNull String... path) {
+                throw new IllegalStateException();
+            }
+
             @Override
             public boolean readOnly() {
                 return true;
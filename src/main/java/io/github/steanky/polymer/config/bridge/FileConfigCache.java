@@ -0,0 +1,313 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigVisitor;
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>A cache of the individual files beneath the root directory of a {@link FilesystemBridgeAbstract}, which keeps the
+ * total estimated size of the decoded files within a budget. When the budget is exceeded, the least recently used
+ * files are evicted, and are transparently read again from disk the next time they are requested. This allows many
+ * files to be used without keeping all of them in memory at once.</p>
+ *
+ * <p>Files which have been modified since they were read or last saved are "dirty", and are never evicted, so unsaved
+ * changes cannot be lost; they become eligible for eviction again once they are saved using
+ * {@link FileConfigCache#save(Path)}. Modifications are detected using {@link FileConfigNode#isModified()}, so checking
+ * whether a file is dirty only reads a flag, and never walks a node which may be in use by another thread.</p>
+ *
+ * <p>Callers should not hold on to the returned nodes indefinitely: once a clean node has been evicted, changes made to
+ * it are not seen by the cache, and a later request for the same file returns a new node. This class is thread-safe,
+ * but the nodes it returns are not.</p>
+ */
+public class FileConfigCache {
+    /**
+     * A snapshot of the statistics of a cache.
+     * @param hits the number of requests which were served from the cache
+     * @param misses the number of requests which required the file to be read
+     * @param evictions the number of files which were evicted to stay within the budget
+     * @param size the number of files currently cached
+     * @param weight the total weight of the files currently cached
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long weight) {
+        /**
+         * Computes the proportion of requests which were served from the cache.
+         * @return the hit rate, between 0 and 1 (inclusive), or 1 if there have been no requests
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1 : (double)hits / requests;
+        }
+    }
+
+    /**
+     * The default weigher, which roughly estimates the number of bytes of heap used by a decoded file.
+     */
+    public static final ToLongFunction<FileConfigNode> DEFAULT_WEIGHER = FileConfigCache::estimateSize;
+
+    //approximate costs, in bytes, of an element, a map entry or list slot, and a string
+    private static final long ELEMENT_OVERHEAD = 48;
+    private static final long ENTRY_OVERHEAD = 40;
+    private static final long STRING_OVERHEAD = 40;
+
+    private static final class Entry {
+        private final FileConfigNode node;
+        private long weight;
+
+        private Entry(FileConfigNode node, long weight) {
+            this.node = node;
+            this.weight = weight;
+        }
+
+        private boolean isDirty() {
+            return node.isModified();
+        }
+    }
+
+    private final FilesystemBridgeAbstract bridge;
+    private final long maximumWeight;
+    private final ToLongFunction<FileConfigNode> weigher;
+
+    //get moves entries to the end, so iteration starts at the least recently used file; other lookups leave the order
+    //alone, so that checking or saving a file does not count as using it
+    private final Map<Path, Entry> entries = new LinkedHashMap<>();
+    private final Object lock = new Object();
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a new FileConfigCache.
+     * @param bridge the bridge whose files should be cached; its root must be a directory
+     * @param maximumWeight the maximum total weight of the cached files
+     * @param weigher the function used to determine the weight of a file, which must not be negative
+     */
+    public FileConfigCache(@NotNull FilesystemBridgeAbstract bridge, long maximumWeight,
+                           @NotNull ToLongFunction<FileConfigNode> weigher) {
+        Validate.isTrue(maximumWeight >= 0, "maximumWeight cannot be negative");
+
+        this.bridge = Validate.notNull(bridge);
+        this.maximumWeight = maximumWeight;
+        this.weigher = Validate.notNull(weigher);
+    }
+
+    /**
+     * Creates a new FileConfigCache which limits the estimated size of the cached files using
+     * {@link FileConfigCache#DEFAULT_WEIGHER}.
+     * @param bridge the bridge whose files should be cached; its root must be a directory
+     * @param maximumBytes the maximum estimated size of the cached files, in bytes
+     */
+    public FileConfigCache(@NotNull FilesystemBridgeAbstract bridge, long maximumBytes) {
+        this(bridge, maximumBytes, DEFAULT_WEIGHER);
+    }
+
+    /**
+     * Creates a new FileConfigCache which limits the number of cached files.
+     * @param bridge the bridge whose files should be cached; its root must be a directory
+     * @param maximumEntries the maximum number of cached files
+     * @return a new FileConfigCache
+     */
+    public static @NotNull FileConfigCache withMaximumEntries(@NotNull FilesystemBridgeAbstract bridge,
+                                                              int maximumEntries) {
+        return new FileConfigCache(bridge, maximumEntries, node -> 1);
+    }
+
+    /**
+     * Roughly estimates the number of bytes of heap used by the given element and all of its descendants.
+     * @param element the element to estimate
+     * @return the estimated size of the element
+     */
+    public static long estimateSize(@NotNull ConfigElement element) {
+        long[] size = new long[1];
+        element.traverse((child, key, index, depth) -> {
+            size[0] += ELEMENT_OVERHEAD;
+            if(depth > 0) {
+                size[0] += key != null ? ENTRY_OVERHEAD + STRING_OVERHEAD + key.length() : ENTRY_OVERHEAD;
+            }
+
+            if(child.getType().isString()) {
+                size[0] += STRING_OVERHEAD + child.asString().length();
+            }
+
+            return ConfigVisitor.Result.CONTINUE;
+        });
+
+        return size[0];
+    }
+
+    private Path resolve(Path file) {
+        Validate.notNull(file);
+
+        Path normalized = file.normalize();
+        Validate.isTrue(!normalized.isAbsolute() && !normalized.toString().isEmpty() && !normalized.startsWith(".."),
+                "file must be a path relative to, and beneath, the root of the bridge");
+        return normalized;
+    }
+
+    /**
+     * Gets the decoded contents of a file, reading it from disk if it is not cached.
+     * @param file the path of the file, relative to the root of the bridge
+     * @return the decoded file
+     * @throws IOException if the file is not cached and cannot be read
+     * @throws IllegalArgumentException if file is absolute, or not beneath the root of the bridge
+     */
+    public @NotNull FileConfigNode get(@NotNull Path file) throws IOException {
+        Path key = resolve(file);
+
+        synchronized (lock) {
+            Entry entry = entries.remove(key);
+            if(entry != null) {
+                entries.put(key, entry);
+                hits++;
+                return entry.node;
+            }
+
+            misses++;
+        }
+
+        //read outside the lock, so that other files can be accessed in the meantime
+        Path path = bridge.root.resolve(key);
+        BasicFileAttributes attributes = FilesystemBridgeAbstract.readAttributes(path);
+        if(attributes == null) {
+            throw new NoSuchFileException(path.toString());
+        }
+
+        FileConfigNode node = bridge.readFile(new FilesystemBridgeAbstract.PathEntry(path, attributes));
+        node.markUnmodified();
+        Entry newEntry = new Entry(node, weigher.applyAsLong(node));
+
+        synchronized (lock) {
+            Entry existing = entries.get(key);
+            if(existing != null) {
+                //another thread read the same file concurrently, and its node may already be in use
+                return existing.node;
+            }
+
+            entries.put(key, newEntry);
+            weight += newEntry.weight;
+            evict(newEntry);
+        }
+
+        return node;
+    }
+
+    //evicts clean entries, starting from the least recently used, until the budget is met
+    private void evict(Entry keep) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while(weight > maximumWeight && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if(entry != keep && !entry.isDirty()) {
+                iterator.remove();
+                weight -= entry.weight;
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Determines if the given file is cached and has been modified since it was read or last saved.
+     * @param file the path of the file, relative to the root of the bridge
+     * @return true if the file is cached and dirty, false otherwise
+     */
+    public boolean isDirty(@NotNull Path file) {
+        Path key = resolve(file);
+
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            return entry != null && entry.isDirty();
+        }
+    }
+
+    /**
+     * Writes the given file to disk if it is cached and dirty, after which it may be evicted again.
+     * @param file the path of the file, relative to the root of the bridge
+     * @return true if the file was written, false if it was not cached or not dirty
+     * @throws IOException if an IO error occurs
+     */
+    public boolean save(@NotNull Path file) throws IOException {
+        Path key = resolve(file);
+
+        //writing under the lock ensures the same file is never written concurrently
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            if(entry == null || !entry.isDirty()) {
+                return false;
+            }
+
+            bridge.writeFile(bridge.root.resolve(key), entry.node);
+            entry.node.markUnmodified();
+
+            long newWeight = weigher.applyAsLong(entry.node);
+            weight += newWeight - entry.weight;
+            entry.weight = newWeight;
+
+            evict(null);
+            return true;
+        }
+    }
+
+    /**
+     * Writes every cached file which is dirty to disk.
+     * @return the number of files written
+     * @throws IOException if an IO error occurs; files which were written before the error remain saved
+     */
+    public int saveAll() throws IOException {
+        List<Path> keys;
+        synchronized (lock) {
+            keys = new ArrayList<>(entries.keySet());
+        }
+
+        int saved = 0;
+        for(Path key : keys) {
+            if(save(key)) {
+                saved++;
+            }
+        }
+
+        return saved;
+    }
+
+    /**
+     * Removes the given file from the cache, discarding any unsaved changes, so that it will be read from disk again
+     * the next time it is requested.
+     * @param file the path of the file, relative to the root of the bridge
+     * @return true if the file was cached, false otherwise
+     */
+    public boolean invalidate(@NotNull Path file) {
+        Path key = resolve(file);
+
+        synchronized (lock) {
+            Entry entry = entries.remove(key);
+            if(entry != null) {
+                weight -= entry.weight;
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Gets a snapshot of the statistics of this cache.
+     * @return the current statistics
+     */
+    public @NotNull Stats stats() {
+        synchronized (lock) {
+            return new Stats(hits, misses, evictions, entries.size(), weight);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * Represents a single file that has been read from a filesystem-based {@link ConfigBridge}.
+ * @param path the path of the file, relative to the root of the bridge that read it
+ * @param node the decoded contents of the file
+ */
+public record FileEntry(@NotNull Path path, @NotNull FileConfigNode node) {}
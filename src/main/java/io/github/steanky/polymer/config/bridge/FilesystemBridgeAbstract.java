@@ -3,15 +3,18 @@ package io.github.steanky.polymer.config.bridge;
 import io.github.steanky.polymer.config.ConfigElement;
 import io.github.steanky.polymer.config.codec.CodecRegistry;
 import io.github.steanky.polymer.config.codec.ConfigCodec;
-import io.github.steanky.polymer.config.collection.ConfigNode;
 import io.github.steanky.polymer.config.collection.FileConfigNode;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
@@ -20,42 +23,145 @@ import java.util.function.Function;
 public abstract class FilesystemBridgeAbstract implements ConfigBridge<FileConfigNode> {
     /**
      * The default FileFilter, which only accepts directories, as well as files whose extension has a registered codec.
-     * This filter is applied during reads from the ConfigBridge.
+     * This filter is applied during reads from the ConfigBridge. Bridges using this filter evaluate it against the
+     * attributes they have already read for each entry, so that the filesystem is not queried again.
      */
     public static final FileFilter DEFAULT_READ_FILTER = pathname -> {
         if(pathname.isDirectory()) {
             return true;
         }
         else {
-            return CodecRegistry.INSTANCE.hasCodec(FilenameUtils.getExtension(pathname.getName()));
+            return CodecRegistry.INSTANCE.hasCodec(CodecRegistry.extension(pathname.getName()));
         }
     };
 
     /**
-     * The default key function, whose returned keys are just the file's name (without any extension).
+     * The default key function, whose returned keys are just the file's name (without any extension, or both extensions
+     * of a compressed file such as {@code mobs.toml.gz}).
      */
-    public static final Function<File, String> DEFAULT_KEY_FUNCTION = file -> FilenameUtils.getBaseName(file.getName());
+    public static final Function<File, String> DEFAULT_KEY_FUNCTION = file -> CodecRegistry.baseName(file.getName());
 
     /**
-     * The default codec function, which searches the codec registry using the file's extension, and returns null for
-     * directories (as they can have no actual codec).
+     * The default codec function, which searches the codec registry using the file's extension (or both extensions of
+     * a compressed file, as determined by {@link CodecRegistry#extension(String)}), and returns null for directories
+     * (as they can have no actual codec). Like {@link FilesystemBridgeAbstract#DEFAULT_READ_FILTER}, bridges using
+     * this function avoid the redundant directory check when reading files they have already walked.
      */
     public static final Function<File, ConfigCodec> DEFAULT_CODEC_FUNCTION = file -> {
         if(!file.isDirectory()) {
             //use the file extension to determine what codec to use
-            return CodecRegistry.INSTANCE.getCodec(FilenameUtils.getExtension(file.getName()));
+            return CodecRegistry.INSTANCE.getCodec(CodecRegistry.extension(file.getName()));
         }
 
         //no codec for directories!
         return null;
     };
 
-    private final Path root;
-    private final FileFilter readFilter;
-    private final Function<File, ConfigCodec> codecFunction;
-    private final Function<File, String> fileKeyFunction;
+    final Path root;
+    final FileFilter readFilter;
+    final Function<File, ConfigCodec> codecFunction;
+    final Function<File, String> fileKeyFunction;
 
-    private record InputNode(File file, ConfigNode children) {}
+    /**
+     * A filesystem entry together with its attributes, which are read only once per entry while walking.
+     */
+    record PathEntry(@NotNull Path path, @NotNull BasicFileAttributes attributes) {}
+
+    /*
+    A directory being read. When reading with a glob, its node is only created once a matching file is put into it
+    (or into one of its subdirectories), so directories without matches do not leave empty nodes in the result.
+     */
+    private static final class InputNode {
+        private final Path path;
+        private final InputNode parent;
+        private final String key;
+        private FileConfigNode node;
+
+        private InputNode(Path path, FileConfigNode node) {
+            this.path = path;
+            this.parent = null;
+            this.key = null;
+            this.node = node;
+        }
+
+        private InputNode(Path path, InputNode parent, String key) {
+            this.path = path;
+            this.parent = parent;
+            this.key = key;
+        }
+
+        private FileConfigNode node() {
+            if(node == null) {
+                node = directoryNode(parent.node(), key);
+            }
+
+            return node;
+        }
+    }
+
+    /*
+    Directories are never matched against the glob itself, but a directory can be skipped when no file beneath it
+    could match. The glob is split into one matcher per name, and a directory is pruned when one of its names is
+    rejected by the matcher at the same depth, or when it is too deep to contain a file matching the last name. A name
+    containing ** may match any number of names, so nothing at or below its depth is pruned. Globs whose brace or
+    bracket groups contain a separator, or which contain escapes, cannot be split, and never prune anything.
+     */
+    private record Glob(PathMatcher matcher, PathMatcher[] names) {
+        private static @Nullable Glob of(@NotNull Path root, @Nullable String glob) {
+            if(glob == null) {
+                return null;
+            }
+
+            FileSystem fileSystem = root.getFileSystem();
+            return new Glob(fileSystem.getPathMatcher("glob:" + glob), names(fileSystem, glob));
+        }
+
+        private static PathMatcher[] names(FileSystem fileSystem, String glob) {
+            int groups = 0;
+            for(int i = 0; i < glob.length(); i++) {
+                char next = glob.charAt(i);
+                if(next == '\\' || (next == '/' && groups > 0)) {
+                    return null;
+                }
+                else if(next == '{' || next == '[') {
+                    groups++;
+                }
+                else if((next == '}' || next == ']') && groups > 0) {
+                    groups--;
+                }
+            }
+
+            String[] names = glob.split("/", -1);
+            PathMatcher[] matchers = new PathMatcher[names.length];
+            for(int i = 0; i < names.length; i++) {
+                //a null matcher stands for a name containing **
+                matchers[i] = names[i].contains("**") ? null : fileSystem.getPathMatcher("glob:" + names[i]);
+            }
+
+            return matchers;
+        }
+
+        private boolean matches(Path relative) {
+            return matcher.matches(relative);
+        }
+
+        private boolean mayMatchBelow(Path relative) {
+            if(names == null) {
+                return true;
+            }
+
+            for(int i = 0; i < relative.getNameCount(); i++) {
+                if(i < names.length && names[i] == null) {
+                    return true;
+                }
+                else if(i >= names.length - 1 || !names[i].matches(relative.getName(i))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
 
     private record OutputNode(FileConfigNode node, Path path) {}
 
@@ -69,78 +175,224 @@ public abstract class FilesystemBridgeAbstract implements ConfigBridge<FileConfi
         this.fileKeyFunction = Validate.notNull(fileKeyFunction);
     }
 
-    private @NotNull FileConfigNode readFile(@NotNull File file) throws IOException {
+    /**
+     * Reads the attributes of the given path, following symbolic links as {@link File#isDirectory()} would.
+     * @return the attributes, or null if they could not be read (for example because the entry is a broken link)
+     */
+    static @Nullable BasicFileAttributes readAttributes(@NotNull Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns an object which uniquely identifies the given directory, even when it is reachable by more than one
+     * path. This is the file key where the filesystem provides one, otherwise the real path.
+     */
+    static @NotNull Object directoryKey(@NotNull PathEntry entry) throws IOException {
+        Object key = entry.attributes.fileKey();
+        return key != null ? key : entry.path.toRealPath();
+    }
+
+    boolean accepts(@NotNull PathEntry entry) {
+        if(readFilter == null) {
+            return true;
+        }
+        else if(readFilter == DEFAULT_READ_FILTER) {
+            //same as the default filter, but using the attributes we already have
+            return entry.attributes.isDirectory() || CodecRegistry.INSTANCE.hasCodec(extension(entry.path));
+        }
+
+        return readFilter.accept(entry.path.toFile());
+    }
+
+    /**
+     * Adds an entry for every child of the given directory which is accepted by the read filter to the given list.
+     * Entries whose attributes cannot be read are skipped.
+     */
+    void list(@NotNull Path directory, @NotNull List<PathEntry> entries) throws IOException {
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for(Path path : stream) {
+                BasicFileAttributes attributes = readAttributes(path);
+                if(attributes != null) {
+                    PathEntry entry = new PathEntry(path, attributes);
+                    if(accepts(entry)) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String extension(Path path) {
+        return CodecRegistry.extension(path.getFileName().toString());
+    }
+
+    @NotNull FileConfigNode readFile(@NotNull PathEntry entry) throws IOException {
         //directories are handled specially, not by this function
-        Validate.isTrue(!file.isDirectory(), "cannot read from a directory");
+        Validate.isTrue(!entry.attributes.isDirectory(), "cannot read from a directory");
 
-        ConfigCodec codec = codecFunction.apply(file);
+        ConfigCodec codec = codecFunction == DEFAULT_CODEC_FUNCTION ? CodecRegistry.INSTANCE.getCodec(
+                extension(entry.path)) : codecFunction.apply(entry.path.toFile());
         if(codec != null) {
-            return codec.getBuilder().makeNode(codec.decode(new FileInputStream(file), true),
+            return codec.getBuilder().makeNode(codec.decode(Files.newInputStream(entry.path), true),
                     () -> new FileConfigNode(codec));
         }
 
         //couldn't find a codec to decode this file, this is an error (users should filter out files they can't read)
-        throw new IllegalArgumentException("unable to find a codec for file " + file);
+        throw new IllegalArgumentException("unable to find a codec for file " + entry.path);
     }
 
-    private void writeFile(@NotNull File file, @NotNull FileConfigNode node) throws IOException {
+    void writeFile(@NotNull Path file, @NotNull FileConfigNode node) throws IOException {
         if(!node.isDirectory()) {
-            ConfigCodec codec = node.getCodec();
-            codec.encode(codec.getBuilder().makeMap(node, LinkedHashMap::new), new FileOutputStream(file), true);
+            //encode straight from the tree, without building an intermediate map
+            node.getCodec().encodeNode(node, Files.newOutputStream(file), true);
         }
         else {
             throw new IllegalArgumentException("cannot write a directory node");
         }
     }
 
+    //returns the child directory node with the given key, replacing anything else stored under it
+    private static FileConfigNode directoryNode(FileConfigNode parent, String key) {
+        if(parent.get(key) instanceof FileConfigNode child && child.isDirectory()) {
+            return child;
+        }
+
+        FileConfigNode child = new FileConfigNode();
+        parent.put(key, child);
+        return child;
+    }
+
+    //returns the node for a subdirectory, creating it immediately unless reading with a glob
+    private static InputNode directory(InputNode parent, Path path, String key, Glob glob) {
+        InputNode directory = new InputNode(path, parent, key);
+        if(glob == null) {
+            directory.node();
+        }
+
+        return directory;
+    }
+
+    /**
+     * Walks the directory tree starting at the given directory, merging every accepted file (and every file matched
+     * by glob, if it is not null) into the given directory node. Directories beneath which no file could match the
+     * glob are not listed.
+     */
+    private void walk(@NotNull PathEntry start, @NotNull InputNode startNode, @Nullable Glob glob) throws IOException {
+        Deque<InputNode> stack = new ArrayDeque<>();
+        stack.push(startNode);
+
+        //handles recursive file structures (including symbolic link loops) by only processing each directory once
+        Set<Object> visited = new HashSet<>();
+        visited.add(directoryKey(start));
+
+        List<PathEntry> entries = new ArrayList<>();
+        while(!stack.isEmpty()) {
+            InputNode currentNode = stack.pop();
+
+            entries.clear();
+            list(currentNode.path, entries);
+            for(PathEntry entry : entries) {
+                String key = fileKeyFunction.apply(entry.path.toFile());
+
+                if(entry.attributes.isDirectory()) {
+                    if((glob == null || glob.mayMatchBelow(root.relativize(entry.path))) &&
+                            visited.add(directoryKey(entry))) {
+                        stack.push(directory(currentNode, entry.path, key, glob));
+                    }
+                }
+                else if(glob == null || glob.matches(root.relativize(entry.path))) {
+                    currentNode.node().put(key, readFile(entry));
+                }
+            }
+        }
+    }
+
     @Override
     public @NotNull Future<FileConfigNode> read() throws IOException {
+        return readSubtree(null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Each key of the path selects the file or directory in the current directory whose key (as determined by the
+     * key function) is equal to it, so only the directories along the path, and the selected directory tree, are
+     * listed. Files are the smallest unit that can be read: if the path leads into a file, the whole file is read.
+     * If the root of this bridge is a single file, it is always read in its entirety, and the target is ignored.</p>
+     *
+     * <p>The glob is matched against the path of each file relative to the root of this bridge, so for example
+     * {@code "worlds/*.toml"} selects the TOML files directly inside the worlds directory, and {@code "**.json"}
+     * selects JSON files in any subdirectory (but not in the root directory itself). Directories are not matched
+     * against the glob; a directory is only included if a matching file is beneath it, and directories beneath which
+     * no file could match are not listed at all.</p>
+     * @throws IllegalArgumentException if target is not a directory node
+     */
+    @Override
+    public @NotNull Future<FileConfigNode> readSubtree(@Nullable FileConfigNode target, @Nullable String glob,
+                                                       @NotNull String... path) throws IOException {
+        Validate.isTrue(target == null || target.isDirectory(), "target must be a directory node");
+        Validate.noNullElements(path);
+
+        String[] keys = path.clone();
+        Glob compiledGlob = Glob.of(root, glob);
         try {
             return doReadOperation(() -> {
-                File rootFile = root.toFile();
+                PathEntry rootEntry = new PathEntry(root, Files.readAttributes(root, BasicFileAttributes.class));
 
-                if(readFilter != null && !readFilter.accept(rootFile)) {
+                if(!accepts(rootEntry)) {
                     //return null if the filter exists and doesn't accept our root
                     return null;
                 }
-                else if(!rootFile.isDirectory()) {
+                else if(!rootEntry.attributes.isDirectory()) {
                     //root isn't a directory, so read only the root and nothing else
-                    return readFile(rootFile);
+                    return readFile(rootEntry);
                 }
-                else {
-                    //root is a directory, so we need to iterate the directory tree
-                    FileConfigNode rootConfigNode = new FileConfigNode();
-
-                    Deque<InputNode> stack = new ArrayDeque<>();
-                    stack.push(new InputNode(rootFile, rootConfigNode));
-
-                    //handles recursive file structures by only processing each directory once
-                    Set<File> visited = new HashSet<>();
-                    visited.add(rootFile);
-
-                    while(!stack.isEmpty()) {
-                        InputNode currentNode = stack.pop();
-
-                        File[] subFiles = currentNode.file.listFiles(readFilter);
-                        if(subFiles != null) { //this should never be null, currentNode.file must be a directory
-                            for(File subFile : subFiles) {
-                                if(subFile.isDirectory()) {
-                                    if(visited.add(subFile)) {
-                                        //use directory node here as well
-                                        ConfigNode childNode = new FileConfigNode();
-                                        stack.push(new InputNode(subFile, childNode));
-                                        currentNode.children.put(fileKeyFunction.apply(subFile), childNode);
-                                    }
-                                }
-                                else {
-                                    currentNode.children.put(fileKeyFunction.apply(subFile), readFile(subFile));
-                                }
-                            }
+
+                FileConfigNode rootNode = target == null ? new FileConfigNode() : target;
+
+                //descend along the path, listing only the directories on it
+                PathEntry current = rootEntry;
+                InputNode currentNode = new InputNode(root, rootNode);
+                List<PathEntry> entries = new ArrayList<>();
+                for(String key : keys) {
+                    entries.clear();
+                    list(current.path, entries);
+
+                    PathEntry match = null;
+                    for(PathEntry entry : entries) {
+                        if(key.equals(fileKeyFunction.apply(entry.path.toFile()))) {
+                            match = entry;
+                            break;
                         }
                     }
 
-                    return rootConfigNode;
+                    if(match == null) {
+                        //nothing exists at this path
+                        return rootNode;
+                    }
+                    else if(!match.attributes.isDirectory()) {
+                        if(compiledGlob == null || compiledGlob.matches(root.relativize(match.path))) {
+                            currentNode.node().put(key, readFile(match));
+                        }
+
+                        return rootNode;
+                    }
+                    else if(compiledGlob != null && !compiledGlob.mayMatchBelow(root.relativize(match.path))) {
+                        //no file along this path can match
+                        return rootNode;
+                    }
+
+                    current = match;
+                    currentNode = directory(currentNode, match.path, key, compiledGlob);
                 }
+
+                walk(current, currentNode, compiledGlob);
+                return rootNode;
             });
         }
         catch (Exception exception) {
@@ -151,42 +403,85 @@ public abstract class FilesystemBridgeAbstract implements ConfigBridge<FileConfi
 
     @Override
     public @NotNull Future<Void> write(@NotNull FileConfigNode node) throws IOException {
+        return writeSubtree(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Each key is mapped to the existing file or directory with the same key (as determined by the key function),
+     * if there is one. Otherwise, directories are created using the key as their name, and files are created using the
+     * key followed by one of the names of their codec as an extension.</p>
+     * @throws IllegalArgumentException if the path does not lead to a node in the tree
+     */
+    @Override
+    public @NotNull Future<Void> writeSubtree(@NotNull FileConfigNode node, @NotNull String... path)
+            throws IOException {
         Validate.notNull(node);
+        Validate.noNullElements(path);
+
+        //find the node to write before doing any IO, so that invalid paths are reported immediately
+        FileConfigNode start = node;
+        int directories = 0;
+        for(String key : path) {
+            Validate.isTrue(start.isDirectory() && start.get(key) instanceof FileConfigNode,
+                    "no file or directory at path %s", String.join("/", path));
+            start = (FileConfigNode)start.get(key);
+
+            if(start.isDirectory()) {
+                directories++;
+            }
+        }
 
+        FileConfigNode startNode = start;
+        int startDepth = directories;
         try {
             return doWriteOperation(() -> {
-                File rootFile = root.toFile();
-
                 if(!node.isDirectory()) {
-                    //assume rootFile is a non-directory since node is not a directory either
+                    //assume root is a non-directory since node is not a directory either
                     //an exception will be thrown here if this is not the case, indicating user error
-                    writeFile(rootFile, node);
+                    writeFile(root, node);
+                    return null;
+                }
+
+                Map<Path, List<PathEntry>> listings = new HashMap<>();
+                Path directory = root;
+                for(int i = 0; i < startDepth; i++) {
+                    directory = resolveDirectory(directory, path[i], listings);
+                }
+
+                if(!startNode.isDirectory()) {
+                    writeFile(resolveFile(directory, path[path.length - 1], startNode, listings), startNode);
+                    return null;
                 }
-                else {
-                    Deque<OutputNode> stack = new ArrayDeque<>();
-                    stack.push(new OutputNode(node, root));
 
-                    Set<Object> visited = new HashSet<>();
-                    visited.add(node);
+                Deque<OutputNode> stack = new ArrayDeque<>();
+                stack.push(new OutputNode(startNode, directory));
 
-                    while(!stack.isEmpty()) {
-                        OutputNode currentNode = stack.pop();
+                Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+                visited.add(startNode);
 
-                        for(Map.Entry<String, ConfigElement> childEntry : currentNode.node.entrySet()) {
-                            //cast should always succeed: we only push FileConfigNode instances that are DIRECTORIES onto
-                            //the stack, and directories are guaranteed to only contain other FileConfigNode instances as
-                            //per the additional restrictions placed on put() for that class
-                            FileConfigNode childNode = (FileConfigNode)childEntry.getValue().asConfigNode();
+                while(!stack.isEmpty()) {
+                    OutputNode currentNode = stack.pop();
 
-                            if(childNode.isDirectory() && visited.add(childNode)) {
+                    for(Map.Entry<String, ConfigElement> childEntry : currentNode.node.entrySet()) {
+                        //cast should always succeed: we only push FileConfigNode instances that are DIRECTORIES onto
+                        //the stack, and directories are guaranteed to only contain other FileConfigNode instances as
+                        //per the additional restrictions placed on put() for that class
+                        FileConfigNode childNode = (FileConfigNode)childEntry.getValue().asConfigNode();
+
+                        if(childNode.isDirectory()) {
+                            if(visited.add(childNode)) {
                                 //node is a directory we haven't visited yet
-                                stack.push(new OutputNode(childNode, root.resolve(childEntry.getKey())));
-                            }
-                            else {
-                                //not a directory, so write to the filesystem
-                                writeFile(currentNode.path.toFile(), currentNode.node);
+                                stack.push(new OutputNode(childNode, resolveDirectory(currentNode.path,
+                                        childEntry.getKey(), listings)));
                             }
                         }
+                        else {
+                            //not a directory, so write to the filesystem
+                            writeFile(resolveFile(currentNode.path, childEntry.getKey(), childNode, listings),
+                                    childNode);
+                        }
                     }
                 }
 
@@ -198,6 +493,41 @@ public abstract class FilesystemBridgeAbstract implements ConfigBridge<FileConfi
         }
     }
 
+    //listings are cached for the duration of a write, so each directory is only listed once
+    private @Nullable Path findExisting(Path directory, String key, boolean isDirectory,
+                                        Map<Path, List<PathEntry>> listings) throws IOException {
+        List<PathEntry> entries = listings.get(directory);
+        if(entries == null) {
+            entries = new ArrayList<>();
+            if(Files.isDirectory(directory)) {
+                list(directory, entries);
+            }
+
+            listings.put(directory, entries);
+        }
+
+        for(PathEntry entry : entries) {
+            if(entry.attributes.isDirectory() == isDirectory &&
+                    key.equals(fileKeyFunction.apply(entry.path.toFile()))) {
+                return entry.path;
+            }
+        }
+
+        return null;
+    }
+
+    private Path resolveDirectory(Path parent, String key, Map<Path, List<PathEntry>> listings) throws IOException {
+        Path existing = findExisting(parent, key, true, listings);
+        return existing != null ? existing : Files.createDirectories(parent.resolve(key));
+    }
+
+    private Path resolveFile(Path directory, String key, FileConfigNode node, Map<Path, List<PathEntry>> listings)
+            throws IOException {
+        Path existing = findExisting(directory, key, false, listings);
+        return existing != null ? existing : directory.resolve(key + "." + node.getCodec().getNames().iterator()
+                .next());
+    }
+
     @Override
     public boolean readOnly() {
         return false;
@@ -0,0 +1,276 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.codec.ConfigCodec;
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * <p>A read-only {@link ConfigBridge} implementation which fetches a fixed set of configuration files from an HTTP
+ * server, so that many servers can share a single set of configuration files. Every file is requested concurrently,
+ * and decoded using the provided {@link Executor} as soon as it arrives. The resulting tree has the same structure as
+ * one produced by a {@link FilesystemBridgeAbstract} reading an equivalent directory.</p>
+ *
+ * <p>Each file that is successfully fetched is stored in a local cache directory, along with its ETag if the server
+ * provided one. On later reads, the cached ETag is sent using If-None-Match, and if the server responds with 304 (Not
+ * Modified) the cached copy is used without transferring the file again. If the server cannot be reached, or responds
+ * with a server error, the cached copy is used as a fallback; the read only fails if there is no cached copy. Files are
+ * only cached after they have been decoded successfully, so a malformed response never replaces a good cached
+ * copy.</p>
+ */
+public class HttpConfigBridge implements ConfigBridge<FileConfigNode> {
+    /**
+     * The default timeout for connecting to the server, and for each request.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String ETAG_SUFFIX = ".etag";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final List<String> files;
+    private final List<URI> uris;
+    private final Path cacheDirectory;
+    private final Function<String, ConfigCodec> codecFunction;
+    private final Function<String, String> keyFunction;
+    private final HttpClient client;
+    private final Executor executor;
+    private final Duration timeout;
+
+    /**
+     * Creates a new HttpConfigBridge.
+     * @param base the URI of the directory on the server which contains the files
+     * @param files the paths of the files to fetch, relative to base, using forward slashes as separators
+     * @param cacheDirectory the local directory in which to cache fetched files, which will be created if necessary
+     * @param codecFunction the function used to determine the codec for a given file path
+     * @param keyFunction the function used to determine the key for a given file or directory name
+     * @param client the client used to send requests
+     * @param executor the executor used to read and write the cache, and to decode files
+     * @param timeout the timeout for each request
+     * @throws IllegalArgumentException if any of the file paths are absolute, contain ".." segments, or cannot be
+     * used in a URI
+     */
+    public HttpConfigBridge(@NotNull URI base,
+                            @NotNull List<String> files,
+                            @NotNull Path cacheDirectory,
+                            @NotNull Function<String, ConfigCodec> codecFunction,
+                            @NotNull Function<String, String> keyFunction,
+                            @NotNull HttpClient client,
+                            @NotNull Executor executor,
+                            @NotNull Duration timeout) {
+        Validate.notNull(base);
+        this.files = List.copyOf(files);
+        this.cacheDirectory = Validate.notNull(cacheDirectory);
+        this.codecFunction = Validate.notNull(codecFunction);
+        this.keyFunction = Validate.notNull(keyFunction);
+        this.client = Validate.notNull(client);
+        this.executor = Validate.notNull(executor);
+        this.timeout = Validate.notNull(timeout);
+
+        //files are resolved against the base, which must therefore look like a directory
+        URI directory = base.getPath().endsWith("/") ? base : URI.create(base + "/");
+
+        List<URI> uris = new ArrayList<>(this.files.size());
+        for(String file : this.files) {
+            Validate.isTrue(!file.isEmpty() && !file.startsWith("/") && !file.endsWith("/"),
+                    "invalid file path %s", file);
+            for(String part : file.split("/")) {
+                Validate.isTrue(!part.isEmpty() && !part.equals(".") && !part.equals(".."),
+                        "invalid file path %s", file);
+            }
+
+            try {
+                uris.add(directory.resolve(new URI(null, null, file, null)));
+            }
+            catch (URISyntaxException exception) {
+                throw new IllegalArgumentException("invalid file path " + file, exception);
+            }
+        }
+
+        this.uris = uris;
+    }
+
+    /**
+     * Creates a new HttpConfigBridge using the default codec function, key function and timeout, and a new
+     * {@link HttpClient} which uses the given executor.
+     * @param base the URI of the directory on the server which contains the files
+     * @param files the paths of the files to fetch, relative to base, using forward slashes as separators
+     * @param cacheDirectory the local directory in which to cache fetched files
+     * @param executor the executor used for requests, the cache, and decoding
+     */
+    public HttpConfigBridge(@NotNull URI base, @NotNull List<String> files, @NotNull Path cacheDirectory,
+                            @NotNull Executor executor) {
+        this(base, files, cacheDirectory, ArchiveConfigBridge.DEFAULT_CODEC_FUNCTION,
+                ArchiveConfigBridge.DEFAULT_KEY_FUNCTION, HttpClient.newBuilder().executor(executor)
+                        .connectTimeout(DEFAULT_TIMEOUT).followRedirects(HttpClient.Redirect.NORMAL).build(),
+                executor, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If a file and a directory map to the same key (for example, {@code a.json} and {@code a/b.json} using the
+     * default key function), the returned future completes exceptionally with an {@link IOException}.</p>
+     */
+    @Override
+    public @NotNull Future<FileConfigNode> read() {
+        List<CompletableFuture<FileConfigNode>> futures = new ArrayList<>(files.size());
+        for(int i = 0; i < files.size(); i++) {
+            futures.add(fetch(files.get(i), uris.get(i)));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            FileConfigNode rootNode = new FileConfigNode();
+            for(int i = 0; i < files.size(); i++) {
+                ArchiveConfigBridge.putFile(rootNode, files.get(i), futures.get(i).join(), keyFunction,
+                        "file " + uris.get(i));
+            }
+
+            return rootNode;
+        });
+    }
+
+    @Override
+    public @NotNull Future<Void> write(@NotNull FileConfigNode node) {
+        throw new IllegalStateException("remote configuration is read-only");
+    }
+
+    @Override
+    public @NotNull Future<Void> writeSubtree(@NotNull FileConfigNode node, @NotNull String... path) {
+        throw new IllegalStateException("remote configuration is read-only");
+    }
+
+    @Override
+    public boolean readOnly() {
+        return true;
+    }
+
+    private CompletableFuture<FileConfigNode> fetch(String file, URI uri) {
+        Path cached = cacheDirectory.resolve(file);
+        Path etagPath = cached.resolveSibling(cached.getFileName() + ETAG_SUFFIX);
+
+        return CompletableFuture.supplyAsync(() -> {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout).GET();
+
+            //only revalidate if we actually have something to fall back on
+            if(Files.isRegularFile(cached) && Files.isRegularFile(etagPath)) {
+                try {
+                    builder.header("If-None-Match", Files.readString(etagPath, StandardCharsets.UTF_8));
+                }
+                catch (IOException ignored) {
+                    //an unreadable ETag only means the file will be transferred again
+                }
+            }
+
+            return builder.build();
+        }, executor).thenCompose(request -> client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .handleAsync((response, error) -> {
+                    try {
+                        return handleResponse(file, cached, etagPath, response, error);
+                    }
+                    catch (IOException exception) {
+                        throw new CompletionException(exception);
+                    }
+                }, executor);
+    }
+
+    private FileConfigNode handleResponse(String file, Path cached, Path etagPath, HttpResponse<byte[]> response,
+                                          Throwable error) throws IOException {
+        IOException failure;
+        if(error == null) {
+            int status = response.statusCode();
+            if(status == 304 && Files.isRegularFile(cached)) {
+                return decode(file, Files.readAllBytes(cached));
+            }
+            else if(status == 200) {
+                byte[] body = response.body();
+                FileConfigNode node = decode(file, body);
+                store(cached, etagPath, body, response.headers().firstValue("ETag").orElse(null));
+                return node;
+            }
+            else if(status < 500) {
+                //the server is working, so the file genuinely can't be fetched; a stale copy should not be used
+                throw new IOException("unexpected status " + status + " for " + response.uri());
+            }
+
+            failure = new IOException("server error " + status + " for " + response.uri());
+        }
+        else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() :
+                    error;
+            failure = cause instanceof IOException ioException ? ioException : new IOException(cause);
+        }
+
+        //the server is unavailable, so fall back to the cached copy if there is one
+        if(Files.isRegularFile(cached)) {
+            return decode(file, Files.readAllBytes(cached));
+        }
+
+        throw failure;
+    }
+
+    private FileConfigNode decode(String file, byte[] bytes) throws IOException {
+        ConfigCodec codec = codecFunction.apply(file);
+        if(codec == null) {
+            //couldn't find a codec to decode this file, users should only request files they can read
+            throw new IllegalArgumentException("unable to find a codec for file " + file);
+        }
+
+        return codec.getBuilder().makeNode(codec.decode(new ByteArrayInputStream(bytes), true),
+                () -> new FileConfigNode(codec));
+    }
+
+    /*
+    Each file is replaced individually using a temporary file, but the pair is not replaced atomically. Instead, the
+    old ETag is deleted before the file is replaced, and the new ETag is only written afterwards. A failure at any
+    point therefore leaves either a consistent pair, or a file without an ETag, which is never revalidated and so
+    only causes an unnecessary transfer on the next read. A new file is never paired with an old ETag.
+     */
+    private static void store(Path cached, Path etagPath, byte[] body, @Nullable String etag) throws IOException {
+        Files.createDirectories(cached.getParent());
+        Files.deleteIfExists(etagPath);
+        replace(cached, body);
+
+        if(etag != null) {
+            replace(etagPath, etag.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void replace(Path target, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            Files.write(temp, bytes);
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
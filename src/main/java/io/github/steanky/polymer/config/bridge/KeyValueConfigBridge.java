@@ -0,0 +1,309 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigVisitor;
+import io.github.steanky.polymer.config.ElementHashing;
+import io.github.steanky.polymer.config.binary.BinaryConfigSerializer;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * <p>A {@link ConfigBridge} implementation which persists a tree in an embedded key-value store, kept in a single local
+ * file. Every element which is not a node (and every empty node) is stored separately, keyed by the path of node keys
+ * leading to it, in the binary format of {@link BinaryConfigSerializer}. Lists are stored as single values.</p>
+ *
+ * <p>This allows a single subtree to be read using {@link KeyValueConfigBridge#read(String...)} without decoding the
+ * rest of the tree, and loading requires no text parsing at all. Writes compare the fingerprint of every value with
+ * the one already stored, and only write values that have changed (and delete those that have been removed). All
+ * changes made by a single write are committed atomically: after a crash, the store contains either all of them or
+ * none.</p>
+ *
+ * <p>Since only paths are stored, the keys of nodes read from this bridge are ordered by length and then
+ * lexicographically, rather than in the order they were written.</p>
+ *
+ * <p>This class is thread-safe. Reads may run concurrently with each other; writes are applied one at a time. The
+ * bridge should be closed when it is no longer needed.</p>
+ */
+public class KeyValueConfigBridge implements ConfigBridge<ConfigNode>, Closeable {
+    private final KeyValueStore store;
+    private final Executor executor;
+    private final Object writeLock = new Object();
+
+    /**
+     * Creates a new KeyValueConfigBridge, opening (or creating) the store in the given file.
+     * @param file the file containing the store
+     * @param executor the executor used to perform reads and writes
+     * @throws IOException if the store cannot be opened, or is corrupt
+     */
+    public KeyValueConfigBridge(@NotNull Path file, @NotNull Executor executor) throws IOException {
+        this.store = KeyValueStore.open(Validate.notNull(file));
+        this.executor = Validate.notNull(executor);
+    }
+
+    /**
+     * Creates a new KeyValueConfigBridge which performs all reads and writes synchronously on the calling thread.
+     * @param file the file containing the store
+     * @throws IOException if the store cannot be opened, or is corrupt
+     */
+    public KeyValueConfigBridge(@NotNull Path file) throws IOException {
+        this(file, Runnable::run);
+    }
+
+    //keys are made of length-prefixed segments, so the key of a node is a prefix of exactly the keys of its descendants
+    private static String segment(String key) {
+        return key.length() + ":" + key;
+    }
+
+    private static String key(String[] path, int length) {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < length; i++) {
+            builder.append(segment(path[i]));
+        }
+
+        return builder.toString();
+    }
+
+    private static List<String> segments(String key, int start) {
+        List<String> segments = new ArrayList<>();
+        int i = start;
+        while(i < key.length()) {
+            int colon = key.indexOf(':', i);
+            int length = Integer.parseInt(key, i, colon, 10);
+            segments.add(key.substring(colon + 1, colon + 1 + length));
+            i = colon + 1 + length;
+        }
+
+        return segments;
+    }
+
+    private static <T> CompletableFuture<T> async(IOCallable<T> callable, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return callable.call();
+            }
+            catch (IOException exception) {
+                throw new CompletionException(exception);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface IOCallable<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Reads the entire tree. If nothing has been written yet, the tree is an empty node.
+     * @return a future which will contain the tree
+     */
+    @Override
+    public @NotNull Future<ConfigNode> read() {
+        return async(() -> readElement(new String[0]).map(ConfigElement::asConfigNode).orElseGet(LinkedConfigNode::new),
+                executor);
+    }
+
+    /**
+     * Reads the subtree at the given path, without reading anything else.
+     * @param path the keys of the nodes leading to the subtree
+     * @return a future which will contain the subtree, or be empty if there is nothing at the path
+     */
+    public @NotNull Future<Optional<ConfigElement>> read(@NotNull String... path) {
+        Validate.noNullElements(path);
+        String[] copy = path.clone();
+        return async(() -> readElement(copy), executor);
+    }
+
+    private Optional<ConfigElement> readElement(String[] path) throws IOException {
+        String prefix = key(path, path.length);
+        SortedMap<String, ByteBuffer> values = store.readPrefixed(prefix);
+        if(values.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ByteBuffer exact = values.get(prefix);
+        if(exact != null) {
+            //the path leads to a single stored value, so it can't have any descendants
+            return Optional.of(BinaryConfigSerializer.decode(exact));
+        }
+
+        ConfigNode root = new LinkedConfigNode();
+        for(Map.Entry<String, ByteBuffer> entry : values.entrySet()) {
+            List<String> segments = segments(entry.getKey(), prefix.length());
+
+            ConfigNode current = root;
+            for(int i = 0; i < segments.size() - 1; i++) {
+                ConfigElement child = current.get(segments.get(i));
+                if(child == null) {
+                    child = new LinkedConfigNode();
+                    current.put(segments.get(i), child);
+                }
+
+                current = child.asConfigNode();
+            }
+
+            current.put(segments.get(segments.size() - 1), BinaryConfigSerializer.decode(entry.getValue()));
+        }
+
+        return Optional.of(root);
+    }
+
+    /**
+     * Replaces the entire tree, writing only the values that differ from those already stored.
+     * @param node the new tree
+     * @return a future which completes once the changes have been committed to disk
+     */
+    @Override
+    public @NotNull Future<Void> write(@NotNull ConfigNode node) {
+        return write(node, new String[0]);
+    }
+
+    /**
+     * Replaces the subtree at the given path, writing only the values that differ from those already stored. Any
+     * values stored at the ancestors of the path (for example, if one of them was previously a list) are removed.
+     * @param element the new subtree
+     * @param path the keys of the nodes leading to the subtree; if empty, element replaces the entire tree
+     * @return a future which completes once the changes have been committed to disk
+     * @throws IllegalArgumentException if path is empty and element is not a node
+     */
+    public @NotNull Future<Void> write(@NotNull ConfigElement element, @NotNull String... path) {
+        Validate.notNull(element);
+        Validate.noNullElements(path);
+        Validate.isTrue(path.length > 0 || element.getType().isNode(), "the root of the tree must be a node");
+
+        String[] copy = path.clone();
+        return async(() -> {
+            synchronized (writeLock) {
+                store.commit(diff(flatten(element, key(copy, copy.length)), copy));
+            }
+
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Removes the subtree at the given path.
+     * @param path the keys of the nodes leading to the subtree; if empty, the entire tree is removed
+     * @return a future which completes once the changes have been committed to disk
+     */
+    public @NotNull Future<Void> remove(@NotNull String... path) {
+        Validate.noNullElements(path);
+
+        String[] copy = path.clone();
+        return async(() -> {
+            synchronized (writeLock) {
+                store.commit(diff(Map.of(), copy));
+            }
+
+            return null;
+        }, executor);
+    }
+
+    @Override
+    public boolean readOnly() {
+        return false;
+    }
+
+    /**
+     * Closes the underlying store. Reads and writes which have not completed yet will fail.
+     * @throws IOException if an IO error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    //maps the key of every value in the subtree to its value
+    private static Map<String, ConfigElement> flatten(ConfigElement root, String prefix) {
+        Map<String, ConfigElement> values = new LinkedHashMap<>();
+        List<String> prefixes = new ArrayList<>();
+        prefixes.add(prefix);
+
+        root.traverse((element, key, index, depth) -> {
+            if(depth > 0) {
+                String elementKey = prefixes.get(depth - 1) + segment(key);
+                if(depth == prefixes.size()) {
+                    prefixes.add(elementKey);
+                }
+                else {
+                    prefixes.set(depth, elementKey);
+                }
+            }
+
+            if(element.getType().isNode() && !element.asConfigNode().isEmpty()) {
+                return ConfigVisitor.Result.CONTINUE;
+            }
+
+            values.put(prefixes.get(depth), element);
+            return ConfigVisitor.Result.SKIP_CHILDREN;
+        });
+
+        return values;
+    }
+
+    /*
+    Element fingerprints are equal for integral numbers of different widths (and for floats and doubles), but the
+    serializer encodes them differently, so a value changing from 1 to 1L would never be written. The fingerprint kept
+    in the store therefore also covers the class of every number and list, which determines how it is encoded.
+     */
+    private static long storedFingerprint(ConfigElement element) {
+        long[] fingerprint = {element.fingerprint()};
+        element.traverse((child, key, index, depth) -> {
+            if(child.getType().isArray()) {
+                fingerprint[0] = ElementHashing.combine(fingerprint[0],
+                        ElementHashing.primitive(child.getClass().getName()));
+            }
+            else if(child.getType().isNumber()) {
+                fingerprint[0] = ElementHashing.combine(fingerprint[0],
+                        ElementHashing.primitive(child.asNumber().getClass().getName()));
+            }
+
+            return ConfigVisitor.Result.CONTINUE;
+        });
+
+        return fingerprint[0];
+    }
+
+    //computes the writes needed to make the subtree at path contain exactly the given values
+    private List<KeyValueStore.Write> diff(Map<String, ConfigElement> values, String[] path) {
+        List<KeyValueStore.Write> writes = new ArrayList<>();
+
+        for(int i = 0; i < path.length; i++) {
+            String ancestor = key(path, i);
+            if(store.get(ancestor) != null) {
+                writes.add(new KeyValueStore.Write(ancestor, null, 0));
+            }
+        }
+
+        SortedMap<String, KeyValueStore.Value> existing = store.prefixed(key(path, path.length));
+        for(String key : existing.keySet()) {
+            if(!values.containsKey(key)) {
+                writes.add(new KeyValueStore.Write(key, null, 0));
+            }
+        }
+
+        for(Map.Entry<String, ConfigElement> entry : values.entrySet()) {
+            ConfigElement element = entry.getValue();
+            long fingerprint = storedFingerprint(element);
+
+            KeyValueStore.Value old = existing.get(entry.getKey());
+            if(old == null || old.fingerprint() != fingerprint) {
+                writes.add(new KeyValueStore.Write(entry.getKey(), BinaryConfigSerializer.encode(element),
+                        fingerprint));
+            }
+        }
+
+        return writes;
+    }
+}
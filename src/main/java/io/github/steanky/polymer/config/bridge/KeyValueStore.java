@@ -0,0 +1,531 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * <p>A minimal embedded key-value store, persisted in a single append-only log file. String keys map to binary values,
+ * each stored alongside a 64-bit fingerprint which callers can use to detect unchanged values without reading them.
+ * The index of keys is held in memory, sorted, so all keys sharing a prefix can be found quickly.</p>
+ *
+ * <p>Changes are made in transactions, each of which is appended to the log followed by a commit record containing a
+ * checksum of the transaction, and forced to disk. When the store is opened, the log is scanned once to rebuild the
+ * index, and anything after the last intact commit record (such as a transaction interrupted by a crash) is discarded.
+ * Once the log has grown to twice its size when it was last opened or compacted, it is compacted by rewriting only
+ * the live values to a new file which then replaces the old one.</p>
+ *
+ * <p>This class is thread-safe. Any number of threads may read values concurrently, while commits are exclusive.</p>
+ */
+final class KeyValueStore implements Closeable {
+    private static final int MAGIC = 0x504C4B56; //PLKV
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 5;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte COMMIT = 3;
+
+    private static final Logger LOGGER = LogManager.getLogger(KeyValueStore.class);
+
+    //logs smaller than this are never compacted
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+    /**
+     * The location of a live value in the log.
+     */
+    record Value(long offset, int length, long fingerprint) {}
+
+    /**
+     * A single change to the store; a null value deletes the key.
+     */
+    record Write(@NotNull String key, @Nullable ByteBuffer value, long fingerprint) {}
+
+    private final Path file;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Value> index = new TreeMap<>();
+
+    private FileChannel channel;
+    private long size;
+    private long compactionSize;
+
+    private KeyValueStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the store in the given file, creating it if it does not exist.
+     */
+    static @NotNull KeyValueStore open(@NotNull Path file) throws IOException {
+        KeyValueStore store = new KeyValueStore(file);
+        store.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        try {
+            store.load();
+        }
+        catch (IOException | RuntimeException exception) {
+            store.channel.close();
+            throw exception;
+        }
+
+        return store;
+    }
+
+    private void load() throws IOException {
+        long fileSize = channel.size();
+        if(fileSize == 0) {
+            writeFully(channel, header(), 0);
+            channel.force(true);
+            size = HEADER_LENGTH;
+            compactionSize = MIN_COMPACTION_SIZE;
+            return;
+        }
+
+        LogReader reader = new LogReader(channel, fileSize);
+        try {
+            if(reader.take(HEADER_LENGTH).getInt() != MAGIC || reader.window.get() != VERSION) {
+                throw new ConfigParseException("not a valid store: " + file);
+            }
+        }
+        catch (EOFException exception) {
+            throw new ConfigParseException("not a valid store: " + file);
+        }
+
+        List<Object> pending = new ArrayList<>();
+        long committed = HEADER_LENGTH;
+        reader.crc.reset();
+
+        try {
+            while(reader.position < fileSize) {
+                int checksum = (int) reader.crc.getValue();
+                byte operation = reader.take(1).get();
+                if(operation == PUT) {
+                    String key = reader.key();
+                    long fingerprint = reader.take(8).getLong();
+                    int length = reader.varInt();
+                    long offset = reader.position;
+                    reader.skip(length);
+                    pending.add(key);
+                    pending.add(new Value(offset, length, fingerprint));
+                }
+                else if(operation == DELETE) {
+                    pending.add(reader.key());
+                    pending.add(null);
+                }
+                else if(operation == COMMIT) {
+                    if(reader.take(4).getInt() != checksum) {
+                        break;
+                    }
+
+                    for(int i = 0; i < pending.size(); i += 2) {
+                        apply((String) pending.get(i), (Value) pending.get(i + 1));
+                    }
+
+                    pending.clear();
+                    committed = reader.position;
+                    reader.crc.reset();
+                }
+                else {
+                    break;
+                }
+            }
+        }
+        catch (EOFException | IllegalArgumentException exception) {
+            //the last transaction was only partially written, and will be discarded
+        }
+
+        if(committed < fileSize) {
+            channel.truncate(committed);
+        }
+
+        size = committed;
+        compactionSize = Math.max(MIN_COMPACTION_SIZE, size * 2);
+    }
+
+    /*
+    Reads the log front to back through a fixed-size window, so that opening a store takes memory proportional to the
+    largest key rather than to the size of the log. The log is read rather than mapped, since mapped files cannot be
+    truncated on some platforms. Every byte consumed is added to the checksum of the current transaction.
+     */
+    private static final class LogReader {
+        private static final int WINDOW_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE).flip();
+        private final CRC32 crc = new CRC32();
+
+        //the position in the log of the first byte which has not been consumed
+        private long position;
+
+        private LogReader(FileChannel channel, long fileSize) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+        }
+
+        //consumes count bytes, which may not exceed the window size, and returns the window positioned before them
+        private ByteBuffer take(int count) throws IOException {
+            if(count > fileSize - position) {
+                throw new EOFException();
+            }
+
+            if(window.remaining() < count) {
+                window.compact();
+                long readPosition = position + window.position();
+                while(window.position() < count) {
+                    int read = channel.read(window, readPosition);
+                    if(read < 0) {
+                        throw new EOFException();
+                    }
+
+                    readPosition += read;
+                }
+
+                window.flip();
+            }
+
+            crc.update(window.array(), window.position(), count);
+            position += count;
+            return window;
+        }
+
+        private void skip(long count) throws IOException {
+            while(count > 0) {
+                int chunk = (int) Math.min(count, WINDOW_SIZE);
+                take(chunk);
+                window.position(window.position() + chunk);
+                count -= chunk;
+            }
+        }
+
+        private int varInt() throws IOException {
+            int value = 0;
+            for(int shift = 0; shift < 35; shift += 7) {
+                byte next = take(1).get();
+                value |= (next & 0x7F) << shift;
+                if(next >= 0) {
+                    if(value < 0) {
+                        throw new IllegalArgumentException("negative length");
+                    }
+
+                    return value;
+                }
+            }
+
+            throw new IllegalArgumentException("varint too long");
+        }
+
+        private String key() throws IOException {
+            int length = varInt();
+            if(length > fileSize - position) {
+                throw new EOFException();
+            }
+
+            byte[] bytes = new byte[length];
+            for(int offset = 0; offset < length; offset += WINDOW_SIZE) {
+                int chunk = Math.min(length - offset, WINDOW_SIZE);
+                take(chunk).get(bytes, offset, chunk);
+            }
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void apply(String key, Value value) {
+        if(value == null) {
+            index.remove(key);
+        }
+        else {
+            index.put(key, value);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the keys beginning with the given prefix, and their values.
+     */
+    @NotNull SortedMap<String, Value> prefixed(@NotNull String prefix) {
+        lock.readLock().lock();
+        try {
+            SortedMap<String, Value> result = new TreeMap<>();
+            for(Map.Entry<String, Value> entry : index.tailMap(prefix, true).entrySet()) {
+                if(!entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+
+                result.put(entry.getKey(), entry.getValue());
+            }
+
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the value of the given key, or null if it is not present.
+     */
+    @Nullable Value get(@NotNull String key) {
+        lock.readLock().lock();
+        try {
+            return index.get(key);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the keys beginning with the given prefix, and the data of their values. This is consistent with respect to
+     * commits, which do not run concurrently with reads.
+     */
+    @NotNull SortedMap<String, ByteBuffer> readPrefixed(@NotNull String prefix) throws IOException {
+        lock.readLock().lock();
+        try {
+            SortedMap<String, ByteBuffer> result = new TreeMap<>();
+            for(Map.Entry<String, Value> entry : index.tailMap(prefix, true).entrySet()) {
+                if(!entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+
+                Value value = entry.getValue();
+                ByteBuffer buffer = ByteBuffer.allocate(value.length);
+                readFully(channel, buffer, value.offset);
+                result.put(entry.getKey(), buffer.flip());
+            }
+
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Atomically applies the given writes, and forces them to disk before returning.
+     */
+    void commit(@NotNull List<Write> writes) throws IOException {
+        if(writes.isEmpty()) {
+            return;
+        }
+
+        ByteBuffer transaction = encode(writes);
+
+        lock.writeLock().lock();
+        try {
+            long start = size;
+            writeFully(channel, transaction, start);
+            channel.force(false);
+            size = start + transaction.limit();
+
+            //find the value offsets again, now that we know where the transaction was written
+            transaction.position(0);
+            for(Write write : writes) {
+                byte operation = transaction.get();
+                String key = readKey(transaction);
+                if(operation == PUT) {
+                    long fingerprint = transaction.getLong();
+                    int length = readVarInt(transaction);
+                    apply(key, new Value(start + transaction.position(), length, fingerprint));
+                    transaction.position(transaction.position() + length);
+                }
+                else {
+                    apply(key, null);
+                }
+            }
+
+            //the transaction is already durable, so failing to compact must not be reported as a failed commit
+            if(size > compactionSize) {
+                try {
+                    compact();
+                }
+                catch (IOException exception) {
+                    LOGGER.warn("failed to compact store " + file, exception);
+                    compactionSize = Math.max(compactionSize, size * 2);
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).put(VERSION).flip();
+    }
+
+    private static int recordLength(byte[] key, @Nullable ByteBuffer value) {
+        return 1 + 5 + key.length + (value == null ? 0 : 8 + 5 + value.remaining());
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte[] key, @Nullable ByteBuffer value, long fingerprint) {
+        buffer.put(value == null ? DELETE : PUT);
+        writeVarInt(buffer, key.length);
+        buffer.put(key);
+
+        if(value != null) {
+            buffer.putLong(fingerprint);
+            writeVarInt(buffer, value.remaining());
+            buffer.put(value.duplicate());
+        }
+    }
+
+    private static ByteBuffer encode(List<Write> writes) {
+        int capacity = 5;
+        List<byte[]> keys = new ArrayList<>(writes.size());
+        for(Write write : writes) {
+            byte[] key = write.key.getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            capacity += recordLength(key, write.value);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        for(int i = 0; i < writes.size(); i++) {
+            Write write = writes.get(i);
+            putRecord(buffer, keys.get(i), write.value, write.fingerprint);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().flip());
+        buffer.put(COMMIT).putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    //must be called while holding the write lock; values are copied one at a time, so the log is never fully in memory
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        try(FileChannel compacted = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(compacted, header(), 0);
+            long position = HEADER_LENGTH;
+            CRC32 crc = new CRC32();
+
+            for(Map.Entry<String, Value> entry : index.entrySet()) {
+                Value value = entry.getValue();
+                ByteBuffer data = ByteBuffer.allocate(value.length);
+                readFully(channel, data, value.offset);
+                data.flip();
+
+                byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                ByteBuffer record = ByteBuffer.allocate(recordLength(key, data));
+                putRecord(record, key, data, value.fingerprint);
+                record.flip();
+
+                crc.update(record.duplicate());
+                writeFully(compacted, record, position);
+                position += record.limit();
+            }
+
+            if(!index.isEmpty()) {
+                writeFully(compacted, ByteBuffer.allocate(5).put(COMMIT).putInt((int) crc.getValue()).flip(),
+                        position);
+            }
+
+            compacted.force(true);
+        }
+        catch (IOException | RuntimeException exception) {
+            Files.deleteIfExists(temp);
+            throw exception;
+        }
+
+        channel.close();
+        try {
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException exception) {
+            Files.deleteIfExists(temp);
+            throw exception;
+        }
+        finally {
+            //the file holds a complete store whether or not it was replaced, so reopen it either way
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index.clear();
+            load();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String readKey(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            byte next = buffer.get();
+            value |= (next & 0x7F) << shift;
+            if(next >= 0) {
+                if(value < 0) {
+                    throw new IllegalArgumentException("negative length");
+                }
+
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    private static void writeVarInt(ByteBuffer buffer, int value) {
+        while((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if(count < 0) {
+                throw new IOException("unexpected end of store");
+            }
+
+            position += count;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.codec.ConfigCodec;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * <p>An {@link AsyncFilesystemBridge} which can additionally publish files one at a time, as soon as each has been
+ * decoded, rather than only after the entire tree has been read. This allows users to begin processing some files while
+ * others are still being loaded.</p>
+ *
+ * <p>Each subscription to a publisher returned by {@link StreamingFilesystemBridge#readStreaming()} performs its own
+ * independent walk of the filesystem. Files are only decoded when there is outstanding demand, so slow subscribers
+ * will not cause an unbounded number of decoded files to accumulate in memory. Up to a configurable number of files
+ * may be decoded concurrently; because of this, files are not guaranteed to be published in any particular order.
+ * All tasks are submitted through the same limit as the other operations of this bridge, so streaming reads share
+ * its executor slots with ordinary reads and writes.</p>
+ */
+public class StreamingFilesystemBridge extends AsyncFilesystemBridge {
+    /**
+     * The default maximum number of files that will be decoded concurrently for a single subscriber.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_READS = Runtime.getRuntime().availableProcessors();
+
+    private final int maxConcurrentReads;
+
+    /**
+     * Creates a new StreamingFilesystemBridge.
+     * @param root the root file or directory
+     * @param readFilter the filter used to determine which files are read, or null to read every file
+     * @param codecFunction the function used to determine the codec for a given file
+     * @param fileKeyFunction the function used to determine the key for a given file or directory
+     * @param executorService the executor used to perform reads and writes
+     * @param maxInFlight the maximum number of operations submitted to the executor at once, including streaming
+     *                    reads
+     * @param resultTtl how long a completed read may be reused by identical reads; zero disables reuse
+     * @param maxConcurrentReads the maximum number of files decoded concurrently for a single subscriber
+     */
+    public StreamingFilesystemBridge(@NotNull Path root,
+                                     @Nullable FileFilter readFilter,
+                                     @NotNull Function<File, ConfigCodec> codecFunction,
+                                     @NotNull Function<File, String> fileKeyFunction,
+                                     @NotNull ExecutorService executorService,
+                                     int maxInFlight,
+                                     @NotNull Duration resultTtl,
+                                     int maxConcurrentReads) {
+        super(root, readFilter, codecFunction, fileKeyFunction, executorService, maxInFlight, resultTtl);
+        Validate.isTrue(maxConcurrentReads > 0, "maxConcurrentReads must be positive");
+        this.maxConcurrentReads = maxConcurrentReads;
+    }
+
+    public StreamingFilesystemBridge(@NotNull Path root,
+                                     @Nullable FileFilter readFilter,
+                                     @NotNull Function<File, ConfigCodec> codecFunction,
+                                     @NotNull Function<File, String> fileKeyFunction,
+                                     @NotNull ExecutorService executorService,
+                                     int maxConcurrentReads) {
+        this(root, readFilter, codecFunction, fileKeyFunction, executorService, DEFAULT_MAX_IN_FLIGHT, Duration.ZERO,
+                maxConcurrentReads);
+    }
+
+    public StreamingFilesystemBridge(@NotNull Path root, @NotNull ExecutorService executorService) {
+        this(root, DEFAULT_READ_FILTER, DEFAULT_CODEC_FUNCTION, DEFAULT_KEY_FUNCTION, executorService,
+                DEFAULT_MAX_CONCURRENT_READS);
+    }
+
+    /**
+     * Creates a {@link Flow.Publisher} which will publish a {@link FileEntry} for every file accepted by this bridge's
+     * read filter, as soon as it has been decoded. If an error occurs while reading any file, the subscriber's
+     * {@link Flow.Subscriber#onError(Throwable)} method will be called and no further files will be published.
+     * @return a new publisher, which will start walking the filesystem when it receives demand from a subscriber
+     */
+    public @NotNull Flow.Publisher<FileEntry> readStreaming() {
+        return subscriber -> {
+            Validate.notNull(subscriber);
+            FileSubscription subscription = new FileSubscription(subscriber);
+            subscriber.onSubscribe(subscription);
+        };
+    }
+
+    private final class FileSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super FileEntry> subscriber;
+
+        //results of completed read tasks, either FileEntry or Throwable
+        private final Queue<Object> completed = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        //the following fields are only accessed from within drain(), which is never run concurrently with itself
+        private final Deque<Path> directories = new ArrayDeque<>();
+        private final Deque<PathEntry> files = new ArrayDeque<>();
+        private final Set<Object> visited = new HashSet<>();
+        private final List<PathEntry> entries = new ArrayList<>();
+        private boolean started;
+        private boolean done;
+        private int inFlight;
+        private long emitted;
+
+        private volatile boolean cancelled;
+        private volatile Throwable requestError;
+        private volatile Throwable rejection;
+
+        private FileSubscription(Flow.Subscriber<? super FileEntry> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if(n <= 0) {
+                //must be signalled to the subscriber according to the Reactive Streams specification
+                requestError = new IllegalArgumentException("non-positive subscription request: " + n);
+                cancelled = true;
+            }
+            else {
+                //cap at Long.MAX_VALUE, which is treated as unbounded demand
+                requested.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            signal();
+        }
+
+        private void signal() {
+            if(wip.getAndIncrement() == 0) {
+                submit(() -> {
+                    drain();
+                    return null;
+                }).whenComplete((ignored, error) -> {
+                    if(error instanceof RejectedExecutionException) {
+                        //we still own the drain loop, so terminate from within it on this thread; this way, onError
+                        //can never run concurrently with (or be lost to) a drain started by another signal
+                        rejection = error;
+                        drain();
+                    }
+                });
+            }
+        }
+
+        private @Nullable PathEntry nextFile() throws IOException {
+            if(!started) {
+                started = true;
+
+                PathEntry rootEntry = new PathEntry(root, Files.readAttributes(root, BasicFileAttributes.class));
+                if(accepts(rootEntry)) {
+                    if(rootEntry.attributes().isDirectory()) {
+                        visited.add(directoryKey(rootEntry));
+                        directories.push(root);
+                    }
+                    else {
+                        files.push(rootEntry);
+                    }
+                }
+            }
+
+            //only expand directories when we actually need more files
+            while(files.isEmpty() && !directories.isEmpty()) {
+                entries.clear();
+                list(directories.pop(), entries);
+                for(PathEntry entry : entries) {
+                    if(entry.attributes().isDirectory()) {
+                        if(visited.add(directoryKey(entry))) {
+                            directories.push(entry.path());
+                        }
+                    }
+                    else {
+                        files.push(entry);
+                    }
+                }
+            }
+
+            return files.poll();
+        }
+
+        private void submitRead(PathEntry entry) {
+            inFlight++;
+
+            submit(() -> readFile(entry)).whenComplete((node, error) -> {
+                completed.offer(error == null ? new FileEntry(root.relativize(entry.path()), node) : error);
+                signal();
+            });
+        }
+
+        private void drain() {
+            int missed = 1;
+
+            do {
+                if(done) {
+                    return;
+                }
+
+                if(cancelled) {
+                    done = true;
+                    completed.clear();
+
+                    Throwable error = requestError;
+                    if(error != null) {
+                        subscriber.onError(error);
+                    }
+
+                    return;
+                }
+
+                Throwable rejected = rejection;
+                if(rejected != null) {
+                    done = true;
+                    completed.clear();
+                    subscriber.onError(rejected);
+                    return;
+                }
+
+                try {
+                    //publish any files that have finished decoding; cancellation may happen from within onNext, in
+                    //which case the next iteration of the outer loop terminates
+                    while(!cancelled && emitted < requested.get()) {
+                        Object result = completed.poll();
+                        if(result == null) {
+                            break;
+                        }
+
+                        inFlight--;
+                        if(result instanceof Throwable throwable) {
+                            done = true;
+                            subscriber.onError(throwable);
+                            return;
+                        }
+
+                        subscriber.onNext((FileEntry) result);
+                        emitted++;
+                    }
+
+                    //start decoding more files, but never more than we have demand for
+                    long requestedNow = requested.get();
+                    while(!cancelled && inFlight < maxConcurrentReads && emitted + inFlight < requestedNow) {
+                        PathEntry next = nextFile();
+                        if(next == null) {
+                            break;
+                        }
+
+                        submitRead(next);
+                    }
+
+                    if(!cancelled && inFlight == 0 && files.isEmpty() && directories.isEmpty() && started) {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                }
+                catch (Throwable throwable) {
+                    done = true;
+                    subscriber.onError(throwable);
+                    return;
+                }
+
+                missed = wip.addAndGet(-missed);
+            }
+            while(missed != 0);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.github.steanky.polymer.config.codec;
 
 import io.github.steanky.polymer.config.BasicTreeBuilder;
 import io.github.steanky.polymer.config.TreeBuilder;
+import io.github.steanky.polymer.config.collection.ConfigNode;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
 
@@ -13,9 +14,15 @@ import java.util.Set;
 
 abstract class AbstractConfigCodec implements ConfigCodec {
     private final Set<String> names;
+    private final TreeBuilder builder;
 
-    AbstractConfigCodec(@NotNull Set<String> names) {
+    AbstractConfigCodec(@NotNull Set<String> names, boolean primitiveLists) {
         this.names = Validate.noNullElements(names);
+        this.builder = primitiveLists ? BasicTreeBuilder.PRIMITIVE_LIST_INSTANCE : BasicTreeBuilder.INSTANCE;
+    }
+
+    AbstractConfigCodec(@NotNull Set<String> names) {
+        this(names, false);
     }
 
     @Override
@@ -43,9 +50,22 @@ abstract class AbstractConfigCodec implements ConfigCodec {
         }
     }
 
+    @Override
+    public final void encodeNode(@NotNull ConfigNode node, @NotNull OutputStream output, boolean close)
+            throws IOException {
+        try {
+            writeNode(node, output);
+        }
+        finally {
+            if(close) {
+                output.close();
+            }
+        }
+    }
+
     @Override
     public @NotNull TreeBuilder getBuilder() {
-        return BasicTreeBuilder.INSTANCE;
+        return builder;
     }
 
     @Override
@@ -56,4 +76,6 @@ abstract class AbstractConfigCodec implements ConfigCodec {
     protected abstract @NotNull Map<String, Object> read(@NotNull InputStream input) throws IOException;
 
     protected abstract void write(@NotNull Map<String, Object> input, OutputStream output) throws IOException;
+
+    protected abstract void writeNode(@NotNull ConfigNode node, @NotNull OutputStream output) throws IOException;
 }
\ No newline at end of file
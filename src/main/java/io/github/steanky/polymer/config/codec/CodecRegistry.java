@@ -1,19 +1,35 @@
 package io.github.steanky.polymer.config.codec;
 
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * The global registry of {@link ConfigCodec} instances, keyed by name. Lookups do not lock and may be performed
+ * concurrently with each other and with registration. Every codec returned by this registry is safe to use from
+ * multiple threads: codecs that are not thread-safe are registered using a factory and wrapped, so that each thread
+ * uses its own instance.
+ *
+ * <p>Names consisting of a registered name followed by the extension of a {@link CompressedCodec.Compression} (such as
+ * {@code toml.gz}) are also recognized, and refer to a {@link CompressedCodec} wrapping the registered codec. Use
+ * {@link CodecRegistry#extension(String)} to obtain the codec name of a file, so that these double extensions are
+ * taken into account.</p>
+ */
 public final class CodecRegistry {
     public static final CodecRegistry INSTANCE = new CodecRegistry();
 
-    private final Map<String, ConfigCodec> codecMap = new HashMap<>();
+    private final Map<String, ConfigCodec> codecMap = new ConcurrentHashMap<>();
+    private final Map<String, ConfigCodec> compressedCodecMap = new ConcurrentHashMap<>();
+    private final Object registrationLock = new Object();
 
-    //enforce singleton
-    private CodecRegistry() {
+    //only INSTANCE is used outside of this package; tests create their own registries so they cannot affect each other
+    CodecRegistry() {
         //register built-in codecs
-        List<ConfigCodec> defaultCodecs = List.of(new TomlCodec());
+        List<ConfigCodec> defaultCodecs = List.of(new ThreadConfinedCodec(TomlCodec::new), new JsonCodec());
 
         for(ConfigCodec codec : defaultCodecs) {
             registerCodecInternal(codec);
@@ -21,33 +37,119 @@ public final class CodecRegistry {
     }
 
     private void registerCodecInternal(ConfigCodec codec) {
-        for(String name : codec.getNames()) {
-            Validate.notNull(name, "codec name cannot be null");
+        Set<String> names = codec.getNames();
+        Validate.isTrue(!names.isEmpty(), "codec must supply at least one name");
 
-            if(codecMap.containsKey(name)) {
-                throw new IllegalArgumentException("attempt made to register codec with name that already exists: " +
-                        name);
+        //registration is rare, so it may lock; this ensures that a codec's names are either all registered or none are
+        synchronized (registrationLock) {
+            for(String name : names) {
+                Validate.notNull(name, "codec name cannot be null");
+
+                if(codecMap.containsKey(name)) {
+                    throw new IllegalArgumentException("attempt made to register codec with name that already " +
+                            "exists: " + name);
+                }
             }
-            else {
+
+            for(String name : names) {
                 codecMap.put(name, codec);
             }
         }
     }
 
+    /**
+     * Registers a thread-safe codec under each of its names.
+     * @param codec the codec to register
+     * @throws IllegalArgumentException if the codec has no names, one of its names is already registered, or it is
+     * not thread-safe (use {@link CodecRegistry#registerCodec(Supplier)} instead)
+     */
     public void registerCodec(@NotNull ConfigCodec codec) {
         Validate.notNull(codec);
-        Validate.isTrue(!(codec.getNames()).isEmpty(), "codec must supply at least one name");
+        Validate.isTrue(codec.isThreadSafe(), "codecs which are not thread-safe must be registered using a factory");
 
         registerCodecInternal(codec);
     }
 
+    /**
+     * Registers a codec created by the given factory under each of its names. If the codec is not thread-safe, the
+     * factory will be called again for every thread that uses it, and must return a new instance each time.
+     * @param factory the factory used to create codec instances
+     * @throws IllegalArgumentException if the codec has no names, or one of its names is already registered
+     */
+    public void registerCodec(@NotNull Supplier<? extends ConfigCodec> factory) {
+        Validate.notNull(factory);
+
+        ConfigCodec codec = Validate.notNull(factory.get(), "codec factory returned null");
+        registerCodecInternal(codec.isThreadSafe() ? codec : new ThreadConfinedCodec(factory));
+    }
+
     public ConfigCodec getCodec(@NotNull String name) {
         Validate.notNull(name);
-        return codecMap.get(name);
+
+        ConfigCodec codec = codecMap.get(name);
+        return codec != null ? codec : getCompressedCodec(name);
     }
 
     public boolean hasCodec(@NotNull String name) {
-        Validate.notNull(name);
-        return codecMap.containsKey(name);
+        return getCodec(name) != null;
+    }
+
+    private ConfigCodec getCompressedCodec(String name) {
+        ConfigCodec cached = compressedCodecMap.get(name);
+        if(cached != null) {
+            return cached;
+        }
+
+        int separator = name.lastIndexOf('.');
+        if(separator == -1) {
+            return null;
+        }
+
+        CompressedCodec.Compression compression = CompressedCodec.Compression.forExtension(name.substring(
+                separator + 1));
+        ConfigCodec codec = compression == null ? null : codecMap.get(name.substring(0, separator));
+        if(codec == null) {
+            return null;
+        }
+
+        return compressedCodecMap.computeIfAbsent(name, ignored -> new CompressedCodec(codec, compression));
+    }
+
+    /**
+     * Determines the codec name for the given file name. This is its extension, unless that is the extension of a
+     * {@link CompressedCodec.Compression} preceded by another extension, in which case both are used; so
+     * {@code mobs.toml} gives {@code toml}, and {@code mobs.toml.gz} gives {@code toml.gz}.
+     * @param fileName the file name, which may include a path
+     * @return the codec name, which is empty if the file has no extension
+     */
+    public static @NotNull String extension(@NotNull String fileName) {
+        Validate.notNull(fileName);
+
+        String name = FilenameUtils.getName(fileName);
+        int last = name.lastIndexOf('.');
+        if(last == -1) {
+            return "";
+        }
+
+        int previous = name.lastIndexOf('.', last - 1);
+        if(previous != -1 && CompressedCodec.Compression.forExtension(name.substring(last + 1)) != null) {
+            return name.substring(previous + 1);
+        }
+
+        return name.substring(last + 1);
+    }
+
+    /**
+     * Removes the path and the codec name (as determined by {@link CodecRegistry#extension(String)}) from the given
+     * file name; so both {@code mobs.toml} and {@code mobs.toml.gz} give {@code mobs}.
+     * @param fileName the file name, which may include a path
+     * @return the base name of the file
+     */
+    public static @NotNull String baseName(@NotNull String fileName) {
+        Validate.notNull(fileName);
+
+        String name = FilenameUtils.getName(fileName);
+        String extension = extension(name);
+        return extension.isEmpty() ? name : name.substring(0, name.length() - extension.length() - 1);
     }
 }
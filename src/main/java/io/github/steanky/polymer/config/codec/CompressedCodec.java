@@ -0,0 +1,213 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.TreeBuilder;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.*;
+
+/**
+ * <p>A ConfigCodec which adds transparent stream compression to another codec. Each name of the wrapped codec is
+ * suffixed with the extension of the compression format, so for example wrapping the TOML codec with
+ * {@link Compression#GZIP} gives a codec named {@code toml.gz}, which reads and writes files such as
+ * {@code mobs.toml.gz}.</p>
+ *
+ * <p>Compressed codecs do not need to be registered: {@link CodecRegistry#getCodec(String)} creates them on demand
+ * for names consisting of a registered codec's name followed by a compression extension. This codec is thread-safe
+ * if the wrapped codec is.</p>
+ */
+public final class CompressedCodec implements ConfigCodec {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The compression formats supported by CompressedCodec, all of which are provided by the JDK.
+     */
+    public enum Compression {
+        /**
+         * The gzip format, with the extension {@code gz}.
+         */
+        GZIP("gz") {
+            @Override
+            InputStream decompress(InputStream input) throws IOException {
+                return new GZIPInputStream(input, BUFFER_SIZE);
+            }
+
+            @Override
+            DeflaterOutputStream compress(OutputStream output) throws IOException {
+                return new GZIPOutputStream(output, BUFFER_SIZE);
+            }
+        },
+
+        /**
+         * The zlib (deflate) format, with the extension {@code deflate}.
+         */
+        DEFLATE("deflate") {
+            @Override
+            InputStream decompress(InputStream input) {
+                //the default inflater and deflater are released when the stream is closed, unlike ones we provide
+                return new InflaterInputStream(new BufferedInputStream(input, BUFFER_SIZE));
+            }
+
+            @Override
+            DeflaterOutputStream compress(OutputStream output) {
+                return new DeflaterOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+            }
+        };
+
+        private final String extension;
+
+        Compression(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Gets the file extension (without a leading period) of this compression format.
+         * @return the extension
+         */
+        public @NotNull String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Finds the compression format with the given file extension.
+         * @param extension the extension, without a leading period
+         * @return the compression format, or null if there is none with the given extension
+         */
+        public static @Nullable Compression forExtension(@NotNull String extension) {
+            Validate.notNull(extension);
+
+            for(Compression compression : values()) {
+                if(compression.extension.equals(extension)) {
+                    return compression;
+                }
+            }
+
+            return null;
+        }
+
+        abstract InputStream decompress(InputStream input) throws IOException;
+
+        abstract DeflaterOutputStream compress(OutputStream output) throws IOException;
+    }
+
+    private final ConfigCodec codec;
+    private final Compression compression;
+    private final Set<String> names;
+
+    /**
+     * Creates a new CompressedCodec.
+     * @param codec the codec to wrap
+     * @param compression the compression format to use
+     */
+    public CompressedCodec(@NotNull ConfigCodec codec, @NotNull Compression compression) {
+        this.codec = Validate.notNull(codec);
+        this.compression = Validate.notNull(compression);
+
+        Set<String> names = new LinkedHashSet<>();
+        for(String name : codec.getNames()) {
+            names.add(name + "." + compression.extension);
+        }
+
+        this.names = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Gets the codec wrapped by this codec.
+     * @return the wrapped codec
+     */
+    public @NotNull ConfigCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Gets the compression format used by this codec.
+     * @return the compression format
+     */
+    public @NotNull Compression getCompression() {
+        return compression;
+    }
+
+    @Override
+    public @NotNull Map<String, Object> decode(@NotNull InputStream input, boolean close) throws IOException {
+        Validate.notNull(input);
+
+        //the decompressing stream is always closed to release its native resources
+        try(InputStream decompressed = compression.decompress(shield(input, close))) {
+            return codec.decode(decompressed, false);
+        }
+    }
+
+    @Override
+    public void encode(@NotNull Map<String, Object> input, @NotNull OutputStream output, boolean close)
+            throws IOException {
+        Validate.notNull(input);
+
+        try(DeflaterOutputStream compressed = compression.compress(shield(output, close))) {
+            codec.encode(input, compressed, false);
+        }
+    }
+
+    @Override
+    public void encodeNode(@NotNull ConfigNode node, @NotNull OutputStream output, boolean close)
+            throws IOException {
+        Validate.notNull(node);
+
+        try(DeflaterOutputStream compressed = compression.compress(shield(output, close))) {
+            codec.encodeNode(node, compressed, false);
+        }
+    }
+
+    //prevents the given stream from being closed, unless close is true
+    private static InputStream shield(InputStream input, boolean close) {
+        if(close) {
+            return input;
+        }
+
+        return new FilterInputStream(input) {
+            @Override
+            public void close() {}
+        };
+    }
+
+    private static OutputStream shield(OutputStream output, boolean close) {
+        Validate.notNull(output);
+        if(close) {
+            return output;
+        }
+
+        return new FilterOutputStream(output) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                //closing the compressing stream finishes it, and only needs to flush what it wrote
+                out.flush();
+            }
+        };
+    }
+
+    @Override
+    public @NotNull TreeBuilder getBuilder() {
+        return codec.getBuilder();
+    }
+
+    @Override
+    public @NotNull Set<String> getNames() {
+        return names;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return codec.isThreadSafe();
+    }
+}
@@ -1,11 +1,13 @@
 package io.github.steanky.polymer.config.codec;
 
 import io.github.steanky.polymer.config.TreeBuilder;
+import io.github.steanky.polymer.config.collection.ConfigNode;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,7 +16,32 @@ public interface ConfigCodec {
 
     void encode(@NotNull Map<String, Object> input, @NotNull OutputStream output, boolean close) throws IOException;
 
+    /**
+     * Encodes a {@link ConfigNode} tree. Implementations should write the tree to the output as they walk it, rather
+     * than first converting it into a map, so that encoding does not require a second copy of the data. The default
+     * implementation does perform this conversion using the codec's {@link TreeBuilder}, then delegates to
+     * {@link ConfigCodec#encode(Map, OutputStream, boolean)}; it exists only for compatibility.
+     * @param node the node to encode
+     * @param output the stream to write to
+     * @param close true if the stream should be closed after encoding, false otherwise
+     * @throws IOException if an IO error occurs, or the tree cannot be represented in this codec's format
+     */
+    default void encodeNode(@NotNull ConfigNode node, @NotNull OutputStream output, boolean close)
+            throws IOException {
+        encode(getBuilder().makeMap(node, LinkedHashMap::new), output, close);
+    }
+
     @NotNull TreeBuilder getBuilder();
 
     @NotNull Set<String> getNames();
+
+    /**
+     * Determines whether this codec may be used by several threads at once. Codecs which keep mutable state between
+     * calls (for example, a shared writer or buffer) should return false. Such codecs can only be registered with
+     * {@link CodecRegistry} using a factory, so that each thread is given its own instance.
+     * @return true if this codec is thread-safe, false otherwise
+     */
+    default boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -0,0 +1,98 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.BasicTreeBuilder;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link ConfigCodec} implementation for JSON, which uses its own streaming parser and writer rather than a
+ * third-party library. Integral numbers are decoded as {@link Long} (or {@link Double} if they are too large), and all
+ * other numbers as Double. The root of every document must be a JSON object.
+ *
+ * <p>A JsonCodec may optionally decode scalars lazily. In this mode, the whole input is read into memory, and string
+ * and number values are returned as {@link ConfigPrimitive} instances (rather than String and Number) which decode
+ * their value from the input only when it is first accessed. This greatly reduces load time and memory usage for
+ * large documents of which only a small part is actually read. The builder returned by
+ * {@link JsonCodec#getBuilder()} accepts these primitives as-is.</p>
+ *
+ * <p>A JsonCodec may also be created with a builder which stores large arrays of numbers or booleans in
+ * primitive-backed lists; see {@link BasicTreeBuilder#PRIMITIVE_LIST_INSTANCE}. Lazily decoded scalars are never
+ * converted to such lists.</p>
+ */
+public class JsonCodec extends AbstractConfigCodec {
+    private final boolean prettyPrint;
+    private final boolean lazyScalars;
+
+    /**
+     * Creates a new JsonCodec.
+     * @param prettyPrint true if encoded output should be indented and spread over multiple lines, false if it should
+     *                    be as compact as possible
+     * @param lazyScalars true if strings and numbers should be decoded lazily, false if they should be decoded
+     *                    immediately into String and Number objects
+     * @param primitiveLists true if {@link JsonCodec#getBuilder()} should return
+     *                       {@link BasicTreeBuilder#PRIMITIVE_LIST_INSTANCE}, false if it should return
+     *                       {@link BasicTreeBuilder#INSTANCE}
+     */
+    public JsonCodec(boolean prettyPrint, boolean lazyScalars, boolean primitiveLists) {
+        super(Set.of("json"), primitiveLists);
+        this.prettyPrint = prettyPrint;
+        this.lazyScalars = lazyScalars;
+    }
+
+    /**
+     * Creates a new JsonCodec which stores every list in an ArrayConfigList.
+     * @param prettyPrint true if encoded output should be indented and spread over multiple lines, false if it should
+     *                    be as compact as possible
+     * @param lazyScalars true if strings and numbers should be decoded lazily, false if they should be decoded
+     *                    immediately into String and Number objects
+     */
+    public JsonCodec(boolean prettyPrint, boolean lazyScalars) {
+        this(prettyPrint, lazyScalars, false);
+    }
+
+    /**
+     * Creates a new JsonCodec which decodes scalars immediately.
+     * @param prettyPrint true if encoded output should be indented and spread over multiple lines, false if it should
+     *                    be as compact as possible
+     */
+    public JsonCodec(boolean prettyPrint) {
+        this(prettyPrint, false);
+    }
+
+    /**
+     * Creates a new JsonCodec which pretty-prints its output.
+     */
+    public JsonCodec() {
+        this(true);
+    }
+
+    @Override
+    protected @NotNull Map<String, Object> read(@NotNull InputStream input) throws IOException {
+        if(lazyScalars) {
+            return new LazyJsonParser(input.readAllBytes()).parse();
+        }
+
+        return new StreamingJsonParser(input).parse();
+    }
+
+    @Override
+    protected void write(@NotNull Map<String, Object> input, OutputStream output) throws IOException {
+        JsonPrinter printer = new JsonPrinter(output, prettyPrint);
+        printer.value(input);
+        printer.flush();
+    }
+
+    @Override
+    protected void writeNode(@NotNull ConfigNode node, @NotNull OutputStream output) throws IOException {
+        JsonPrinter printer = new JsonPrinter(output, prettyPrint);
+        printer.element(node);
+        printer.flush();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.ConfigParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Base class for parsers which read a single JSON object into a tree of {@link Map}, {@link List}, and scalar values.
+ * This class handles the structure of the document, using an explicit stack rather than recursion so that arbitrarily
+ * deep documents can be parsed without exhausting the call stack. Subclasses read the input itself, and determine how
+ * scalars are represented.
+ */
+abstract class JsonParser {
+    /**
+     * Creates an exception describing a syntax error at the current position.
+     */
+    abstract @NotNull ConfigParseException error(@NotNull String message);
+
+    /**
+     * Consumes and returns the next character which is not JSON whitespace, or -1 at the end of the input.
+     */
+    abstract int nextNonWhitespace() throws IOException;
+
+    /**
+     * Reads the remainder of a string, whose opening quote has already been consumed.
+     */
+    abstract @NotNull String readString() throws IOException;
+
+    /**
+     * Reads a string, number, boolean or null value beginning with the given (already consumed) character.
+     */
+    abstract @Nullable Object readScalar(int character) throws IOException;
+
+    final void expect(int expected) throws IOException {
+        int actual = nextNonWhitespace();
+        if(actual != expected) {
+            throw error("expected '" + (char) expected + "' but found " + describe(actual));
+        }
+    }
+
+    static @NotNull String describe(int character) {
+        return character == -1 ? "end of input" : "'" + (char) character + "'";
+    }
+
+    /**
+     * Parses the whole document.
+     * @return the root object
+     * @throws IOException if an IO error occurs, or a {@link ConfigParseException} if the document is not valid JSON
+     */
+    final @NotNull Map<String, Object> parse() throws IOException {
+        int character = nextNonWhitespace();
+        if(character != '{') {
+            throw error("expected '{' at start of document but found " + describe(character));
+        }
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        Deque<Object> stack = new ArrayDeque<>();
+        Object current = root;
+        boolean first = true;
+
+        while(true) {
+            character = nextNonWhitespace();
+            boolean isMap = current instanceof Map<?, ?>;
+            char close = isMap ? '}' : ']';
+
+            if(character == close) {
+                if(stack.isEmpty()) {
+                    character = nextNonWhitespace();
+                    if(character != -1) {
+                        throw error("unexpected " + describe(character) + " after end of document");
+                    }
+
+                    return root;
+                }
+
+                current = stack.pop();
+                first = false;
+                continue;
+            }
+
+            if(!first) {
+                if(character != ',') {
+                    throw error("expected ',' or '" + close + "' but found " + describe(character));
+                }
+
+                character = nextNonWhitespace();
+            }
+
+            String key = null;
+            if(isMap) {
+                if(character != '"') {
+                    throw error("expected string key but found " + describe(character));
+                }
+
+                key = readString();
+                expect(':');
+                character = nextNonWhitespace();
+            }
+
+            Object value;
+            boolean container = false;
+            if(character == '{') {
+                value = new LinkedHashMap<String, Object>();
+                container = true;
+            }
+            else if(character == '[') {
+                value = new ArrayList<>();
+                container = true;
+            }
+            else {
+                value = readScalar(character);
+            }
+
+            if(isMap) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> map = (Map<String, Object>) current;
+                map.put(key, value);
+            }
+            else {
+                @SuppressWarnings("unchecked")
+                List<Object> list = (List<Object>) current;
+                list.add(value);
+            }
+
+            if(container) {
+                stack.push(current);
+                current = value;
+                first = true;
+            }
+            else {
+                first = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes JSON text to an {@link OutputStream}, either from raw values or directly from a ConfigElement tree. Supports
+ * compact output and pretty-printed output (one value per line, indented by four spaces per level).
+ */
+final class JsonPrinter extends TextPrinter {
+    private static final String INDENT = "    ";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final boolean prettyPrint;
+    private int depth;
+
+    JsonPrinter(@NotNull OutputStream output, boolean prettyPrint) {
+        super(output);
+        this.prettyPrint = prettyPrint;
+    }
+
+    void beginObject() throws IOException {
+        write('{');
+        depth++;
+    }
+
+    void endObject(boolean empty) throws IOException {
+        depth--;
+        if(!empty) {
+            newline();
+        }
+
+        write('}');
+    }
+
+    void beginArray() throws IOException {
+        write('[');
+        depth++;
+    }
+
+    void endArray(boolean empty) throws IOException {
+        depth--;
+        if(!empty) {
+            newline();
+        }
+
+        write(']');
+    }
+
+    /**
+     * Writes the separator that precedes a member of an object or array: a comma if it is not the first, followed by
+     * a newline and indentation if pretty-printing.
+     */
+    void separator(boolean first) throws IOException {
+        if(!first) {
+            write(',');
+        }
+
+        newline();
+    }
+
+    void key(String key) throws IOException {
+        string(key);
+        write(':');
+        if(prettyPrint) {
+            write(' ');
+        }
+    }
+
+    private void newline() throws IOException {
+        if(prettyPrint) {
+            write('\n');
+            for(int i = 0; i < depth; i++) {
+                write(INDENT);
+            }
+        }
+    }
+
+    void nullValue() throws IOException {
+        write("null");
+    }
+
+    void booleanValue(boolean value) throws IOException {
+        write(value ? "true" : "false");
+    }
+
+    void number(Number number) throws IOException {
+        if(number instanceof Double || number instanceof Float) {
+            doubleValue(number.doubleValue());
+        }
+        else {
+            write(number.toString());
+        }
+    }
+
+    @Override
+    void doubleValue(double value) throws IOException {
+        if(Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IOException("JSON cannot represent non-finite number " + value);
+        }
+
+        write(Double.toString(value));
+    }
+
+    void string(String string) throws IOException {
+        write('"');
+
+        int length = string.length();
+        int start = 0;
+        for(int i = 0; i < length; i++) {
+            char character = string.charAt(i);
+            String escape;
+            if(character == '"') {
+                escape = "\\\"";
+            }
+            else if(character == '\\') {
+                escape = "\\\\";
+            }
+            else if(character < 0x20) {
+                escape = switch (character) {
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\t' -> "\\t";
+                    case '\b' -> "\\b";
+                    case '\f' -> "\\f";
+                    default -> "\\u00" + HEX[character >> 4] + HEX[character & 0xF];
+                };
+            }
+            else {
+                continue;
+            }
+
+            write(string, start, i);
+            write(escape);
+            start = i + 1;
+        }
+
+        write(string, start, length);
+
+        write('"');
+    }
+
+    @Override
+    void element(@NotNull ConfigElement element) throws IOException {
+        switch (element.getType()) {
+            case NODE -> {
+                ConfigNode node = element.asConfigNode();
+                enter(node);
+                beginObject();
+                boolean first = true;
+                for(Map.Entry<String, ConfigElement> entry : node.entrySet()) {
+                    separator(first);
+                    key(entry.getKey());
+                    element(entry.getValue());
+                    first = false;
+                }
+
+                endObject(first);
+                exit(node);
+            }
+            case ARRAY -> {
+                ConfigList list = element.asConfigList();
+                enter(list);
+                beginArray();
+                int size = list.size();
+                for(int i = 0; i < size; i++) {
+                    separator(i == 0);
+                    listElement(list, i);
+                }
+
+                endArray(size == 0);
+                exit(list);
+            }
+            case STRING -> string(element.asString());
+            case NUMBER -> number(element.asNumber());
+            case BOOLEAN -> booleanValue(element.asBoolean());
+            case NULL -> nullValue();
+        }
+    }
+
+    /**
+     * Writes a raw value, which may be a map, collection, array, string, number, boolean, or null.
+     */
+    void value(Object value) throws IOException {
+        if(value == null) {
+            nullValue();
+        }
+        else if(value instanceof String string) {
+            string(string);
+        }
+        else if(value instanceof Number number) {
+            number(number);
+        }
+        else if(value instanceof Boolean bool) {
+            booleanValue(bool);
+        }
+        else if(value instanceof Map<?, ?> map) {
+            beginObject();
+            boolean first = true;
+            for(Map.Entry<?, ?> entry : map.entrySet()) {
+                separator(first);
+                key(entry.getKey().toString());
+                value(entry.getValue());
+                first = false;
+            }
+
+            endObject(first);
+        }
+        else if(value instanceof Collection<?> collection) {
+            beginArray();
+            boolean first = true;
+            for(Object element : collection) {
+                separator(first);
+                value(element);
+                first = false;
+            }
+
+            endArray(first);
+        }
+        else if(value.getClass().isArray()) {
+            beginArray();
+            int length = Array.getLength(value);
+            for(int i = 0; i < length; i++) {
+                separator(i == 0);
+                value(Array.get(value, i));
+            }
+
+            endArray(length == 0);
+        }
+        else if(value instanceof ConfigElement element) {
+            //raw maps may contain elements, such as lazily decoded primitives
+            element(element);
+        }
+        else {
+            throw new IOException("cannot encode object of type " + value.getClass().getName() + " as JSON");
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.ConfigParseException;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.ElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>A JSON parser which operates on a complete document held in memory as UTF-8 bytes, and defers decoding strings
+ * and numbers until they are used. Each string or number value is validated while parsing, but is represented by a
+ * {@link ConfigPrimitive} which only records where the value lies in the source. The value is decoded from the source
+ * the first time it is accessed, and then remembered.</p>
+ *
+ * <p>Keys, booleans and nulls are decoded immediately, as they are either always needed or cheap to represent.</p>
+ *
+ * <p>Every lazy primitive refers to the source array, so the entire document is retained in memory for as long as any
+ * of the primitives it produced are reachable.</p>
+ */
+final class LazyJsonParser extends JsonParser {
+    private final byte[] source;
+    private int position;
+
+    LazyJsonParser(byte @NotNull [] source) {
+        this.source = source;
+    }
+
+    private static final class LazyPrimitive extends ConfigPrimitive {
+        private final byte[] source;
+        private final int start;
+        private final int end;
+
+        private LazyPrimitive(ElementType type, byte[] source, int start, int end) {
+            super(type);
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected @NotNull Object decode() {
+            return getType() == ElementType.STRING ? decodeString(source, start, end) : decodeNumber(source, start, end);
+        }
+    }
+
+    @Override
+    @NotNull ConfigParseException error(@NotNull String message) {
+        return new ConfigParseException(message + " at byte " + position);
+    }
+
+    private int read() {
+        return position < source.length ? source[position++] & 0xFF : -1;
+    }
+
+    private int peek() {
+        return position < source.length ? source[position] & 0xFF : -1;
+    }
+
+    @Override
+    int nextNonWhitespace() {
+        byte[] source = this.source;
+        while(position < source.length) {
+            int character = source[position++] & 0xFF;
+            if(character != ' ' && character != '\n' && character != '\r' && character != '\t') {
+                return character;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    @NotNull String readString() throws ConfigParseException {
+        int start = position;
+        return decodeString(source, start, scanString());
+    }
+
+    @Override
+    @Nullable Object readScalar(int character) throws ConfigParseException {
+        switch (character) {
+            case '"': {
+                int start = position;
+                return new LazyPrimitive(ElementType.STRING, source, start, scanString());
+            }
+            case 't':
+                readLiteral("rue");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("alse");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("ull");
+                return null;
+            default:
+                if(character == '-' || (character >= '0' && character <= '9')) {
+                    int start = position - 1;
+                    scanNumber();
+                    return new LazyPrimitive(ElementType.NUMBER, source, start, position);
+                }
+
+                throw error("unexpected " + describe(character));
+        }
+    }
+
+    private void readLiteral(String remaining) throws ConfigParseException {
+        for(int i = 0; i < remaining.length(); i++) {
+            if(read() != remaining.charAt(i)) {
+                throw error("invalid literal");
+            }
+        }
+    }
+
+    //validates a string whose opening quote has been consumed, and returns the index of its closing quote
+    private int scanString() throws ConfigParseException {
+        byte[] source = this.source;
+        while(position < source.length) {
+            int character = source[position++] & 0xFF;
+            if(character == '"') {
+                return position - 1;
+            }
+            else if(character == '\\') {
+                scanEscape();
+            }
+            else if(character < 0x20) {
+                throw error("unescaped control character in string");
+            }
+        }
+
+        throw error("unterminated string");
+    }
+
+    private void scanEscape() throws ConfigParseException {
+        switch (read()) {
+            case '"':
+            case '\\':
+            case '/':
+            case 'b':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                return;
+            case 'u':
+                for(int i = 0; i < 4; i++) {
+                    if(Character.digit(read(), 16) < 0) {
+                        throw error("invalid unicode escape");
+                    }
+                }
+
+                return;
+            default:
+                throw error("invalid escape sequence");
+        }
+    }
+
+    //validates a number against the JSON grammar, starting from its first character
+    private void scanNumber() throws ConfigParseException {
+        position--;
+        if(peek() == '-') {
+            position++;
+        }
+
+        int start = position;
+        skipDigits();
+        if(position == start || (source[start] == '0' && position - start > 1)) {
+            throw error("invalid number");
+        }
+
+        if(peek() == '.') {
+            start = ++position;
+            skipDigits();
+            if(position == start) {
+                throw error("invalid number");
+            }
+        }
+
+        int character = peek();
+        if(character == 'e' || character == 'E') {
+            position++;
+            character = peek();
+            if(character == '+' || character == '-') {
+                position++;
+            }
+
+            start = position;
+            skipDigits();
+            if(position == start) {
+                throw error("invalid number");
+            }
+        }
+
+        //a valid number followed directly by more number characters, like 1.2.3, is also invalid
+        character = peek();
+        if(character == '.' || character == 'e' || character == 'E' || character == '+' || character == '-') {
+            throw error("invalid number");
+        }
+    }
+
+    private void skipDigits() {
+        byte[] source = this.source;
+        while(position < source.length && source[position] >= '0' && source[position] <= '9') {
+            position++;
+        }
+    }
+
+    private static Number decodeNumber(byte[] source, int start, int end) {
+        //numbers were validated while parsing, so they are plain ASCII
+        String string = new String(source, start, end - start, StandardCharsets.ISO_8859_1);
+
+        boolean integral = true;
+        for(int i = start; i < end; i++) {
+            byte character = source[i];
+            if(character == '.' || character == 'e' || character == 'E') {
+                integral = false;
+                break;
+            }
+        }
+
+        if(integral) {
+            try {
+                return Long.parseLong(string);
+            }
+            catch (NumberFormatException exception) {
+                //too large to fit in a long, so fall back to a double
+            }
+        }
+
+        return Double.parseDouble(string);
+    }
+
+    private static String decodeString(byte[] source, int start, int end) {
+        int escape = start;
+        while(escape < end && source[escape] != '\\') {
+            escape++;
+        }
+
+        if(escape == end) {
+            return new String(source, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        //escapes are ASCII, so they never split a multibyte sequence, and the runs between them can be decoded alone
+        StringBuilder builder = new StringBuilder(end - start);
+        int runStart = start;
+        int i = escape;
+        while(i < end) {
+            if(source[i] != '\\') {
+                i++;
+                continue;
+            }
+
+            builder.append(new String(source, runStart, i - runStart, StandardCharsets.UTF_8));
+            byte character = source[i + 1];
+            i += 2;
+
+            switch (character) {
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                case 't' -> builder.append('\t');
+                case 'u' -> {
+                    int value = 0;
+                    for(int j = 0; j < 4; j++) {
+                        value = (value << 4) | Character.digit(source[i++], 16);
+                    }
+
+                    builder.append((char) value);
+                }
+                //quote, backslash and forward slash stand for themselves
+                default -> builder.append((char) character);
+            }
+
+            runStart = i;
+        }
+
+        builder.append(new String(source, runStart, end - runStart, StandardCharsets.UTF_8));
+        return builder.toString();
+    }
+}
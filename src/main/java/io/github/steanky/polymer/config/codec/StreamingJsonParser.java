@@ -0,0 +1,272 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.ConfigParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A streaming JSON parser which reads a single JSON object from an {@link InputStream} into a tree of {@link Map},
+ * {@link List}, String, Number, Boolean and null values. Input is read in fixed-size chunks, so arbitrarily large
+ * documents can be parsed without buffering the whole input.
+ */
+final class StreamingJsonParser extends JsonParser {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder builder = new StringBuilder();
+    private int position;
+    private int limit;
+    private long consumed;
+
+    StreamingJsonParser(@NotNull InputStream input) {
+        this.reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    @NotNull ConfigParseException error(@NotNull String message) {
+        return new ConfigParseException(message + " at character " + (consumed + position));
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = 0;
+
+        int count;
+        do {
+            count = reader.read(buffer, 0, buffer.length);
+        }
+        while(count == 0);
+
+        if(count < 0) {
+            return false;
+        }
+
+        limit = count;
+        return true;
+    }
+
+    private int read() throws IOException {
+        if(position == limit && !fill()) {
+            return -1;
+        }
+
+        return buffer[position++];
+    }
+
+    @Override
+    int nextNonWhitespace() throws IOException {
+        while(true) {
+            if(position == limit && !fill()) {
+                return -1;
+            }
+
+            char character = buffer[position++];
+            if(character != ' ' && character != '\n' && character != '\r' && character != '\t') {
+                return character;
+            }
+        }
+    }
+
+    @Override
+    @Nullable Object readScalar(int character) throws IOException {
+        switch (character) {
+            case '"':
+                return readString();
+            case 't':
+                readLiteral("rue");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("alse");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("ull");
+                return null;
+            default:
+                if(character == '-' || (character >= '0' && character <= '9')) {
+                    return readNumber((char) character);
+                }
+
+                throw error("unexpected " + describe(character));
+        }
+    }
+
+    private void readLiteral(String remaining) throws IOException {
+        for(int i = 0; i < remaining.length(); i++) {
+            if(read() != remaining.charAt(i)) {
+                throw error("invalid literal");
+            }
+        }
+    }
+
+    private Number readNumber(char first) throws IOException {
+        builder.setLength(0);
+        builder.append(first);
+
+        boolean integral = true;
+        while(true) {
+            if(position == limit && !fill()) {
+                break;
+            }
+
+            char character = buffer[position];
+            if((character >= '0' && character <= '9') || character == '-' || character == '+') {
+                builder.append(character);
+            }
+            else if(character == '.' || character == 'e' || character == 'E') {
+                builder.append(character);
+                integral = false;
+            }
+            else {
+                break;
+            }
+
+            position++;
+        }
+
+        String string = builder.toString();
+        if(!isValidNumber(string)) {
+            throw error("invalid number '" + string + "'");
+        }
+
+        if(integral) {
+            try {
+                return Long.parseLong(string);
+            }
+            catch (NumberFormatException exception) {
+                //too large to fit in a long, so fall back to a double
+            }
+        }
+
+        return Double.parseDouble(string);
+    }
+
+    //checks against the JSON number grammar, which is stricter than what Long and Double will accept
+    private static boolean isValidNumber(String string) {
+        int length = string.length();
+        int i = 0;
+        if(string.charAt(i) == '-') {
+            i++;
+        }
+
+        int start = i;
+        i = skipDigits(string, i);
+        if(i == start || (string.charAt(start) == '0' && i - start > 1)) {
+            return false;
+        }
+
+        if(i < length && string.charAt(i) == '.') {
+            start = ++i;
+            i = skipDigits(string, i);
+            if(i == start) {
+                return false;
+            }
+        }
+
+        if(i < length && (string.charAt(i) == 'e' || string.charAt(i) == 'E')) {
+            i++;
+            if(i < length && (string.charAt(i) == '+' || string.charAt(i) == '-')) {
+                i++;
+            }
+
+            start = i;
+            i = skipDigits(string, i);
+            if(i == start) {
+                return false;
+            }
+        }
+
+        return i == length;
+    }
+
+    private static int skipDigits(String string, int i) {
+        while(i < string.length() && string.charAt(i) >= '0' && string.charAt(i) <= '9') {
+            i++;
+        }
+
+        return i;
+    }
+
+    @Override
+    @NotNull String readString() throws IOException {
+        builder.setLength(0);
+
+        while(true) {
+            //copy runs of ordinary characters in bulk
+            int start = position;
+            while(position < limit) {
+                char character = buffer[position];
+                if(character == '"' || character == '\\' || character < 0x20) {
+                    break;
+                }
+
+                position++;
+            }
+
+            builder.append(buffer, start, position - start);
+
+            if(position == limit) {
+                if(!fill()) {
+                    throw error("unterminated string");
+                }
+
+                continue;
+            }
+
+            char character = buffer[position++];
+            if(character == '"') {
+                return builder.toString();
+            }
+            else if(character == '\\') {
+                builder.append(readEscape());
+            }
+            else {
+                throw error("unescaped control character in string");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int character = read();
+        switch (character) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for(int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if(digit < 0) {
+                        throw error("invalid unicode escape");
+                    }
+
+                    value = (value << 4) | digit;
+                }
+
+                return (char) value;
+            default:
+                throw error("invalid escape sequence");
+        }
+    }
+}
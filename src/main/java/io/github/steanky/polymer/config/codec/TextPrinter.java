@@ -0,0 +1,114 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.collection.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Base class for the text-based printers used by the built-in codecs. Characters are collected in a fixed-size buffer
+ * and written to the underlying stream as UTF-8 once it fills up, so output of any size is produced using a constant
+ * amount of memory.
+ */
+abstract class TextPrinter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer writer;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private Set<Object> active;
+
+    TextPrinter(@NotNull OutputStream output) {
+        this.writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+    }
+
+    void write(char character) throws IOException {
+        if(position == buffer.length) {
+            flushBuffer();
+        }
+
+        buffer[position++] = character;
+    }
+
+    void write(@NotNull String string) throws IOException {
+        write(string, 0, string.length());
+    }
+
+    void write(@NotNull String string, int start, int end) throws IOException {
+        while(start < end) {
+            if(position == buffer.length) {
+                flushBuffer();
+            }
+
+            int count = Math.min(end - start, buffer.length - position);
+            string.getChars(start, start + count, buffer, position);
+            position += count;
+            start += count;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        writer.write(buffer, 0, position);
+        position = 0;
+    }
+
+    /**
+     * Flushes all buffered characters to the underlying stream, without closing it.
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    /**
+     * Marks a container as being written. Containers that (directly or indirectly) contain themselves cannot be
+     * represented in text, so an exception is thrown if one is entered again before it has been exited.
+     */
+    void enter(@NotNull Object container) throws IOException {
+        if(active == null) {
+            active = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+
+        if(!active.add(container)) {
+            throw new IOException("cannot encode a container which contains itself");
+        }
+    }
+
+    void exit(@NotNull Object container) {
+        active.remove(container);
+    }
+
+    abstract void element(@NotNull ConfigElement element) throws IOException;
+
+    abstract void doubleValue(double value) throws IOException;
+
+    /**
+     * Writes the element at the given index of a list. Elements of primitive-backed lists are written straight from
+     * their backing array, without wrapping them in a ConfigPrimitive first.
+     */
+    void listElement(@NotNull ConfigList list, int index) throws IOException {
+        if(list instanceof IntConfigList ints) {
+            write(Integer.toString(ints.getInt(index)));
+        }
+        else if(list instanceof LongConfigList longs) {
+            write(Long.toString(longs.getLong(index)));
+        }
+        else if(list instanceof DoubleConfigList doubles) {
+            doubleValue(doubles.getDouble(index));
+        }
+        else if(list instanceof BooleanConfigList booleans) {
+            write(booleans.getBoolean(index) ? "true" : "false");
+        }
+        else {
+            element(list.get(index));
+        }
+    }
+}
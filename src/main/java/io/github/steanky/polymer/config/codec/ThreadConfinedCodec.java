@@ -0,0 +1,69 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.TreeBuilder;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe ConfigCodec which wraps a codec that is not. Every thread that uses this codec is lazily given its
+ * own instance of the wrapped codec, so concurrent calls neither share state nor contend with each other.
+ */
+final class ThreadConfinedCodec implements ConfigCodec {
+    private final ThreadLocal<ConfigCodec> codecs;
+    private final Set<String> names;
+    private final TreeBuilder builder;
+
+    ThreadConfinedCodec(@NotNull Supplier<? extends ConfigCodec> factory) {
+        Validate.notNull(factory);
+
+        ConfigCodec prototype = Validate.notNull(factory.get(), "codec factory returned null");
+        this.names = Set.copyOf(prototype.getNames());
+        this.builder = prototype.getBuilder();
+
+        this.codecs = ThreadLocal.withInitial(() -> {
+            ConfigCodec codec = Validate.notNull(factory.get(), "codec factory returned null");
+            Validate.validState(codec != prototype, "codec factory must create a new instance each time");
+            return codec;
+        });
+    }
+
+    @Override
+    public @NotNull Map<String, Object> decode(@NotNull InputStream input, boolean close) throws IOException {
+        return codecs.get().decode(input, close);
+    }
+
+    @Override
+    public void encode(@NotNull Map<String, Object> input, @NotNull OutputStream output, boolean close)
+            throws IOException {
+        codecs.get().encode(input, output, close);
+    }
+
+    @Override
+    public void encodeNode(@NotNull ConfigNode node, @NotNull OutputStream output, boolean close)
+            throws IOException {
+        codecs.get().encodeNode(node, output, close);
+    }
+
+    @Override
+    public @NotNull TreeBuilder getBuilder() {
+        return builder;
+    }
+
+    @Override
+    public @NotNull Set<String> getNames() {
+        return names;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+}
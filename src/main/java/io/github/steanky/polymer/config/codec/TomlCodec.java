@@ -3,6 +3,7 @@ package io.github.steanky.polymer.config.codec;
 import com.moandjiezana.toml.Toml;
 import com.moandjiezana.toml.TomlWriter;
 import io.github.steanky.polymer.config.ConfigParseException;
+import io.github.steanky.polymer.config.collection.ConfigNode;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -14,11 +15,21 @@ import java.util.Set;
 class TomlCodec extends AbstractConfigCodec {
     private final TomlWriter writer;
 
-    TomlCodec() {
-        super(Set.of("toml"));
+    TomlCodec(boolean primitiveLists) {
+        super(Set.of("toml"), primitiveLists);
         writer = new TomlWriter();
     }
 
+    TomlCodec() {
+        this(false);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        //the TomlWriter instance is shared between all calls to write
+        return false;
+    }
+
     @Override
     protected @NotNull Map<String, Object> read(@NotNull InputStream input) throws IOException {
         try {
@@ -33,4 +44,11 @@ class TomlCodec extends AbstractConfigCodec {
     protected void write(@NotNull Map<String, Object> input, OutputStream output) throws IOException {
         writer.write(input, output);
     }
+
+    @Override
+    protected void writeNode(@NotNull ConfigNode node, @NotNull OutputStream output) throws IOException {
+        TomlPrinter printer = new TomlPrinter(output);
+        printer.root(node);
+        printer.flush();
+    }
 }
\ No newline at end of file
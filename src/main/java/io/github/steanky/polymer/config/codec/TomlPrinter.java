@@ -0,0 +1,256 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ElementType;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Writes TOML text to an {@link OutputStream} directly from a ConfigNode tree. Primitive values and lists of
+ * primitives are written as {@code key = value} pairs, nested nodes as {@code [table]} sections, and lists consisting
+ * solely of nodes as {@code [[array]]} sections. Any other nesting is written inline. TOML has no representation for
+ * null, so null values in nodes are omitted, and null values in lists cause an exception.
+ */
+final class TomlPrinter extends TextPrinter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private boolean empty = true;
+
+    TomlPrinter(@NotNull OutputStream output) {
+        super(output);
+    }
+
+    void root(@NotNull ConfigNode root) throws IOException {
+        enter(root);
+        table(root, "");
+        exit(root);
+    }
+
+    private static boolean isTableArray(ConfigElement element) {
+        if(!element.getType().isArray()) {
+            return false;
+        }
+
+        ConfigList list = element.asConfigList();
+        if(list.isEmpty()) {
+            return false;
+        }
+
+        for(ConfigElement child : list) {
+            if(!child.getType().isNode()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void table(ConfigNode table, String path) throws IOException {
+        //simple values need to come first, anything after a section header belongs to that section
+        for(Map.Entry<String, ConfigElement> entry : table.entrySet()) {
+            ConfigElement value = entry.getValue();
+            ElementType type = value.getType();
+            if(type.isNull() || type.isNode() || isTableArray(value)) {
+                continue;
+            }
+
+            key(entry.getKey());
+            write(" = ");
+            element(value);
+            write('\n');
+            empty = false;
+        }
+
+        for(Map.Entry<String, ConfigElement> entry : table.entrySet()) {
+            ConfigElement value = entry.getValue();
+            if(value.getType().isNode()) {
+                String childPath = childPath(path, entry.getKey());
+                ConfigNode child = value.asConfigNode();
+
+                header("[", childPath, "]");
+                enter(child);
+                table(child, childPath);
+                exit(child);
+            }
+            else if(isTableArray(value)) {
+                String childPath = childPath(path, entry.getKey());
+                ConfigList list = value.asConfigList();
+
+                enter(list);
+                for(ConfigElement element : list) {
+                    ConfigNode child = element.asConfigNode();
+
+                    header("[[", childPath, "]]");
+                    enter(child);
+                    table(child, childPath);
+                    exit(child);
+                }
+                exit(list);
+            }
+        }
+    }
+
+    private void header(String open, String path, String close) throws IOException {
+        if(!empty) {
+            write('\n');
+        }
+
+        write(open);
+        write(path);
+        write(close);
+        write('\n');
+        empty = false;
+    }
+
+    private static String childPath(String path, String key) {
+        String formattedKey = isBareKey(key) ? key : quote(key);
+        return path.isEmpty() ? formattedKey : path + "." + formattedKey;
+    }
+
+    private static boolean isBareKey(String key) {
+        if(key.isEmpty()) {
+            return false;
+        }
+
+        for(int i = 0; i < key.length(); i++) {
+            char character = key.charAt(i);
+            if(!((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') ||
+                    (character >= '0' && character <= '9') || character == '_' || character == '-')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String quote(String string) {
+        StringBuilder builder = new StringBuilder(string.length() + 2);
+        builder.append('"');
+        for(int i = 0; i < string.length(); i++) {
+            char character = string.charAt(i);
+            String escape = escape(character);
+            if(escape == null) {
+                builder.append(character);
+            }
+            else {
+                builder.append(escape);
+            }
+        }
+
+        return builder.append('"').toString();
+    }
+
+    //returns null for characters which may appear in a basic string as-is
+    private static String escape(char character) {
+        return switch (character) {
+            case '"' -> "\\\"";
+            case '\\' -> "\\\\";
+            case '\n' -> "\\n";
+            case '\r' -> "\\r";
+            case '\t' -> "\\t";
+            case '\b' -> "\\b";
+            case '\f' -> "\\f";
+            default -> character < 0x20 || character == 0x7F ? "\\u00" + HEX[character >> 4] + HEX[character & 0xF] :
+                    null;
+        };
+    }
+
+    private void key(String key) throws IOException {
+        if(isBareKey(key)) {
+            write(key);
+        }
+        else {
+            string(key);
+        }
+    }
+
+    private void string(String string) throws IOException {
+        write('"');
+
+        int length = string.length();
+        int start = 0;
+        for(int i = 0; i < length; i++) {
+            String escape = escape(string.charAt(i));
+            if(escape != null) {
+                write(string, start, i);
+                write(escape);
+                start = i + 1;
+            }
+        }
+
+        write(string, start, length);
+        write('"');
+    }
+
+    @Override
+    void doubleValue(double value) throws IOException {
+        if(Double.isNaN(value)) {
+            write("nan");
+        }
+        else if(Double.isInfinite(value)) {
+            write(value > 0 ? "inf" : "-inf");
+        }
+        else {
+            write(Double.toString(value));
+        }
+    }
+
+    @Override
+    void element(@NotNull ConfigElement element) throws IOException {
+        switch (element.getType()) {
+            case NODE -> {
+                ConfigNode node = element.asConfigNode();
+                enter(node);
+                write('{');
+                boolean first = true;
+                for(Map.Entry<String, ConfigElement> entry : node.entrySet()) {
+                    if(entry.getValue().getType().isNull()) {
+                        continue;
+                    }
+
+                    write(first ? " " : ", ");
+                    key(entry.getKey());
+                    write(" = ");
+                    element(entry.getValue());
+                    first = false;
+                }
+
+                write(first ? "}" : " }");
+                exit(node);
+            }
+            case ARRAY -> {
+                ConfigList list = element.asConfigList();
+                enter(list);
+                write('[');
+                int size = list.size();
+                for(int i = 0; i < size; i++) {
+                    if(i > 0) {
+                        write(", ");
+                    }
+
+                    listElement(list, i);
+                }
+
+                write(']');
+                exit(list);
+            }
+            case STRING -> string(element.asString());
+            case NUMBER -> {
+                Number number = element.asNumber();
+                if(number instanceof Double || number instanceof Float) {
+                    doubleValue(number.doubleValue());
+                }
+                else {
+                    write(number.toString());
+                }
+            }
+            case BOOLEAN -> write(element.asBoolean() ? "true" : "false");
+            case NULL -> throw new IOException("TOML cannot represent null values in lists");
+        }
+    }
+}
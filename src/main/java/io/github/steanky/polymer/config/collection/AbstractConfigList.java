@@ -1,6 +1,7 @@
 package io.github.steanky.polymer.config.collection;
 
 import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ElementHashing;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
 
@@ -15,42 +16,267 @@ import java.util.*;
  * ConfigList's non-nullability specification otherwise. For example, a third-party subclass could unknowingly construct
  * an implementation of this class that passes a list to its superclass which is also accessible elsewhere, and could
  * potentially have null values added to it after construction.</p>
+ *
+ * <p>Like {@link AbstractConfigNode}, lists cache their hash and fingerprint until they or any of their descendants
+ * are modified.</p>
  */
 abstract class AbstractConfigList extends AbstractList<ConfigElement> implements ConfigList {
     private final List<ConfigElement> list;
+    private final boolean linked;
+    private ConfigListener[] listeners;
+
+    private Object owners;
+    volatile CacheLinks.Cache cache = CacheLinks.Cache.EMPTY;
+    volatile AccessProfiler.Counters profile;
 
     AbstractConfigList(@NotNull List<ConfigElement> list) {
+        this(list, true);
+    }
+
+    /**
+     * Creates a list which may be unlinked. Unlinked lists are never registered as owners of their elements, so they
+     * can be discarded without being removed from them, but since they are not told when an element changes they
+     * never cache their hash or fingerprint.
+     */
+    AbstractConfigList(@NotNull List<ConfigElement> list, boolean linked) {
         this.list = Validate.noNullElements(list);
+        this.linked = linked;
+        if(linked) {
+            for(ConfigElement element : list) {
+                CacheLinks.link(element, this);
+            }
+        }
+    }
+
+    void addOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.addOwner(owners, owner);
+    }
+
+    void removeOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.removeOwner(owners, owner);
+    }
+
+    @Override
+    public void invalidateCache() {
+        //owners can only have cached anything if this list did, so there is nothing to propagate otherwise
+        if(cache != CacheLinks.Cache.EMPTY) {
+            cache = CacheLinks.Cache.EMPTY;
+            ElementHashing.invalidateOwners(owners);
+        }
+    }
+
+    private void changed(ConfigElement oldValue, ConfigElement newValue) {
+        if(linked && oldValue != null) {
+            CacheLinks.unlink(oldValue, this);
+        }
+
+        if(linked && newValue != null) {
+            CacheLinks.link(newValue, this);
+        }
+
+        invalidateCache();
+        notifyListeners(oldValue, newValue);
+    }
+
+    @Override
+    public int hashCode() {
+        CacheLinks.Cache cache = this.cache;
+        if(cache.has(CacheLinks.HASH_VALID)) {
+            return cache.hash();
+        }
+
+        int hash = 1;
+        boolean cacheable = linked;
+        for(ConfigElement element : list) {
+            hash = 31 * hash + element.hashCode();
+            cacheable &= CacheLinks.isCached(element, CacheLinks.HASH_VALID);
+        }
+
+        if(cacheable) {
+            this.cache = cache.withHash(hash);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public long fingerprint() {
+        CacheLinks.Cache cache = this.cache;
+        if(cache.has(CacheLinks.FINGERPRINT_VALID)) {
+            return cache.fingerprint();
+        }
+
+        long fingerprint = ElementHashing.LIST_START;
+        boolean cacheable = linked;
+        for(ConfigElement element : list) {
+            fingerprint = ElementHashing.combine(fingerprint, element.fingerprint());
+            cacheable &= CacheLinks.isCached(element, CacheLinks.FINGERPRINT_VALID);
+        }
+
+        if(cacheable) {
+            this.cache = cache.withFingerprint(fingerprint);
+        }
+
+        return fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+
+        //lists with different hashes cannot be equal, and comparing cached hashes is much cheaper than a full walk
+        if(obj instanceof AbstractConfigList other && hashCode() != other.hashCode()) {
+            return false;
+        }
+
+        return super.equals(obj);
+    }
+
+    private void notifyListeners(ConfigElement oldValue, ConfigElement newValue) {
+        ConfigListener[] listeners = this.listeners;
+        if(listeners != null) {
+            Listeners.notify(listeners, this, null, oldValue, newValue);
+        }
+    }
+
+    @Override
+    public void addListener(@NotNull ConfigListener listener) {
+        listeners = Listeners.add(listeners, listener);
+    }
+
+    @Override
+    public void removeListener(@NotNull ConfigListener listener) {
+        listeners = Listeners.remove(listeners, listener);
     }
 
     @Override
     public boolean add(@NotNull ConfigElement element) {
         Validate.notNull(element);
-        return list.add(element);
+
+        boolean added = list.add(element);
+        changed(null, element);
+        return added;
     }
 
     @Override
     public void add(int index, @NotNull ConfigElement element) {
         Validate.notNull(element);
+
         list.add(index, element);
+        changed(null, element);
     }
 
     @Override
     public @NotNull ConfigElement set(int index, @NotNull ConfigElement element) {
         Validate.notNull(element);
-        return list.set(index, element);
+
+        ConfigElement old = list.set(index, element);
+        changed(old, element);
+        return old;
     }
 
     @Override
     public @NotNull ConfigElement remove(int index) {
-        return list.remove(index);
+        ConfigElement old = list.remove(index);
+        changed(old, null);
+        return old;
     }
 
     @Override
     public @NotNull ConfigElement get(int index) {
+        ConfigElement element = list.get(index);
+        if(AccessProfiler.enabled) {
+            AccessProfiler.counters(this).record(index);
+        }
+
+        return element;
+    }
+
+    /**
+     * Obtains the element at the given index without counting the access, for use by traversals.
+     */
+    @NotNull ConfigElement element(int index) {
         return list.get(index);
     }
 
+    @Override
+    public @NotNull Iterator<ConfigElement> iterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public @NotNull ListIterator<ConfigElement> listIterator(int index) {
+        return new TrackedIterator(list.listIterator(index));
+    }
+
+    //iterates the backing list directly, rather than through get(int), so iteration is not counted by AccessProfiler;
+    //modifications are tracked in the same way as those made through this list
+    private final class TrackedIterator implements ListIterator<ConfigElement> {
+        private final ListIterator<ConfigElement> iterator;
+        private ConfigElement current;
+
+        private TrackedIterator(ListIterator<ConfigElement> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public ConfigElement next() {
+            current = iterator.next();
+            return current;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return iterator.hasPrevious();
+        }
+
+        @Override
+        public ConfigElement previous() {
+            current = iterator.previous();
+            return current;
+        }
+
+        @Override
+        public int nextIndex() {
+            return iterator.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return iterator.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            changed(current, null);
+        }
+
+        @Override
+        public void set(ConfigElement element) {
+            Validate.notNull(element);
+
+            iterator.set(element);
+            changed(current, element);
+            current = element;
+        }
+
+        @Override
+        public void add(ConfigElement element) {
+            Validate.notNull(element);
+
+            iterator.add(element);
+            changed(null, element);
+        }
+    }
+
     @Override
     public int size() {
         return list.size();
@@ -1,8 +1,10 @@
 package io.github.steanky.polymer.config.collection;
 
 import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ElementHashing;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -11,11 +13,23 @@ import java.util.*;
  * define any abstract methods. Its main use is to enable concrete implementations to specify what kind of map they'd
  * like to use.</p>
  *
+ * <p>Nodes cache their {@link Object#hashCode()} and {@link ConfigElement#fingerprint()} once computed. Every child is
+ * linked back to the node that holds it, and invalidates that node's cache when it changes, so the cache of a node
+ * stays valid until it or any of its descendants is modified. Since most comparisons are between unequal nodes,
+ * {@link AbstractConfigNode#equals(Object)} first compares hashes, which is cheap if they are already cached. Cached
+ * values are published safely, so a tree which is shared between threads, but not modified, may be hashed by all of
+ * them at once.</p>
+ *
  * <p>See {@link AbstractConfigList} for an explanation of the reasoning behind why this class was made
  * package-private.</p>
  */
 abstract class AbstractConfigNode extends AbstractMap<String, ConfigElement> implements ConfigNode {
     final Map<String, ConfigElement> mappings;
+    ConfigListener[] listeners;
+
+    private Object owners;
+    volatile CacheLinks.Cache cache = CacheLinks.Cache.EMPTY;
+    volatile AccessProfiler.Counters profile;
 
     AbstractConfigNode(@NotNull Map<String, ConfigElement> mappings) {
         Validate.notNull(mappings);
@@ -24,6 +38,128 @@ abstract class AbstractConfigNode extends AbstractMap<String, ConfigElement> imp
         Validate.noNullElements(mappings.values());
 
         this.mappings = mappings;
+        for(ConfigElement value : mappings.values()) {
+            CacheLinks.link(value, this);
+        }
+    }
+
+    /**
+     * Determines whether this node reports every change to its contents, and may therefore cache hashes. Subclasses
+     * whose contents can change without going through this class should return false.
+     */
+    boolean tracksChanges() {
+        return true;
+    }
+
+    void addOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.addOwner(owners, owner);
+    }
+
+    void removeOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.removeOwner(owners, owner);
+    }
+
+    @Override
+    public void invalidateCache() {
+        //owners can only have cached anything if this node did, so there is nothing to propagate otherwise
+        if(cache != CacheLinks.Cache.EMPTY) {
+            cache = CacheLinks.Cache.EMPTY;
+            ElementHashing.invalidateOwners(owners);
+        }
+    }
+
+    //called after a value has been added or replaced in the backing map
+    private void replaced(String key, ConfigElement oldValue, ConfigElement newValue) {
+        if(oldValue != null) {
+            CacheLinks.unlink(oldValue, this);
+        }
+
+        CacheLinks.link(newValue, this);
+        invalidateCache();
+        notifyListeners(key, oldValue, newValue);
+    }
+
+    //called after a value has been removed from the backing map
+    private void removed(String key, ConfigElement oldValue) {
+        CacheLinks.unlink(oldValue, this);
+        invalidateCache();
+        notifyListeners(key, oldValue, null);
+    }
+
+    @Override
+    public int hashCode() {
+        CacheLinks.Cache cache = this.cache;
+        if(cache.has(CacheLinks.HASH_VALID)) {
+            return cache.hash();
+        }
+
+        if(!tracksChanges()) {
+            return super.hashCode();
+        }
+
+        int hash = 0;
+        boolean cacheable = true;
+        for(Entry<String, ConfigElement> entry : mappings.entrySet()) {
+            ConfigElement value = entry.getValue();
+            hash += entry.getKey().hashCode() ^ value.hashCode();
+            cacheable &= CacheLinks.isCached(value, CacheLinks.HASH_VALID);
+        }
+
+        if(cacheable) {
+            this.cache = cache.withHash(hash);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public long fingerprint() {
+        CacheLinks.Cache cache = this.cache;
+        if(cache.has(CacheLinks.FINGERPRINT_VALID)) {
+            return cache.fingerprint();
+        }
+
+        if(!tracksChanges()) {
+            return ElementHashing.node(this);
+        }
+
+        long sum = 0;
+        boolean cacheable = true;
+        for(Entry<String, ConfigElement> entry : mappings.entrySet()) {
+            ConfigElement value = entry.getValue();
+            sum += ElementHashing.entry(entry.getKey(), value.fingerprint());
+            cacheable &= CacheLinks.isCached(value, CacheLinks.FINGERPRINT_VALID);
+        }
+
+        long fingerprint = ElementHashing.node(sum, mappings.size());
+        if(cacheable) {
+            this.cache = cache.withFingerprint(fingerprint);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Compares this node to another object according to the {@link Map#equals(Object)} contract. Since
+     * {@link io.github.steanky.polymer.config.ConfigPrimitive} uses identity equality, nodes are only equal if they
+     * map the same keys to the same primitive instances (or to equal containers); separately built trees with the same
+     * contents are not equal. Use {@link ConfigElement#fingerprint()} to compare contents.
+     * @param obj the object to compare
+     * @return true if the object is an equal map, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+
+        //nodes with different hashes cannot be equal, and comparing cached hashes is much cheaper than a full walk
+        if(obj instanceof AbstractConfigNode other && tracksChanges() && other.tracksChanges()) {
+            //comparing the backing maps directly means the comparison is not counted by AccessProfiler
+            return hashCode() == other.hashCode() && mappings.equals(other.mappings);
+        }
+
+        return super.equals(obj);
     }
 
     protected void validateKeyValuePair(@NotNull String key, @NotNull ConfigElement value) {
@@ -34,13 +170,42 @@ abstract class AbstractConfigNode extends AbstractMap<String, ConfigElement> imp
     @Override
     public ConfigElement get(Object key) {
         Validate.notNull(key);
+        if(AccessProfiler.enabled && key instanceof String string) {
+            AccessProfiler.counters(this).record(string);
+        }
+
+        return mappings.get(key);
+    }
+
+    //looks up a child without counting it in AccessProfiler
+    ConfigElement child(@NotNull String key) {
         return mappings.get(key);
     }
 
+    void notifyListeners(@Nullable String key, @Nullable ConfigElement oldValue, @Nullable ConfigElement newValue) {
+        ConfigListener[] listeners = this.listeners;
+        if(listeners != null) {
+            Listeners.notify(listeners, this, key, oldValue, newValue);
+        }
+    }
+
+    @Override
+    public void addListener(@NotNull ConfigListener listener) {
+        listeners = Listeners.add(listeners, listener);
+    }
+
+    @Override
+    public void removeListener(@NotNull ConfigListener listener) {
+        listeners = Listeners.remove(listeners, listener);
+    }
+
     @Override
     public ConfigElement put(@NotNull String key, @NotNull ConfigElement value) {
         validateKeyValuePair(key, value);
-        return mappings.put(key, value);
+
+        ConfigElement old = mappings.put(key, value);
+        replaced(key, old, value);
+        return old;
     }
 
     @Override
@@ -58,18 +223,95 @@ abstract class AbstractConfigNode extends AbstractMap<String, ConfigElement> imp
     @Override
     public ConfigElement remove(Object key) {
         Validate.notNull(key);
-        return mappings.remove(key);
+
+        ConfigElement old = mappings.remove(key);
+        if(old != null) {
+            removed((String) key, old);
+        }
+
+        return old;
     }
 
     @Override
     public void clear() {
-        mappings.clear();
+        if(listeners != null) {
+            //copy first, so listeners observe each removal in turn
+            for(Entry<String, ConfigElement> entry : new ArrayList<>(mappings.entrySet())) {
+                mappings.remove(entry.getKey());
+                removed(entry.getKey(), entry.getValue());
+            }
+        }
+        else {
+            for(ConfigElement value : mappings.values()) {
+                CacheLinks.unlink(value, this);
+            }
+
+            mappings.clear();
+            invalidateCache();
+        }
     }
 
     @NotNull
     @Override
     public Set<Entry<String, ConfigElement>> entrySet() {
-        return mappings.entrySet();
+        return new EntrySet();
+    }
+
+    //view of the backing map's entries which routes modifications through this node, so they are tracked
+    private final class EntrySet extends AbstractSet<Entry<String, ConfigElement>> {
+        @Override
+        public @NotNull Iterator<Entry<String, ConfigElement>> iterator() {
+            Iterator<Entry<String, ConfigElement>> iterator = mappings.entrySet().iterator();
+            return new Iterator<>() {
+                private Entry<String, ConfigElement> current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Entry<String, ConfigElement> next() {
+                    current = iterator.next();
+                    return new TrackedEntry(current);
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                    removed(current.getKey(), current.getValue());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return mappings.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return mappings.entrySet().contains(o);
+        }
+
+        @Override
+        public void clear() {
+            AbstractConfigNode.this.clear();
+        }
+    }
+
+    private final class TrackedEntry extends SimpleEntry<String, ConfigElement> {
+        private TrackedEntry(Entry<String, ConfigElement> entry) {
+            super(entry);
+        }
+
+        @Override
+        public ConfigElement setValue(ConfigElement value) {
+            //replacing the value of an existing key is not a structural modification, so iteration may continue
+            ConfigElement old = put(getKey(), value);
+            super.setValue(value);
+            return old;
+        }
     }
 
     @Override
@@ -78,6 +320,10 @@ abstract class AbstractConfigNode extends AbstractMap<String, ConfigElement> imp
         Validate.inclusiveBetween(1, Integer.MAX_VALUE, keys.length);
 
         if(keys.length == 1) { //simplest case, just return directly from our map
+            if(AccessProfiler.enabled) {
+                AccessProfiler.counters(this).record(keys[0]);
+            }
+
             return Optional.ofNullable(mappings.get(keys[0]));
         }
         else { //iterate through the provided keys
@@ -0,0 +1,392 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.ElementHashing;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * <p>Contains functionality common to {@link ConfigList} implementations which store their elements in an array of
+ * Java primitives rather than as individual {@link ConfigElement} objects. Such lists are homogeneous: they may only
+ * contain {@link ConfigPrimitive} instances wrapping a value which can be converted to the element type without loss
+ * (for example, a {@link LongConfigList} accepts Integer values), and attempting to add anything else will result in an
+ * {@link IllegalArgumentException}.</p>
+ *
+ * <p>Since the elements are not stored as objects, {@link AbstractPrimitiveConfigList#get(int)} returns a new
+ * ConfigPrimitive on every call. Modifying the returned object will not affect the list; use
+ * {@link AbstractPrimitiveConfigList#set(int, ConfigElement)} or one of the unboxed accessors provided by subclasses
+ * instead.</p>
+ *
+ * <p>Subclasses only provide typed access to the backing array, which this class manages.</p>
+ *
+ * <p>See {@link AbstractConfigList} for an explanation of the reasoning behind why this class was made
+ * package-private.</p>
+ */
+abstract class AbstractPrimitiveConfigList extends AbstractList<ConfigElement> implements ConfigList, RandomAccess {
+    static final int DEFAULT_CAPACITY = 10;
+
+    //always a primitive array, whose first size elements are in use
+    Object values;
+    int size;
+    ConfigListener[] listeners;
+    volatile AccessProfiler.Counters profile;
+    private Object owners;
+
+    AbstractPrimitiveConfigList(@NotNull Object values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Boxes the value at the given index, which must be in range.
+     */
+    abstract @NotNull Object boxed(int index);
+
+    /**
+     * Stores a value previously returned by {@link AbstractPrimitiveConfigList#convert(Object)} at the given index.
+     */
+    abstract void store(int index, @NotNull Object value);
+
+    /**
+     * Converts a value to the boxed element type of this list, or returns null if it cannot be converted without loss.
+     */
+    abstract @Nullable Object convert(@Nullable Object value);
+
+    /**
+     * Returns the name of the element type of this list, for use in error messages.
+     */
+    abstract @NotNull String typeName();
+
+    void addOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.addOwner(owners, owner);
+    }
+
+    void removeOwner(@NotNull ConfigElement owner) {
+        owners = ElementHashing.removeOwner(owners, owner);
+    }
+
+    /**
+     * Invalidates the cached hashes of the containers holding this list. Must be called on every modification.
+     */
+    void invalidateOwners() {
+        ElementHashing.invalidateOwners(owners);
+    }
+
+    /**
+     * Notifies listeners of a change, and invalidates the cached hashes of the containers holding this list. Values
+     * are boxed into new ConfigPrimitive instances only if there are listeners to receive them.
+     */
+    void notifyListeners(@Nullable Object oldValue, @Nullable Object newValue) {
+        invalidateOwners();
+
+        ConfigListener[] listeners = this.listeners;
+        if(listeners != null) {
+            Listeners.notify(listeners, this, null, oldValue == null ? null : new ConfigPrimitive(oldValue),
+                    newValue == null ? null : new ConfigPrimitive(newValue));
+        }
+    }
+
+    @Override
+    public void addListener(@NotNull ConfigListener listener) {
+        listeners = Listeners.add(listeners, listener);
+    }
+
+    @Override
+    public void removeListener(@NotNull ConfigListener listener) {
+        listeners = Listeners.remove(listeners, listener);
+    }
+
+    void ensureCapacity(int capacity) {
+        int oldCapacity = Array.getLength(values);
+        if(capacity > oldCapacity) {
+            values = copyValues(Math.max(capacity, Math.max(DEFAULT_CAPACITY, oldCapacity + (oldCapacity >> 1))));
+        }
+    }
+
+    /**
+     * Copies the values in use into a new array of the same type, with the given length.
+     */
+    @NotNull Object copyValues(int length) {
+        Object copy = Array.newInstance(values.getClass().getComponentType(), length);
+        System.arraycopy(values, 0, copy, 0, Math.min(size, length));
+        return copy;
+    }
+
+    /**
+     * Appends the first length values of the given array, which must be of the same type as the backing array.
+     */
+    void addArray(@NotNull Object array, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(array, 0, values, size, length);
+        size += length;
+        modCount++;
+        invalidateOwners();
+
+        if(listeners != null) {
+            for(int i = size - length; i < size; i++) {
+                notifyListeners(null, boxed(i));
+            }
+        }
+    }
+
+    /**
+     * Ensures that a new value can be appended, and returns the index it should be stored at.
+     */
+    int append() {
+        ensureCapacity(size + 1);
+        modCount++;
+        return size++;
+    }
+
+    private Object unwrap(ConfigElement element) {
+        Validate.notNull(element);
+
+        if(element instanceof ConfigPrimitive primitive) {
+            Object value = convert(primitive.getObject());
+            if(value != null) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("this list may only contain ConfigPrimitive instances wrapping values " +
+                "convertible to " + typeName());
+    }
+
+    /**
+     * Returns a new {@link ConfigPrimitive} wrapping the value at the given index. The returned primitive is a copy:
+     * modifying it does not affect this list.
+     * @param index the index of the value
+     * @return a new ConfigPrimitive wrapping the value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @Override
+    public @NotNull ConfigElement get(int index) {
+        Objects.checkIndex(index, size);
+        if(AccessProfiler.enabled) {
+            AccessProfiler.counters(this).record(index);
+        }
+
+        return new ConfigPrimitive(boxed(index));
+    }
+
+    /**
+     * Obtains the element at the given index without counting the access, for use by traversals.
+     */
+    @NotNull ConfigElement element(int index) {
+        Objects.checkIndex(index, size);
+        return new ConfigPrimitive(boxed(index));
+    }
+
+    @Override
+    public @NotNull Iterator<ConfigElement> iterator() {
+        return new Itr(0);
+    }
+
+    @Override
+    public @NotNull ListIterator<ConfigElement> listIterator(int index) {
+        Objects.checkIndex(index, size + 1);
+        return new Itr(index);
+    }
+
+    //reads values directly, rather than through get(int), so iteration is not counted by AccessProfiler
+    private final class Itr implements ListIterator<ConfigElement> {
+        private int cursor;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        private Itr(int cursor) {
+            this.cursor = cursor;
+        }
+
+        private void checkForComodification() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public ConfigElement next() {
+            checkForComodification();
+            if(cursor >= size) {
+                throw new NoSuchElementException();
+            }
+
+            last = cursor++;
+            return new ConfigPrimitive(boxed(last));
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public ConfigElement previous() {
+            checkForComodification();
+            if(cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+
+            last = --cursor;
+            return new ConfigPrimitive(boxed(last));
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            Validate.validState(last >= 0, "next or previous has not been called");
+            checkForComodification();
+
+            AbstractPrimitiveConfigList.this.remove(last);
+            cursor = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(ConfigElement element) {
+            Validate.validState(last >= 0, "next or previous has not been called");
+            checkForComodification();
+
+            AbstractPrimitiveConfigList.this.set(last, element);
+        }
+
+        @Override
+        public void add(ConfigElement element) {
+            checkForComodification();
+
+            AbstractPrimitiveConfigList.this.add(cursor++, element);
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    @Override
+    public @NotNull ConfigElement set(int index, @NotNull ConfigElement element) {
+        Objects.checkIndex(index, size);
+        Object value = unwrap(element);
+
+        Object old = boxed(index);
+        store(index, value);
+        notifyListeners(old, value);
+        return new ConfigPrimitive(old);
+    }
+
+    @Override
+    public void add(int index, @NotNull ConfigElement element) {
+        Objects.checkIndex(index, size + 1);
+        Object value = unwrap(element);
+
+        ensureCapacity(size + 1);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        store(index, value);
+        size++;
+        modCount++;
+        notifyListeners(null, value);
+    }
+
+    @Override
+    public @NotNull ConfigElement remove(int index) {
+        Objects.checkIndex(index, size);
+
+        Object old = boxed(index);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        modCount++;
+        notifyListeners(old, null);
+        return new ConfigPrimitive(old);
+    }
+
+    @Override
+    public void clear() {
+        if(listeners != null) {
+            while(size > 0) {
+                remove(size - 1);
+            }
+        }
+        else {
+            size = 0;
+            modCount++;
+            invalidateOwners();
+        }
+    }
+
+    /**
+     * Determines if the given object is a primitive-backed list containing equal values in the same order. Since
+     * {@link AbstractPrimitiveConfigList#get(int)} returns a new ConfigPrimitive on every call, and ConfigPrimitive
+     * uses identity equality, the values are compared directly.
+     * @param obj the object to compare
+     * @return true if the lists are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+
+        if(!(obj instanceof AbstractPrimitiveConfigList other) || other.size != size) {
+            return false;
+        }
+
+        for(int i = 0; i < size; i++) {
+            if(!boxed(i).equals(other.boxed(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for(int i = 0; i < size; i++) {
+            hash = 31 * hash + boxed(i).hashCode();
+        }
+
+        return hash;
+    }
+
+    @Override
+    public long fingerprint() {
+        long fingerprint = ElementHashing.LIST_START;
+        for(int i = 0; i < size; i++) {
+            fingerprint = ElementHashing.combine(fingerprint, ElementHashing.primitive(boxed(i)));
+        }
+
+        return fingerprint;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reduces the capacity of the backing array to the current size of this list.
+     */
+    public void trimToSize() {
+        if(Array.getLength(values) > size) {
+            values = copyValues(size);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPath;
+import io.github.steanky.polymer.config.TreeEntry;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>Optional instrumentation which counts how often each child of a node or list is looked up, to find values which
+ * are read often enough that they should be stored in a field instead. When enabled, every call to
+ * {@link ConfigNode#get(Object)}, {@link ConfigNode#getElement(String...)} (once per key) and
+ * {@link ConfigList#get(int)} on the containers in this package increments a counter for the accessed child.
+ * Iterating over a container, comparing it, or traversing it as part of a tree is not counted, and neither are the
+ * lookups which indexes, resolvers, queries and schemas perform while doing their work. Counters are
+ * {@link LongAdder}s, so that frequently accessed values do not cause contention between threads.</p>
+ *
+ * <p>Profiling is disabled by default, in which case each access costs only a single read of a volatile field. It may
+ * be enabled and disabled at any time. Counts are stored on the containers they were recorded for, so they are
+ * discarded along with them.</p>
+ */
+public final class AccessProfiler {
+    /**
+     * The number of times a value was accessed.
+     * @param path the path of the value, relative to the root passed to
+     *             {@link AccessProfiler#report(ConfigElement, int)}
+     * @param count the number of accesses
+     */
+    public record HotPath(@NotNull ConfigPath path, long count) {}
+
+    /**
+     * The counters of a single container, which are created the first time one of its children is accessed while
+     * profiling is enabled. Once a child has been accessed, counting further accesses does not allocate.
+     */
+    static final class Counters {
+        private static final Function<String, LongAdder> NEW_ADDER = ignored -> new LongAdder();
+
+        private final int epoch;
+        private final Map<String, LongAdder> keys = new ConcurrentHashMap<>();
+        private volatile LongAdder[] indices = new LongAdder[0];
+
+        private Counters(int epoch) {
+            this.epoch = epoch;
+        }
+
+        void record(@NotNull String key) {
+            LongAdder adder = keys.get(key);
+            if(adder == null) {
+                adder = keys.computeIfAbsent(key, NEW_ADDER);
+            }
+
+            adder.increment();
+        }
+
+        void record(int index) {
+            LongAdder[] indices = this.indices;
+            LongAdder adder = index < indices.length ? indices[index] : null;
+            if(adder == null) {
+                adder = adder(index);
+            }
+
+            adder.increment();
+        }
+
+        private synchronized LongAdder adder(int index) {
+            LongAdder[] indices = this.indices;
+            if(index >= indices.length) {
+                indices = Arrays.copyOf(indices, Math.max(index + 1, indices.length * 2));
+            }
+            else if(indices[index] != null) {
+                return indices[index];
+            }
+            else {
+                indices = indices.clone();
+            }
+
+            LongAdder adder = new LongAdder();
+            indices[index] = adder;
+            this.indices = indices;
+            return adder;
+        }
+    }
+
+    //the containers read this directly, so that disabled profiling costs no more than the read
+    static volatile boolean enabled;
+
+    //incremented by reset, which makes every existing Counters instance stale
+    private static volatile int epoch;
+
+    private AccessProfiler() {}
+
+    /**
+     * Starts counting accesses.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stops counting accesses. Existing counts are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Determines if accesses are currently being counted.
+     * @return true if profiling is enabled, false otherwise
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Discards every count.
+     */
+    public static synchronized void reset() {
+        epoch++;
+    }
+
+    private static @Nullable Counters current(@NotNull ConfigElement container) {
+        Counters counters;
+        if(container instanceof AbstractConfigNode node) {
+            counters = node.profile;
+        }
+        else if(container instanceof AbstractConfigList list) {
+            counters = list.profile;
+        }
+        else if(container instanceof AbstractPrimitiveConfigList list) {
+            counters = list.profile;
+        }
+        else {
+            return null;
+        }
+
+        return counters != null && counters.epoch == epoch ? counters : null;
+    }
+
+    /**
+     * Obtains the counters of the given container, which must be one of the containers in this package, creating
+     * them if necessary.
+     */
+    static @NotNull Counters counters(@NotNull ConfigElement container) {
+        Counters counters = current(container);
+        return counters != null ? counters : createCounters(container);
+    }
+
+    private static synchronized Counters createCounters(ConfigElement container) {
+        //another thread may have created them first
+        Counters counters = current(container);
+        if(counters != null) {
+            return counters;
+        }
+
+        counters = new Counters(epoch);
+        if(container instanceof AbstractConfigNode node) {
+            node.profile = counters;
+        }
+        else if(container instanceof AbstractConfigList list) {
+            list.profile = counters;
+        }
+        else {
+            ((AbstractPrimitiveConfigList) container).profile = counters;
+        }
+
+        return counters;
+    }
+
+    /**
+     * Reports the most frequently accessed values in the given tree, in descending order of accesses.
+     * @param root the root of the tree
+     * @param limit the maximum number of values to report
+     * @return a list of at most limit values, with the most frequently accessed first
+     */
+    public static @NotNull List<HotPath> report(@NotNull ConfigElement root, int limit) {
+        Validate.notNull(root);
+        Validate.isTrue(limit >= 0, "limit cannot be negative");
+
+        //keep only the largest counts, in a heap whose head is the smallest of them
+        PriorityQueue<HotPath> top = new PriorityQueue<>(Comparator.comparingLong(HotPath::count));
+        Spliterator<TreeEntry> spliterator = root.treeSpliterator();
+        spliterator.forEachRemaining(entry -> {
+            Counters counters = current(entry.element());
+            if(counters == null) {
+                return;
+            }
+
+            for(Map.Entry<String, LongAdder> key : counters.keys.entrySet()) {
+                offer(top, new HotPath(entry.path().key(key.getKey()), key.getValue().sum()), limit);
+            }
+
+            LongAdder[] indices = counters.indices;
+            for(int i = 0; i < indices.length; i++) {
+                if(indices[i] != null) {
+                    offer(top, new HotPath(entry.path().index(i), indices[i].sum()), limit);
+                }
+            }
+        });
+
+        List<HotPath> report = new ArrayList<>(top);
+        report.sort(Comparator.comparingLong(HotPath::count).reversed());
+        return report;
+    }
+
+    private static void offer(PriorityQueue<HotPath> top, HotPath path, int limit) {
+        top.add(path);
+        if(top.size() > limit) {
+            top.poll();
+        }
+    }
+}
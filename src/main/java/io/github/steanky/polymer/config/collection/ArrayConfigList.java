@@ -26,4 +26,12 @@ public class ArrayConfigList extends AbstractConfigList implements RandomAccess
     public ArrayConfigList(@NotNull Collection<ConfigElement> collection) {
         super(new ArrayList<>(Validate.notNull(collection)));
     }
+
+    /**
+     * Constructs a new ArrayConfigList containing the given elements, which is not linked to them if linked is false.
+     * Used for lists computed from other lists, which would otherwise stay registered with elements that outlive them.
+     */
+    ArrayConfigList(@NotNull Collection<ConfigElement> collection, boolean linked) {
+        super(new ArrayList<>(Validate.notNull(collection)), linked);
+    }
 }
\ No newline at end of file
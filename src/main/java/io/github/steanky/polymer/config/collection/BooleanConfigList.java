@@ -0,0 +1,105 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * An implementation of {@link ConfigList} backed by a boolean array. It may only contain {@link ConfigPrimitive}
+ * instances wrapping a {@link Boolean}. Elements can be accessed without boxing using
+ * {@link BooleanConfigList#getBoolean(int)} and related methods. Since values are stored unboxed,
+ * {@link BooleanConfigList#get(int)} returns a new ConfigPrimitive on every call, so modifying the returned primitive
+ * does not affect this list.
+ */
+public class BooleanConfigList extends AbstractPrimitiveConfigList {
+    /**
+     * Constructs a new, empty BooleanConfigList.
+     */
+    public BooleanConfigList() {
+        super(new boolean[DEFAULT_CAPACITY], 0);
+    }
+
+    /**
+     * Constructs a new BooleanConfigList containing a copy of the provided values.
+     * @param values the values to copy
+     */
+    public BooleanConfigList(boolean @NotNull [] values) {
+        super(Validate.notNull(values).clone(), values.length);
+    }
+
+    @Override
+    @NotNull Object boxed(int index) {
+        return ((boolean[]) values)[index];
+    }
+
+    @Override
+    void store(int index, @NotNull Object value) {
+        ((boolean[]) values)[index] = (Boolean) value;
+    }
+
+    @Override
+    @Nullable Object convert(@Nullable Object value) {
+        return value instanceof Boolean ? value : null;
+    }
+
+    @Override
+    @NotNull String typeName() {
+        return "boolean";
+    }
+
+    /**
+     * Obtains the value at the given index, without boxing.
+     * @param index the index of the value
+     * @return the value at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public boolean getBoolean(int index) {
+        Objects.checkIndex(index, size);
+        return ((boolean[]) values)[index];
+    }
+
+    /**
+     * Sets the value at the given index, without boxing.
+     * @param index the index of the value
+     * @param value the new value
+     * @return the value previously at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public boolean setBoolean(int index, boolean value) {
+        Objects.checkIndex(index, size);
+        boolean[] values = (boolean[]) this.values;
+        boolean old = values[index];
+        values[index] = value;
+        notifyListeners(old, value);
+        return old;
+    }
+
+    /**
+     * Adds a value to the end of this list, without boxing.
+     * @param value the value to add
+     */
+    public void addBoolean(boolean value) {
+        int index = append();
+        ((boolean[]) values)[index] = value;
+        notifyListeners(null, value);
+    }
+
+    /**
+     * Adds all the provided values to the end of this list.
+     * @param values the values to add
+     */
+    public void addAllBooleans(boolean @NotNull ... values) {
+        addArray(Validate.notNull(values), values.length);
+    }
+
+    /**
+     * Copies the contents of this list into a new array.
+     * @return a new array containing every value in this list, in order
+     */
+    public boolean @NotNull [] toBooleanArray() {
+        return (boolean[]) copyValues(size);
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Static utilities for linking elements to the containers that hold them. Containers may only cache hashes that were
+ * computed from children which will report their own changes; this is true of {@link ConfigPrimitive}, and of the
+ * containers in this package whose own hashes are currently cached.
+ */
+final class CacheLinks {
+    static final byte HASH_VALID = 1;
+    static final byte FINGERPRINT_VALID = 2;
+
+    /**
+     * The values cached by a container. Instances are immutable, and containers publish them through a single volatile
+     * field, so that a thread which sees a flag as set also sees the value it refers to. This keeps trees which are
+     * shared between threads without being modified safe to hash concurrently.
+     */
+    record Cache(byte state, int hash, long fingerprint) {
+        static final Cache EMPTY = new Cache((byte) 0, 0, 0);
+
+        boolean has(byte flag) {
+            return (state & flag) != 0;
+        }
+
+        @NotNull Cache withHash(int hash) {
+            return new Cache((byte) (state | HASH_VALID), hash, fingerprint);
+        }
+
+        @NotNull Cache withFingerprint(long fingerprint) {
+            return new Cache((byte) (state | FINGERPRINT_VALID), hash, fingerprint);
+        }
+    }
+
+    private CacheLinks() {}
+
+    static void link(@NotNull ConfigElement child, @NotNull ConfigElement owner) {
+        if(child instanceof ConfigPrimitive primitive) {
+            primitive.addOwner(owner);
+        }
+        else if(child instanceof AbstractConfigNode node) {
+            node.addOwner(owner);
+        }
+        else if(child instanceof AbstractConfigList list) {
+            list.addOwner(owner);
+        }
+        else if(child instanceof AbstractPrimitiveConfigList list) {
+            list.addOwner(owner);
+        }
+    }
+
+    static void unlink(@NotNull ConfigElement child, @NotNull ConfigElement owner) {
+        if(child instanceof ConfigPrimitive primitive) {
+            primitive.removeOwner(owner);
+        }
+        else if(child instanceof AbstractConfigNode node) {
+            node.removeOwner(owner);
+        }
+        else if(child instanceof AbstractConfigList list) {
+            list.removeOwner(owner);
+        }
+        else if(child instanceof AbstractPrimitiveConfigList list) {
+            list.removeOwner(owner);
+        }
+    }
+
+    /**
+     * Determines if a value computed from the given child may be cached. This must be called after the value has been
+     * computed for the child itself.
+     * @param child the child element
+     * @param flag either {@link CacheLinks#HASH_VALID} or {@link CacheLinks#FINGERPRINT_VALID}
+     * @return true if the child will invalidate its owners when it changes
+     */
+    static boolean isCached(@NotNull ConfigElement child, byte flag) {
+        if(child instanceof ConfigPrimitive || child instanceof AbstractPrimitiveConfigList) {
+            return true;
+        }
+        else if(child instanceof AbstractConfigNode node) {
+            return node.cache.has(flag);
+        }
+        else if(child instanceof AbstractConfigList list) {
+            return list.cache.has(flag);
+        }
+
+        return false;
+    }
+}
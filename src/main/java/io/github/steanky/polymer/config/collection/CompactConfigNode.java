@@ -0,0 +1,57 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>An insertion-ordered implementation of {@link ConfigNode} optimized for nodes with few keys, which make up the
+ * majority of most configuration trees. Up to {@link CompactConfigNode#THRESHOLD} entries are stored in a single flat
+ * array, instead of the table and per-entry objects a {@link LinkedHashMap} requires. Once more keys are added, the node
+ * transparently switches to a {@link LinkedHashMap}, and thereafter behaves just like {@link LinkedConfigNode}.</p>
+ *
+ * <p>This is the node type used for nested nodes by {@link io.github.steanky.polymer.config.BasicTreeBuilder} when the
+ * source map is small enough.</p>
+ */
+public class CompactConfigNode extends AbstractConfigNode {
+    /**
+     * The maximum number of entries this node stores in its compact form.
+     */
+    public static final int THRESHOLD = CompactMap.THRESHOLD;
+
+    /**
+     * Constructs a new, empty CompactConfigNode.
+     */
+    public CompactConfigNode() {
+        super(new CompactMap(0));
+    }
+
+    /**
+     * Constructs a new, empty CompactConfigNode with room for the given number of entries. If the capacity exceeds
+     * {@link CompactConfigNode#THRESHOLD}, the node starts out backed by a {@link LinkedHashMap}.
+     * @param initialCapacity the number of entries to reserve space for
+     * @throws IllegalArgumentException if initialCapacity is negative
+     */
+    public CompactConfigNode(int initialCapacity) {
+        super(new CompactMap(initialCapacity));
+    }
+
+    /**
+     * Constructs a new CompactConfigNode with the same entries as the provided map, in its iteration order.
+     * @param mappings the mappings to initialize this object with
+     */
+    public CompactConfigNode(@NotNull Map<String, ConfigElement> mappings) {
+        super(new CompactMap(Validate.notNull(mappings)));
+    }
+
+    /**
+     * Determines whether this node is still in its compact form.
+     * @return true if the node is compact, false if it has been upgraded to a {@link LinkedHashMap}
+     */
+    public boolean isCompact() {
+        return !((CompactMap) mappings).isUpgraded();
+    }
+}
@@ -0,0 +1,303 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * <p>An insertion-ordered map which stores up to {@link CompactMap#THRESHOLD} entries in a single flat array of
+ * alternating keys and values, and is searched linearly. For so few keys, a linear scan comparing cached string hashes
+ * is about as fast as a hash lookup, and avoids allocating a table and an entry object for every mapping.</p>
+ *
+ * <p>When a key is added to a map which is already full, the map upgrades itself to a {@link LinkedHashMap}, to which
+ * all further operations are delegated. A map never downgrades, even if enough keys are later removed.</p>
+ *
+ * <p>This class does not permit null keys or values, which is enforced by {@link AbstractConfigNode}.</p>
+ */
+final class CompactMap extends AbstractMap<String, ConfigElement> {
+    static final int THRESHOLD = 8;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] table;
+    private int size;
+    private int modCount;
+    private Map<String, ConfigElement> delegate;
+
+    CompactMap(int initialCapacity) {
+        Validate.isTrue(initialCapacity >= 0, "negative capacity");
+
+        if(initialCapacity > THRESHOLD) {
+            delegate = new LinkedHashMap<>();
+        }
+        else {
+            table = initialCapacity == 0 ? EMPTY : new Object[initialCapacity << 1];
+        }
+    }
+
+    CompactMap(@NotNull Map<String, ConfigElement> mappings) {
+        this(mappings.size());
+        putAll(mappings);
+    }
+
+    /**
+     * Determines whether this map has been upgraded to a {@link LinkedHashMap}.
+     */
+    boolean isUpgraded() {
+        return delegate != null;
+    }
+
+    //the following two methods give allocation-free access to the entries of maps which have not been upgraded
+    @NotNull String keyAt(int index) {
+        return (String) table[index << 1];
+    }
+
+    @NotNull ConfigElement valueAt(int index) {
+        return (ConfigElement) table[(index << 1) + 1];
+    }
+
+    //returns the index of the key's slot in the table, or -1 if it is absent
+    private int indexOf(Object key) {
+        Object[] table = this.table;
+        int end = size << 1;
+        for(int i = 0; i < end; i += 2) {
+            if(table[i] == key) {
+                return i;
+            }
+        }
+
+        if(key instanceof String string) {
+            int hash = string.hashCode();
+            for(int i = 0; i < end; i += 2) {
+                String candidate = (String) table[i];
+                if(candidate.hashCode() == hash && candidate.equals(string)) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private void upgrade() {
+        Map<String, ConfigElement> delegate = new LinkedHashMap<>();
+        Object[] table = this.table;
+        int end = size << 1;
+        for(int i = 0; i < end; i += 2) {
+            delegate.put((String) table[i], (ConfigElement) table[i + 1]);
+        }
+
+        this.delegate = delegate;
+        this.table = null;
+        this.size = 0;
+    }
+
+    @Override
+    public int size() {
+        return delegate != null ? delegate.size() : size;
+    }
+
+    @Override
+    public ConfigElement get(Object key) {
+        if(delegate != null) {
+            return delegate.get(key);
+        }
+
+        int index = indexOf(key);
+        return index == -1 ? null : (ConfigElement) table[index + 1];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate != null ? delegate.containsKey(key) : indexOf(key) != -1;
+    }
+
+    @Override
+    public ConfigElement put(String key, ConfigElement value) {
+        if(delegate != null) {
+            return delegate.put(key, value);
+        }
+
+        int index = indexOf(key);
+        if(index != -1) {
+            //replacing a value is not a structural modification
+            ConfigElement old = (ConfigElement) table[index + 1];
+            table[index + 1] = value;
+            return old;
+        }
+
+        modCount++;
+        if(size == THRESHOLD) {
+            upgrade();
+            return delegate.put(key, value);
+        }
+
+        int slot = size << 1;
+        if(slot == table.length) {
+            table = Arrays.copyOf(table, Math.max(4, Math.min(table.length << 1, THRESHOLD << 1)));
+        }
+
+        table[slot] = key;
+        table[slot + 1] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public ConfigElement remove(Object key) {
+        if(delegate != null) {
+            return delegate.remove(key);
+        }
+
+        int index = indexOf(key);
+        if(index == -1) {
+            return null;
+        }
+
+        ConfigElement old = (ConfigElement) table[index + 1];
+        removeAt(index);
+        return old;
+    }
+
+    //shifts later entries down over the given slot, which preserves insertion order
+    private void removeAt(int index) {
+        int end = size << 1;
+        System.arraycopy(table, index + 2, table, index, end - index - 2);
+        table[end - 2] = null;
+        table[end - 1] = null;
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        if(delegate != null) {
+            delegate.clear();
+            return;
+        }
+
+        Arrays.fill(table, 0, size << 1, null);
+        size = 0;
+        modCount++;
+    }
+
+    @NotNull
+    @Override
+    public Set<Entry<String, ConfigElement>> entrySet() {
+        return new EntrySet();
+    }
+
+    //checks which representation is in use on every call, so it remains valid across an upgrade
+    private final class EntrySet extends AbstractSet<Entry<String, ConfigElement>> {
+        @Override
+        public @NotNull Iterator<Entry<String, ConfigElement>> iterator() {
+            return delegate != null ? delegate.entrySet().iterator() : new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, ConfigElement>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size << 1;
+        }
+
+        @Override
+        public Entry<String, ConfigElement> next() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            last = next;
+            next += 2;
+            return new TableEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if(last == -1) {
+                throw new IllegalStateException();
+            }
+
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class TableEntry implements Entry<String, ConfigElement> {
+        private final String key;
+        private final int expectedModCount;
+        private ConfigElement value;
+        private final int index;
+
+        private TableEntry(int index) {
+            this.key = (String) table[index];
+            this.value = (ConfigElement) table[index + 1];
+            this.expectedModCount = modCount;
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public ConfigElement getValue() {
+            return value;
+        }
+
+        @Override
+        public ConfigElement setValue(ConfigElement value) {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            ConfigElement old = this.value;
+            table[index + 1] = value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Entry<?, ?> entry && key.equals(entry.getKey()) &&
+                    value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
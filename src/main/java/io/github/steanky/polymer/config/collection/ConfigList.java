@@ -1,6 +1,7 @@
 package io.github.steanky.polymer.config.collection;
 
 import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ElementHashing;
 import io.github.steanky.polymer.config.ElementType;
 import org.jetbrains.annotations.NotNull;
 
@@ -11,6 +12,34 @@ import java.util.List;
  * mutable {@link List} objects that do not support the addition of null elements.
  */
 public interface ConfigList extends ConfigElement, List<ConfigElement> {
+    /**
+     * Registers a listener which will be notified whenever a direct child of this list is added, removed, or
+     * replaced.
+     * @param listener the listener to add
+     * @throws UnsupportedOperationException if this implementation does not support listeners
+     */
+    default void addListener(@NotNull ConfigListener listener) {
+        throw new UnsupportedOperationException("this ConfigList does not support listeners");
+    }
+
+    /**
+     * Unregisters a listener previously added using {@link ConfigList#addListener(ConfigListener)}. Has no effect if the
+     * listener was never added.
+     * @param listener the listener to remove
+     * @throws UnsupportedOperationException if this implementation does not support listeners
+     */
+    default void removeListener(@NotNull ConfigListener listener) {
+        throw new UnsupportedOperationException("this ConfigList does not support listeners");
+    }
+
+    /**
+     * {@inheritDoc} The default implementation computes the fingerprint from scratch on every call.
+     */
+    @Override
+    default long fingerprint() {
+        return ElementHashing.list(this);
+    }
+
     @Override
     default @NotNull ConfigList asConfigList() {
         return this;
@@ -0,0 +1,24 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Listens for changes to the direct children of a {@link ConfigNode} or {@link ConfigList}. Listeners are registered
+ * using {@link ConfigNode#addListener(ConfigListener)} or {@link ConfigList#addListener(ConfigListener)}. Only changes
+ * made through the container's own mutator methods are reported; modifications to nested elements (including calls to
+ * {@link io.github.steanky.polymer.config.ConfigPrimitive#setObject(Object)}) must be observed separately.
+ */
+@FunctionalInterface
+public interface ConfigListener {
+    /**
+     * Called after a direct child of an observed container has been added, removed, or replaced.
+     * @param container the node or list that changed
+     * @param key the key of the changed mapping if the container is a ConfigNode, otherwise null
+     * @param oldValue the element that was removed or replaced, or null if an element was added
+     * @param newValue the element that was added, or null if an element was removed
+     */
+    void onChange(@NotNull ConfigElement container, @Nullable String key, @Nullable ConfigElement oldValue,
+                  @Nullable ConfigElement newValue);
+}
@@ -1,11 +1,15 @@
 package io.github.steanky.polymer.config.collection;
 
 import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ElementHashing;
 import io.github.steanky.polymer.config.ElementType;
 import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.TreeEntry;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>Represents some arbitrary configuration data in a tree-like structure. ConfigNode objects are mutable data
@@ -27,6 +31,53 @@ public interface ConfigNode extends ConfigElement, Map<String, ConfigElement> {
      */
     @NotNull Optional<ConfigElement> getElement(@NotNull String... keys);
 
+    /**
+     * Registers a listener which will be notified whenever a direct child of this node is added, removed, or
+     * replaced.
+     * @param listener the listener to add
+     * @throws UnsupportedOperationException if this implementation does not support listeners
+     */
+    default void addListener(@NotNull ConfigListener listener) {
+        throw new UnsupportedOperationException("this ConfigNode does not support listeners");
+    }
+
+    /**
+     * Unregisters a listener previously added using {@link ConfigNode#addListener(ConfigListener)}. Has no effect if the
+     * listener was never added.
+     * @param listener the listener to remove
+     * @throws UnsupportedOperationException if this implementation does not support listeners
+     */
+    default void removeListener(@NotNull ConfigListener listener) {
+        throw new UnsupportedOperationException("this ConfigNode does not support listeners");
+    }
+
+    /**
+     * Creates a sequential {@link Stream} over this node and all of its descendants, each paired with its path relative
+     * to this node, in depth-first pre-order. The first entry is this node itself.
+     * @return a new stream
+     */
+    default @NotNull Stream<TreeEntry> stream() {
+        return StreamSupport.stream(treeSpliterator(), false);
+    }
+
+    /**
+     * Creates a possibly parallel {@link Stream} over this node and all of its descendants, as
+     * {@link ConfigNode#stream()} does. This can be used to spread aggregate queries over large trees across several
+     * threads. The tree must not be modified until the stream has been consumed.
+     * @return a new stream
+     */
+    default @NotNull Stream<TreeEntry> parallelStream() {
+        return StreamSupport.stream(treeSpliterator(), true);
+    }
+
+    /**
+     * {@inheritDoc} The default implementation computes the fingerprint from scratch on every call.
+     */
+    @Override
+    default long fingerprint() {
+        return ElementHashing.node(this);
+    }
+
     @Override
     default @NotNull ConfigNode asConfigNode() {
         return this;
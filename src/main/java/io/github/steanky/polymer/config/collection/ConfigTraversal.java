@@ -0,0 +1,325 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPath;
+import io.github.steanky.polymer.config.ConfigVisitor;
+import io.github.steanky.polymer.config.TreeEntry;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Static utilities implementing {@link ConfigElement#traverse(ConfigVisitor)} and
+ * {@link ConfigElement#treeSpliterator()}. These live in this package so that they can read the containers defined
+ * here without going through their public views, which may create objects for every entry.
+ *
+ * <p>The same direct access is offered to other library code through {@link ConfigTraversal#child(ConfigNode, String)}
+ * and {@link ConfigTraversal#element(List, int)}. Indexes, resolvers and queries read children on behalf of their
+ * callers, so those reads are not counted by {@link AccessProfiler}.</p>
+ */
+@ApiStatus.Internal
+public final class ConfigTraversal {
+    private static final int INITIAL_DEPTH = 16;
+
+    private ConfigTraversal() {}
+
+    private static boolean isContainer(ConfigElement element) {
+        return element.getType().isNode() || element.getType().isArray();
+    }
+
+    /**
+     * Gets the value of a key in a node, without counting the access in {@link AccessProfiler}.
+     * @param node the node
+     * @param key the key
+     * @return the value of the key, or null if there is none
+     */
+    public static @Nullable ConfigElement child(@NotNull ConfigNode node, @NotNull String key) {
+        if(node instanceof AbstractConfigNode abstractNode) {
+            return abstractNode.child(key);
+        }
+
+        return node.get(key);
+    }
+
+    /**
+     * Gets an element of a list, without counting the access in {@link AccessProfiler}.
+     * @param list the list
+     * @param index the index of the element
+     * @return the element
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public static @NotNull ConfigElement element(@NotNull List<ConfigElement> list, int index) {
+        if(list instanceof AbstractConfigList configList) {
+            return configList.element(index);
+        }
+        else if(list instanceof AbstractPrimitiveConfigList primitiveList) {
+            return primitiveList.element(index);
+        }
+
+        return list.get(index);
+    }
+
+    //iteration state for one container; frames are reused between containers at the same depth
+    private static final class Frame {
+        private CompactMap compact;
+        private List<ConfigElement> list;
+        private Iterator<?> iterator;
+        private boolean entries;
+        private int next;
+        private int size;
+
+        //the child found by the last call to advance()
+        private ConfigElement element;
+        private String key;
+        private int index;
+
+        private void reset(ConfigElement container) {
+            next = 0;
+
+            if(container instanceof ConfigNode node) {
+                //nodes which track their changes hold all of their entries in their backing map
+                Map<String, ConfigElement> map = node instanceof AbstractConfigNode abstractNode &&
+                        abstractNode.tracksChanges() ? abstractNode.mappings : node;
+
+                if(map instanceof CompactMap compactMap && !compactMap.isUpgraded()) {
+                    compact = compactMap;
+                    size = compactMap.size();
+                }
+                else {
+                    iterator = map.entrySet().iterator();
+                    entries = true;
+                }
+            }
+            else {
+                ConfigList configList = container.asConfigList();
+                if(configList instanceof RandomAccess) {
+                    list = configList;
+                    size = configList.size();
+                }
+                else {
+                    iterator = configList.iterator();
+                    entries = false;
+                }
+            }
+        }
+
+        private boolean advance() {
+            if(compact != null) {
+                if(next == size) {
+                    return false;
+                }
+
+                key = compact.keyAt(next);
+                element = compact.valueAt(next++);
+                index = -1;
+            }
+            else if(list != null) {
+                if(next == size) {
+                    return false;
+                }
+
+                key = null;
+                index = next;
+                element = element(list, next++);
+            }
+            else if(!iterator.hasNext()) {
+                return false;
+            }
+            else if(entries) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) iterator.next();
+                key = (String) entry.getKey();
+                element = (ConfigElement) entry.getValue();
+                index = -1;
+            }
+            else {
+                key = null;
+                index = next++;
+                element = (ConfigElement) iterator.next();
+            }
+
+            return true;
+        }
+
+        private void clear() {
+            compact = null;
+            list = null;
+            iterator = null;
+            element = null;
+            key = null;
+        }
+    }
+
+    /**
+     * Visits every element of a tree in depth-first pre-order. See {@link ConfigElement#traverse(ConfigVisitor)}.
+     * @param root the root of the tree
+     * @param visitor the visitor
+     * @return true if every element was visited, false if the visitor stopped the traversal
+     */
+    public static boolean traverse(@NotNull ConfigElement root, @NotNull ConfigVisitor visitor) {
+        Validate.notNull(root);
+        Validate.notNull(visitor);
+
+        ConfigVisitor.Result result = visitor.visit(root, null, -1, 0);
+        if(result == ConfigVisitor.Result.STOP) {
+            return false;
+        }
+        else if(result == ConfigVisitor.Result.SKIP_CHILDREN || !isContainer(root)) {
+            return true;
+        }
+
+        Frame[] frames = new Frame[INITIAL_DEPTH];
+        frames[0] = new Frame();
+        frames[0].reset(root);
+
+        int depth = 1;
+        while(depth > 0) {
+            Frame frame = frames[depth - 1];
+            if(!frame.advance()) {
+                frame.clear();
+                depth--;
+                continue;
+            }
+
+            ConfigElement element = frame.element;
+            result = visitor.visit(element, frame.key, frame.index, depth);
+            if(result == ConfigVisitor.Result.STOP) {
+                return false;
+            }
+
+            if(result == ConfigVisitor.Result.CONTINUE && isContainer(element)) {
+                if(depth == frames.length) {
+                    frames = Arrays.copyOf(frames, depth << 1);
+                }
+
+                Frame child = frames[depth];
+                if(child == null) {
+                    frames[depth] = child = new Frame();
+                }
+
+                child.reset(element);
+                depth++;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates a splittable {@link Spliterator} over every element of a tree. See
+     * {@link ConfigElement#treeSpliterator()}.
+     * @param root the root of the tree
+     * @return a new spliterator
+     */
+    public static @NotNull Spliterator<TreeEntry> spliterator(@NotNull ConfigElement root) {
+        Validate.notNull(root);
+
+        ArrayDeque<TreeEntry> stack = new ArrayDeque<>();
+        stack.push(new TreeEntry(ConfigPath.root(), root));
+        return new TreeSpliterator(stack, null, Long.MAX_VALUE);
+    }
+
+    /*
+    The stack holds subtrees which have not been started yet, with the next one in encounter order first. Splitting
+    hands off the first half of the stack, which is a prefix of the remaining elements. Since the size of a tree is not
+    known without walking it, the estimated size starts out unknown and is halved on every split, like
+    Spliterators.AbstractSpliterator.
+     */
+    private static final class TreeSpliterator implements Spliterator<TreeEntry> {
+        private final ArrayDeque<TreeEntry> stack;
+
+        //an entry whose children have already been pushed, but which has not been emitted yet
+        private TreeEntry head;
+        private long estimate;
+
+        private TreeSpliterator(ArrayDeque<TreeEntry> stack, TreeEntry head, long estimate) {
+            this.stack = stack;
+            this.head = head;
+            this.estimate = estimate;
+        }
+
+        private void expand(TreeEntry entry) {
+            ConfigElement element = entry.element();
+            ConfigPath path = entry.path();
+
+            if(element.getType().isNode()) {
+                ConfigNode node = element.asConfigNode();
+                TreeEntry[] children = new TreeEntry[node.size()];
+                int i = 0;
+                for(Map.Entry<String, ConfigElement> child : node.entrySet()) {
+                    children[i++] = new TreeEntry(path.key(child.getKey()), child.getValue());
+                }
+
+                //push in reverse, so that the first child ends up on top
+                while(i > 0) {
+                    stack.push(children[--i]);
+                }
+            }
+            else if(element.getType().isArray()) {
+                ConfigList list = element.asConfigList();
+                ListIterator<ConfigElement> iterator = list.listIterator(list.size());
+                while(iterator.hasPrevious()) {
+                    int index = iterator.previousIndex();
+                    stack.push(new TreeEntry(path.index(index), iterator.previous()));
+                }
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TreeEntry> action) {
+            Validate.notNull(action);
+
+            TreeEntry entry = head;
+            if(entry != null) {
+                head = null;
+            }
+            else {
+                entry = stack.poll();
+                if(entry == null) {
+                    return false;
+                }
+
+                expand(entry);
+            }
+
+            action.accept(entry);
+            return true;
+        }
+
+        @Override
+        public Spliterator<TreeEntry> trySplit() {
+            if(head == null && stack.size() == 1) {
+                //start the only remaining subtree, so there is something to split
+                head = stack.poll();
+                expand(head);
+            }
+
+            int half = stack.size() >>> 1;
+            if(half == 0) {
+                return null;
+            }
+
+            ArrayDeque<TreeEntry> prefix = new ArrayDeque<>(half);
+            for(int i = 0; i < half; i++) {
+                prefix.addLast(stack.poll());
+            }
+
+            TreeSpliterator split = new TreeSpliterator(prefix, head, estimate >>>= 1);
+            head = null;
+            return split;
+        }
+
+        @Override
+        public long estimateSize() {
+            return head == null && stack.isEmpty() ? 0 : estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * An implementation of {@link ConfigList} backed by a double array. It may only contain {@link ConfigPrimitive}
+ * instances wrapping a {@link Double}, {@link Float}, or an integral number small enough to be represented exactly.
+ * Elements can be accessed without boxing using {@link DoubleConfigList#getDouble(int)} and related methods. Since
+ * values are stored unboxed, {@link DoubleConfigList#get(int)} returns a new ConfigPrimitive on every call, so
+ * modifying the returned primitive does not affect this list.
+ */
+public class DoubleConfigList extends AbstractPrimitiveConfigList {
+    //the largest magnitude of a long which can be converted to a double without loss
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    /**
+     * Constructs a new, empty DoubleConfigList.
+     */
+    public DoubleConfigList() {
+        super(new double[DEFAULT_CAPACITY], 0);
+    }
+
+    /**
+     * Constructs a new DoubleConfigList containing a copy of the provided values.
+     * @param values the values to copy
+     */
+    public DoubleConfigList(double @NotNull [] values) {
+        super(Validate.notNull(values).clone(), values.length);
+    }
+
+    @Override
+    @NotNull Object boxed(int index) {
+        return ((double[]) values)[index];
+    }
+
+    @Override
+    void store(int index, @NotNull Object value) {
+        ((double[]) values)[index] = (Double) value;
+    }
+
+    @Override
+    @Nullable Object convert(@Nullable Object value) {
+        if(value instanceof Double || value instanceof Float || value instanceof Integer || value instanceof Short ||
+                value instanceof Byte) {
+            return ((Number) value).doubleValue();
+        }
+        else if(value instanceof Long longValue && Math.abs(longValue) <= MAX_EXACT_LONG) {
+            return longValue.doubleValue();
+        }
+
+        return null;
+    }
+
+    @Override
+    @NotNull String typeName() {
+        return "double";
+    }
+
+    /**
+     * Obtains the value at the given index, without boxing.
+     * @param index the index of the value
+     * @return the value at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double getDouble(int index) {
+        Objects.checkIndex(index, size);
+        return ((double[]) values)[index];
+    }
+
+    /**
+     * Sets the value at the given index, without boxing.
+     * @param index the index of the value
+     * @param value the new value
+     * @return the value previously at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double setDouble(int index, double value) {
+        Objects.checkIndex(index, size);
+        double[] values = (double[]) this.values;
+        double old = values[index];
+        values[index] = value;
+        notifyListeners(old, value);
+        return old;
+    }
+
+    /**
+     * Adds a value to the end of this list, without boxing.
+     * @param value the value to add
+     */
+    public void addDouble(double value) {
+        int index = append();
+        ((double[]) values)[index] = value;
+        notifyListeners(null, value);
+    }
+
+    /**
+     * Adds all the provided values to the end of this list.
+     * @param values the values to add
+     */
+    public void addAllDoubles(double @NotNull ... values) {
+        addArray(Validate.notNull(values), values.length);
+    }
+
+    /**
+     * Copies the contents of this list into a new array.
+     * @return a new array containing every value in this list, in order
+     */
+    public double @NotNull [] toDoubleArray() {
+        return (double[]) copyValues(size);
+    }
+}
@@ -22,6 +22,9 @@ public class FileConfigNode extends AbstractConfigNode {
     private final boolean isDirectory;
     private final ConfigCodec codec;
 
+    //set whenever this node is modified, which includes changes to descendants while its fingerprint is cached
+    private volatile boolean modified = true;
+
     private FileConfigNode(@NotNull Map<String, ConfigElement> mappings, boolean isDirectory,
                            @Nullable ConfigCodec codec) {
         super(Validate.notNull(mappings));
@@ -65,7 +68,39 @@ public class FileConfigNode extends AbstractConfigNode {
                     "FileConfigNode instances");
         }
 
-        return mappings.put(key, value);
+        return super.put(key, value);
+    }
+
+    @Override
+    public void invalidateCache() {
+        modified = true;
+        super.invalidateCache();
+    }
+
+    /**
+     * Determines if this node, or any of its descendants, has been modified since the last call to
+     * {@link FileConfigNode#markUnmodified()}. New nodes are considered to be modified. This only reads a single field,
+     * so it may be called from any thread.
+     * @return true if this node has been modified, false otherwise
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Records that this node is currently unmodified, for example because it has just been read or written. Changes to
+     * descendants are detected through the same links which invalidate cached fingerprints, so this computes (and
+     * caches) the fingerprint of this node if necessary. If this node contains elements which do not report their
+     * changes, it will always be considered modified.
+     */
+    public void markUnmodified() {
+        modified = false;
+        fingerprint();
+
+        if(!cache.has(CacheLinks.FINGERPRINT_VALID)) {
+            //changes to some descendant would not reach this node
+            modified = true;
+        }
     }
 
     /**
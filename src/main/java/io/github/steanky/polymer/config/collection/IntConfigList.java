@@ -0,0 +1,109 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * An implementation of {@link ConfigList} backed by an int array. It may only contain {@link ConfigPrimitive} instances
+ * wrapping an {@link Integer}, {@link Short}, or {@link Byte}. Elements can be accessed without boxing using
+ * {@link IntConfigList#getInt(int)} and related methods. Since values are stored unboxed,
+ * {@link IntConfigList#get(int)} returns a new ConfigPrimitive on every call, so modifying the returned primitive does
+ * not affect this list.
+ */
+public class IntConfigList extends AbstractPrimitiveConfigList {
+    /**
+     * Constructs a new, empty IntConfigList.
+     */
+    public IntConfigList() {
+        super(new int[DEFAULT_CAPACITY], 0);
+    }
+
+    /**
+     * Constructs a new IntConfigList containing a copy of the provided values.
+     * @param values the values to copy
+     */
+    public IntConfigList(int @NotNull [] values) {
+        super(Validate.notNull(values).clone(), values.length);
+    }
+
+    @Override
+    @NotNull Object boxed(int index) {
+        return ((int[]) values)[index];
+    }
+
+    @Override
+    void store(int index, @NotNull Object value) {
+        ((int[]) values)[index] = (Integer) value;
+    }
+
+    @Override
+    @Nullable Object convert(@Nullable Object value) {
+        if(value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).intValue();
+        }
+
+        return null;
+    }
+
+    @Override
+    @NotNull String typeName() {
+        return "int";
+    }
+
+    /**
+     * Obtains the value at the given index, without boxing.
+     * @param index the index of the value
+     * @return the value at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getInt(int index) {
+        Objects.checkIndex(index, size);
+        return ((int[]) values)[index];
+    }
+
+    /**
+     * Sets the value at the given index, without boxing.
+     * @param index the index of the value
+     * @param value the new value
+     * @return the value previously at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int setInt(int index, int value) {
+        Objects.checkIndex(index, size);
+        int[] values = (int[]) this.values;
+        int old = values[index];
+        values[index] = value;
+        notifyListeners(old, value);
+        return old;
+    }
+
+    /**
+     * Adds a value to the end of this list, without boxing.
+     * @param value the value to add
+     */
+    public void addInt(int value) {
+        int index = append();
+        ((int[]) values)[index] = value;
+        notifyListeners(null, value);
+    }
+
+    /**
+     * Adds all the provided values to the end of this list.
+     * @param values the values to add
+     */
+    public void addAllInts(int @NotNull ... values) {
+        addArray(Validate.notNull(values), values.length);
+    }
+
+    /**
+     * Copies the contents of this list into a new array.
+     * @return a new array containing every value in this list, in order
+     */
+    public int @NotNull [] toIntArray() {
+        return (int[]) copyValues(size);
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.steanky.polymer.config.collection;
+
+/**
+ * Determines how an {@link OverlayConfigNode} combines {@link ConfigList} instances that are present under the same key
+ * in more than one of its layers.
+ */
+public enum ListMergeStrategy {
+    /**
+     * The list from the highest-precedence layer is used, and lists from lower layers are ignored.
+     */
+    REPLACE,
+
+    /**
+     * Lists are concatenated such that elements from lower layers come first, followed by elements from higher layers.
+     */
+    APPEND,
+
+    /**
+     * Lists are concatenated such that elements from higher layers come first, followed by elements from lower layers.
+     */
+    PREPEND
+}
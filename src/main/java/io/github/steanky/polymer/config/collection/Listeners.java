@@ -0,0 +1,99 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Static utilities for working with {@link ConfigListener}s. The public methods register and unregister listeners on
+ * arbitrary elements, for classes which observe a tree. The remaining methods manage the copy-on-write arrays in which
+ * containers store their listeners; a null array is stored when no listeners are registered, so that notifying costs
+ * only a null check in the common case.
+ */
+public final class Listeners {
+    private Listeners() {}
+
+    /**
+     * Registers a listener on an element, if it is a {@link ConfigNode} or {@link ConfigList} which supports listeners.
+     * @param element the element to observe
+     * @param listener the listener to register
+     * @return true if the listener was registered, false if the element is a primitive or a container which does not
+     * support listeners (whose changes cannot be observed)
+     */
+    public static boolean addListener(@NotNull ConfigElement element, @NotNull ConfigListener listener) {
+        try {
+            if(element.getType().isNode()) {
+                element.asConfigNode().addListener(listener);
+                return true;
+            }
+            else if(element.getType().isArray()) {
+                element.asConfigList().addListener(listener);
+                return true;
+            }
+        }
+        catch (UnsupportedOperationException ignored) {}
+
+        return false;
+    }
+
+    /**
+     * Unregisters a listener previously registered using {@link Listeners#addListener(ConfigElement, ConfigListener)}.
+     * Does nothing if the listener is not registered on the element, or the element cannot have listeners.
+     * @param element the element to stop observing
+     * @param listener the listener to unregister
+     */
+    public static void removeListener(@NotNull ConfigElement element, @NotNull ConfigListener listener) {
+        try {
+            if(element.getType().isNode()) {
+                element.asConfigNode().removeListener(listener);
+            }
+            else if(element.getType().isArray()) {
+                element.asConfigList().removeListener(listener);
+            }
+        }
+        catch (UnsupportedOperationException ignored) {}
+    }
+
+    static @NotNull ConfigListener[] add(@Nullable ConfigListener[] listeners, @NotNull ConfigListener listener) {
+        Validate.notNull(listener);
+
+        if(listeners == null) {
+            return new ConfigListener[] {listener};
+        }
+
+        ConfigListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        return newListeners;
+    }
+
+    static @Nullable ConfigListener[] remove(@Nullable ConfigListener[] listeners, @NotNull ConfigListener listener) {
+        Validate.notNull(listener);
+
+        if(listeners != null) {
+            for(int i = 0; i < listeners.length; i++) {
+                if(listeners[i] == listener) {
+                    if(listeners.length == 1) {
+                        return null;
+                    }
+
+                    ConfigListener[] newListeners = new ConfigListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, newListeners, 0, i);
+                    System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                    return newListeners;
+                }
+            }
+        }
+
+        return listeners;
+    }
+
+    static void notify(@NotNull ConfigListener[] listeners, @NotNull ConfigElement container, @Nullable String key,
+                       @Nullable ConfigElement oldValue, @Nullable ConfigElement newValue) {
+        for(ConfigListener listener : listeners) {
+            listener.onChange(container, key, oldValue, newValue);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * An implementation of {@link ConfigList} backed by a long array. It may only contain {@link ConfigPrimitive} instances
+ * wrapping an integral {@link Number} ({@link Long}, {@link Integer}, {@link Short}, or {@link Byte}). Elements can be
+ * accessed without boxing using {@link LongConfigList#getLong(int)} and related methods. Since values are stored
+ * unboxed, {@link LongConfigList#get(int)} returns a new ConfigPrimitive on every call, so modifying the returned
+ * primitive does not affect this list.
+ */
+public class LongConfigList extends AbstractPrimitiveConfigList {
+    /**
+     * Constructs a new, empty LongConfigList.
+     */
+    public LongConfigList() {
+        super(new long[DEFAULT_CAPACITY], 0);
+    }
+
+    /**
+     * Constructs a new LongConfigList containing a copy of the provided values.
+     * @param values the values to copy
+     */
+    public LongConfigList(long @NotNull [] values) {
+        super(Validate.notNull(values).clone(), values.length);
+    }
+
+    @Override
+    @NotNull Object boxed(int index) {
+        return ((long[]) values)[index];
+    }
+
+    @Override
+    void store(int index, @NotNull Object value) {
+        ((long[]) values)[index] = (Long) value;
+    }
+
+    @Override
+    @Nullable Object convert(@Nullable Object value) {
+        if(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+
+        return null;
+    }
+
+    @Override
+    @NotNull String typeName() {
+        return "long";
+    }
+
+    /**
+     * Obtains the value at the given index, without boxing.
+     * @param index the index of the value
+     * @return the value at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getLong(int index) {
+        Objects.checkIndex(index, size);
+        return ((long[]) values)[index];
+    }
+
+    /**
+     * Sets the value at the given index, without boxing.
+     * @param index the index of the value
+     * @param value the new value
+     * @return the value previously at the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long setLong(int index, long value) {
+        Objects.checkIndex(index, size);
+        long[] values = (long[]) this.values;
+        long old = values[index];
+        values[index] = value;
+        notifyListeners(old, value);
+        return old;
+    }
+
+    /**
+     * Adds a value to the end of this list, without boxing.
+     * @param value the value to add
+     */
+    public void addLong(long value) {
+        int index = append();
+        ((long[]) values)[index] = value;
+        notifyListeners(null, value);
+    }
+
+    /**
+     * Adds all the provided values to the end of this list.
+     * @param values the values to add
+     */
+    public void addAllLongs(long @NotNull ... values) {
+        addArray(Validate.notNull(values), values.length);
+    }
+
+    /**
+     * Copies the contents of this list into a new array.
+     * @return a new array containing every value in this list, in order
+     */
+    public long @NotNull [] toLongArray() {
+        return (long[]) copyValues(size);
+    }
+}
@@ -0,0 +1,384 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * <p>A {@link ConfigNode} which presents a merged view of a number of "layers" (which are themselves ConfigNode
+ * instances) without copying any of them. Layers are ordered from highest to lowest precedence: for each key, the value
+ * from the first layer containing that key is used. If this value is a ConfigNode, and lower layers also contain nodes
+ * under the same key, the nodes are recursively merged into another OverlayConfigNode. Lists present under the same key
+ * in several layers are combined according to a {@link ListMergeStrategy}.</p>
+ *
+ * <p>All writes (put, remove and clear) made through any OverlayConfigNode are applied to the highest-precedence layer.
+ * If a nested overlay is written to, but its highest-precedence layer does not yet contain a node under the relevant
+ * key, a new {@link LinkedConfigNode} will be created there. Removing a key only removes it from the top layer, so
+ * values for the same key from lower layers may remain visible afterwards. ConfigList and {@link
+ * io.github.steanky.polymer.config.ConfigPrimitive} values are not copied, so modifying them directly will modify the
+ * layer they came from; concatenated lists, however, are new objects, and changes to them are not reflected in any
+ * layer. Concatenated lists do not cache their hashes.</p>
+ *
+ * <p>The merged view of each node is cached, so lookups are about as fast as a lookup in a single {@link LinkedHashMap}.
+ * Writes made through an overlay automatically invalidate the cached views they affect (those of the written node, its
+ * ancestors, and the nested overlay under the written key), but changes made to layers directly (or through other
+ * references) will not be visible until {@link OverlayConfigNode#invalidate()} is called on any node in the same
+ * overlay tree.</p>
+ *
+ * <p>Like other ConfigNode implementations, this class is not thread-safe.</p>
+ */
+public class OverlayConfigNode extends AbstractConfigNode {
+    /*
+    Shared between all overlays belonging to the same tree. Any change increments version, so that overlays can tell
+    cheaply that nothing has changed since they were last refreshed. Writes made through an overlay only mark the
+    overlays they affect as stale: the written node, its ancestors (whose top layers may have been created by the
+    write), and the children whose layers it replaced. A nested overlay also rebuilds when the layers of its parent
+    change. invalidate() increments rebuildVersion instead, which makes every overlay in the tree rebuild, since direct
+    changes to the layers could have been made anywhere.
+     */
+    private static final class State {
+        private final List<ConfigNode> rootLayers;
+        private final ListMergeStrategy listMergeStrategy;
+        private long version;
+        private long rebuildVersion;
+
+        private State(List<ConfigNode> rootLayers, ListMergeStrategy listMergeStrategy) {
+            this.rootLayers = rootLayers;
+            this.listMergeStrategy = listMergeStrategy;
+        }
+    }
+
+    private final State state;
+    private final OverlayConfigNode parent;
+    private final String key;
+
+    private List<ConfigNode> layers;
+    private long cachedVersion = -1;
+    private long rebuiltVersion = -1;
+    private boolean stale;
+
+    //incremented when layers changes, and compared by children against the value they were last refreshed with
+    private long layersVersion;
+    private long parentLayersVersion;
+
+    private OverlayConfigNode(State state, OverlayConfigNode parent, String key) {
+        super(new LinkedHashMap<>());
+        this.state = state;
+        this.parent = parent;
+        this.key = key;
+    }
+
+    /**
+     * Creates a new OverlayConfigNode from the given layers, ordered from highest to lowest precedence.
+     * @param layers the layers to present a merged view of; must contain at least one element
+     * @param listMergeStrategy the strategy used to combine lists present under the same key in different layers
+     */
+    public OverlayConfigNode(@NotNull List<? extends ConfigNode> layers, @NotNull ListMergeStrategy listMergeStrategy) {
+        this(new State(new ArrayList<>(Validate.noNullElements(layers)), Validate.notNull(listMergeStrategy)), null,
+                null);
+        Validate.isTrue(!layers.isEmpty(), "must supply at least one layer");
+    }
+
+    /**
+     * Creates a new OverlayConfigNode from the given layers, ordered from highest to lowest precedence. Lists are
+     * combined using {@link ListMergeStrategy#REPLACE}.
+     * @param layers the layers to present a merged view of; must contain at least one element
+     */
+    public OverlayConfigNode(@NotNull ConfigNode... layers) {
+        this(Arrays.asList(layers), ListMergeStrategy.REPLACE);
+    }
+
+    /**
+     * Invalidates the cached merged view of every node in this overlay tree. This must be called after any layer is
+     * modified directly, rather than through an OverlayConfigNode.
+     */
+    public void invalidate() {
+        state.rebuildVersion++;
+        state.version++;
+    }
+
+    //marks the overlays affected by a write to the given key of this node (or to every key, if it is null) as stale
+    private void written(String key) {
+        for(OverlayConfigNode node = this; node != null; node = node.parent) {
+            node.stale = true;
+        }
+
+        for(ConfigElement element : mappings.values()) {
+            if(element instanceof OverlayConfigNode child && (key == null || key.equals(child.key))) {
+                child.stale = true;
+            }
+        }
+
+        state.version++;
+    }
+
+    /**
+     * Replaces one of the root layers of this overlay tree. This may be used to swap in a newly reloaded tree without
+     * recreating the overlay. This automatically invalidates the cache.
+     * @param index the index of the layer to replace, where 0 is the highest-precedence layer
+     * @param layer the new layer
+     * @throws IllegalStateException if this is not the root of the overlay tree
+     */
+    public void setLayer(int index, @NotNull ConfigNode layer) {
+        Validate.notNull(layer);
+        Validate.validState(parent == null, "layers may only be replaced on the root overlay");
+
+        state.rootLayers.set(index, layer);
+        invalidate();
+    }
+
+    /**
+     * Obtains the layers that make up this node, ordered from highest to lowest precedence. For nested overlays, these
+     * are the nodes found under this node's key in the layers of the parent overlay.
+     * @return an unmodifiable list of the current layers
+     */
+    public @NotNull List<ConfigNode> getLayers() {
+        refresh();
+        return Collections.unmodifiableList(layers);
+    }
+
+    private void refresh() {
+        if(cachedVersion == state.version) {
+            return;
+        }
+
+        if(parent != null) {
+            parent.refresh();
+        }
+
+        if(stale || rebuiltVersion != state.rebuildVersion || (parent != null &&
+                parentLayersVersion != parent.layersVersion)) {
+            rebuild();
+        }
+
+        cachedVersion = state.version;
+    }
+
+    private void rebuild() {
+        if(parent == null) {
+            //the root layers themselves can only be replaced by setLayer, which invalidates the whole tree
+            if(rebuiltVersion != state.rebuildVersion) {
+                layersVersion++;
+            }
+
+            layers = state.rootLayers;
+        }
+        else {
+            //take consecutive nodes under our key; anything else shadows the nodes in the layers below it
+            List<ConfigNode> newLayers = new ArrayList<>(parent.layers.size());
+            for(ConfigNode parentLayer : parent.layers) {
+                ConfigElement element = parentLayer.get(key);
+                if(element != null) {
+                    if(element.getType().isNode()) {
+                        newLayers.add(element.asConfigNode());
+                    }
+                    else {
+                        break;
+                    }
+                }
+            }
+
+            //children only need to rebuild if our layers actually changed
+            if(rebuiltVersion != state.rebuildVersion || !sameLayers(newLayers)) {
+                layersVersion++;
+            }
+
+            layers = newLayers;
+            parentLayersVersion = parent.layersVersion;
+        }
+
+        Map<String, OverlayConfigNode> oldChildren = new HashMap<>();
+        for(ConfigElement element : mappings.values()) {
+            if(element instanceof OverlayConfigNode child) {
+                oldChildren.put(child.key, child);
+            }
+        }
+
+        mappings.clear();
+
+        //lowest layers come first so that iteration order follows the defaults, then keys added by higher layers
+        for(int i = layers.size() - 1; i >= 0; i--) {
+            for(String layerKey : layers.get(i).keySet()) {
+                if(!mappings.containsKey(layerKey)) {
+                    mappings.put(layerKey, resolve(layerKey, oldChildren));
+                }
+            }
+        }
+
+        stale = false;
+        rebuiltVersion = state.rebuildVersion;
+    }
+
+    private boolean sameLayers(List<ConfigNode> newLayers) {
+        if(layers == null || layers.size() != newLayers.size()) {
+            return false;
+        }
+
+        for(int i = 0; i < newLayers.size(); i++) {
+            if(layers.get(i) != newLayers.get(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private ConfigElement resolve(String key, Map<String, OverlayConfigNode> oldChildren) {
+        ConfigElement first = null;
+        List<ConfigList> lists = null;
+
+        for(ConfigNode layer : layers) {
+            ConfigElement element = layer.get(key);
+            if(element == null) {
+                continue;
+            }
+
+            if(first == null) {
+                first = element;
+
+                if(element.getType().isNode()) {
+                    OverlayConfigNode child = oldChildren.get(key);
+                    return child == null ? new OverlayConfigNode(state, this, key) : child;
+                }
+                else if(!element.getType().isArray() || state.listMergeStrategy == ListMergeStrategy.REPLACE) {
+                    return element;
+                }
+
+                lists = new ArrayList<>(layers.size());
+                lists.add(element.asConfigList());
+            }
+            else if(element.getType().isArray()) {
+                lists.add(element.asConfigList());
+            }
+            else {
+                break;
+            }
+        }
+
+        if(lists == null || lists.size() == 1) {
+            return first;
+        }
+
+        List<ConfigElement> merged = new ArrayList<>();
+        if(state.listMergeStrategy == ListMergeStrategy.APPEND) {
+            for(int i = lists.size() - 1; i >= 0; i--) {
+                merged.addAll(lists.get(i));
+            }
+        }
+        else {
+            for(ConfigList list : lists) {
+                merged.addAll(list);
+            }
+        }
+
+        //merged lists are replaced on every refresh, so they must not stay registered with the elements they share
+        return new ArrayConfigList(merged, false);
+    }
+
+    //obtains the highest-precedence layer, creating it if necessary
+    private ConfigNode topLayer() {
+        if(parent == null) {
+            return state.rootLayers.get(0);
+        }
+
+        ConfigNode parentTop = parent.topLayer();
+        ConfigElement existing = parentTop.get(key);
+        if(existing != null && existing.getType().isNode()) {
+            return existing.asConfigNode();
+        }
+
+        Validate.validState(existing == null, "overlay has been shadowed by a non-node value in the top layer");
+        ConfigNode created = new LinkedConfigNode();
+        parentTop.put(key, created);
+        return created;
+    }
+
+    @Override
+    boolean tracksChanges() {
+        //lower layers can be modified directly, which this node would not be told about
+        return false;
+    }
+
+    @Override
+    public ConfigElement get(Object key) {
+        refresh();
+        return super.get(key);
+    }
+
+    @Override
+    ConfigElement child(@NotNull String key) {
+        refresh();
+        return super.child(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        refresh();
+        return super.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        refresh();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public @NotNull Optional<ConfigElement> getElement(@NotNull String... keys) {
+        refresh();
+        return super.getElement(keys);
+    }
+
+    @Override
+    public ConfigElement put(@NotNull String key, @NotNull ConfigElement value) {
+        validateKeyValuePair(key, value);
+
+        ConfigElement previous = get(key);
+        topLayer().put(key, value);
+        written(key);
+
+        notifyListeners(key, previous, get(key));
+        return previous;
+    }
+
+    @Override
+    public ConfigElement remove(Object key) {
+        Validate.notNull(key);
+
+        ConfigElement previous = get(key);
+        ConfigElement removed = topLayer().remove(key);
+        if(key instanceof String string) {
+            written(string);
+        }
+
+        if(previous != null) {
+            //a value from a lower layer may still be visible after removal
+            notifyListeners((String) key, previous, get(key));
+        }
+
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        Map<String, ConfigElement> previous = listeners == null ? null : new LinkedHashMap<>(this);
+        topLayer().clear();
+        written(null);
+
+        if(previous != null) {
+            for(Entry<String, ConfigElement> entry : previous.entrySet()) {
+                notifyListeners(entry.getKey(), entry.getValue(), get(entry.getKey()));
+            }
+        }
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, ConfigElement>> entrySet() {
+        refresh();
+
+        //writes must go through put/remove so that they are applied to the top layer
+        return Collections.unmodifiableSet(mappings.entrySet());
+    }
+}
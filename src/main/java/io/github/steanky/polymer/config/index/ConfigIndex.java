@@ -0,0 +1,375 @@
+package io.github.steanky.polymer.config.index;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigListener;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.ConfigTraversal;
+import io.github.steanky.polymer.config.collection.Listeners;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * <p>A secondary index over the entries of a {@link ConfigNode} (its values) or {@link ConfigList} (its elements),
+ * which maps a key extracted from each entry to every entry having that key. This allows entries to be looked up by
+ * the value of a field, such as an id, without scanning the container.</p>
+ *
+ * <p>The index registers {@link ConfigListener}s on the container and on each entry, and is updated incrementally
+ * whenever entries are added, removed, or replaced, or whenever a direct child of an entry changes. Key extractors
+ * should therefore depend only on the direct children of an entry. Changes made in ways that do not notify listeners
+ * (such as {@link ConfigPrimitive#setObject(Object)}) are not detected. When a subtree is reloaded, the index can be
+ * pointed at the new container using {@link ConfigIndex#retarget(ConfigElement)}, which only re-extracts keys for
+ * entries whose contents changed.</p>
+ *
+ * <p>Entries are tracked by identity. Primitive-backed lists create a new {@link ConfigPrimitive} whenever an element
+ * is accessed or reported to a listener, so entries which are primitives are also matched by their value when they are
+ * removed.</p>
+ *
+ * <p>An index performs no synchronization of its own, so it must only be used by the thread which modifies its
+ * container. Once an index is no longer needed, {@link ConfigIndex#close()} detaches it from the container and its
+ * entries; until then, it keeps being updated whenever they change.</p>
+ * @param <K> the type of key
+ */
+public final class ConfigIndex<K> {
+    private static final class Tracked<K> {
+        private K key;
+        private int count;
+
+        private Tracked(K key) {
+            this.key = key;
+        }
+    }
+
+    private final Function<? super ConfigElement, ? extends K> extractor;
+    private final Map<K, List<ConfigElement>> index;
+    private final Map<ConfigElement, Tracked<K>> tracked = new IdentityHashMap<>();
+
+    private final ConfigListener containerListener = this::onContainerChange;
+    private final ConfigListener entryListener = this::onEntryChange;
+
+    private ConfigElement container;
+
+    private ConfigIndex(ConfigElement container, Function<? super ConfigElement, ? extends K> extractor,
+                        Map<K, List<ConfigElement>> index) {
+        this.extractor = Validate.notNull(extractor);
+        this.index = index;
+        attach(container, Map.of());
+    }
+
+    /**
+     * Creates a hash-based index over the given container.
+     * @param container the ConfigNode or ConfigList whose entries should be indexed
+     * @param extractor the function used to extract a key from each entry, which may return null if an entry
+     *                  should not be indexed
+     * @param <K> the type of key
+     * @return a new index
+     */
+    public static <K> @NotNull ConfigIndex<K> hash(@NotNull ConfigElement container,
+                                                   @NotNull Function<? super ConfigElement, ? extends K> extractor) {
+        return new ConfigIndex<>(container, extractor, new HashMap<>());
+    }
+
+    /**
+     * Creates a hash-based index over the given container, keyed by the value of the given field of each entry. See
+     * {@link ConfigIndex#field(String)} for how values are converted into keys.
+     * @param container the ConfigNode or ConfigList whose entries should be indexed
+     * @param field the key of the field in each entry
+     * @return a new index
+     */
+    public static @NotNull ConfigIndex<Object> hashByField(@NotNull ConfigElement container, @NotNull String field) {
+        return hash(container, field(field));
+    }
+
+    /**
+     * Creates a sorted index over the given container, which additionally supports range queries.
+     * @param container the ConfigNode or ConfigList whose entries should be indexed
+     * @param extractor the function used to extract a key from each entry, which may return null if an entry
+     *                  should not be indexed
+     * @param comparator the comparator used to order keys
+     * @param <K> the type of key
+     * @return a new index
+     */
+    public static <K> @NotNull ConfigIndex<K> sorted(@NotNull ConfigElement container,
+                                                     @NotNull Function<? super ConfigElement, ? extends K> extractor,
+                                                     @NotNull Comparator<? super K> comparator) {
+        return new ConfigIndex<>(container, extractor, new TreeMap<>(Validate.notNull(comparator)));
+    }
+
+    /**
+     * Creates a key extractor which obtains the value of the given field from entries that are ConfigNodes. Integral
+     * numbers are converted to {@link Long} and other numbers to {@link Double}, so that keys compare equal
+     * regardless of how the underlying codec represented them. Strings and booleans are used as-is. Entries which are
+     * not nodes, do not contain the field, or whose field is not a primitive (or is null) are not indexed.
+     * @param field the key of the field
+     * @return a key extractor
+     */
+    public static @NotNull Function<ConfigElement, Object> field(@NotNull String field) {
+        Validate.notNull(field);
+
+        return entry -> {
+            if(!entry.getType().isNode()) {
+                return null;
+            }
+
+            ConfigElement value = ConfigTraversal.child(entry.asConfigNode(), field);
+            if(!(value instanceof ConfigPrimitive primitive)) {
+                return null;
+            }
+
+            Object object = primitive.getObject();
+            if(object instanceof Double || object instanceof Float) {
+                return ((Number) object).doubleValue();
+            }
+            else if(object instanceof Number number) {
+                return number.longValue();
+            }
+
+            return object;
+        };
+    }
+
+    /**
+     * Obtains every indexed entry with the given key, in no particular order.
+     * @param key the key
+     * @return an unmodifiable list of matching entries, which is empty if there are none
+     */
+    public @NotNull List<ConfigElement> get(@NotNull K key) {
+        Validate.notNull(key);
+
+        List<ConfigElement> entries = index.get(key);
+        return entries == null ? List.of() : Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Obtains any one indexed entry with the given key. This is most useful for keys that are expected to be unique.
+     * @param key the key
+     * @return an Optional containing a matching entry, or an empty Optional if there are none
+     */
+    public @NotNull Optional<ConfigElement> getAny(@NotNull K key) {
+        List<ConfigElement> entries = get(key);
+        return entries.isEmpty() ? Optional.empty() : Optional.of(entries.get(0));
+    }
+
+    /**
+     * Obtains every key currently present in this index.
+     * @return an unmodifiable view of the keys of this index
+     */
+    public @NotNull Set<K> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Obtains a view of the portion of this index whose keys lie in the given range. Only supported by sorted indexes.
+     * @param from the lower bound
+     * @param fromInclusive whether the lower bound is inclusive
+     * @param to the upper bound
+     * @param toInclusive whether the upper bound is inclusive
+     * @return an unmodifiable view of the entries in the given range, keyed by their index key
+     * @throws IllegalStateException if this index is not sorted
+     */
+    public @NotNull NavigableMap<K, List<ConfigElement>> range(@NotNull K from, boolean fromInclusive, @NotNull K to,
+                                                               boolean toInclusive) {
+        Validate.validState(index instanceof NavigableMap, "range queries require a sorted index");
+
+        return Collections.unmodifiableNavigableMap(((NavigableMap<K, List<ConfigElement>>) index).subMap(from,
+                fromInclusive, to, toInclusive));
+    }
+
+    /**
+     * Points this index at a different container, such as a newly reloaded version of the original. Entries which are
+     * present in both containers, or whose contents are unchanged (according to {@link ConfigElement#fingerprint()}),
+     * keep their existing keys; keys are only extracted for entries which were added or changed.
+     * @param newContainer the new ConfigNode or ConfigList to index
+     */
+    public void retarget(@NotNull ConfigElement newContainer) {
+        Validate.notNull(newContainer);
+        if(newContainer == container) {
+            return;
+        }
+
+        ConfigElement oldContainer = container;
+        Listeners.removeListener(oldContainer, containerListener);
+
+        //entries of the old container which are not shared with the new one, by fingerprint
+        Collection<ConfigElement> newEntries = entries(newContainer);
+        Set<ConfigElement> shared = Collections.newSetFromMap(new IdentityHashMap<>(newEntries.size()));
+        shared.addAll(newEntries);
+
+        Map<Long, Deque<Tracked<K>>> reusable = new HashMap<>();
+        for(ConfigElement entry : entries(oldContainer)) {
+            Tracked<K> entryTracker = tracked.get(entry);
+            if(entryTracker != null && !shared.contains(entry)) {
+                reusable.computeIfAbsent(entry.fingerprint(), ignored -> new ArrayDeque<>(1)).add(entryTracker);
+            }
+        }
+
+        //track new entries first, so that entries shared between the containers are never fully untracked
+        attach(newContainer, reusable);
+        for(ConfigElement entry : entries(oldContainer)) {
+            untrack(entry);
+        }
+    }
+
+    /**
+     * Removes every listener registered by this index and clears it. The index should not be used afterwards.
+     */
+    public void close() {
+        Listeners.removeListener(container, containerListener);
+
+        for(ConfigElement entry : tracked.keySet()) {
+            Listeners.removeListener(entry, entryListener);
+        }
+
+        tracked.clear();
+        index.clear();
+    }
+
+    private void attach(ConfigElement container, Map<Long, Deque<Tracked<K>>> reusable) {
+        Validate.notNull(container);
+        Validate.isTrue(container.getType().isNode() || container.getType().isArray(), "container must be a " +
+                "ConfigNode or ConfigList");
+
+        this.container = container;
+        Listeners.addListener(container, containerListener);
+
+        for(ConfigElement entry : entries(container)) {
+            if(!reusable.isEmpty() && !tracked.containsKey(entry)) {
+                Deque<Tracked<K>> candidates = reusable.get(entry.fingerprint());
+                Tracked<K> previous = candidates == null ? null : candidates.poll();
+                if(previous != null) {
+                    //equal contents produce the same key, so there is no need to extract it again
+                    track(entry, previous.key);
+                    continue;
+                }
+            }
+
+            track(entry);
+        }
+    }
+
+    private static Collection<ConfigElement> entries(ConfigElement container) {
+        return container.getType().isNode() ? container.asConfigNode().values() : container.asConfigList();
+    }
+
+    private void onContainerChange(ConfigElement container, String key, ConfigElement oldValue,
+                                   ConfigElement newValue) {
+        if(oldValue != null) {
+            untrack(oldValue);
+        }
+
+        if(newValue != null) {
+            track(newValue);
+        }
+    }
+
+    private void onEntryChange(ConfigElement entry, String key, ConfigElement oldValue, ConfigElement newValue) {
+        Tracked<K> entryTracker = tracked.get(entry);
+        if(entryTracker == null) {
+            return;
+        }
+
+        K newKey = extractor.apply(entry);
+        if(!Objects.equals(newKey, entryTracker.key)) {
+            for(int i = 0; i < entryTracker.count; i++) {
+                removeFromIndex(entryTracker.key, entry);
+                addToIndex(newKey, entry);
+            }
+
+            entryTracker.key = newKey;
+        }
+    }
+
+    private void track(ConfigElement entry) {
+        Tracked<K> entryTracker = tracked.get(entry);
+        track(entry, entryTracker == null ? extractor.apply(entry) : entryTracker.key);
+    }
+
+    private void track(ConfigElement entry, K key) {
+        Tracked<K> entryTracker = tracked.get(entry);
+        if(entryTracker == null) {
+            if(key == null && entry instanceof ConfigPrimitive) {
+                //unindexed primitives have no listeners, so there is nothing to remember about them
+                return;
+            }
+
+            entryTracker = new Tracked<>(key);
+            tracked.put(entry, entryTracker);
+            Listeners.addListener(entry, entryListener);
+        }
+
+        entryTracker.count++;
+        addToIndex(entryTracker.key, entry);
+    }
+
+    private void untrack(ConfigElement entry) {
+        Tracked<K> entryTracker = tracked.get(entry);
+        if(entryTracker == null) {
+            if(!(entry instanceof ConfigPrimitive primitive)) {
+                return;
+            }
+
+            //the entry may be a copy of a primitive from a primitive-backed list, so look for one with the same value
+            entry = findPrimitive(extractor.apply(entry), primitive.getObject());
+            if(entry == null) {
+                return;
+            }
+
+            entryTracker = tracked.get(entry);
+        }
+
+        removeFromIndex(entryTracker.key, entry);
+        if(--entryTracker.count == 0) {
+            tracked.remove(entry);
+            Listeners.removeListener(entry, entryListener);
+        }
+    }
+
+    private ConfigElement findPrimitive(@Nullable K key, Object value) {
+        if(key == null) {
+            return null;
+        }
+
+        List<ConfigElement> entries = index.get(key);
+        if(entries != null) {
+            for(ConfigElement entry : entries) {
+                if(entry instanceof ConfigPrimitive primitive && Objects.equals(primitive.getObject(), value)) {
+                    return entry;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private void addToIndex(@Nullable K key, ConfigElement entry) {
+        if(key != null) {
+            index.computeIfAbsent(key, ignored -> new ArrayList<>(1)).add(entry);
+        }
+    }
+
+    private void removeFromIndex(@Nullable K key, ConfigElement entry) {
+        if(key == null) {
+            return;
+        }
+
+        List<ConfigElement> entries = index.get(key);
+        if(entries != null) {
+            //entries are compared by identity, since ConfigElement equality may be structural
+            for(int i = 0; i < entries.size(); i++) {
+                if(entries.get(i) == entry) {
+                    entries.remove(i);
+                    break;
+                }
+            }
+
+            if(entries.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
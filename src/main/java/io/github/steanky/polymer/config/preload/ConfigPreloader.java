@@ -0,0 +1,254 @@
+package io.github.steanky.polymer.config.preload;
+
+import io.github.steanky.polymer.config.bridge.ConfigBridge;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Loads a number of config roots, registered by any number of owners (usually mods), in parallel. Config roots are
+ * registered up front using {@link ConfigPreloader#register(String, String, ConfigBridge)} or a
+ * {@link PreloadRegistrar}, after which {@link ConfigPreloader#start()} begins reading all of them at once. Since
+ * every root is loaded independently, the time taken is bounded by the slowest root rather than the sum of all of
+ * them (given enough threads).</p>
+ *
+ * <p>Loaded configs can be retrieved by owner and name. Each owner's timing is recorded in a {@link PreloadReport},
+ * which is available once every root has either loaded or failed.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public final class ConfigPreloader {
+    /**
+     * The default number of threads used by {@link ConfigPreloader#ConfigPreloader()}.
+     */
+    public static final int DEFAULT_PARALLELISM = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+    private record Key(String owner, String name) {}
+
+    private static final class Entry {
+        private final String owner;
+        private final ConfigBridge<?> bridge;
+        private final CompletableFuture<ConfigNode> future = new CompletableFuture<>();
+
+        //written before the future completes, so they are visible to anything that observes its completion
+        private long startNanos;
+        private long endNanos;
+
+        private Entry(String owner, ConfigBridge<?> bridge) {
+            this.owner = owner;
+            this.bridge = bridge;
+        }
+    }
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>();
+
+    private CompletableFuture<PreloadReport> report;
+
+    /**
+     * Creates a new ConfigPreloader which loads configs using the given executor.
+     * @param executor the executor to load configs on
+     */
+    public ConfigPreloader(@NotNull Executor executor) {
+        this.executor = Validate.notNull(executor);
+        this.ownedExecutor = null;
+    }
+
+    /**
+     * Creates a new ConfigPreloader which loads configs on its own pool of daemon threads. The pool is shut down once
+     * every config has loaded.
+     * @param parallelism the number of threads to use
+     */
+    public ConfigPreloader(int parallelism) {
+        Validate.isTrue(parallelism > 0, "parallelism must be positive");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.ownedExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "Polymer-Preload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * Creates a new ConfigPreloader which loads configs on its own pool of {@link ConfigPreloader#DEFAULT_PARALLELISM}
+     * daemon threads.
+     */
+    public ConfigPreloader() {
+        this(DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Registers a config root to be loaded.
+     * @param owner the owner of the config root
+     * @param name the name of the config root, unique per owner
+     * @param bridge the bridge to read from
+     * @throws IllegalArgumentException if the name is already registered for this owner
+     * @throws IllegalStateException if loading has already started
+     */
+    public synchronized void register(@NotNull String owner, @NotNull String name, @NotNull ConfigBridge<?> bridge) {
+        Validate.notNull(owner);
+        Validate.notNull(name);
+        Validate.notNull(bridge);
+        Validate.validState(report == null, "cannot register configs after loading has started");
+
+        Key key = new Key(owner, name);
+        Validate.isTrue(!entries.containsKey(key), "config %s has already been registered for %s", name, owner);
+        entries.put(key, new Entry(owner, bridge));
+    }
+
+    /**
+     * Creates a {@link PreloadRegistrar} which registers config roots for the given owner.
+     * @param owner the owner
+     * @return a registrar for the owner
+     */
+    public @NotNull PreloadRegistrar registrar(@NotNull String owner) {
+        Validate.notNull(owner);
+        return (name, bridge) -> register(owner, name, bridge);
+    }
+
+    /**
+     * Starts loading every registered config root. This method returns immediately.
+     * @return a future which completes with a report once every config root has either loaded or failed
+     * @throws IllegalStateException if loading has already started
+     */
+    public synchronized @NotNull CompletableFuture<PreloadReport> start() {
+        Validate.validState(report == null, "loading has already started");
+
+        long startNanos = System.nanoTime();
+        List<Entry> entryList = List.copyOf(entries.values());
+        CompletableFuture<?>[] futures = entryList.stream().map(entry -> entry.future)
+                .toArray(CompletableFuture<?>[]::new);
+        for(Entry entry : entryList) {
+            try {
+                executor.execute(() -> load(entry));
+            }
+            catch (RejectedExecutionException exception) {
+                entry.startNanos = entry.endNanos = System.nanoTime();
+                entry.future.completeExceptionally(exception);
+            }
+        }
+
+        report = CompletableFuture.allOf(futures).handle((ignored, error) -> makeReport(entryList, startNanos));
+        if(ownedExecutor != null) {
+            report.whenComplete((ignored, error) -> ownedExecutor.shutdown());
+        }
+
+        return report;
+    }
+
+    private static void load(Entry entry) {
+        entry.startNanos = System.nanoTime();
+
+        try {
+            ConfigNode node = entry.bridge.read().get();
+            entry.endNanos = System.nanoTime();
+            entry.future.complete(node);
+        }
+        catch (ExecutionException exception) {
+            entry.endNanos = System.nanoTime();
+            entry.future.completeExceptionally(exception.getCause());
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            entry.endNanos = System.nanoTime();
+            entry.future.completeExceptionally(exception);
+        }
+        catch (Throwable throwable) {
+            entry.endNanos = System.nanoTime();
+            entry.future.completeExceptionally(throwable);
+        }
+    }
+
+    private static PreloadReport makeReport(List<Entry> entryList, long startNanos) {
+        Map<String, List<Entry>> byOwner = new LinkedHashMap<>();
+        long end = startNanos;
+        for(Entry entry : entryList) {
+            byOwner.computeIfAbsent(entry.owner, ignored -> new ArrayList<>()).add(entry);
+            end = Math.max(end, entry.endNanos);
+        }
+
+        List<PreloadReport.OwnerTiming> timings = new ArrayList<>(byOwner.size());
+        for(Map.Entry<String, List<Entry>> ownerEntries : byOwner.entrySet()) {
+            int loaded = 0;
+            int failed = 0;
+            long ownerEnd = startNanos;
+            long total = 0;
+
+            for(Entry entry : ownerEntries.getValue()) {
+                if(entry.future.isCompletedExceptionally()) {
+                    failed++;
+                }
+                else {
+                    loaded++;
+                }
+
+                ownerEnd = Math.max(ownerEnd, entry.endNanos);
+                total += entry.endNanos - entry.startNanos;
+            }
+
+            timings.add(new PreloadReport.OwnerTiming(ownerEntries.getKey(), loaded, failed, ownerEnd - startNanos,
+                    total));
+        }
+
+        return new PreloadReport(timings, end - startNanos);
+    }
+
+    /**
+     * Waits for every config root to finish loading.
+     * @return the report for this preload
+     * @throws IllegalStateException if loading has not been started
+     */
+    public @NotNull PreloadReport await() {
+        CompletableFuture<PreloadReport> report;
+        synchronized (this) {
+            Validate.validState(this.report != null, "loading has not been started");
+            report = this.report;
+        }
+
+        return report.join();
+    }
+
+    /**
+     * Gets a future which completes when a config root has loaded, or fails if it could not be loaded.
+     * @param owner the owner of the config root
+     * @param name the name of the config root
+     * @return the future for the config root
+     * @throws IllegalArgumentException if no such config root has been registered
+     */
+    public synchronized @NotNull CompletableFuture<ConfigNode> getFuture(@NotNull String owner, @NotNull String name) {
+        Entry entry = entries.get(new Key(Validate.notNull(owner), Validate.notNull(name)));
+        Validate.isTrue(entry != null, "config %s has not been registered for %s", name, owner);
+        return entry.future;
+    }
+
+    /**
+     * Gets a loaded config root, waiting for it to finish loading if necessary.
+     * @param owner the owner of the config root
+     * @param name the name of the config root
+     * @return the loaded node, which may be null if the bridge read nothing
+     * @throws IOException if the config root could not be loaded, or the thread was interrupted while waiting
+     * @throws IllegalArgumentException if no such config root has been registered
+     */
+    public @Nullable ConfigNode get(@NotNull String owner, @NotNull String name) throws IOException {
+        try {
+            return getFuture(owner, name).get();
+        }
+        catch (ExecutionException exception) {
+            throw new IOException(exception.getCause());
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.steanky.polymer.config.preload;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Entrypoint used by mods that want Polymer to load their configuration during startup. Implementations are declared
+ * in a mod's {@code fabric.mod.json} under the {@link PreloadEntrypoint#KEY} entrypoint, and are invoked from
+ * Polymer's own initializer:
+ *
+ * <pre>{@code
+ * "entrypoints": {
+ *   "polymer:preload": [ "com.example.ExampleConfigs" ]
+ * }
+ * }</pre>
+ *
+ * All configs registered this way are loaded in parallel, and are available from {@link ConfigPreloader} before the
+ * server starts.
+ */
+@FunctionalInterface
+public interface PreloadEntrypoint {
+    /**
+     * The name of the entrypoint.
+     */
+    String KEY = "polymer:preload";
+
+    /**
+     * Registers the config roots that should be loaded for this mod.
+     * @param registrar the registrar to add config roots to
+     */
+    void registerConfigs(@NotNull PreloadRegistrar registrar);
+}
@@ -0,0 +1,35 @@
+package io.github.steanky.polymer.config.preload;
+
+import io.github.steanky.polymer.config.bridge.ConfigBridge;
+import io.github.steanky.polymer.config.bridge.SynchronousFilesystemBridge;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * Accepts config roots on behalf of a single owner (usually a mod). Obtained from
+ * {@link ConfigPreloader#registrar(String)}.
+ */
+@FunctionalInterface
+public interface PreloadRegistrar {
+    /**
+     * Registers a config root to be loaded.
+     * @param name the name of the config root, unique per owner
+     * @param bridge the bridge to read from. Reads will be awaited on one of the preloader's threads, so bridges should
+     *               not submit work to the same bounded pool that was given to the preloader
+     * @throws IllegalArgumentException if the name is already registered for this owner
+     * @throws IllegalStateException if loading has already started
+     */
+    void register(@NotNull String name, @NotNull ConfigBridge<?> bridge);
+
+    /**
+     * Registers a file or directory to be loaded using a {@link SynchronousFilesystemBridge} with default settings.
+     * @param name the name of the config root, unique per owner
+     * @param root the file or directory to load
+     * @throws IllegalArgumentException if the name is already registered for this owner
+     * @throws IllegalStateException if loading has already started
+     */
+    default void register(@NotNull String name, @NotNull Path root) {
+        register(name, new SynchronousFilesystemBridge(root));
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.steanky.polymer.config.preload;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summarizes a completed preload.
+ * @param owners timing information for each owner, in registration order
+ * @param wallNanos the time between the start of loading and the completion of the last config root, in nanoseconds
+ */
+public record PreloadReport(@NotNull List<OwnerTiming> owners, long wallNanos) {
+    /**
+     * Timing information for all the config roots registered by a single owner.
+     * @param owner the owner
+     * @param loaded the number of config roots that loaded successfully
+     * @param failed the number of config roots that failed to load
+     * @param wallNanos the time between the start of loading and the completion of this owner's last config root
+     * @param totalNanos the sum of the time spent loading each of this owner's config roots
+     */
+    public record OwnerTiming(@NotNull String owner, int loaded, int failed, long wallNanos, long totalNanos) {}
+
+    public PreloadReport {
+        owners = List.copyOf(owners);
+    }
+
+    /**
+     * Formats this report as human-readable text, with one line per owner.
+     * @return the formatted report
+     */
+    public @NotNull String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Loaded configs for ").append(owners.size()).append(" owner(s) in ")
+                .append(TimeUnit.NANOSECONDS.toMillis(wallNanos)).append(" ms");
+
+        for(OwnerTiming timing : owners) {
+            builder.append(System.lineSeparator()).append("  ").append(timing.owner).append(": ")
+                    .append(timing.loaded).append(" loaded, ").append(timing.failed).append(" failed, ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(timing.wallNanos)).append(" ms (")
+                    .append(TimeUnit.NANOSECONDS.toMillis(timing.totalNanos)).append(" ms total)");
+        }
+
+        return builder.toString();
+    }
+}
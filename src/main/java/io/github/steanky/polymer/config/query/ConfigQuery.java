@@ -0,0 +1,680 @@
+package io.github.steanky.polymer.config.query;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ElementType;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.ConfigTraversal;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>A compiled path expression which selects elements from a tree of {@link ConfigElement} objects. Queries are
+ * compiled once using {@link ConfigQuery#compile(String)}, are immutable, and may be evaluated any number of times
+ * (including concurrently) against different trees.</p>
+ *
+ * <p>An expression consists of a sequence of steps, each of which is applied to every element selected by the
+ * previous step. Steps are separated by periods, or written in square brackets:</p>
+ * <ul>
+ *     <li>{@code name} or {@code ['name']}: the value of the given key in a {@link ConfigNode}</li>
+ *     <li>{@code *} or {@code [*]}: every value of a ConfigNode, or every element of a {@link ConfigList}</li>
+ *     <li>{@code **}: the current element and all of its descendants, at any depth</li>
+ *     <li>{@code [n]}: the element at index n of a ConfigList; negative indices count from the end</li>
+ *     <li>{@code [from:to]}: the elements of a ConfigList from index {@code from} (inclusive) to {@code to}
+ *     (exclusive); either bound may be omitted, and negative bounds count from the end</li>
+ *     <li>{@code [?path]}: every child (as with {@code *}) containing the given relative path</li>
+ *     <li>{@code [?path op literal]}: every child for which the value at the relative path compares to the literal
+ *     using one of {@code == != < <= > >=}. Literals may be numbers, quoted strings, {@code true}, {@code false} or
+ *     {@code null}</li>
+ * </ul>
+ *
+ * <p>For example, {@code mobs.*.health} selects the health of every mob, and {@code loot.**[?weight > 10]} selects
+ * every element anywhere under {@code loot} whose weight is greater than 10. The empty expression selects only the
+ * root element.</p>
+ *
+ * <p>Sequential evaluation does not allocate any intermediate collections; only the output collection is added to.
+ * Elements are selected in depth-first order, following the iteration order of each node and list.</p>
+ */
+public final class ConfigQuery {
+    /**
+     * The minimum number of children an element must have before parallel evaluation will split work on them into
+     * separate tasks.
+     */
+    public static final int PARALLEL_THRESHOLD = 256;
+
+    private enum Kind {
+        KEY,
+        WILDCARD,
+        RECURSIVE,
+        INDEX,
+        SLICE,
+        FILTER
+    }
+
+    private enum Operator {
+        EXISTS,
+        EQUAL,
+        NOT_EQUAL,
+        LESS,
+        LESS_OR_EQUAL,
+        GREATER,
+        GREATER_OR_EQUAL
+    }
+
+    private record Filter(String[] path, Operator operator, Object literal) {
+        private boolean test(ConfigElement element) {
+            ConfigElement current = element;
+            for(String key : path) {
+                if(!current.getType().isNode()) {
+                    return false;
+                }
+
+                current = ConfigTraversal.child(current.asConfigNode(), key);
+                if(current == null) {
+                    return false;
+                }
+            }
+
+            if(operator == Operator.EXISTS) {
+                return true;
+            }
+
+            ElementType type = current.getType();
+            int comparison;
+            if(literal == null) {
+                comparison = type.isNull() ? 0 : 1;
+            }
+            else if(literal instanceof Double number) {
+                if(!type.isNumber()) {
+                    return operator == Operator.NOT_EQUAL;
+                }
+
+                comparison = Double.compare(current.asNumber().doubleValue(), number);
+            }
+            else if(literal instanceof String string) {
+                if(!type.isString()) {
+                    return operator == Operator.NOT_EQUAL;
+                }
+
+                comparison = current.asString().compareTo(string);
+            }
+            else {
+                if(!type.isBoolean()) {
+                    return operator == Operator.NOT_EQUAL;
+                }
+
+                comparison = current.asBoolean() == (Boolean) literal ? 0 : 1;
+            }
+
+            //only numbers and strings have an ordering; booleans and null may only be tested for equality
+            boolean ordered = literal instanceof Double || literal instanceof String;
+            return switch (operator) {
+                case EQUAL -> comparison == 0;
+                case NOT_EQUAL -> comparison != 0;
+                case LESS -> ordered && comparison < 0;
+                case LESS_OR_EQUAL -> ordered && comparison <= 0;
+                case GREATER -> ordered && comparison > 0;
+                case GREATER_OR_EQUAL -> ordered && comparison >= 0;
+                default -> true;
+            };
+        }
+    }
+
+    private record Step(Kind kind, String key, int start, int end, boolean hasStart, boolean hasEnd, Filter filter) {
+        private static Step of(Kind kind) {
+            return new Step(kind, null, 0, 0, false, false, null);
+        }
+    }
+
+    private final String expression;
+    private final Step[] steps;
+
+    private ConfigQuery(String expression, Step[] steps) {
+        this.expression = expression;
+        this.steps = steps;
+    }
+
+    /**
+     * Compiles the given expression.
+     * @param expression the path expression
+     * @return the compiled query
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static @NotNull ConfigQuery compile(@NotNull String expression) {
+        Validate.notNull(expression);
+        return new ConfigQuery(expression, new Parser(expression).parse());
+    }
+
+    /**
+     * Evaluates this query against the given root element.
+     * @param root the root element
+     * @return a new list containing every selected element
+     */
+    public @NotNull List<ConfigElement> evaluate(@NotNull ConfigElement root) {
+        return evaluate(root, new ArrayList<>());
+    }
+
+    /**
+     * Evaluates this query against the given root element, adding every selected element to the given collection.
+     * @param root the root element
+     * @param output the collection to add selected elements to
+     * @param <T> the type of collection
+     * @return the output collection
+     */
+    public <T extends Collection<? super ConfigElement>> @NotNull T evaluate(@NotNull ConfigElement root,
+                                                                              @NotNull T output) {
+        Validate.notNull(root);
+        Validate.notNull(output);
+
+        evaluate(root, 0, output);
+        return output;
+    }
+
+    /**
+     * Evaluates this query against the given root element, using the common {@link ForkJoinPool} to process wide
+     * parts of the tree in parallel. Results are returned in the same order as they would be by
+     * {@link ConfigQuery#evaluate(ConfigElement)}. The tree must not be modified during evaluation.
+     * @param root the root element
+     * @return a new list containing every selected element
+     */
+    public @NotNull List<ConfigElement> evaluateParallel(@NotNull ConfigElement root) {
+        return evaluateParallel(root, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates this query against the given root element, using the given {@link ForkJoinPool} to process wide parts
+     * of the tree in parallel. Results are returned in the same order as they would be by
+     * {@link ConfigQuery#evaluate(ConfigElement)}. The tree must not be modified during evaluation.
+     * @param root the root element
+     * @param pool the pool used to run parallel tasks
+     * @return a new list containing every selected element
+     */
+    public @NotNull List<ConfigElement> evaluateParallel(@NotNull ConfigElement root, @NotNull ForkJoinPool pool) {
+        Validate.notNull(root);
+        Validate.notNull(pool);
+
+        return pool.invoke(new QueryTask(List.of(root), 0, 1, 0, null));
+    }
+
+    private void evaluate(ConfigElement element, int index, Collection<? super ConfigElement> output) {
+        if(index == steps.length) {
+            output.add(element);
+            return;
+        }
+
+        Step step = steps[index];
+        ElementType type = element.getType();
+        switch (step.kind) {
+            case KEY -> {
+                if(type.isNode()) {
+                    ConfigElement child = ConfigTraversal.child(element.asConfigNode(), step.key);
+                    if(child != null) {
+                        evaluate(child, index + 1, output);
+                    }
+                }
+            }
+            case INDEX -> {
+                if(type.isArray()) {
+                    ConfigList list = element.asConfigList();
+                    int actual = step.start < 0 ? list.size() + step.start : step.start;
+                    if(actual >= 0 && actual < list.size()) {
+                        evaluate(ConfigTraversal.element(list, actual), index + 1, output);
+                    }
+                }
+            }
+            case SLICE -> {
+                if(type.isArray()) {
+                    ConfigList list = element.asConfigList();
+                    int end = sliceEnd(step, list.size());
+                    for(int i = sliceStart(step, list.size()); i < end; i++) {
+                        evaluate(ConfigTraversal.element(list, i), index + 1, output);
+                    }
+                }
+            }
+            case WILDCARD, FILTER -> {
+                if(type.isNode()) {
+                    for(ConfigElement child : element.asConfigNode().values()) {
+                        if(step.filter == null || step.filter.test(child)) {
+                            evaluate(child, index + 1, output);
+                        }
+                    }
+                }
+                else if(type.isArray()) {
+                    ConfigList list = element.asConfigList();
+                    for(int i = 0; i < list.size(); i++) {
+                        ConfigElement child = ConfigTraversal.element(list, i);
+                        if(step.filter == null || step.filter.test(child)) {
+                            evaluate(child, index + 1, output);
+                        }
+                    }
+                }
+            }
+            case RECURSIVE -> {
+                //match the current element, then apply this same step to every child
+                evaluate(element, index + 1, output);
+
+                if(type.isNode()) {
+                    for(ConfigElement child : element.asConfigNode().values()) {
+                        evaluate(child, index, output);
+                    }
+                }
+                else if(type.isArray()) {
+                    ConfigList list = element.asConfigList();
+                    for(int i = 0; i < list.size(); i++) {
+                        evaluate(ConfigTraversal.element(list, i), index, output);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int clamp(int bound, int size) {
+        int actual = bound < 0 ? size + bound : bound;
+        return Math.max(0, Math.min(size, actual));
+    }
+
+    private static int sliceStart(Step step, int size) {
+        return step.hasStart ? clamp(step.start, size) : 0;
+    }
+
+    private static int sliceEnd(Step step, int size) {
+        return step.hasEnd ? clamp(step.end, size) : size;
+    }
+
+    /*
+    Evaluates a range of children (all at the same step) in parallel. Wide fan-out steps are split into more tasks;
+    everything else is evaluated sequentially.
+     */
+    private final class QueryTask extends RecursiveTask<List<ConfigElement>> {
+        private final List<ConfigElement> elements;
+        private final int from;
+        private final int to;
+        private final int index;
+        private final Filter filter;
+
+        private QueryTask(List<ConfigElement> elements, int from, int to, int index, Filter filter) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.index = index;
+            this.filter = filter;
+        }
+
+        @Override
+        protected List<ConfigElement> compute() {
+            if(to - from > PARALLEL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                QueryTask left = new QueryTask(elements, from, middle, index, filter);
+                QueryTask right = new QueryTask(elements, middle, to, index, filter);
+
+                right.fork();
+                List<ConfigElement> result = left.compute();
+                result.addAll(right.join());
+                return result;
+            }
+
+            List<ConfigElement> output = new ArrayList<>();
+            for(int i = from; i < to; i++) {
+                ConfigElement element = ConfigTraversal.element(elements, i);
+                if(filter == null || filter.test(element)) {
+                    evaluateParallel(element, index, output);
+                }
+            }
+
+            return output;
+        }
+
+        private void evaluateParallel(ConfigElement element, int index, List<ConfigElement> output) {
+            if(index == steps.length) {
+                output.add(element);
+                return;
+            }
+
+            Step step = steps[index];
+            ElementType type = element.getType();
+            switch (step.kind) {
+                case KEY -> {
+                    if(type.isNode()) {
+                        ConfigElement child = ConfigTraversal.child(element.asConfigNode(), step.key);
+                        if(child != null) {
+                            evaluateParallel(child, index + 1, output);
+                        }
+                    }
+                }
+                case INDEX -> {
+                    if(type.isArray()) {
+                        ConfigList list = element.asConfigList();
+                        int actual = step.start < 0 ? list.size() + step.start : step.start;
+                        if(actual >= 0 && actual < list.size()) {
+                            evaluateParallel(ConfigTraversal.element(list, actual), index + 1, output);
+                        }
+                    }
+                }
+                default -> {
+                    Collection<ConfigElement> children = childrenOf(element, step);
+                    if(children == null) {
+                        return;
+                    }
+
+                    int next = index + 1;
+                    Filter filter = step.filter;
+                    if(step.kind == Kind.RECURSIVE) {
+                        //match the current element, then apply this same step to every child
+                        evaluateParallel(element, next, output);
+                        next = index;
+                    }
+
+                    if(children.size() > PARALLEL_THRESHOLD) {
+                        List<ConfigElement> childList = children instanceof List<ConfigElement> list ? list :
+                                new ArrayList<>(children);
+                        output.addAll(new QueryTask(childList, 0, childList.size(), next, filter).invoke());
+                    }
+                    else {
+                        for(ConfigElement child : children) {
+                            if(filter == null || filter.test(child)) {
+                                evaluateParallel(child, next, output);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private Collection<ConfigElement> childrenOf(ConfigElement element, Step step) {
+            ElementType type = element.getType();
+            if(step.kind == Kind.SLICE) {
+                if(type.isArray()) {
+                    //copied rather than viewed with subList, whose reads would go through the counted get
+                    ConfigList list = element.asConfigList();
+                    int end = sliceEnd(step, list.size());
+                    List<ConfigElement> slice = new ArrayList<>();
+                    for(int i = sliceStart(step, list.size()); i < end; i++) {
+                        slice.add(ConfigTraversal.element(list, i));
+                    }
+
+                    return slice;
+                }
+            }
+            else if(type.isNode()) {
+                return element.asConfigNode().values();
+            }
+            else if(type.isArray()) {
+                return element.asConfigList();
+            }
+
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static final class Parser {
+        private final String expression;
+        private int position;
+
+        private Parser(String expression) {
+            this.expression = expression;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at index " + position + " of expression '" +
+                    expression + "'");
+        }
+
+        private boolean atEnd() {
+            return position >= expression.length();
+        }
+
+        private char peek() {
+            return atEnd() ? '\0' : expression.charAt(position);
+        }
+
+        private void expect(char character) {
+            if(peek() != character) {
+                throw error("expected '" + character + "'");
+            }
+
+            position++;
+        }
+
+        private void skipWhitespace() {
+            while(!atEnd() && Character.isWhitespace(peek())) {
+                position++;
+            }
+        }
+
+        private Step[] parse() {
+            List<Step> steps = new ArrayList<>();
+            boolean first = true;
+
+            while(!atEnd()) {
+                if(peek() == '[') {
+                    position++;
+                    steps.add(parseBracket());
+                    expect(']');
+                }
+                else {
+                    if(!first) {
+                        expect('.');
+                    }
+
+                    steps.add(parseSegment());
+                }
+
+                first = false;
+            }
+
+            return steps.toArray(Step[]::new);
+        }
+
+        private Step parseSegment() {
+            if(expression.startsWith("**", position)) {
+                position += 2;
+                return Step.of(Kind.RECURSIVE);
+            }
+            else if(peek() == '*') {
+                position++;
+                return Step.of(Kind.WILDCARD);
+            }
+            else if(peek() == '\'' || peek() == '"') {
+                return new Step(Kind.KEY, parseQuoted(), 0, 0, false, false, null);
+            }
+
+            int start = position;
+            while(!atEnd() && peek() != '.' && peek() != '[') {
+                position++;
+            }
+
+            if(start == position) {
+                throw error("expected key");
+            }
+
+            return new Step(Kind.KEY, expression.substring(start, position), 0, 0, false, false, null);
+        }
+
+        private Step parseBracket() {
+            skipWhitespace();
+
+            Step step;
+            char next = peek();
+            if(next == '*') {
+                position++;
+                step = Step.of(Kind.WILDCARD);
+            }
+            else if(next == '?') {
+                position++;
+                skipWhitespace();
+
+                boolean parenthesized = peek() == '(';
+                if(parenthesized) {
+                    position++;
+                }
+
+                step = new Step(Kind.FILTER, null, 0, 0, false, false, parseFilter());
+
+                if(parenthesized) {
+                    skipWhitespace();
+                    expect(')');
+                }
+            }
+            else if(next == '\'' || next == '"') {
+                step = new Step(Kind.KEY, parseQuoted(), 0, 0, false, false, null);
+            }
+            else {
+                skipWhitespace();
+                boolean hasStart = peek() == '-' || Character.isDigit(peek());
+                int start = hasStart ? parseInteger() : 0;
+                skipWhitespace();
+
+                if(peek() == ':') {
+                    position++;
+                    skipWhitespace();
+
+                    boolean hasEnd = peek() == '-' || Character.isDigit(peek());
+                    int end = hasEnd ? parseInteger() : 0;
+                    step = new Step(Kind.SLICE, null, start, end, hasStart, hasEnd, null);
+                }
+                else if(hasStart) {
+                    step = new Step(Kind.INDEX, null, start, 0, true, false, null);
+                }
+                else {
+                    throw error("expected index, slice, wildcard, filter or quoted key");
+                }
+            }
+
+            skipWhitespace();
+            return step;
+        }
+
+        private int parseInteger() {
+            int start = position;
+            if(peek() == '-') {
+                position++;
+            }
+
+            while(Character.isDigit(peek())) {
+                position++;
+            }
+
+            try {
+                return Integer.parseInt(expression.substring(start, position));
+            }
+            catch (NumberFormatException exception) {
+                throw error("invalid integer");
+            }
+        }
+
+        private String parseQuoted() {
+            char quote = peek();
+            position++;
+
+            StringBuilder builder = new StringBuilder();
+            while(!atEnd() && peek() != quote) {
+                char character = peek();
+                if(character == '\\') {
+                    position++;
+                    if(atEnd()) {
+                        break;
+                    }
+
+                    character = peek();
+                }
+
+                builder.append(character);
+                position++;
+            }
+
+            expect(quote);
+            return builder.toString();
+        }
+
+        private Filter parseFilter() {
+            List<String> path = new ArrayList<>();
+            while(true) {
+                skipWhitespace();
+                if(peek() == '\'' || peek() == '"') {
+                    path.add(parseQuoted());
+                }
+                else {
+                    int start = position;
+                    while(!atEnd() && (Character.isLetterOrDigit(peek()) || peek() == '_' || peek() == '-')) {
+                        position++;
+                    }
+
+                    if(start == position) {
+                        throw error("expected key in filter");
+                    }
+
+                    path.add(expression.substring(start, position));
+                }
+
+                if(peek() != '.') {
+                    break;
+                }
+
+                position++;
+            }
+
+            skipWhitespace();
+            Operator operator = parseOperator();
+            if(operator == Operator.EXISTS) {
+                return new Filter(path.toArray(String[]::new), operator, null);
+            }
+
+            skipWhitespace();
+            return new Filter(path.toArray(String[]::new), operator, parseLiteral());
+        }
+
+        private Operator parseOperator() {
+            String[] symbols = {"==", "!=", "<=", ">=", "<", ">"};
+            Operator[] operators = {Operator.EQUAL, Operator.NOT_EQUAL, Operator.LESS_OR_EQUAL,
+                    Operator.GREATER_OR_EQUAL, Operator.LESS, Operator.GREATER};
+
+            for(int i = 0; i < symbols.length; i++) {
+                if(expression.startsWith(symbols[i], position)) {
+                    position += symbols[i].length();
+                    return operators[i];
+                }
+            }
+
+            return Operator.EXISTS;
+        }
+
+        private Object parseLiteral() {
+            char next = peek();
+            if(next == '\'' || next == '"') {
+                return parseQuoted();
+            }
+
+            int start = position;
+            while(!atEnd() && !Character.isWhitespace(peek()) && peek() != ']' && peek() != ')') {
+                position++;
+            }
+
+            String literal = expression.substring(start, position);
+            switch (literal) {
+                case "true":
+                    return Boolean.TRUE;
+                case "false":
+                    return Boolean.FALSE;
+                case "null":
+                    return null;
+                default:
+                    try {
+                        return Double.parseDouble(literal);
+                    }
+                    catch (NumberFormatException exception) {
+                        position = start;
+                        throw error("invalid literal '" + literal + "'");
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package io.github.steanky.polymer.config.resolve;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.ConfigVisitor;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigListener;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.ConfigTraversal;
+import io.github.steanky.polymer.config.collection.Listeners;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * <p>Resolves references between the values of a tree of {@link ConfigElement} objects. A string value containing
+ * {@code ${path}} is a template, where path is a sequence of keys (or list indices) separated by periods, starting at
+ * the root of the tree. When the tree is made of {@link io.github.steanky.polymer.config.collection.FileConfigNode}s,
+ * the first keys of a path name directories and files, so references may point into other files; for example
+ * {@code ${defaults.mob.health}} refers to the health of the mob in the file named defaults.</p>
+ *
+ * <p>A template consisting of exactly one reference resolves to the referenced element itself, so it keeps its type
+ * (and may even be a node or list). Otherwise, every reference is replaced by the string form of the referenced
+ * primitive, and the template resolves to the resulting string. References may point at other templates, or pass
+ * through templates which resolve to nodes or lists. A literal {@code ${} is written as {@code $${}.</p>
+ *
+ * <p>All templates are found, and the references between them form a dependency graph, when the resolver is created.
+ * Each template is resolved once, after the templates it depends on, and the result is cached; circular references
+ * and references to missing elements are reported as errors. The resolver observes every node and list in the tree
+ * through a {@link ConfigListener}. Adding, removing or replacing an element causes the templates at or beneath it,
+ * and the templates which (directly or indirectly) refer to it, to be resolved again; all other results stay cached.
+ * A primitive whose value is changed in place, using {@link ConfigPrimitive#setObject(Object)}, is not noticed.</p>
+ *
+ * <p>Each container should appear at most once in the tree. The tree and the resolver must be confined to a single
+ * thread at a time. Calling {@link ConfigResolver#close()} detaches the resolver from every container it observes,
+ * after which it should be discarded.</p>
+ */
+public final class ConfigResolver {
+    private static final String OPEN = "${";
+    private static final String ESCAPED_OPEN = "$${";
+    private static final char CLOSE = '}';
+
+    private static final byte UNRESOLVED = 0;
+    private static final byte RESOLVING = 1;
+    private static final byte RESOLVED = 2;
+
+    private record Reference(List<String> path, String key) {}
+
+    private static final class Template {
+        private final List<String> location;
+        private final Object[] parts;
+        private final String parseError;
+
+        private byte state;
+        private ConfigElement value;
+        private String error;
+
+        private Template(List<String> location, Object[] parts, String parseError) {
+            this.location = location;
+            this.parts = parts;
+            this.parseError = parseError;
+        }
+    }
+
+    private final ConfigElement root;
+    private final ConfigListener listener = this::onChange;
+
+    //both maps are keyed by encoded path, so that everything at or beneath a path forms a contiguous range
+    private final NavigableMap<String, Template> templates = new TreeMap<>();
+    private final NavigableMap<String, ConfigElement> containers = new TreeMap<>();
+    private final Map<ConfigElement, List<String>> containerPaths = new IdentityHashMap<>();
+
+    //maps encoded reference paths to the templates containing them
+    private final NavigableMap<String, Set<Template>> referrers = new TreeMap<>();
+
+    private final List<Template> resolving = new ArrayList<>();
+
+    /**
+     * Creates a new ConfigResolver, finding and resolving every template in the given tree.
+     * @param root the root of the tree
+     * @throws IllegalArgumentException if any template cannot be resolved, for example because it is malformed, it
+     * refers to an element which does not exist, or it is part of a circular reference
+     */
+    public ConfigResolver(@NotNull ConfigElement root) {
+        this.root = Validate.notNull(root);
+
+        track(root, List.of());
+        for(Template template : templates.values()) {
+            resolveQuietly(template);
+        }
+
+        for(Template template : templates.values()) {
+            if(template.error != null) {
+                close();
+                throw new IllegalArgumentException(template.error);
+            }
+        }
+    }
+
+    /**
+     * Gets the element at the given path, with templates replaced by their resolved values. Templates which resolve to
+     * nodes or lists may be traversed.
+     * @param path the keys (or list indices) leading to the element
+     * @return an Optional containing the element, or an empty Optional if there is no element at the path
+     * @throws IllegalStateException if a template along the path could not be resolved
+     */
+    public @NotNull Optional<ConfigElement> get(@NotNull String... path) {
+        Validate.noNullElements(path);
+        return Optional.ofNullable(lookup(Arrays.asList(path)));
+    }
+
+    /**
+     * Determines if the element at the given path is a template.
+     * @param path the keys (or list indices) leading to the element
+     * @return true if there is a template at the path, false otherwise
+     */
+    public boolean isTemplate(@NotNull String... path) {
+        Validate.noNullElements(path);
+        return templates.containsKey(encode(Arrays.asList(path)));
+    }
+
+    /**
+     * Gets every template which currently cannot be resolved, along with the reason. This is empty after
+     * construction, but changes to the tree may introduce errors.
+     * @return a map from the period-separated path of each unresolvable template to a description of the error
+     */
+    public @NotNull Map<String, String> errors() {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for(Template template : templates.values()) {
+            if(template.error != null) {
+                errors.put(String.join(".", template.location), template.error);
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * Removes every listener registered by this resolver. The resolver should not be used afterwards.
+     */
+    public void close() {
+        for(ConfigElement container : containers.values()) {
+            Listeners.removeListener(container, listener);
+        }
+
+        containers.clear();
+        containerPaths.clear();
+        templates.clear();
+        referrers.clear();
+    }
+
+    //length-prefixed segments ensure that the key of a path is a prefix of exactly the keys of its descendants
+    private static String encode(List<String> path) {
+        StringBuilder builder = new StringBuilder();
+        for(String segment : path) {
+            builder.append(segment.length()).append(':').append(segment);
+        }
+
+        return builder.toString();
+    }
+
+    private static <T> SortedMap<String, T> atOrBeneath(NavigableMap<String, T> map, String key) {
+        return map.subMap(key, true, key + Character.MAX_VALUE, false);
+    }
+
+    private static List<String> child(List<String> path, String segment) {
+        List<String> child = new ArrayList<>(path.size() + 1);
+        child.addAll(path);
+        child.add(segment);
+        return Collections.unmodifiableList(child);
+    }
+
+    private static Object[] parse(String string) {
+        List<Object> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while(i < string.length()) {
+            if(string.startsWith(ESCAPED_OPEN, i)) {
+                literal.append(OPEN);
+                i += ESCAPED_OPEN.length();
+            }
+            else if(string.startsWith(OPEN, i)) {
+                int end = string.indexOf(CLOSE, i);
+                if(end == -1) {
+                    throw new IllegalArgumentException("unterminated reference");
+                }
+
+                String path = string.substring(i + OPEN.length(), end);
+                List<String> segments = List.of(path.split("\\.", -1));
+                for(String segment : segments) {
+                    if(segment.isEmpty()) {
+                        throw new IllegalArgumentException("invalid reference ${" + path + "}");
+                    }
+                }
+
+                if(literal.length() > 0) {
+                    parts.add(literal.toString());
+                    literal.setLength(0);
+                }
+
+                parts.add(new Reference(segments, encode(segments)));
+                i = end + 1;
+            }
+            else {
+                literal.append(string.charAt(i++));
+            }
+        }
+
+        if(literal.length() > 0 || parts.isEmpty()) {
+            parts.add(literal.toString());
+        }
+
+        return parts.toArray();
+    }
+
+    private static boolean isTemplate(ConfigElement element) {
+        return element.getType().isString() && element.asString().contains(OPEN);
+    }
+
+    //finds every container and template at or beneath the given element
+    private void track(ConfigElement start, List<String> startPath) {
+        List<List<String>> paths = new ArrayList<>();
+        paths.add(startPath);
+
+        start.traverse((element, key, index, depth) -> {
+            List<String> path;
+            if(depth == 0) {
+                path = startPath;
+            }
+            else {
+                path = child(paths.get(depth - 1), key != null ? key : Integer.toString(index));
+                if(depth == paths.size()) {
+                    paths.add(path);
+                }
+                else {
+                    paths.set(depth, path);
+                }
+            }
+
+            if(element.getType().isNode() || element.getType().isArray()) {
+                if(Listeners.addListener(element, listener)) {
+                    containers.put(encode(path), element);
+                    containerPaths.put(element, path);
+                }
+            }
+            else if(isTemplate(element)) {
+                addTemplate(path, element.asString());
+            }
+
+            return ConfigVisitor.Result.CONTINUE;
+        });
+    }
+
+    private void addTemplate(List<String> location, String source) {
+        Template template;
+        try {
+            template = new Template(location, parse(source), null);
+        }
+        catch (IllegalArgumentException exception) {
+            template = new Template(location, new Object[0], exception.getMessage() + " in " +
+                    String.join(".", location));
+        }
+
+        templates.put(encode(location), template);
+        for(Object part : template.parts) {
+            if(part instanceof Reference reference) {
+                referrers.computeIfAbsent(reference.key, ignored -> new HashSet<>()).add(template);
+            }
+        }
+    }
+
+    //forgets every container and template at or beneath the given path
+    private void untrack(String key) {
+        SortedMap<String, ConfigElement> removedContainers = atOrBeneath(containers, key);
+        for(ConfigElement container : removedContainers.values()) {
+            Listeners.removeListener(container, listener);
+            containerPaths.remove(container);
+        }
+
+        removedContainers.clear();
+
+        SortedMap<String, Template> removedTemplates = atOrBeneath(templates, key);
+        for(Template template : removedTemplates.values()) {
+            for(Object part : template.parts) {
+                if(part instanceof Reference reference) {
+                    Set<Template> set = referrers.get(reference.key);
+                    if(set != null && set.remove(template) && set.isEmpty()) {
+                        referrers.remove(reference.key);
+                    }
+                }
+            }
+        }
+
+        removedTemplates.clear();
+    }
+
+    private void onChange(ConfigElement container, String key, ConfigElement oldValue, ConfigElement newValue) {
+        List<String> containerPath = containerPaths.get(container);
+        if(containerPath == null) {
+            return;
+        }
+
+        List<String> changed;
+        if(key == null) {
+            //list indices may have shifted, so everything in the list is found again
+            changed = containerPath;
+            String changedKey = encode(changed);
+            untrack(changedKey);
+            track(container, changed);
+        }
+        else {
+            changed = child(containerPath, key);
+            untrack(encode(changed));
+            if(newValue != null) {
+                track(newValue, changed);
+            }
+        }
+
+        Set<Template> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectAffected(changed, affected);
+
+        for(Template template : affected) {
+            template.state = UNRESOLVED;
+        }
+
+        for(Template template : affected) {
+            resolveQuietly(template);
+        }
+    }
+
+    //adds every template at or beneath the path, and every template referring to or into them, transitively
+    private void collectAffected(List<String> path, Set<Template> affected) {
+        Deque<List<String>> pending = new ArrayDeque<>();
+        pending.push(path);
+
+        while(!pending.isEmpty()) {
+            List<String> current = pending.pop();
+            String key = encode(current);
+
+            for(Template template : atOrBeneath(templates, key).values()) {
+                if(affected.add(template)) {
+                    pending.push(template.location);
+                }
+            }
+
+            //references to the path itself, its ancestors, or anything beneath it
+            List<Set<Template>> sets = new ArrayList<>(atOrBeneath(referrers, key).values());
+            for(int i = 0; i < current.size(); i++) {
+                Set<Template> set = referrers.get(encode(current.subList(0, i)));
+                if(set != null) {
+                    sets.add(set);
+                }
+            }
+
+            for(Set<Template> set : sets) {
+                for(Template template : set) {
+                    if(affected.add(template)) {
+                        pending.push(template.location);
+                    }
+                }
+            }
+        }
+    }
+
+    private void resolveQuietly(Template template) {
+        try {
+            value(template);
+        }
+        catch (IllegalStateException ignored) {
+            //the error is recorded by the template
+        }
+    }
+
+    //resolves templates depth-first, so each is resolved after the templates it depends on
+    private ConfigElement value(Template template) {
+        if(template.state == RESOLVED) {
+            if(template.error != null) {
+                throw new IllegalStateException(template.error);
+            }
+
+            return template.value;
+        }
+        else if(template.state == RESOLVING) {
+            StringJoiner cycle = new StringJoiner(" -> ", "circular reference: ", "");
+            for(int i = resolving.indexOf(template); i < resolving.size(); i++) {
+                cycle.add(String.join(".", resolving.get(i).location));
+            }
+
+            cycle.add(String.join(".", template.location));
+            throw new IllegalStateException(cycle.toString());
+        }
+
+        template.state = RESOLVING;
+        resolving.add(template);
+        try {
+            template.value = evaluate(template);
+            template.error = null;
+        }
+        catch (IllegalStateException exception) {
+            template.value = null;
+            template.error = exception.getMessage();
+        }
+        finally {
+            resolving.remove(resolving.size() - 1);
+            template.state = RESOLVED;
+        }
+
+        if(template.error != null) {
+            throw new IllegalStateException(template.error);
+        }
+
+        return template.value;
+    }
+
+    private ConfigElement evaluate(Template template) {
+        if(template.parseError != null) {
+            throw new IllegalStateException(template.parseError);
+        }
+
+        Object[] parts = template.parts;
+        if(parts.length == 1 && parts[0] instanceof Reference reference) {
+            return reference(template, reference);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for(Object part : parts) {
+            if(part instanceof Reference reference) {
+                ConfigElement element = reference(template, reference);
+                if(element.getType().isNode() || element.getType().isArray()) {
+                    throw new IllegalStateException("cannot interpolate ${" + String.join(".", reference.path) +
+                            "}, which is not a primitive, in " + String.join(".", template.location));
+                }
+
+                builder.append(element instanceof ConfigPrimitive primitive ? primitive.getObject() : element);
+            }
+            else {
+                builder.append((String)part);
+            }
+        }
+
+        return new ConfigPrimitive(builder.toString());
+    }
+
+    private ConfigElement reference(Template template, Reference reference) {
+        ConfigElement element = lookup(reference.path);
+        if(element == null) {
+            throw new IllegalStateException("unresolved reference ${" + String.join(".", reference.path) + "} in " +
+                    String.join(".", template.location));
+        }
+
+        return element;
+    }
+
+    private @Nullable ConfigElement lookup(List<String> path) {
+        ConfigElement current = root;
+        for(int i = 0; i <= path.size(); i++) {
+            if(i > 0 && isTemplate(current)) {
+                Template template = templates.get(encode(path.subList(0, i)));
+                if(template != null) {
+                    current = value(template);
+                }
+            }
+
+            if(i == path.size()) {
+                return current;
+            }
+
+            String segment = path.get(i);
+            if(current.getType().isNode()) {
+                current = ConfigTraversal.child(current.asConfigNode(), segment);
+            }
+            else if(current.getType().isArray()) {
+                current = element(current.asConfigList(), segment);
+            }
+            else {
+                return null;
+            }
+
+            if(current == null) {
+                return null;
+            }
+        }
+
+        return current;
+    }
+
+    private static @Nullable ConfigElement element(ConfigList list, String segment) {
+        try {
+            int index = Integer.parseInt(segment);
+            return index >= 0 && index < list.size() ? ConfigTraversal.element(list, index) : null;
+        }
+        catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+}
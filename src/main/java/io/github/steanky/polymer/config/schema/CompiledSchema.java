@@ -0,0 +1,421 @@
+package io.github.steanky.polymer.config.schema;
+
+import io.github.steanky.polymer.config.BasicTreeBuilder;
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.ElementType;
+import io.github.steanky.polymer.config.TreeBuilder;
+import io.github.steanky.polymer.config.collection.ArrayConfigList;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * <p>An immutable, compiled form of a {@link Schema}. CompiledSchema is a {@link TreeBuilder}: it converts raw
+ * deserialized data into a {@link ConfigNode} while validating it in the same pass, so that no second traversal of the
+ * tree is necessary. Missing optional keys which have a default value are filled in as the tree is built. Every
+ * violation is reported along with its path, rather than stopping at the first.</p>
+ *
+ * <p>Subtrees which are not covered by the schema (values of undeclared keys, or values whose schema is
+ * {@link Schema#any()}) are converted using {@link BasicTreeBuilder}.</p>
+ *
+ * <p>Instances of this class are thread-safe.</p>
+ */
+public final class CompiledSchema implements TreeBuilder {
+    private static final BasicTreeBuilder BUILDER = BasicTreeBuilder.INSTANCE;
+
+    private final ElementType type;
+    private final boolean nullable;
+    private final boolean hasDefault;
+    private final Object defaultValue;
+
+    private final double min;
+    private final double max;
+    private final boolean integral;
+
+    private final Set<String> allowedValues;
+    private final Pattern pattern;
+
+    private final CompiledSchema elementSchema;
+    private final int minSize;
+    private final int maxSize;
+
+    private final Map<String, CompiledSchema> properties;
+    private final String[] requiredKeys;
+    private final String[] defaultKeys;
+    private final CompiledSchema[] defaultSchemas;
+    private final CompiledSchema valueSchema;
+    private final boolean allowUnknownKeys;
+
+    //only allocated for containers; paths are rendered to strings only when a violation is reported
+    private record Segment(@Nullable Segment parent, @Nullable String key, int index) {
+        private static void append(StringBuilder builder, Segment segment) {
+            if(segment != null) {
+                append(builder, segment.parent);
+                appendKey(builder, segment.key, segment.index);
+            }
+        }
+
+        private static void appendKey(StringBuilder builder, String key, int index) {
+            if(key != null) {
+                if(builder.length() > 0) {
+                    builder.append('.');
+                }
+
+                builder.append(key);
+            }
+            else if(index >= 0) {
+                builder.append('[').append(index).append(']');
+            }
+        }
+    }
+
+    private record Frame(Object input, ConfigElement output, CompiledSchema schema, Segment path) {}
+
+    CompiledSchema(@NotNull Schema schema, @NotNull Set<Schema> inProgress) {
+        Validate.isTrue(inProgress.add(schema), "schemas may not be recursive");
+
+        type = schema.type;
+        nullable = schema.nullable;
+        hasDefault = schema.hasDefault;
+        defaultValue = schema.defaultValue;
+
+        min = schema.min;
+        max = schema.max;
+        integral = schema.integral;
+
+        allowedValues = schema.allowedValues;
+        pattern = schema.pattern;
+
+        elementSchema = schema.elementSchema == null ? null : new CompiledSchema(schema.elementSchema, inProgress);
+        minSize = schema.minSize;
+        maxSize = schema.maxSize;
+
+        Map<String, CompiledSchema> properties = new HashMap<>(schema.properties.size());
+        List<String> requiredKeys = new ArrayList<>();
+        List<String> defaultKeys = new ArrayList<>();
+        List<CompiledSchema> defaultSchemas = new ArrayList<>();
+        for(Map.Entry<String, Schema.Property> entry : schema.properties.entrySet()) {
+            CompiledSchema compiled = new CompiledSchema(entry.getValue().schema(), inProgress);
+            properties.put(entry.getKey(), compiled);
+
+            if(entry.getValue().required()) {
+                requiredKeys.add(entry.getKey());
+            }
+            else if(compiled.hasDefault) {
+                defaultKeys.add(entry.getKey());
+                defaultSchemas.add(compiled);
+            }
+        }
+
+        this.properties = Map.copyOf(properties);
+        this.requiredKeys = requiredKeys.toArray(String[]::new);
+        this.defaultKeys = defaultKeys.toArray(String[]::new);
+        this.defaultSchemas = defaultSchemas.toArray(CompiledSchema[]::new);
+
+        valueSchema = schema.valueSchema == null ? null : new CompiledSchema(schema.valueSchema, inProgress);
+        allowUnknownKeys = schema.allowUnknownKeys;
+
+        inProgress.remove(schema);
+    }
+
+    /**
+     * Converts the raw input into a {@link ConfigNode}, validating it against this schema in the same pass. Every
+     * violation found is passed to the given consumer; the returned node is complete regardless of whether any
+     * violations were found.
+     * @param raw the raw input map
+     * @param nodeSupplier the supplier used to create the root node
+     * @param violationConsumer the consumer which will receive violations
+     * @param <T> the type of root node
+     * @return the root node
+     * @throws IllegalStateException if this schema does not describe a node
+     * @throws IllegalArgumentException if the raw input contains keys that are not strings, or values that cannot be
+     * converted into ConfigElements
+     */
+    public <T extends ConfigNode> @NotNull T makeNode(@NotNull Map<String, Object> raw,
+                                                      @NotNull Supplier<T> nodeSupplier,
+                                                      @NotNull Consumer<Violation> violationConsumer) {
+        Validate.notNull(raw);
+        Validate.notNull(nodeSupplier);
+        Validate.notNull(violationConsumer);
+        Validate.validState(type == null || type == ElementType.NODE, "root schema must describe a node");
+
+        if(type == null) {
+            return BUILDER.makeNode(raw, nodeSupplier);
+        }
+
+        T root = nodeSupplier.get();
+
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(raw, root, this, null));
+
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        visited.add(raw);
+
+        while(!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            if(frame.output instanceof ConfigNode outputNode) {
+                processNode(frame, outputNode, stack, visited, violationConsumer);
+            }
+            else {
+                processList(frame, frame.output.asConfigList(), stack, visited, violationConsumer);
+            }
+        }
+
+        return root;
+    }
+
+    /**
+     * Converts the raw input into a {@link ConfigNode}, validating it against this schema in the same pass.
+     * @param raw the raw input map
+     * @param nodeSupplier the supplier used to create the root node
+     * @param <T> the type of root node
+     * @return the root node
+     * @throws SchemaViolationException if the input does not conform to this schema
+     */
+    @Override
+    public <T extends ConfigNode> @NotNull T makeNode(@NotNull Map<String, Object> raw,
+                                                      @NotNull Supplier<T> nodeSupplier) {
+        List<Violation> violations = new ArrayList<>();
+        T node = makeNode(raw, nodeSupplier, violations::add);
+
+        if(!violations.isEmpty()) {
+            throw new SchemaViolationException(violations);
+        }
+
+        return node;
+    }
+
+    @Override
+    public <T extends Map<String, Object>> @NotNull T makeMap(@NotNull ConfigNode node,
+                                                              @NotNull Supplier<T> mapSupplier) {
+        return BUILDER.makeMap(node, mapSupplier);
+    }
+
+    private static void report(Consumer<Violation> consumer, Segment parent, String key, int index, String message) {
+        StringBuilder builder = new StringBuilder();
+        Segment.append(builder, parent);
+        Segment.appendKey(builder, key, index);
+        consumer.accept(new Violation(builder.toString(), message));
+    }
+
+    private static ElementType typeOf(Object value) {
+        if(value instanceof ConfigElement element) {
+            return element.getType();
+        }
+        else if(value instanceof Map<?, ?>) {
+            return ElementType.NODE;
+        }
+        else if(value instanceof Collection<?> || value.getClass().isArray()) {
+            return ElementType.ARRAY;
+        }
+
+        //throws an exception if value is not a valid primitive
+        return new ConfigPrimitive(value).getType();
+    }
+
+    private static int sizeOf(Object container) {
+        return container instanceof Collection<?> collection ? collection.size() : Array.getLength(container);
+    }
+
+    private void processNode(Frame frame, ConfigNode output, Deque<Frame> stack, Set<Object> visited,
+                             Consumer<Violation> violations) {
+        CompiledSchema schema = frame.schema;
+
+        for(Map.Entry<?, ?> entry : ((Map<?, ?>) frame.input).entrySet()) {
+            if(!(entry.getKey() instanceof String key)) {
+                throw new IllegalArgumentException("key is not a string");
+            }
+
+            CompiledSchema childSchema = schema.properties.get(key);
+            if(childSchema == null) {
+                childSchema = schema.valueSchema;
+
+                if(childSchema == null && !schema.allowUnknownKeys) {
+                    report(violations, frame.path, key, -1, "unknown key");
+                }
+            }
+
+            output.put(key, processValue(entry.getValue(), childSchema, frame.path, key, -1, stack, visited,
+                    violations));
+        }
+
+        for(String requiredKey : schema.requiredKeys) {
+            if(!output.containsKey(requiredKey)) {
+                report(violations, frame.path, requiredKey, -1, "missing required key");
+            }
+        }
+
+        for(int i = 0; i < schema.defaultKeys.length; i++) {
+            String defaultKey = schema.defaultKeys[i];
+            if(!output.containsKey(defaultKey)) {
+                //convert every time, so that separate trees never share mutable elements
+                output.put(defaultKey, BUILDER.makeElement(schema.defaultSchemas[i].defaultValue));
+            }
+        }
+    }
+
+    private void processList(Frame frame, ConfigList output, Deque<Frame> stack, Set<Object> visited,
+                             Consumer<Violation> violations) {
+        CompiledSchema schema = frame.schema.elementSchema;
+
+        if(frame.input instanceof Collection<?> collection) {
+            int i = 0;
+            for(Object value : collection) {
+                output.add(processValue(value, schema, frame.path, null, i++, stack, visited, violations));
+            }
+        }
+        else {
+            int length = Array.getLength(frame.input);
+            for(int i = 0; i < length; i++) {
+                output.add(processValue(Array.get(frame.input, i), schema, frame.path, null, i, stack, visited,
+                        violations));
+            }
+        }
+    }
+
+    private static ConfigElement processValue(Object value, CompiledSchema schema, Segment parent, String key,
+                                              int index, Deque<Frame> stack, Set<Object> visited,
+                                              Consumer<Violation> violations) {
+        if(schema == null || schema.type == null) {
+            return BUILDER.makeElement(value);
+        }
+
+        if(value == null) {
+            if(!schema.nullable) {
+                report(violations, parent, key, index, "expected " + schema.type + " but found null");
+            }
+
+            return new ConfigPrimitive(null);
+        }
+
+        ElementType actualType = typeOf(value);
+        if(actualType != schema.type) {
+            report(violations, parent, key, index, "expected " + schema.type + " but found " + actualType);
+            return BUILDER.makeElement(value);
+        }
+
+        if(value instanceof ConfigElement element) {
+            //already-converted primitives (such as those decoded lazily) are checked by the value they wrap, while
+            //already-converted containers are only type-checked
+            if(element instanceof ConfigPrimitive primitive) {
+                checkPrimitive(primitive.getObject(), schema, parent, key, index, violations);
+            }
+
+            return element;
+        }
+
+        switch (schema.type) {
+            case NODE -> {
+                if(!visited.add(value)) {
+                    report(violations, parent, key, index, "cyclic reference");
+                    return new LinkedConfigNode();
+                }
+
+                ConfigNode node = new LinkedConfigNode();
+                stack.push(new Frame(value, node, schema, new Segment(parent, key, index)));
+                return node;
+            }
+            case ARRAY -> {
+                int size = sizeOf(value);
+                if(size < schema.minSize || size > schema.maxSize) {
+                    report(violations, parent, key, index, "size " + size + " is outside of range [" +
+                            schema.minSize + ", " + schema.maxSize + "]");
+                }
+
+                CompiledSchema elementSchema = schema.elementSchema;
+                if(elementSchema.type == null || (!elementSchema.type.isNode() && !elementSchema.type.isArray())) {
+                    //lists of primitives can be checked directly, then converted all at once by BasicTreeBuilder
+                    Segment path = new Segment(parent, key, index);
+                    if(value instanceof Collection<?> collection) {
+                        int i = 0;
+                        for(Object element : collection) {
+                            checkPrimitive(element, elementSchema, path, i++, violations);
+                        }
+                    }
+                    else {
+                        for(int i = 0; i < size; i++) {
+                            checkPrimitive(Array.get(value, i), elementSchema, path, i, violations);
+                        }
+                    }
+
+                    return BUILDER.makeElement(value);
+                }
+
+                if(!visited.add(value)) {
+                    report(violations, parent, key, index, "cyclic reference");
+                    return new ArrayConfigList();
+                }
+
+                ConfigList list = new ArrayConfigList();
+                stack.push(new Frame(value, list, schema, new Segment(parent, key, index)));
+                return list;
+            }
+            default -> {
+                checkPrimitive(value, schema, parent, key, index, violations);
+                return new ConfigPrimitive(value);
+            }
+        }
+    }
+
+    private static void checkPrimitive(Object value, CompiledSchema schema, Segment parent, int index,
+                                       Consumer<Violation> violations) {
+        if(schema.type == null) {
+            return;
+        }
+
+        if(value == null) {
+            if(!schema.nullable) {
+                report(violations, parent, null, index, "expected " + schema.type + " but found null");
+            }
+
+            return;
+        }
+
+        ElementType actualType = typeOf(value);
+        if(actualType != schema.type) {
+            report(violations, parent, null, index, "expected " + schema.type + " but found " + actualType);
+        }
+        else if(value instanceof ConfigPrimitive primitive) {
+            checkPrimitive(primitive.getObject(), schema, parent, null, index, violations);
+        }
+        else if(!(value instanceof ConfigElement)) {
+            checkPrimitive(value, schema, parent, null, index, violations);
+        }
+    }
+
+    private static void checkPrimitive(Object value, CompiledSchema schema, Segment parent, String key, int index,
+                                       Consumer<Violation> violations) {
+        if(value instanceof Number number) {
+            double doubleValue = number.doubleValue();
+            if(doubleValue < schema.min || doubleValue > schema.max) {
+                report(violations, parent, key, index, "value " + number + " is outside of range [" + schema.min +
+                        ", " + schema.max + "]");
+            }
+
+            if(schema.integral && (Double.isInfinite(doubleValue) || doubleValue != Math.rint(doubleValue))) {
+                report(violations, parent, key, index, "value " + number + " is not a whole number");
+            }
+        }
+        else if(value instanceof String string) {
+            if(schema.allowedValues != null && !schema.allowedValues.contains(string)) {
+                report(violations, parent, key, index, "value '" + string + "' is not one of " +
+                        schema.allowedValues);
+            }
+
+            if(schema.pattern != null && !schema.pattern.matcher(string).matches()) {
+                report(violations, parent, key, index, "value '" + string + "' does not match pattern " +
+                        schema.pattern.pattern());
+            }
+        }
+    }
+}
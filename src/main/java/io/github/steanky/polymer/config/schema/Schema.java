@@ -0,0 +1,263 @@
+package io.github.steanky.polymer.config.schema;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ElementType;
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * <p>A declarative description of the expected structure of some configuration data, in terms of {@link ElementType}.
+ * Schemas are created using one of the static factory methods (such as {@link Schema#node()} or
+ * {@link Schema#number()}), and further constrained using the fluent methods applicable to their type. For
+ * example:</p>
+ *
+ * <pre>{@code
+ * Schema mob = Schema.node()
+ *         .required("health", Schema.number().range(1, 1000))
+ *         .optional("hostile", Schema.bool().defaultValue(true))
+ *         .optional("tags", Schema.list(Schema.string()));
+ * }</pre>
+ *
+ * <p>Schema objects are mutable and not thread-safe. Before use, they must be compiled into an immutable
+ * {@link CompiledSchema} using {@link Schema#compile()}, which can then be shared freely between threads. Modifying a
+ * schema after it has been compiled does not affect the compiled version.</p>
+ */
+public final class Schema {
+    record Property(@NotNull Schema schema, boolean required) {}
+
+    final ElementType type;
+
+    boolean nullable;
+    boolean hasDefault;
+    Object defaultValue;
+
+    //NUMBER
+    double min = Double.NEGATIVE_INFINITY;
+    double max = Double.POSITIVE_INFINITY;
+    boolean integral;
+
+    //STRING
+    Set<String> allowedValues;
+    Pattern pattern;
+
+    //ARRAY
+    Schema elementSchema;
+    int minSize;
+    int maxSize = Integer.MAX_VALUE;
+
+    //NODE
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    Schema valueSchema;
+    boolean allowUnknownKeys = true;
+
+    private Schema(@Nullable ElementType type) {
+        this.type = type;
+    }
+
+    /**
+     * Creates a schema which accepts any value, including null.
+     * @return a new schema
+     */
+    public static @NotNull Schema any() {
+        Schema schema = new Schema(null);
+        schema.nullable = true;
+        return schema;
+    }
+
+    /**
+     * Creates a schema which accepts strings.
+     * @return a new schema
+     */
+    public static @NotNull Schema string() {
+        return new Schema(ElementType.STRING);
+    }
+
+    /**
+     * Creates a schema which accepts numbers.
+     * @return a new schema
+     */
+    public static @NotNull Schema number() {
+        return new Schema(ElementType.NUMBER);
+    }
+
+    /**
+     * Creates a schema which accepts booleans.
+     * @return a new schema
+     */
+    public static @NotNull Schema bool() {
+        return new Schema(ElementType.BOOLEAN);
+    }
+
+    /**
+     * Creates a schema which accepts lists whose elements each conform to the given schema.
+     * @param elementSchema the schema for the elements of the list
+     * @return a new schema
+     */
+    public static @NotNull Schema list(@NotNull Schema elementSchema) {
+        Schema schema = new Schema(ElementType.ARRAY);
+        schema.elementSchema = Validate.notNull(elementSchema);
+        return schema;
+    }
+
+    /**
+     * Creates a schema which accepts nodes. By default, nodes may contain any keys; specific keys can be declared using
+     * {@link Schema#required(String, Schema)} and {@link Schema#optional(String, Schema)}.
+     * @return a new schema
+     */
+    public static @NotNull Schema node() {
+        return new Schema(ElementType.NODE);
+    }
+
+    private void requireType(ElementType expected, String constraint) {
+        Validate.validState(type == expected, "%s may only be applied to schemas of type %s", constraint, expected);
+    }
+
+    /**
+     * Allows this schema to accept null values in addition to values of its type.
+     * @return this schema
+     */
+    public @NotNull Schema nullable() {
+        nullable = true;
+        return this;
+    }
+
+    /**
+     * Sets the default value for this schema. When this schema is used for an optional key of a node, and the key is
+     * absent, the default value is converted into a ConfigElement and added to the node.
+     * @param value the raw default value, which may be a map, collection, array, or anything accepted by
+     *              {@link io.github.steanky.polymer.config.ConfigPrimitive}
+     * @return this schema
+     * @throws IllegalArgumentException if the value is a ConfigElement, which could otherwise end up being shared
+     * between several trees
+     */
+    public @NotNull Schema defaultValue(@Nullable Object value) {
+        Validate.isTrue(!(value instanceof ConfigElement), "default values must be raw values, not ConfigElements");
+
+        hasDefault = true;
+        defaultValue = value;
+        return this;
+    }
+
+    /**
+     * Requires numbers to lie within the given inclusive range.
+     * @param min the minimum value
+     * @param max the maximum value
+     * @return this schema
+     */
+    public @NotNull Schema range(double min, double max) {
+        requireType(ElementType.NUMBER, "range");
+        Validate.isTrue(min <= max, "min must not be greater than max");
+
+        this.min = min;
+        this.max = max;
+        return this;
+    }
+
+    /**
+     * Requires numbers to be whole numbers.
+     * @return this schema
+     */
+    public @NotNull Schema integral() {
+        requireType(ElementType.NUMBER, "integral");
+        integral = true;
+        return this;
+    }
+
+    /**
+     * Requires strings to be equal to one of the given values.
+     * @param values the allowed values
+     * @return this schema
+     */
+    public @NotNull Schema oneOf(@NotNull String... values) {
+        requireType(ElementType.STRING, "oneOf");
+        allowedValues = Set.of(Validate.noNullElements(values));
+        return this;
+    }
+
+    /**
+     * Requires strings to match the given regular expression in its entirety.
+     * @param regex the regular expression
+     * @return this schema
+     */
+    public @NotNull Schema pattern(@NotNull String regex) {
+        requireType(ElementType.STRING, "pattern");
+        pattern = Pattern.compile(regex);
+        return this;
+    }
+
+    /**
+     * Requires lists to contain between the given number of elements, inclusive.
+     * @param minSize the minimum size
+     * @param maxSize the maximum size
+     * @return this schema
+     */
+    public @NotNull Schema size(int minSize, int maxSize) {
+        requireType(ElementType.ARRAY, "size");
+        Validate.isTrue(minSize >= 0 && minSize <= maxSize, "invalid size range");
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Declares a key which must be present in nodes.
+     * @param key the key
+     * @param schema the schema for the value of the key
+     * @return this schema
+     */
+    public @NotNull Schema required(@NotNull String key, @NotNull Schema schema) {
+        requireType(ElementType.NODE, "required");
+        properties.put(Validate.notNull(key), new Property(Validate.notNull(schema), true));
+        return this;
+    }
+
+    /**
+     * Declares a key which may be present in nodes. If the given schema has a default value, it will be used when the
+     * key is absent.
+     * @param key the key
+     * @param schema the schema for the value of the key
+     * @return this schema
+     */
+    public @NotNull Schema optional(@NotNull String key, @NotNull Schema schema) {
+        requireType(ElementType.NODE, "optional");
+        properties.put(Validate.notNull(key), new Property(Validate.notNull(schema), false));
+        return this;
+    }
+
+    /**
+     * Sets the schema used for the values of any keys which have not been explicitly declared. This is useful for nodes
+     * that act as maps from arbitrary names to similarly-structured values.
+     * @param schema the schema for values of undeclared keys
+     * @return this schema
+     */
+    public @NotNull Schema values(@NotNull Schema schema) {
+        requireType(ElementType.NODE, "values");
+        valueSchema = Validate.notNull(schema);
+        return this;
+    }
+
+    /**
+     * Sets whether nodes may contain keys which have not been declared. This has no effect if a schema has been set
+     * using {@link Schema#values(Schema)}. Unknown keys are allowed by default.
+     * @param allowUnknownKeys true to allow unknown keys, false to report them as violations
+     * @return this schema
+     */
+    public @NotNull Schema allowUnknownKeys(boolean allowUnknownKeys) {
+        requireType(ElementType.NODE, "allowUnknownKeys");
+        this.allowUnknownKeys = allowUnknownKeys;
+        return this;
+    }
+
+    /**
+     * Compiles this schema into an immutable, thread-safe {@link CompiledSchema}.
+     * @return the compiled schema
+     */
+    public @NotNull CompiledSchema compile() {
+        return new CompiledSchema(this, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+}
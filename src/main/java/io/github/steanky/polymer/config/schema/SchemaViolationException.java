@@ -0,0 +1,30 @@
+package io.github.steanky.polymer.config.schema;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Thrown when configuration data does not conform to a {@link Schema}. Contains every {@link Violation} that was
+ * found, not just the first.
+ */
+public class SchemaViolationException extends IllegalArgumentException {
+    private final List<Violation> violations;
+
+    /**
+     * Creates a new SchemaViolationException.
+     * @param violations the violations that caused this exception
+     */
+    public SchemaViolationException(@NotNull List<Violation> violations) {
+        super(violations.size() + " schema violation(s): " + violations);
+        this.violations = List.copyOf(violations);
+    }
+
+    /**
+     * Obtains every violation that caused this exception.
+     * @return an unmodifiable list of violations
+     */
+    public @NotNull List<Violation> getViolations() {
+        return violations;
+    }
+}
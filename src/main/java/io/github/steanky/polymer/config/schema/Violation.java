@@ -0,0 +1,16 @@
+package io.github.steanky.polymer.config.schema;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Describes a single way in which some configuration data failed to conform to a {@link Schema}.
+ * @param path the path to the offending element, with keys separated by periods and list indices in square brackets;
+ *             the empty string refers to the root node
+ * @param message a human-readable description of the problem
+ */
+public record Violation(@NotNull String path, @NotNull String message) {
+    @Override
+    public String toString() {
+        return (path.isEmpty() ? "<root>" : path) + ": " + message;
+    }
+}
@@ -1,8 +1,6 @@
 package io.github.steanky.polymer.config;
 
-import io.github.steanky.polymer.config.collection.ConfigList;
-import io.github.steanky.polymer.config.collection.ConfigNode;
-import io.github.steanky.polymer.config.collection.HashConfigNode;
+import io.github.steanky.polymer.config.collection.*;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -22,6 +20,9 @@ class BasicTreeBuilderTest {
     private static final String LIST_KEY = "list";
     private static final String SUB_LIST_KEY = "sub_list";
     private static final String SUB_LIST_NODES_KEY = "sub_list_nodes";
+    private static final String LONG_LIST_KEY = "long_list";
+    private static final String MIXED_LIST_KEY = "mixed_list";
+    private static final String INT_ARRAY_KEY = "int_array";
 
     private static final String SUB_ROOT_KEY = "sub_root";
 
@@ -36,8 +37,10 @@ class BasicTreeBuilderTest {
     private static final String SUB_STRING_VALUE = "this is another string";
     private static final List<String> LIST_VALUE = List.of("first", "second", "third");
     private static final List<String> SUB_LIST_VALUE = List.of("first_sub", "second_sub", "third_sub");
+    private static final int[] INT_ARRAY_VALUE = new int[] {1, 2, 3};
 
     private final ConfigNode resultingElement;
+    private final ConfigNode primitiveElement;
 
     BasicTreeBuilderTest() {
         BasicTreeBuilder builder = BasicTreeBuilder.INSTANCE;
@@ -52,6 +55,18 @@ class BasicTreeBuilderTest {
         root.put(STRING_KEY, STRING_VALUE);
         root.put(LIST_KEY, LIST_VALUE);
         root.put(SUB_ROOT_KEY, subRoot);
+        root.put(INT_ARRAY_KEY, INT_ARRAY_VALUE);
+
+        List<Object> longList = new ArrayList<>();
+        List<Object> mixedList = new ArrayList<>();
+        for(long i = 0; i < BasicTreeBuilder.PRIMITIVE_LIST_THRESHOLD; i++) {
+            longList.add(i);
+            mixedList.add(i);
+        }
+
+        mixedList.add(STRING_VALUE);
+        root.put(LONG_LIST_KEY, longList);
+        root.put(MIXED_LIST_KEY, mixedList);
 
         List<Object> subListNodes = new ArrayList<>();
         subRoot.put(SUB_STRING_KEY, SUB_STRING_VALUE);
@@ -65,6 +80,7 @@ class BasicTreeBuilderTest {
         }
 
         resultingElement = builder.makeNode(root, HashConfigNode::new);
+        primitiveElement = BasicTreeBuilder.PRIMITIVE_LIST_INSTANCE.makeNode(root, HashConfigNode::new);
     }
 
     @Test
@@ -120,4 +136,58 @@ class BasicTreeBuilderTest {
             assertEquals(i, element.getElement(SUB_NODE_KEY_PREFIX + i).orElseThrow().asNumber().intValue());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void primitiveListsAreOptIn() {
+        assertTrue(resultingElement.getElement(LONG_LIST_KEY).orElseThrow() instanceof ArrayConfigList);
+        assertTrue(resultingElement.getElement(INT_ARRAY_KEY).orElseThrow() instanceof ArrayConfigList);
+    }
+
+    @Test
+    void homogeneousListsArePrimitiveBacked() {
+        ConfigList longList = primitiveElement.getElement(LONG_LIST_KEY).orElseThrow().asConfigList();
+        assertTrue(longList instanceof LongConfigList);
+
+        for(int i = 0; i < BasicTreeBuilder.PRIMITIVE_LIST_THRESHOLD; i++) {
+            assertEquals(i, ((LongConfigList) longList).getLong(i));
+            assertEquals((long) i, longList.get(i).asNumber());
+        }
+
+        ConfigList intArray = primitiveElement.getElement(INT_ARRAY_KEY).orElseThrow().asConfigList();
+        assertTrue(intArray instanceof IntConfigList);
+        assertArrayEquals(INT_ARRAY_VALUE, ((IntConfigList) intArray).toIntArray());
+    }
+
+    @Test
+    void heterogeneousListsAreNotPrimitiveBacked() {
+        ConfigList mixedList = primitiveElement.getElement(MIXED_LIST_KEY).orElseThrow().asConfigList();
+        assertTrue(mixedList instanceof ArrayConfigList);
+        assertEquals(STRING_VALUE, mixedList.get(BasicTreeBuilder.PRIMITIVE_LIST_THRESHOLD).asString());
+    }
+
+    @Test
+    void primitiveListsAcceptConvertibleValues() {
+        LongConfigList longList = (LongConfigList) primitiveElement.getElement(LONG_LIST_KEY).orElseThrow()
+                .asConfigList();
+
+        assertThrows(IllegalArgumentException.class, () -> longList.add(new ConfigPrimitive(STRING_VALUE)));
+        assertThrows(IllegalArgumentException.class, () -> longList.add(new ConfigPrimitive(1.5)));
+        longList.add(new ConfigPrimitive(-1L));
+        assertEquals(-1L, longList.getLong(longList.size() - 1));
+
+        //integers are widened to longs
+        longList.add(new ConfigPrimitive(5));
+        assertEquals(5L, longList.getLong(longList.size() - 1));
+        assertEquals(5L, longList.get(longList.size() - 1).asNumber());
+
+        //elements are copies, so changing them does not change the list
+        ((ConfigPrimitive) longList.get(0)).setObject(100L);
+        assertEquals(0L, longList.getLong(0));
+
+        DoubleConfigList doubleList = new DoubleConfigList();
+        doubleList.add(new ConfigPrimitive(3));
+        doubleList.add(new ConfigPrimitive(1L << 53));
+        assertThrows(IllegalArgumentException.class, () -> doubleList.add(new ConfigPrimitive(Long.MAX_VALUE)));
+        assertArrayEquals(new double[] {3, 1L << 53}, doubleList.toDoubleArray());
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.steanky.polymer.config.binary;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigParseException;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryConfigSerializerTest {
+    private static ConfigNode sample() {
+        ConfigNode child = new LinkedConfigNode();
+        child.put("name", new ConfigPrimitive("zombie \u00e9"));
+        child.put("health", new ConfigPrimitive(20));
+        child.put("speed", new ConfigPrimitive(0.23));
+
+        ConfigNode root = new LinkedConfigNode();
+        root.put("mob", child);
+        root.put("ids", new IntConfigList(new int[] {-1, 0, 300}));
+        root.put("flags", new BooleanConfigList(new boolean[] {true, false, true, true, false, false, false, false,
+                true}));
+        root.put("mixed", new ArrayConfigList(List.of(new ConfigPrimitive(null), new ConfigPrimitive(Long.MIN_VALUE),
+                new ConfigPrimitive(1.5F))));
+        return root;
+    }
+
+    @Test
+    void roundTrip() throws ConfigParseException {
+        ByteBuffer buffer = BinaryConfigSerializer.encode(sample());
+        ConfigNode decoded = BinaryConfigSerializer.decode(buffer).asConfigNode();
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals("zombie \u00e9", decoded.getElement("mob", "name").orElseThrow().asString());
+        assertEquals(20, decoded.getElement("mob", "health").orElseThrow().asNumber());
+        assertEquals(0.23, decoded.getElement("mob", "speed").orElseThrow().asNumber());
+
+        IntConfigList ids = (IntConfigList) decoded.get("ids");
+        assertArrayEquals(new int[] {-1, 0, 300}, ids.toIntArray());
+
+        BooleanConfigList flags = (BooleanConfigList) decoded.get("flags");
+        assertArrayEquals(new boolean[] {true, false, true, true, false, false, false, false, true},
+                flags.toBooleanArray());
+
+        ConfigList mixed = decoded.get("mixed").asConfigList();
+        assertTrue(mixed.get(0).getType().isNull());
+        assertEquals(Long.MIN_VALUE, mixed.get(1).asNumber());
+        assertEquals(1.5F, mixed.get(2).asNumber());
+    }
+
+    @Test
+    void deltaContainsOnlyChanges() throws ConfigParseException {
+        ConfigNode current = sample();
+        ConfigElement previous = BinaryConfigSerializer.snapshot(current);
+        ConfigElement client = BinaryConfigSerializer.snapshot(current);
+
+        current.get("mob").asConfigNode().put("health", new ConfigPrimitive(40));
+        current.get("mob").asConfigNode().remove("speed");
+        ((IntConfigList) current.get("ids")).setInt(2, 7);
+        current.put("added", new ConfigPrimitive("new"));
+
+        ByteBuffer delta = BinaryConfigSerializer.encodeDelta(previous, current);
+        assertTrue(delta.remaining() < BinaryConfigSerializer.encode(current).remaining());
+
+        ConfigNode updated = BinaryConfigSerializer.applyDelta(client, delta).asConfigNode();
+        assertSame(client, updated);
+        assertEquals(40, updated.getElement("mob", "health").orElseThrow().asNumber());
+        assertFalse(updated.get("mob").asConfigNode().containsKey("speed"));
+        assertEquals(7, ((IntConfigList) updated.get("ids")).getInt(2));
+        assertEquals("new", updated.get("added").asString());
+    }
+
+    @Test
+    void emptyDeltaWhenUnchanged() {
+        ConfigNode current = sample();
+        ByteBuffer delta = BinaryConfigSerializer.encodeDelta(BinaryConfigSerializer.snapshot(current), current);
+        assertEquals(1, delta.remaining());
+    }
+
+    @Test
+    void rootReplacement() throws ConfigParseException {
+        ConfigElement replaced = BinaryConfigSerializer.applyDelta(sample(),
+                BinaryConfigSerializer.encodeDelta(sample(), new ConfigPrimitive("root")));
+        assertEquals("root", replaced.asString());
+    }
+
+    @Test
+    void malformedInputThrows() {
+        ByteBuffer truncated = BinaryConfigSerializer.encode(sample());
+        truncated.limit(truncated.limit() - 1);
+        assertThrows(ConfigParseException.class, () -> BinaryConfigSerializer.decode(truncated));
+
+        //claims a huge list, which must be rejected without allocating it
+        ByteBuffer huge = ByteBuffer.wrap(new byte[] {10, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+        assertThrows(ConfigParseException.class, () -> BinaryConfigSerializer.decode(huge));
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveConfigBridgeTest {
+    //entries are written in pairs of name and contents; a null name adds a directory entry named by the contents
+    private static byte[] zip(boolean compress, String... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ZipOutputStream output = new ZipOutputStream(bytes)) {
+            output.setMethod(compress ? ZipOutputStream.DEFLATED : ZipOutputStream.STORED);
+            for(int i = 0; i < entries.length; i += 2) {
+                byte[] data = entries[i] == null ? new byte[0] : entries[i + 1].getBytes(StandardCharsets.UTF_8);
+                ZipEntry entry = new ZipEntry(entries[i] == null ? entries[i + 1] : entries[i]);
+                if(!compress) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+
+                output.putNextEntry(entry);
+                output.write(data);
+                output.closeEntry();
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static int value(FileConfigNode node, String... path) {
+        return node.getElement(path).orElseThrow().asNumber().intValue();
+    }
+
+    @Test
+    void readsStoredAndDeflatedEntries() throws IOException, ExecutionException, InterruptedException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            for(boolean compress : new boolean[] {false, true}) {
+                Path archive = root.resolve(compress ? "deflated.zip" : "stored.zip");
+                Files.write(archive, zip(compress, "mob.toml", "health = 20", "item.toml", "count = 3"));
+
+                FileConfigNode node = new ArchiveConfigBridge(archive, "").read().get();
+                assertEquals(2, node.size());
+                assertEquals(20, value(node, "mob", "health"));
+                assertEquals(3, value(node, "item", "count"));
+            }
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void readsNestedEntriesBelowRoot() throws IOException, ExecutionException, InterruptedException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Path archive = root.resolve("mod.jar");
+            Files.write(archive, zip(true, null, "config/", null, "config/mobs/",
+                    "config/mobs/zombie.toml", "health = 20", "config/top.toml", "value = 1",
+                    "other/outside.toml", "value = 2"));
+
+            FileConfigNode node = new ArchiveConfigBridge(archive, "/config").read().get();
+            assertEquals(2, node.size());
+            assertEquals(20, value(node, "mobs", "zombie", "health"));
+            assertEquals(1, value(node, "top", "value"));
+            assertTrue(node.get("mobs").asConfigNode() instanceof FileConfigNode mobs && mobs.isDirectory());
+
+            FileConfigNode single = new ArchiveConfigBridge(archive, "config/top.toml").read().get();
+            assertEquals(1, value(single, "value"));
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void appliesEntryFilter() throws IOException, ExecutionException, InterruptedException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Path archive = root.resolve("mod.jar");
+            Files.write(archive, zip(true, "mob.toml", "health = 20", "readme.unknown", "not config",
+                    "skip.toml", "value = 1"));
+
+            //the default filter skips entries without a codec
+            FileConfigNode node = new ArchiveConfigBridge(archive, "").read().get();
+            assertEquals(2, node.size());
+            assertFalse(node.containsKey("readme"));
+
+            ArchiveConfigBridge filtered = new ArchiveConfigBridge(archive, "", name -> !name.startsWith("skip") &&
+                    name.endsWith(".toml"), ArchiveConfigBridge.DEFAULT_CODEC_FUNCTION,
+                    ArchiveConfigBridge.DEFAULT_KEY_FUNCTION, Runnable::run);
+            node = filtered.read().get();
+            assertEquals(1, node.size());
+            assertEquals(20, value(node, "mob", "health"));
+
+            //the filter also applies when the root is a single file
+            assertNull(new ArchiveConfigBridge(archive, "readme.unknown").read().get());
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void failsOnFileAndDirectoryConflict() throws IOException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Path archive = root.resolve("mod.jar");
+            Files.write(archive, zip(true, "a.toml", "value = 1", "a/b.toml", "value = 2"));
+
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> new ArchiveConfigBridge(archive, "").read().get());
+            assertTrue(exception.getCause() instanceof IOException);
+
+            Files.write(archive, zip(true, "a/b.toml", "value = 2", "a.toml", "value = 1"));
+            exception = assertThrows(ExecutionException.class, () -> new ArchiveConfigBridge(archive, "").read()
+                    .get());
+            assertTrue(exception.getCause() instanceof IOException);
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void rejectsTruncatedArchives() throws IOException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            byte[] bytes = zip(true, "mob.toml", "health = 20", "item.toml", "count = 3");
+
+            //cutting off the end record
+            Path archive = root.resolve("truncated.zip");
+            Files.write(archive, Arrays.copyOf(bytes, bytes.length - 10));
+            assertThrows(IOException.class, () -> new ArchiveConfigBridge(archive, "").read());
+
+            //an end record claiming more entries than the central directory contains
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            int end = bytes.length - 22;
+            buffer.putShort(end + 10, (short) 5);
+            Path overrun = root.resolve("overrun.zip");
+            Files.write(overrun, buffer.array());
+            assertThrows(IOException.class, () -> new ArchiveConfigBridge(overrun, "").read());
+
+            //a central directory offset past the end of the archive
+            buffer.putShort(end + 10, (short) 2);
+            buffer.putInt(end + 16, bytes.length + 100);
+            Path offset = root.resolve("offset.zip");
+            Files.write(offset, buffer.array());
+            assertThrows(IOException.class, () -> new ArchiveConfigBridge(offset, "").read());
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
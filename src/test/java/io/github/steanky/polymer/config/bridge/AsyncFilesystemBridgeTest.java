@@ -0,0 +1,182 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.codec.CodecRegistry;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileFilter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncFilesystemBridgeTest {
+    @Test
+    void coalescesConcurrentReads() throws Exception {
+        Path root = Files.createTempDirectory("polymer");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        try {
+            Files.writeString(root.resolve("mob.json"), "{\"health\": 20}", StandardCharsets.UTF_8);
+
+            //each walk of the directory checks the single file once
+            AtomicInteger walks = new AtomicInteger();
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch gate = new CountDownLatch(1);
+            FileFilter filter = file -> {
+                if(file.isDirectory()) {
+                    return true;
+                }
+
+                walks.incrementAndGet();
+                entered.countDown();
+
+                try {
+                    return gate.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+
+            AsyncFilesystemBridge bridge = new AsyncFilesystemBridge(root, filter,
+                    FilesystemBridgeAbstract.DEFAULT_CODEC_FUNCTION, FilesystemBridgeAbstract.DEFAULT_KEY_FUNCTION,
+                    executor, 1, Duration.ofMinutes(1));
+
+            Future<FileConfigNode> first = bridge.read();
+            Future<FileConfigNode> second = bridge.read();
+            Future<FileConfigNode> cancelled = bridge.read();
+            Future<FileConfigNode> other = bridge.readSubtree(null, "*.json");
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            //the differing read is queued rather than submitted, since only one operation may be in flight
+            assertEquals(1, walks.get());
+            assertEquals(1, executor.getTaskCount());
+
+            assertTrue(cancelled.cancel(false));
+            gate.countDown();
+
+            //callers which shared a read each receive their own copy of the result
+            FileConfigNode node = first.get(10, TimeUnit.SECONDS);
+            FileConfigNode sharedNode = second.get(10, TimeUnit.SECONDS);
+            assertNotSame(node, sharedNode);
+            assertEquals(node.fingerprint(), sharedNode.fingerprint());
+            assertEquals(20, node.getElement("mob", "health").orElseThrow().asNumber().intValue());
+            assertEquals(20, other.get(10, TimeUnit.SECONDS).getElement("mob", "health").orElseThrow().asNumber()
+                    .intValue());
+            assertEquals(2, walks.get());
+
+            node.getElement("mob").orElseThrow().asConfigNode().put("health", new ConfigPrimitive(30));
+            assertEquals(20, sharedNode.getElement("mob", "health").orElseThrow().asNumber().intValue());
+
+            //completed reads are reused until the TTL expires or the bridge writes, and are not affected by changes
+            //made by earlier callers
+            FileConfigNode cached = bridge.read().get(10, TimeUnit.SECONDS);
+            assertNotSame(node, cached);
+            assertEquals(20, cached.getElement("mob", "health").orElseThrow().asNumber().intValue());
+            assertEquals(2, walks.get());
+
+            cached.getElement("mob").orElseThrow().asConfigNode().put("health", new ConfigPrimitive(40));
+            assertEquals(20, bridge.read().get(10, TimeUnit.SECONDS).getElement("mob", "health").orElseThrow()
+                    .asNumber().intValue());
+            assertEquals(2, walks.get());
+
+            bridge.write(node).get(10, TimeUnit.SECONDS);
+
+            FileConfigNode reread = bridge.read().get(10, TimeUnit.SECONDS);
+            assertNotSame(node, reread);
+            assertEquals(30, reread.getElement("mob", "health").orElseThrow().asNumber().intValue());
+        }
+        finally {
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void doesNotCacheReadsOverlappingWrites() throws Exception {
+        Path root = Files.createTempDirectory("polymer");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Files.writeString(root.resolve("mob.json"), "{\"health\": 20}", StandardCharsets.UTF_8);
+
+            //blocks only the first read, once it has listed the file
+            AtomicInteger reads = new AtomicInteger();
+            AtomicBoolean first = new AtomicBoolean(true);
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch gate = new CountDownLatch(1);
+            FileFilter filter = file -> {
+                if(file.isDirectory()) {
+                    return true;
+                }
+
+                reads.incrementAndGet();
+                if(first.getAndSet(false)) {
+                    entered.countDown();
+
+                    try {
+                        return gate.await(10, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+
+                return true;
+            };
+
+            AsyncFilesystemBridge bridge = new AsyncFilesystemBridge(root, filter,
+                    FilesystemBridgeAbstract.DEFAULT_CODEC_FUNCTION, FilesystemBridgeAbstract.DEFAULT_KEY_FUNCTION,
+                    executor, 2, Duration.ofMinutes(1));
+
+            Future<FileConfigNode> overlapping = bridge.read();
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            FileConfigNode written = new FileConfigNode();
+            ConfigNode mob = new FileConfigNode(CodecRegistry.INSTANCE.getCodec("json"));
+            mob.put("health", new ConfigPrimitive(30));
+            written.put("mob", mob);
+            bridge.write(written).get(10, TimeUnit.SECONDS);
+
+            gate.countDown();
+            FileConfigNode node = overlapping.get(10, TimeUnit.SECONDS);
+
+            //the overlapping read completed after the write, so it must not be reused
+            FileConfigNode reread = bridge.read().get(10, TimeUnit.SECONDS);
+            assertNotSame(node, reread);
+            assertEquals(30, reread.getElement("mob", "health").orElseThrow().asNumber().intValue());
+
+            int readCount = reads.get();
+            assertEquals(reread.fingerprint(), bridge.read().get(10, TimeUnit.SECONDS).fingerprint());
+            assertEquals(readCount, reads.get());
+        }
+        finally {
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void failsRejectedOperations() throws Exception {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            executor.shutdown();
+
+            AsyncFilesystemBridge bridge = new AsyncFilesystemBridge(root, executor);
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> bridge.read().get());
+            assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileConfigCacheTest {
+    @Test
+    void evictsLeastRecentlyUsedCleanFiles() throws IOException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Files.createDirectory(root.resolve("worlds"));
+            for(int i = 0; i < 3; i++) {
+                Files.writeString(root.resolve("worlds").resolve("world" + i + ".json"), "{\"value\": " + i + "}",
+                        StandardCharsets.UTF_8);
+            }
+
+            FileConfigCache cache = FileConfigCache.withMaximumEntries(new SynchronousFilesystemBridge(root), 2);
+            Path first = Path.of("worlds", "world0.json");
+            Path second = Path.of("worlds", "world1.json");
+            Path third = Path.of("worlds", "world2.json");
+
+            FileConfigNode firstNode = cache.get(first);
+            assertSame(firstNode, cache.get(first));
+            cache.get(second);
+            cache.get(first);
+            cache.get(third);
+
+            //second was the least recently used, so it was evicted
+            assertEquals(new FileConfigCache.Stats(2, 3, 1, 2, 2), cache.stats());
+            assertEquals(1, cache.get(second).get("value").asNumber().intValue());
+            assertEquals(2, cache.stats().evictions());
+
+            //dirty files are kept even when over budget
+            firstNode = cache.get(first);
+            firstNode.put("value", new ConfigPrimitive(10));
+            assertTrue(cache.isDirty(first));
+            cache.get(third);
+            cache.get(second);
+            assertSame(firstNode, cache.get(first));
+
+            assertTrue(cache.save(first));
+            assertFalse(cache.isDirty(first));
+            assertFalse(cache.save(first));
+            assertTrue(cache.invalidate(first));
+            assertEquals(10, cache.get(first).get("value").asNumber().intValue());
+
+            assertThrows(NoSuchFileException.class, () -> cache.get(Path.of("missing.json")));
+            assertThrows(IllegalArgumentException.class, () -> cache.get(Path.of("..", "outside.json")));
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void detectsNestedChangesWithoutReordering() throws IOException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Files.writeString(root.resolve("first.json"), "{\"mob\": {\"health\": 20}}", StandardCharsets.UTF_8);
+            Files.writeString(root.resolve("second.json"), "{\"value\": 1}", StandardCharsets.UTF_8);
+            Files.writeString(root.resolve("third.json"), "{\"value\": 2}", StandardCharsets.UTF_8);
+
+            FileConfigCache cache = FileConfigCache.withMaximumEntries(new SynchronousFilesystemBridge(root), 2);
+            Path first = Path.of("first.json");
+            Path second = Path.of("second.json");
+
+            FileConfigNode firstNode = cache.get(first);
+            FileConfigNode secondNode = cache.get(second);
+            assertFalse(cache.isDirty(first));
+
+            //modifying a nested primitive in place is detected
+            ConfigPrimitive health = (ConfigPrimitive) firstNode.getElement("mob", "health").orElseThrow();
+            health.setObject(30);
+            assertTrue(cache.isDirty(first));
+            assertTrue(cache.save(first));
+            assertFalse(cache.isDirty(first));
+
+            //checking and saving do not count as using a file, so first is still the least recently used
+            health.setObject(40);
+            assertTrue(cache.isDirty(first));
+            assertTrue(cache.save(first));
+            cache.get(Path.of("third.json"));
+            assertNotSame(firstNode, cache.get(first));
+            assertEquals(40, cache.get(first).getElement("mob", "health").orElseThrow().asNumber().intValue());
+            assertNotSame(secondNode, cache.get(second));
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void estimatesSize() {
+        FileConfigNode small = new FileConfigNode();
+        FileConfigNode large = new FileConfigNode();
+        large.put("child", new FileConfigNode());
+
+        assertTrue(FileConfigCache.estimateSize(large) > FileConfigCache.estimateSize(small));
+    }
+}
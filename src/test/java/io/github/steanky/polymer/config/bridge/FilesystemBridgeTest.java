@@ -0,0 +1,143 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilesystemBridgeTest {
+    @Test
+    void readsDirectoryTreeAndSkipsLinkLoops() throws IOException, ExecutionException, InterruptedException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Path sub = Files.createDirectory(root.resolve("sub"));
+            Files.writeString(root.resolve("top.json"), "{\"value\": 1}", StandardCharsets.UTF_8);
+            Files.writeString(sub.resolve("nested.json"), "{\"value\": 2}", StandardCharsets.UTF_8);
+            Files.writeString(sub.resolve("ignored.unknown"), "not config", StandardCharsets.UTF_8);
+
+            //links back to the root, which would cause an infinite walk if cycles were detected by path
+            Files.createSymbolicLink(sub.resolve("loop"), root);
+
+            FileConfigNode node = new SynchronousFilesystemBridge(root).read().get();
+            assertEquals(1, node.getElement("top", "value").orElseThrow().asNumber().intValue());
+            assertEquals(2, node.getElement("sub", "nested", "value").orElseThrow().asNumber().intValue());
+
+            ConfigNode subNode = node.get("sub").asConfigNode();
+            assertEquals(1, subNode.size());
+            assertFalse(subNode.containsKey("loop"));
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void readsAndWritesSubtrees() throws IOException, ExecutionException, InterruptedException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Path nether = Files.createDirectories(root.resolve("worlds").resolve("nether"));
+            Path overworld = Files.createDirectories(root.resolve("worlds").resolve("overworld"));
+            Files.writeString(root.resolve("top.json"), "{\"value\": 1}", StandardCharsets.UTF_8);
+            Files.writeString(nether.resolve("settings.json"), "{\"value\": 2}", StandardCharsets.UTF_8);
+            Files.writeString(nether.resolve("mobs.json"), "{\"value\": 3}", StandardCharsets.UTF_8);
+            Files.writeString(overworld.resolve("settings.json"), "{\"value\": 4}", StandardCharsets.UTF_8);
+
+            SynchronousFilesystemBridge bridge = new SynchronousFilesystemBridge(root);
+
+            FileConfigNode netherOnly = bridge.readSubtree(null, null, "worlds", "nether").get();
+            assertEquals(1, netherOnly.size());
+            assertEquals(2, netherOnly.getElement("worlds", "nether", "settings", "value").orElseThrow().asNumber()
+                    .intValue());
+            assertEquals(1, netherOnly.getElement("worlds").orElseThrow().asConfigNode().size());
+
+            FileConfigNode settings = bridge.readSubtree(null, "worlds/*/settings.json", "worlds").get();
+            assertTrue(settings.getElement("worlds", "nether", "settings").isPresent());
+            assertTrue(settings.getElement("worlds", "overworld", "settings").isPresent());
+            assertTrue(settings.getElement("worlds", "nether", "mobs").isEmpty());
+
+            //merging leaves the rest of the target alone
+            FileConfigNode merged = bridge.readSubtree(netherOnly, null, "top").get();
+            assertSame(netherOnly, merged);
+            assertEquals(1, merged.getElement("top", "value").orElseThrow().asNumber().intValue());
+            assertTrue(merged.getElement("worlds", "nether", "mobs").isPresent());
+
+            assertEquals(bridge.read().get().fingerprint(), bridge.readSubtree(new FileConfigNode(), null).get()
+                    .fingerprint());
+
+            FileConfigNode tree = bridge.read().get();
+            tree.getElement("worlds", "nether", "settings").orElseThrow().asConfigNode().put("value",
+                    new ConfigPrimitive(20));
+            tree.getElement("worlds", "overworld", "settings").orElseThrow().asConfigNode().put("value",
+                    new ConfigPrimitive(40));
+            bridge.writeSubtree(tree, "worlds", "nether").get();
+
+            FileConfigNode reread = bridge.read().get();
+            assertEquals(20, reread.getElement("worlds", "nether", "settings", "value").orElseThrow().asNumber()
+                    .intValue());
+            assertEquals(4, reread.getElement("worlds", "overworld", "settings", "value").orElseThrow().asNumber()
+                    .intValue());
+
+            bridge.write(tree).get();
+            assertEquals(40, bridge.read().get().getElement("worlds", "overworld", "settings", "value").orElseThrow()
+                    .asNumber().intValue());
+            assertFalse(Files.exists(root.resolve("worlds").resolve("overworld").resolve("settings")));
+
+            assertThrows(IllegalArgumentException.class, () -> bridge.writeSubtree(tree, "worlds", "end"));
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void globSkipsDirectoriesWithoutMatches() throws IOException, ExecutionException, InterruptedException {
+        Path root = Files.createTempDirectory("polymer");
+        try {
+            Path nether = Files.createDirectories(root.resolve("worlds").resolve("nether"));
+            Path empty = Files.createDirectories(root.resolve("worlds").resolve("empty"));
+            Path other = Files.createDirectories(root.resolve("other").resolve("deep"));
+            Files.writeString(nether.resolve("settings.json"), "{\"value\": 1}", StandardCharsets.UTF_8);
+            Files.writeString(empty.resolve("mobs.json"), "{\"value\": 2}", StandardCharsets.UTF_8);
+            Files.writeString(other.resolve("settings.json"), "{\"value\": 3}", StandardCharsets.UTF_8);
+
+            //records every directory which is listed
+            Set<Path> listed = ConcurrentHashMap.newKeySet();
+            SynchronousFilesystemBridge bridge = new SynchronousFilesystemBridge(root, file -> {
+                listed.add(file.toPath().getParent());
+                return FilesystemBridgeAbstract.DEFAULT_READ_FILTER.accept(file);
+            }, FilesystemBridgeAbstract.DEFAULT_CODEC_FUNCTION, FilesystemBridgeAbstract.DEFAULT_KEY_FUNCTION);
+
+            FileConfigNode node = bridge.readSubtree(null, "worlds/*/settings.json").get();
+            assertEquals(1, node.size());
+            assertEquals(1, node.getElement("worlds").orElseThrow().asConfigNode().size());
+            assertEquals(1, node.getElement("worlds", "nether", "settings", "value").orElseThrow().asNumber()
+                    .intValue());
+            assertFalse(listed.contains(root.resolve("other")));
+
+            //no nodes are added to the target when nothing along the path can match
+            FileConfigNode target = new FileConfigNode();
+            assertSame(target, bridge.readSubtree(target, "worlds/*/settings.json", "other", "deep").get());
+            assertTrue(target.isEmpty());
+
+            //nothing is pruned below a name containing **
+            node = bridge.readSubtree(null, "**/settings.json").get();
+            assertEquals(3, node.getElement("other", "deep", "settings", "value").orElseThrow().asNumber()
+                    .intValue());
+            assertTrue(node.getElement("worlds", "empty").isEmpty());
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
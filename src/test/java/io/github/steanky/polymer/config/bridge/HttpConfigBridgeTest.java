@@ -0,0 +1,127 @@
+package io.github.steanky.polymer.config.bridge;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.steanky.polymer.config.collection.FileConfigNode;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpConfigBridgeTest {
+    @Test
+    void revalidatesAndFallsBackToCache() throws IOException, ExecutionException, InterruptedException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        AtomicInteger notModified = new AtomicInteger();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/configs/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String etag = "\"" + path.hashCode() + "\"";
+            byte[] body = ("{\"path\": \"" + path + "\"}").getBytes(StandardCharsets.UTF_8);
+
+            if(etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            }
+            else {
+                fullResponses.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.sendResponseHeaders(200, body.length);
+                try(OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+
+            exchange.close();
+        });
+        server.start();
+
+        Path cache = Files.createTempDirectory("polymer");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            URI base = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" +
+                    server.getAddress().getPort() + "/configs");
+            HttpConfigBridge bridge = new HttpConfigBridge(base, List.of("main.json", "mobs/zombie.json"), cache,
+                    executor);
+
+            FileConfigNode first = bridge.read().get();
+            assertEquals("/configs/mobs/zombie.json", first.getElement("mobs", "zombie", "path").orElseThrow()
+                    .asString());
+            assertEquals(2, fullResponses.get());
+
+            FileConfigNode second = bridge.read().get();
+            assertEquals(first.fingerprint(), second.fingerprint());
+            assertEquals(2, fullResponses.get());
+            assertEquals(2, notModified.get());
+
+            server.stop(0);
+            FileConfigNode offline = bridge.read().get();
+            assertEquals(first.fingerprint(), offline.fingerprint());
+        }
+        finally {
+            server.stop(0);
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(cache.toFile());
+        }
+    }
+
+    @Test
+    void failsOnFileAndDirectoryConflict() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "{\"value\": 1}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try(OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+
+            exchange.close();
+        });
+        server.start();
+
+        Path cache = Files.createTempDirectory("polymer");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            URI base = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" +
+                    server.getAddress().getPort() + "/");
+            for(List<String> files : List.of(List.of("a.json", "a/b.json"), List.of("a/b.json", "a.json"))) {
+                HttpConfigBridge bridge = new HttpConfigBridge(base, files, cache, executor);
+                ExecutionException exception = assertThrows(ExecutionException.class, () -> bridge.read().get());
+                assertTrue(exception.getCause() instanceof IOException);
+            }
+
+            //no ETag was sent, so none is cached
+            assertTrue(Files.isRegularFile(cache.resolve("a.json")));
+            assertFalse(Files.exists(cache.resolve("a.json.etag")));
+        }
+        finally {
+            server.stop(0);
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(cache.toFile());
+        }
+    }
+
+    @Test
+    void rejectsInvalidPaths() {
+        URI base = URI.create("http://localhost/");
+        Path cache = Path.of("cache");
+        for(String file : List.of("", "/absolute.json", "../escape.json", "a//b.json", "dir/")) {
+            assertThrows(IllegalArgumentException.class, () -> new HttpConfigBridge(base, List.of(file), cache,
+                    Runnable::run));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package io.github.steanky.polymer.config.bridge;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ArrayConfigList;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyValueConfigBridgeTest {
+    private static ConfigNode sample() {
+        ConfigNode zombie = new LinkedConfigNode();
+        zombie.put("health", new ConfigPrimitive(20));
+        zombie.put("name", new ConfigPrimitive("zombie"));
+
+        ConfigList drops = new ArrayConfigList();
+        drops.add(new ConfigPrimitive("flesh"));
+        zombie.put("drops", drops);
+
+        ConfigNode mobs = new LinkedConfigNode();
+        mobs.put("zombie", zombie);
+        mobs.put("empty", new LinkedConfigNode());
+
+        ConfigNode root = new LinkedConfigNode();
+        root.put("mobs", mobs);
+        root.put("a:b", new ConfigPrimitive(true));
+        return root;
+    }
+
+    private static void assertSameContents(ConfigElement expected, ConfigElement actual) {
+        assertEquals(expected.fingerprint(), actual.fingerprint());
+    }
+
+    @Test
+    void roundTripAndPartialReads() throws IOException, ExecutionException, InterruptedException {
+        Path file = Files.createTempFile("polymer", ".kv");
+        try {
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                bridge.write(sample()).get();
+                assertSameContents(sample(), bridge.read().get());
+
+                Optional<ConfigElement> zombie = bridge.read("mobs", "zombie").get();
+                assertSameContents(sample().getElement("mobs", "zombie").orElseThrow(), zombie.orElseThrow());
+                assertEquals(20, bridge.read("mobs", "zombie", "health").get().orElseThrow().asNumber().intValue());
+                assertTrue(bridge.read("mobs", "zombie", "speed").get().isEmpty());
+                assertTrue(bridge.read("mobs", "empty").get().orElseThrow().asConfigNode().isEmpty());
+            }
+
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                assertSameContents(sample(), bridge.read().get());
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void partialWritesAndRemoval() throws IOException, ExecutionException, InterruptedException {
+        Path file = Files.createTempFile("polymer", ".kv");
+        try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+            bridge.write(sample()).get();
+
+            bridge.write(new ConfigPrimitive(40), "mobs", "zombie", "health").get();
+            ConfigNode expected = sample();
+            expected.getElement("mobs", "zombie").orElseThrow().asConfigNode().put("health", new ConfigPrimitive(40));
+            assertSameContents(expected, bridge.read().get());
+
+            //replacing a value with a node removes the old value
+            ConfigNode nested = new LinkedConfigNode();
+            nested.put("c", new ConfigPrimitive(1));
+            bridge.write(nested, "a:b").get();
+            assertSameContents(nested, bridge.read("a:b").get().orElseThrow());
+
+            bridge.write(new ConfigPrimitive(2), "a:b", "c", "d").get();
+            assertEquals(2, bridge.read("a:b", "c", "d").get().orElseThrow().asNumber().intValue());
+
+            bridge.remove("mobs").get();
+            assertTrue(bridge.read("mobs").get().isEmpty());
+            assertEquals(1, bridge.read().get().size());
+
+            assertThrows(IllegalArgumentException.class, () -> bridge.write(new ConfigPrimitive(1)));
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void discardsIncompleteTransaction() throws IOException, ExecutionException, InterruptedException {
+        Path file = Files.createTempFile("polymer", ".kv");
+        try {
+            long committed;
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                bridge.write(sample()).get();
+                committed = Files.size(file);
+                bridge.write(new ConfigPrimitive(40), "mobs", "zombie", "health").get();
+            }
+
+            //simulate a crash partway through writing the second transaction
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(Files.size(file) - 3);
+            }
+
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                assertSameContents(sample(), bridge.read().get());
+            }
+
+            assertEquals(committed, Files.size(file));
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void persistsNumericTypeChanges() throws IOException, ExecutionException, InterruptedException {
+        Path file = Files.createTempFile("polymer", ".kv");
+        try {
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                bridge.write(new ConfigPrimitive(1), "value").get();
+                bridge.write(new ConfigPrimitive(1L), "value").get();
+                assertTrue(bridge.read("value").get().orElseThrow().asNumber() instanceof Long);
+
+                ConfigList list = new ArrayConfigList();
+                list.add(new ConfigPrimitive(2));
+                bridge.write(list, "list").get();
+                list.set(0, new ConfigPrimitive(2L));
+                bridge.write(list, "list").get();
+            }
+
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                assertTrue(bridge.read("value").get().orElseThrow().asNumber() instanceof Long);
+                assertTrue(bridge.read("list").get().orElseThrow().asConfigList().get(0).asNumber() instanceof Long);
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void compactsAndReopensLargeLogs() throws IOException, ExecutionException, InterruptedException {
+        Path file = Files.createTempFile("polymer", ".kv");
+        try {
+            //values larger than the window used to read the log, written often enough to trigger compaction
+            String large = "x".repeat(200_000);
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                for(int i = 0; i < 12; i++) {
+                    bridge.write(new ConfigPrimitive(large + i), "large").get();
+                    bridge.write(new ConfigPrimitive(i), "count").get();
+                }
+            }
+
+            assertTrue(Files.size(file) < 1 << 20);
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                assertEquals(large + 11, bridge.read("large").get().orElseThrow().asString());
+                assertEquals(11, bridge.read("count").get().orElseThrow().asNumber().intValue());
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void commitsDespiteFailedCompaction() throws IOException, ExecutionException, InterruptedException {
+        Path file = Files.createTempFile("polymer", ".kv");
+        //compaction cannot write its temporary file while a directory is in the way
+        Path temp = Files.createDirectory(file.resolveSibling(file.getFileName() + ".compact"));
+        try {
+            String large = "x".repeat(200_000);
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                for(int i = 0; i < 6; i++) {
+                    bridge.write(new ConfigPrimitive(large + i), "large").get();
+                }
+
+                assertEquals(large + 5, bridge.read("large").get().orElseThrow().asString());
+            }
+
+            try(KeyValueConfigBridge bridge = new KeyValueConfigBridge(file)) {
+                assertEquals(large + 5, bridge.read("large").get().orElseThrow().asString());
+            }
+        }
+        finally {
+            Files.deleteIfExists(temp);
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.steanky.polymer.config.bridge;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingFilesystemBridgeTest {
+    private static final class RecordingSubscriber implements Flow.Subscriber<FileEntry> {
+        private final BlockingQueue<FileEntry> entries = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Throwable> errors = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(FileEntry item) {
+            entries.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            errors.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        private FileEntry next() throws InterruptedException {
+            FileEntry entry = entries.poll(10, TimeUnit.SECONDS);
+            assertNotNull(entry);
+            return entry;
+        }
+    }
+
+    private static Path writeFiles(int count) throws IOException {
+        Path root = Files.createTempDirectory("polymer");
+        Path sub = Files.createDirectory(root.resolve("sub"));
+        for(int i = 0; i < count; i++) {
+            Files.writeString((i % 2 == 0 ? root : sub).resolve("file" + i + ".toml"), "value = " + i,
+                    StandardCharsets.UTF_8);
+        }
+
+        return root;
+    }
+
+    private static StreamingFilesystemBridge bridge(Path root, ExecutorService executor, AtomicInteger decodes) {
+        return new StreamingFilesystemBridge(root, FilesystemBridgeAbstract.DEFAULT_READ_FILTER, file -> {
+            decodes.incrementAndGet();
+            return FilesystemBridgeAbstract.DEFAULT_CODEC_FUNCTION.apply(file);
+        }, FilesystemBridgeAbstract.DEFAULT_KEY_FUNCTION, executor, 4);
+    }
+
+    @Test
+    void decodesOnlyWhatIsRequested() throws Exception {
+        Path root = writeFiles(5);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            AtomicInteger decodes = new AtomicInteger();
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bridge(root, executor, decodes).readStreaming().subscribe(subscriber);
+
+            //nothing is read before there is demand
+            assertNull(subscriber.entries.poll(100, TimeUnit.MILLISECONDS));
+            assertEquals(0, decodes.get());
+
+            subscriber.subscription.request(1);
+            subscriber.next();
+            assertNull(subscriber.entries.poll(100, TimeUnit.MILLISECONDS));
+            assertEquals(1, decodes.get());
+            assertEquals(1, subscriber.completed.getCount());
+
+            subscriber.subscription.request(Long.MAX_VALUE);
+            for(int i = 0; i < 4; i++) {
+                subscriber.next();
+            }
+
+            assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+            assertEquals(5, decodes.get());
+            assertTrue(subscriber.errors.isEmpty());
+        }
+        finally {
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void sharesBridgeOperationLimit() throws Exception {
+        Path root = writeFiles(6);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            //records the largest number of files decoded at once
+            AtomicInteger decoding = new AtomicInteger();
+            AtomicInteger maxDecoding = new AtomicInteger();
+            StreamingFilesystemBridge bridge = new StreamingFilesystemBridge(root,
+                    FilesystemBridgeAbstract.DEFAULT_READ_FILTER, file -> {
+                maxDecoding.accumulateAndGet(decoding.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+
+                decoding.decrementAndGet();
+                return FilesystemBridgeAbstract.DEFAULT_CODEC_FUNCTION.apply(file);
+            }, FilesystemBridgeAbstract.DEFAULT_KEY_FUNCTION, executor, 1, Duration.ZERO, 4);
+
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bridge.readStreaming().subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+
+            for(int i = 0; i < 6; i++) {
+                subscriber.next();
+            }
+
+            assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+            assertEquals(1, maxDecoding.get());
+        }
+        finally {
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void stopsAfterCancel() throws Exception {
+        Path root = writeFiles(5);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            AtomicInteger decodes = new AtomicInteger();
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bridge(root, executor, decodes).readStreaming().subscribe(subscriber);
+
+            subscriber.subscription.request(2);
+            subscriber.next();
+            subscriber.next();
+
+            subscriber.subscription.cancel();
+            subscriber.subscription.request(10);
+
+            assertNull(subscriber.entries.poll(100, TimeUnit.MILLISECONDS));
+            assertEquals(2, decodes.get());
+            assertEquals(1, subscriber.completed.getCount());
+            assertTrue(subscriber.errors.isEmpty());
+        }
+        finally {
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void signalsNonPositiveRequests() throws Exception {
+        Path root = writeFiles(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bridge(root, executor, new AtomicInteger()).readStreaming().subscribe(subscriber);
+
+            subscriber.subscription.request(0);
+            assertTrue(subscriber.errors.poll(10, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+            assertTrue(subscriber.entries.isEmpty());
+        }
+        finally {
+            executor.shutdownNow();
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    void failsOnceWhenExecutorRejects() throws Exception {
+        Path root = writeFiles(1);
+        try {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            executor.shutdown();
+
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bridge(root, executor, new AtomicInteger()).readStreaming().subscribe(subscriber);
+
+            subscriber.subscription.request(1);
+            subscriber.subscription.request(1);
+            subscriber.subscription.cancel();
+
+            assertTrue(subscriber.errors.poll(10, TimeUnit.SECONDS) instanceof RejectedExecutionException);
+            assertTrue(subscriber.errors.isEmpty());
+            assertTrue(subscriber.entries.isEmpty());
+            assertEquals(1, subscriber.completed.getCount());
+        }
+        finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.steanky.polymer.config.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simple throughput comparison of the built-in codecs. Not run as part of the test suite; invoke {@link #main} directly
+ * to compare decode and encode times on the same generated document. Sizes and throughput are those of the encoded
+ * bytes, so for compressed codecs they reflect how much less data has to be read from or written to disk.
+ */
+public final class CodecBenchmark {
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1000;
+    private static final int LARGE_ITERATIONS = 20;
+
+    private CodecBenchmark() {}
+
+    static Map<String, Object> generate(int sections, int entries) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        for(int i = 0; i < sections; i++) {
+            Map<String, Object> section = new LinkedHashMap<>();
+            for(int j = 0; j < entries; j++) {
+                section.put("string" + j, "value " + i + " " + j);
+                section.put("number" + j, (long) i * j);
+                section.put("decimal" + j, i / (j + 1.0));
+                section.put("flag" + j, (i + j) % 2 == 0);
+            }
+
+            List<Object> list = new ArrayList<>();
+            for(int j = 0; j < entries; j++) {
+                list.add((long) j);
+            }
+
+            section.put("list", list);
+            root.put("section" + i, section);
+        }
+
+        return root;
+    }
+
+    private static void run(ConfigCodec codec, Map<String, Object> data) throws IOException {
+        run(codec, data, WARMUP_ITERATIONS, ITERATIONS);
+    }
+
+    private static void run(ConfigCodec codec, Map<String, Object> data, int warmupIterations, int iterations)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        codec.encode(data, output, true);
+        byte[] bytes = output.toByteArray();
+
+        for(int i = 0; i < warmupIterations; i++) {
+            codec.decode(new ByteArrayInputStream(bytes), true);
+            codec.encode(data, new ByteArrayOutputStream(bytes.length), true);
+        }
+
+        long start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            codec.decode(new ByteArrayInputStream(bytes), true);
+        }
+        long decode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for(int i = 0; i < iterations; i++) {
+            codec.encode(data, new ByteArrayOutputStream(bytes.length), true);
+        }
+        long encode = System.nanoTime() - start;
+
+        System.out.printf("%-12s %8d bytes  decode %8.1f us/op (%6.1f MB/s)  encode %8.1f us/op (%6.1f MB/s)%n",
+                codec.getNames().iterator().next(), bytes.length, decode / 1000.0 / iterations,
+                megabytesPerSecond(bytes.length, iterations, decode), encode / 1000.0 / iterations,
+                megabytesPerSecond(bytes.length, iterations, encode));
+    }
+
+    private static double megabytesPerSecond(int bytes, int iterations, long nanos) {
+        return (double) bytes * iterations / (nanos / 1e9) / (1024 * 1024);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, Object> data = generate(32, 16);
+
+        run(new TomlCodec(), data);
+        run(new JsonCodec(false), data);
+        run(new JsonCodec(true), data);
+
+        //large, repetitive generated files, as read from slow storage
+        Map<String, Object> large = generate(1024, 16);
+        JsonCodec json = new JsonCodec(false);
+        run(json, large, LARGE_ITERATIONS, LARGE_ITERATIONS);
+        run(new CompressedCodec(json, CompressedCodec.Compression.GZIP), large, LARGE_ITERATIONS, LARGE_ITERATIONS);
+        run(new CompressedCodec(json, CompressedCodec.Compression.DEFLATE), large, LARGE_ITERATIONS,
+                LARGE_ITERATIONS);
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodecRegistryTest {
+    private static class ConfinedCodec extends AbstractConfigCodec {
+        private final Thread owner = Thread.currentThread();
+
+        ConfinedCodec(String... names) {
+            super(Set.of(names));
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return false;
+        }
+
+        @Override
+        protected @NotNull Map<String, Object> read(@NotNull InputStream input) {
+            return Map.of("owner", owner.getName());
+        }
+
+        @Override
+        protected void write(@NotNull Map<String, Object> input, OutputStream output) {}
+
+        @Override
+        protected void writeNode(@NotNull ConfigNode node, @NotNull OutputStream output) {}
+    }
+
+    //each test uses its own registry, so that codecs registered by one test are never visible to others
+    private final CodecRegistry registry = new CodecRegistry();
+
+    @Test
+    void builtInCodecsAreThreadSafe() {
+        assertTrue(CodecRegistry.INSTANCE.getCodec("toml").isThreadSafe());
+        assertTrue(CodecRegistry.INSTANCE.getCodec("json").isThreadSafe());
+    }
+
+    @Test
+    void unsafeInstanceRejected() {
+        assertThrows(IllegalArgumentException.class, () -> registry.registerCodec(
+                new ConfinedCodec("confined-instance")));
+        assertFalse(registry.hasCodec("confined-instance"));
+    }
+
+    @Test
+    void duplicateNameRegistersNothing() {
+        assertThrows(IllegalArgumentException.class, () -> registry.registerCodec(
+                () -> new ConfinedCodec("confined-partial", "json")));
+        assertFalse(registry.hasCodec("confined-partial"));
+    }
+
+    @Test
+    void unsafeCodecsAreConfinedToThreads() throws Exception {
+        registry.registerCodec(() -> new ConfinedCodec("confined"));
+        ConfigCodec codec = registry.getCodec("confined");
+        assertFalse(CodecRegistry.INSTANCE.hasCodec("confined"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for(int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> codec.decode(new ByteArrayInputStream(new byte[0]), true)
+                        .get("owner").equals(Thread.currentThread().getName())));
+            }
+
+            for(Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
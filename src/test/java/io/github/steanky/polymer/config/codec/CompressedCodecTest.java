@@ -0,0 +1,79 @@
+package io.github.steanky.polymer.config.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedCodecTest {
+    @Test
+    void roundTripsThroughRegistry() throws IOException {
+        Map<String, Object> data = CodecBenchmark.generate(8, 8);
+
+        for(String name : new String[] {"json.gz", "json.deflate"}) {
+            ConfigCodec codec = CodecRegistry.INSTANCE.getCodec(name);
+            assertNotNull(codec);
+            assertSame(codec, CodecRegistry.INSTANCE.getCodec(name));
+            assertEquals(Set.of(name), codec.getNames());
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            codec.encode(data, output, true);
+
+            ByteArrayOutputStream plain = new ByteArrayOutputStream();
+            ((CompressedCodec)codec).getCodec().encode(data, plain, true);
+            assertTrue(output.size() < plain.size());
+
+            Map<String, Object> expected = ((CompressedCodec)codec).getCodec().decode(new ByteArrayInputStream(
+                    plain.toByteArray()), true);
+            assertEquals(expected, codec.decode(new ByteArrayInputStream(output.toByteArray()), true));
+        }
+
+        assertTrue(CodecRegistry.INSTANCE.hasCodec("toml.gz"));
+        assertFalse(CodecRegistry.INSTANCE.hasCodec("unknown.gz"));
+        assertFalse(CodecRegistry.INSTANCE.hasCodec("json.zip"));
+    }
+
+    @Test
+    void respectsClose() throws IOException {
+        ConfigCodec codec = new CompressedCodec(new JsonCodec(), CompressedCodec.Compression.GZIP);
+
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        codec.encode(Map.of("value", 1L), output, false);
+        assertFalse(closed[0]);
+
+        InputStream input = new ByteArrayInputStream(output.toByteArray()) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        assertEquals(Map.of("value", 1L), codec.decode(input, false));
+        assertFalse(closed[0]);
+    }
+
+    @Test
+    void extensions() {
+        assertEquals("toml", CodecRegistry.extension("mobs.toml"));
+        assertEquals("toml.gz", CodecRegistry.extension("dir/mobs.toml.gz"));
+        assertEquals("gz", CodecRegistry.extension("mobs.gz"));
+        assertEquals("", CodecRegistry.extension("mobs"));
+
+        assertEquals("mobs", CodecRegistry.baseName("mobs.toml.gz"));
+        assertEquals("mobs.backup", CodecRegistry.baseName("dir/mobs.backup.json"));
+        assertEquals("mobs", CodecRegistry.baseName("mobs"));
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.BasicTreeBuilder;
+import io.github.steanky.polymer.config.ConfigParseException;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ArrayConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.IntConfigList;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import io.github.steanky.polymer.config.collection.LongConfigList;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCodecTest {
+    private static Map<String, Object> decode(ConfigCodec codec, String json) throws IOException {
+        return codec.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), true);
+    }
+
+    private static String encode(ConfigCodec codec, Map<String, Object> map) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        codec.encode(map, output, true);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void decodesNestedStructures() throws IOException {
+        Map<String, Object> map = decode(new JsonCodec(), "{\"a\": {\"b\": [1, 2.5, true, null, \"x\"]}, \"c\": -3e2}");
+
+        Map<?, ?> a = (Map<?, ?>) map.get("a");
+        assertEquals(Arrays.asList(1L, 2.5, true, null, "x"), a.get("b"));
+        assertEquals(-300.0, map.get("c"));
+    }
+
+    @Test
+    void decodesEscapes() throws IOException {
+        Map<String, Object> map = decode(new JsonCodec(), "{\"s\": \"q\\\"\\\\\\n\\u00e9\\ud83d\\ude00\"}");
+        assertEquals("q\"\\\n\u00e9\ud83d\ude00", map.get("s"));
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "line\nbreak \"quoted\" \u0001");
+        map.put("count", 42L);
+        map.put("ratio", 0.25);
+        map.put("flags", List.of(true, false));
+        map.put("empty", Map.of());
+        map.put("nested", Map.of("inner", List.of()));
+
+        for(JsonCodec codec : List.of(new JsonCodec(true), new JsonCodec(false))) {
+            assertEquals(map, decode(codec, encode(codec, map)));
+        }
+    }
+
+    @Test
+    void compactAndPrettyOutput() throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", List.of(1, 2));
+
+        assertEquals("{\"a\":[1,2]}", encode(new JsonCodec(false), map));
+        assertEquals("{\n    \"a\": [\n        1,\n        2\n    ]\n}", encode(new JsonCodec(true), map));
+    }
+
+    @Test
+    void encodesNodesDirectly() throws IOException {
+        ConfigNode node = new LinkedConfigNode();
+        node.put("name", new ConfigPrimitive("x"));
+        node.put("values", new IntConfigList(new int[] {1, 2, 3}));
+        node.put("nothing", new ConfigPrimitive(null));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new JsonCodec(false).encodeNode(node, output, true);
+        assertEquals("{\"name\":\"x\",\"values\":[1,2,3],\"nothing\":null}", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void selfContainingNodeCannotBeEncoded() {
+        ConfigNode node = new LinkedConfigNode();
+        node.put("self", node);
+
+        assertThrows(IOException.class, () -> new JsonCodec().encodeNode(node, new ByteArrayOutputStream(), true));
+    }
+
+    @Test
+    void largeIntegersBecomeDoubles() throws IOException {
+        Map<String, Object> map = decode(new JsonCodec(), "{\"n\": 123456789012345678901234567890}");
+        assertEquals(1.2345678901234568E29, map.get("n"));
+    }
+
+    @Test
+    void malformedInputThrows() {
+        for(JsonCodec codec : List.of(new JsonCodec(), new JsonCodec(true, true))) {
+            for(String json : List.of("", "[]", "{", "{\"a\" 1}", "{\"a\": 1,}", "{\"a\": [1 2]}", "{\"a\": tru}",
+                    "{\"a\": \"unterminated}", "{} {}", "{\"a\": 01}", "{\"a\": 1.2.3}", "{\"a\": \"\\x\"}")) {
+                assertThrows(ConfigParseException.class, () -> decode(codec, json));
+            }
+        }
+    }
+
+    @Test
+    void lazyScalarsMatchEagerDecoding() throws IOException {
+        String json = "{\"s\": \"caf\u00e9 \\\"q\\\" \\u00e9\", \"n\": [1, -2.5e3, 123456789012345678901234567890], " +
+                "\"b\": true, \"z\": null}";
+
+        JsonCodec lazy = new JsonCodec(true, true);
+        ConfigNode lazyNode = lazy.getBuilder().makeNode(decode(lazy, json), LinkedConfigNode::new);
+        ConfigNode eagerNode = new JsonCodec().getBuilder().makeNode(decode(new JsonCodec(), json),
+                LinkedConfigNode::new);
+
+        assertEquals("caf\u00e9 \"q\" \u00e9", lazyNode.get("s").asString());
+        assertEquals(-2500.0, lazyNode.getElement("n").orElseThrow().asConfigList().get(1).asNumber());
+        assertEquals(eagerNode.fingerprint(), lazyNode.fingerprint());
+    }
+
+    @Test
+    void primitiveListsAreSelectedByConstructor() throws IOException {
+        StringBuilder json = new StringBuilder("{\"ids\": [");
+        for(int i = 0; i < BasicTreeBuilder.PRIMITIVE_LIST_THRESHOLD; i++) {
+            json.append(i == 0 ? "" : ", ").append(i);
+        }
+        json.append("], \"small\": [1, 2]}");
+
+        JsonCodec primitiveCodec = new JsonCodec(false, false, true);
+        ConfigNode node = primitiveCodec.getBuilder().makeNode(decode(primitiveCodec, json.toString()),
+                LinkedConfigNode::new);
+
+        assertTrue(node.get("ids") instanceof LongConfigList);
+        LongConfigList ids = (LongConfigList) node.get("ids");
+        assertEquals(BasicTreeBuilder.PRIMITIVE_LIST_THRESHOLD, ids.size());
+        assertEquals(7L, ids.getLong(7));
+        assertTrue(node.get("small") instanceof ArrayConfigList);
+
+        JsonCodec defaultCodec = new JsonCodec(false);
+        node = defaultCodec.getBuilder().makeNode(decode(defaultCodec, json.toString()), LinkedConfigNode::new);
+        assertTrue(node.get("ids") instanceof ArrayConfigList);
+    }
+
+    @Test
+    void registeredByDefault() {
+        assertTrue(CodecRegistry.INSTANCE.hasCodec("json"));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.steanky.polymer.config.codec;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ArrayConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomlCodecTest {
+    private static String encode(ConfigNode node) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new TomlCodec().encodeNode(node, output, true);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ConfigNode node(Object... keysAndValues) {
+        ConfigNode node = new LinkedConfigNode();
+        for(int i = 0; i < keysAndValues.length; i += 2) {
+            Object value = keysAndValues[i + 1];
+            node.put((String) keysAndValues[i], value instanceof ConfigNode child ? child :
+                    value instanceof ArrayConfigList list ? list : new ConfigPrimitive(value));
+        }
+
+        return node;
+    }
+
+    @Test
+    void writesTablesAfterValues() throws IOException {
+        ConfigNode root = node("server", node("port", 25565L, "motd", "a \"quoted\"\nline"), "name", "test");
+
+        assertEquals("""
+                name = "test"
+
+                [server]
+                port = 25565
+                motd = "a \\"quoted\\"\\nline"
+                """, encode(root));
+    }
+
+    @Test
+    void writesArraysOfTables() throws IOException {
+        ConfigNode root = node("mobs", new ArrayConfigList(List.of(node("id", "zombie"), node("id", "husk"))),
+                "weights", new ArrayConfigList(List.of(new ConfigPrimitive(1L), node("inline", true))));
+
+        assertEquals("""
+                weights = [1, { inline = true }]
+
+                [[mobs]]
+                id = "zombie"
+
+                [[mobs]]
+                id = "husk"
+                """, encode(root));
+    }
+
+    @Test
+    void quotesKeysAndSkipsNulls() throws IOException {
+        assertEquals("\"dotted.key\" = 1.5\n", encode(node("dotted.key", 1.5, "missing", null)));
+    }
+
+    @Test
+    void nullInListThrows() {
+        ConfigNode root = node("list", new ArrayConfigList(List.of(new ConfigPrimitive(null))));
+        assertThrows(IOException.class, () -> encode(root));
+    }
+}
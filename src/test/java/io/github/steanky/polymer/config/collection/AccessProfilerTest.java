@@ -0,0 +1,150 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPath;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.ConfigVisitor;
+import io.github.steanky.polymer.config.index.ConfigIndex;
+import io.github.steanky.polymer.config.query.ConfigQuery;
+import io.github.steanky.polymer.config.resolve.ConfigResolver;
+import io.github.steanky.polymer.config.schema.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessProfilerTest {
+    @Test
+    void reportsHottestPaths() {
+        ConfigNode mob = new LinkedConfigNode();
+        mob.put("health", new ConfigPrimitive(20));
+        mob.put("speed", new ConfigPrimitive(1));
+
+        ConfigList drops = new ArrayConfigList();
+        drops.add(new ConfigPrimitive("flesh"));
+        mob.put("drops", drops);
+
+        ConfigNode root = new LinkedConfigNode();
+        root.put("mob", mob);
+
+        AccessProfiler.reset();
+        mob.get("health");
+        assertTrue(AccessProfiler.report(root, 10).isEmpty());
+
+        AccessProfiler.enable();
+        try {
+            for(int i = 0; i < 5; i++) {
+                root.getElement("mob", "health");
+            }
+
+            mob.get("speed");
+            drops.get(0);
+            drops.get(0);
+        }
+        finally {
+            AccessProfiler.disable();
+        }
+
+        mob.get("speed");
+
+        List<AccessProfiler.HotPath> report = AccessProfiler.report(root, 3);
+        assertEquals(3, report.size());
+        assertEquals(Set.of(ConfigPath.root().key("mob"), ConfigPath.root().key("mob").key("health")),
+                Set.of(report.get(0).path(), report.get(1).path()));
+        assertEquals(5, report.get(1).count());
+        assertEquals(new AccessProfiler.HotPath(ConfigPath.root().key("mob").key("drops").index(0), 2), report.get(2));
+        assertEquals(4, AccessProfiler.report(root, 10).size());
+
+        AccessProfiler.reset();
+        assertTrue(AccessProfiler.report(root, 10).isEmpty());
+    }
+
+    @Test
+    void countsOnlyLookups() {
+        ConfigList drops = new ArrayConfigList();
+        drops.add(new ConfigPrimitive("flesh"));
+
+        IntConfigList levels = new IntConfigList();
+        levels.addInt(1);
+        levels.addInt(2);
+
+        ConfigNode root = new LinkedConfigNode();
+        root.put("drops", drops);
+        root.put("levels", levels);
+
+        ConfigNode copy = new LinkedConfigNode();
+        copy.putAll(root);
+
+        AccessProfiler.reset();
+        AccessProfiler.enable();
+        try {
+            for(ConfigElement ignored : drops) {}
+            for(ConfigElement ignored : levels) {}
+            for(Map.Entry<String, ConfigElement> ignored : root.entrySet()) {}
+            assertTrue(root.equals(copy));
+            root.traverse((element, key, index, depth) -> ConfigVisitor.Result.CONTINUE);
+            assertTrue(AccessProfiler.report(root, 10).isEmpty());
+
+            levels.get(1);
+        }
+        finally {
+            AccessProfiler.disable();
+        }
+
+        assertEquals(List.of(new AccessProfiler.HotPath(ConfigPath.root().key("levels").index(1), 1)),
+                AccessProfiler.report(root, 10));
+
+        AccessProfiler.reset();
+        assertTrue(AccessProfiler.report(root, 10).isEmpty());
+    }
+
+    @Test
+    void libraryLookupsAreNotCounted() {
+        ConfigList mobs = new ArrayConfigList();
+        for(String id : List.of("zombie", "skeleton")) {
+            ConfigNode mob = new LinkedConfigNode();
+            mob.put("id", new ConfigPrimitive(id));
+            mob.put("health", new ConfigPrimitive(id.length()));
+            mobs.add(mob);
+        }
+
+        ConfigNode boss = new LinkedConfigNode();
+        boss.put("name", new ConfigPrimitive("${mobs.1.id}"));
+
+        ConfigNode root = new LinkedConfigNode();
+        root.put("mobs", mobs);
+        root.put("boss", boss);
+
+        AccessProfiler.reset();
+        AccessProfiler.enable();
+        try {
+            ConfigIndex<Object> index = ConfigIndex.hashByField(mobs, "id");
+            assertEquals(1, index.get("zombie").size());
+            index.close();
+
+            ConfigResolver resolver = new ConfigResolver(root);
+            assertEquals("skeleton", resolver.get("boss", "name").orElseThrow().asString());
+            resolver.close();
+
+            ConfigQuery query = ConfigQuery.compile("mobs[?health > 6].id");
+            assertEquals(1, query.evaluate(root).size());
+            assertEquals(1, query.evaluateParallel(root).size());
+            assertEquals(2, ConfigQuery.compile("mobs[0:2]").evaluateParallel(root).size());
+
+            Map<String, Object> raw = new HashMap<>();
+            raw.put("mobs", mobs);
+            Schema.node().required("mobs", Schema.list(Schema.node().required("health", Schema.number())
+                    .allowUnknownKeys(true))).compile().makeNode(raw, LinkedConfigNode::new);
+
+            assertTrue(AccessProfiler.report(root, 10).isEmpty());
+        }
+        finally {
+            AccessProfiler.disable();
+            AccessProfiler.reset();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.BasicTreeBuilder;
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactConfigNodeTest {
+    private static ConfigNode filled(ConfigNode node, int count) {
+        for(int i = 0; i < count; i++) {
+            node.put("key" + i, new ConfigPrimitive(i));
+        }
+
+        return node;
+    }
+
+    @Test
+    void behavesLikeLinkedNode() {
+        ConfigNode compact = filled(new CompactConfigNode(), 5);
+        ConfigNode linked = new LinkedConfigNode();
+        linked.putAll(compact);
+
+        assertEquals(linked, compact);
+        assertEquals(linked.hashCode(), compact.hashCode());
+        assertEquals(new ArrayList<>(linked.keySet()), new ArrayList<>(compact.keySet()));
+
+        assertEquals(3, compact.get("key3").asNumber().intValue());
+        assertEquals(3, compact.remove("key3").asNumber().intValue());
+        assertNull(compact.get("key3"));
+        assertEquals(List.of("key0", "key1", "key2", "key4"), new ArrayList<>(compact.keySet()));
+    }
+
+    @Test
+    void upgradesPastThreshold() {
+        CompactConfigNode node = new CompactConfigNode();
+        filled(node, CompactConfigNode.THRESHOLD);
+        assertTrue(node.isCompact());
+
+        node.put("extra", new ConfigPrimitive("value"));
+        assertFalse(node.isCompact());
+        assertEquals(CompactConfigNode.THRESHOLD + 1, node.size());
+
+        List<String> keys = new ArrayList<>(node.keySet());
+        assertEquals("key0", keys.get(0));
+        assertEquals("extra", keys.get(keys.size() - 1));
+    }
+
+    @Test
+    void iteratorRemovesAndSetsValues() {
+        ConfigNode node = filled(new CompactConfigNode(), 4);
+
+        Iterator<Map.Entry<String, ConfigElement>> iterator = node.entrySet().iterator();
+        while(iterator.hasNext()) {
+            Map.Entry<String, ConfigElement> entry = iterator.next();
+            if(entry.getValue().asNumber().intValue() % 2 == 0) {
+                iterator.remove();
+            }
+            else {
+                entry.setValue(new ConfigPrimitive("odd"));
+            }
+        }
+
+        assertEquals(List.of("key1", "key3"), new ArrayList<>(node.keySet()));
+        assertEquals("odd", node.get("key3").asString());
+    }
+
+    @Test
+    void builderChoosesBySize() {
+        Map<String, Object> small = new LinkedHashMap<>();
+        small.put("a", 1);
+
+        Map<String, Object> large = new LinkedHashMap<>();
+        for(int i = 0; i <= CompactConfigNode.THRESHOLD; i++) {
+            large.put("key" + i, i);
+        }
+
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("small", small);
+        raw.put("large", large);
+
+        ConfigNode root = BasicTreeBuilder.INSTANCE.makeNode(raw, LinkedConfigNode::new);
+        assertTrue(root.get("small") instanceof CompactConfigNode);
+        assertTrue(root.get("large") instanceof LinkedConfigNode);
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.codec.JsonCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigHashingTest {
+    private static ConfigNode tree(String name, long value) {
+        ConfigNode leaf = new LinkedConfigNode();
+        leaf.put("name", new ConfigPrimitive(name));
+        leaf.put("values", new ArrayConfigList(List.of(new ConfigPrimitive(value), new ConfigPrimitive(true))));
+
+        ConfigNode root = new HashConfigNode();
+        root.put("leaf", leaf);
+        root.put("ids", new IntConfigList(new int[] {1, 2, 3}));
+        return root;
+    }
+
+    @Test
+    void equalContentsHaveEqualFingerprints() {
+        ConfigNode first = tree("a", 1);
+        ConfigNode second = tree("a", 1);
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertNotEquals(first.fingerprint(), tree("b", 1).fingerprint());
+
+        //primitives are mutable, so they are compared by identity
+        assertNotEquals(first, second);
+
+        ConfigNode copy = new LinkedConfigNode();
+        copy.putAll(first);
+        assertEquals(first, copy);
+        assertEquals(first.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    void hashesFollowMapAndListContracts() {
+        ConfigNode tree = tree("a", 1);
+        ConfigNode leaf = tree.get("leaf").asConfigNode();
+
+        assertEquals(Map.copyOf(leaf).hashCode(), leaf.hashCode());
+        assertEquals(List.copyOf(leaf.get("values").asConfigList()).hashCode(), leaf.get("values").hashCode());
+    }
+
+    @Test
+    void deepMutationInvalidatesAncestors() {
+        ConfigNode tree = tree("a", 1);
+        long fingerprint = tree.fingerprint();
+        int hash = tree.hashCode();
+
+        ConfigPrimitive value = (ConfigPrimitive) tree.getElement("leaf", "values").orElseThrow().asConfigList().get(0);
+        value.setObject(2L);
+        assertNotEquals(fingerprint, tree.fingerprint());
+        assertEquals(hash, tree.hashCode());
+
+        value.setObject(1L);
+        assertEquals(fingerprint, tree.fingerprint());
+
+        ((IntConfigList) tree.get("ids")).setInt(0, 5);
+        assertNotEquals(fingerprint, tree.fingerprint());
+        assertNotEquals(hash, tree.hashCode());
+    }
+
+    @Test
+    void detachedChildrenNoLongerInvalidate() {
+        ConfigNode tree = tree("a", 1);
+        ConfigNode leaf = tree.remove("leaf").asConfigNode();
+        int hash = tree.hashCode();
+
+        leaf.put("name", new ConfigPrimitive("changed"));
+        assertEquals(hash, tree.hashCode());
+    }
+
+    @Test
+    void entrySetModificationsAreTracked() {
+        ConfigNode tree = tree("a", 1);
+        ConfigNode leaf = tree.get("leaf").asConfigNode();
+        int hash = tree.hashCode();
+
+        for(Map.Entry<String, ConfigElement> entry : leaf.entrySet()) {
+            if(entry.getKey().equals("name")) {
+                entry.setValue(new ConfigPrimitive("b"));
+            }
+        }
+
+        assertNotEquals(hash, tree.hashCode());
+        assertEquals("b", leaf.get("name").asString());
+
+        hash = tree.hashCode();
+        Iterator<String> keys = leaf.keySet().iterator();
+        keys.next();
+        keys.remove();
+        assertNotEquals(hash, tree.hashCode());
+        assertEquals(1, leaf.size());
+    }
+
+    @Test
+    void fingerprintIgnoresOrderAndNumberType() {
+        ConfigNode first = new LinkedConfigNode();
+        first.put("x", new ConfigPrimitive(1));
+        first.put("y", new ConfigPrimitive("y"));
+
+        ConfigNode second = new LinkedConfigNode();
+        second.put("y", new ConfigPrimitive("y"));
+        second.put("x", new ConfigPrimitive(1L));
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+    }
+
+    @Test
+    void separatelyDecodedTreesAreComparedByFingerprint() throws IOException {
+        byte[] json = "{\"mobs\": {\"zombie\": {\"health\": 20, \"drops\": [\"flesh\", 1.5]}}, \"on\": true}"
+                .getBytes(StandardCharsets.UTF_8);
+        JsonCodec codec = new JsonCodec();
+
+        ConfigNode first = codec.getBuilder().makeNode(codec.decode(new ByteArrayInputStream(json), true),
+                LinkedConfigNode::new);
+        ConfigNode second = codec.getBuilder().makeNode(codec.decode(new ByteArrayInputStream(json), true),
+                LinkedConfigNode::new);
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertNotEquals(first, second);
+
+        second.getElement("mobs", "zombie").orElseThrow().asConfigNode().put("health", new ConfigPrimitive(21));
+        assertNotEquals(first.fingerprint(), second.fingerprint());
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigTraversalTest {
+    private static ConfigNode sample() {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("name", "root");
+        raw.put("servers", List.of(Map.of("port", 1), Map.of("port", 2)));
+        raw.put("limits", new int[] {3, 4});
+        return BasicTreeBuilder.INSTANCE.makeNode(raw, LinkedConfigNode::new);
+    }
+
+    @Test
+    void visitsInPreOrder() {
+        List<String> visited = new ArrayList<>();
+        assertTrue(sample().traverse((element, key, index, depth) -> {
+            visited.add(depth + ":" + (key != null ? key : index));
+            return ConfigVisitor.Result.CONTINUE;
+        }));
+
+        assertEquals(List.of("0:-1", "1:name", "1:servers", "2:0", "3:port", "2:1", "3:port", "1:limits", "2:0",
+                "2:1"), visited);
+    }
+
+    @Test
+    void visitorCanSkipAndStop() {
+        List<String> visited = new ArrayList<>();
+        assertFalse(sample().traverse((element, key, index, depth) -> {
+            visited.add(String.valueOf(key));
+            if("servers".equals(key)) {
+                return ConfigVisitor.Result.SKIP_CHILDREN;
+            }
+
+            return "limits".equals(key) ? ConfigVisitor.Result.STOP : ConfigVisitor.Result.CONTINUE;
+        }));
+
+        assertEquals(Arrays.asList("null", "name", "servers", "limits"), visited);
+    }
+
+    @Test
+    void streamsPaths() {
+        List<String> paths = sample().stream().map(entry -> entry.path().toString()).collect(Collectors.toList());
+        assertEquals(List.of("", "name", "servers", "servers[0]", "servers[0].port", "servers[1]", "servers[1].port",
+                "limits", "limits[0]", "limits[1]"), paths);
+    }
+
+    @Test
+    void parallelStreamMatchesSequential() {
+        ConfigNode root = new LinkedConfigNode();
+        for(int i = 0; i < 200; i++) {
+            ConfigNode child = new CompactConfigNode();
+            for(int j = 0; j < 20; j++) {
+                child.put("value" + j, new ConfigPrimitive(i * j));
+            }
+
+            root.put("child" + i, child);
+        }
+
+        long sequential = root.stream().filter(entry -> entry.element().getType().isNumber())
+                .mapToLong(entry -> entry.element().asNumber().longValue()).sum();
+        long parallel = root.parallelStream().filter(entry -> entry.element().getType().isNumber())
+                .mapToLong(entry -> entry.element().asNumber().longValue()).sum();
+
+        assertEquals(sequential, parallel);
+        assertEquals(4201, root.parallelStream().count());
+
+        List<ConfigPath> ordered = root.parallelStream().map(TreeEntry::path).collect(Collectors.toList());
+        assertEquals(root.stream().map(TreeEntry::path).collect(Collectors.toList()), ordered);
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.steanky.polymer.config.collection;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverlayConfigNodeTest {
+    private static final String SHARED_KEY = "shared";
+    private static final String DEFAULT_KEY = "default";
+    private static final String OVERRIDE_KEY = "override";
+    private static final String NESTED_KEY = "nested";
+    private static final String LIST_KEY = "list";
+
+    private final ConfigNode defaults;
+    private final ConfigNode overrides;
+
+    OverlayConfigNodeTest() {
+        defaults = new LinkedConfigNode();
+        defaults.put(SHARED_KEY, new ConfigPrimitive("default"));
+        defaults.put(DEFAULT_KEY, new ConfigPrimitive(1));
+
+        ConfigNode defaultNested = new LinkedConfigNode();
+        defaultNested.put(DEFAULT_KEY, new ConfigPrimitive(2));
+        defaultNested.put(SHARED_KEY, new ConfigPrimitive(3));
+        defaults.put(NESTED_KEY, defaultNested);
+        defaults.put(LIST_KEY, new ArrayConfigList(List.of(new ConfigPrimitive(1))));
+
+        overrides = new LinkedConfigNode();
+        overrides.put(SHARED_KEY, new ConfigPrimitive("override"));
+        overrides.put(OVERRIDE_KEY, new ConfigPrimitive(4));
+
+        ConfigNode overrideNested = new LinkedConfigNode();
+        overrideNested.put(SHARED_KEY, new ConfigPrimitive(5));
+        overrides.put(NESTED_KEY, overrideNested);
+        overrides.put(LIST_KEY, new ArrayConfigList(List.of(new ConfigPrimitive(2))));
+    }
+
+    @Test
+    void higherLayerTakesPrecedence() {
+        ConfigNode overlay = new OverlayConfigNode(overrides, defaults);
+
+        assertEquals("override", overlay.getElement(SHARED_KEY).orElseThrow().asString());
+        assertEquals(1, overlay.getElement(DEFAULT_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(4, overlay.getElement(OVERRIDE_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(5, overlay.size());
+    }
+
+    @Test
+    void nestedNodesAreMerged() {
+        ConfigNode overlay = new OverlayConfigNode(overrides, defaults);
+
+        assertEquals(2, overlay.getElement(NESTED_KEY, DEFAULT_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(5, overlay.getElement(NESTED_KEY, SHARED_KEY).orElseThrow().asNumber().intValue());
+    }
+
+    @Test
+    void listsAreMergedAccordingToStrategy() {
+        ConfigList replaced = new OverlayConfigNode(overrides, defaults).get(LIST_KEY).asConfigList();
+        ConfigList appended = new OverlayConfigNode(List.of(overrides, defaults), ListMergeStrategy.APPEND)
+                .get(LIST_KEY).asConfigList();
+        ConfigList prepended = new OverlayConfigNode(List.of(overrides, defaults), ListMergeStrategy.PREPEND)
+                .get(LIST_KEY).asConfigList();
+
+        assertEquals(1, replaced.size());
+        assertEquals(2, replaced.get(0).asNumber().intValue());
+        assertEquals(1, appended.get(0).asNumber().intValue());
+        assertEquals(2, appended.get(1).asNumber().intValue());
+        assertEquals(2, prepended.get(0).asNumber().intValue());
+        assertEquals(1, prepended.get(1).asNumber().intValue());
+    }
+
+    @Test
+    void writesGoToTopLayer() {
+        ConfigNode overlay = new OverlayConfigNode(overrides, defaults);
+        overlay.put(DEFAULT_KEY, new ConfigPrimitive(10));
+
+        assertEquals(10, overlay.getElement(DEFAULT_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(10, overrides.get(DEFAULT_KEY).asNumber().intValue());
+        assertEquals(1, defaults.get(DEFAULT_KEY).asNumber().intValue());
+
+        overlay.remove(DEFAULT_KEY);
+        assertEquals(1, overlay.getElement(DEFAULT_KEY).orElseThrow().asNumber().intValue());
+    }
+
+    @Test
+    void nestedWritesCreateTopLayerNodes() {
+        ConfigNode emptyTop = new LinkedConfigNode();
+        ConfigNode overlay = new OverlayConfigNode(emptyTop, defaults);
+
+        ConfigNode nested = overlay.get(NESTED_KEY).asConfigNode();
+        nested.put(DEFAULT_KEY, new ConfigPrimitive(20));
+
+        assertEquals(20, emptyTop.getElement(NESTED_KEY, DEFAULT_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(2, defaults.getElement(NESTED_KEY, DEFAULT_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(20, nested.get(DEFAULT_KEY).asNumber().intValue());
+        assertEquals(3, nested.get(SHARED_KEY).asNumber().intValue());
+    }
+
+    @Test
+    void invalidateReflectsDirectLayerChanges() {
+        OverlayConfigNode overlay = new OverlayConfigNode(overrides, defaults);
+        assertFalse(overlay.containsKey("new"));
+
+        defaults.put("new", new ConfigPrimitive(true));
+        overlay.invalidate();
+
+        assertTrue(overlay.getElement("new").orElseThrow().asBoolean());
+    }
+
+    @Test
+    void writesOnlyRebuildAffectedSubtrees() {
+        ConfigNode top = new LinkedConfigNode();
+        ConfigNode bottom = new LinkedConfigNode();
+        for(String key : List.of("a", "b")) {
+            ConfigNode topChild = new LinkedConfigNode();
+            topChild.put(LIST_KEY, new ArrayConfigList(List.of(new ConfigPrimitive(1))));
+            top.put(key, topChild);
+
+            ConfigNode bottomChild = new LinkedConfigNode();
+            bottomChild.put(LIST_KEY, new ArrayConfigList(List.of(new ConfigPrimitive(2))));
+            bottom.put(key, bottomChild);
+        }
+
+        ConfigNode overlay = new OverlayConfigNode(List.of(top, bottom), ListMergeStrategy.APPEND);
+
+        //merged lists are created when a node is rebuilt, so an unchanged instance means a was not rebuilt
+        ConfigList merged = overlay.getElement("a", LIST_KEY).orElseThrow().asConfigList();
+        overlay.get("b").asConfigNode().put(SHARED_KEY, new ConfigPrimitive(3));
+        overlay.put(SHARED_KEY, new ConfigPrimitive(4));
+
+        assertSame(merged, overlay.getElement("a", LIST_KEY).orElseThrow().asConfigList());
+        assertEquals(3, overlay.getElement("b", SHARED_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(4, overlay.getElement(SHARED_KEY).orElseThrow().asNumber().intValue());
+
+        //replacing the top layer's node under a key rebuilds the overlay below it
+        ConfigNode replacement = new LinkedConfigNode();
+        replacement.put(SHARED_KEY, new ConfigPrimitive(5));
+        overlay.put("a", replacement);
+        assertEquals(5, overlay.getElement("a", SHARED_KEY).orElseThrow().asNumber().intValue());
+        assertEquals(1, overlay.getElement("a", LIST_KEY).orElseThrow().asConfigList().size());
+
+        overlay.get("a").asConfigNode().clear();
+        assertTrue(overlay.getElement("a", SHARED_KEY).isEmpty());
+    }
+
+    @Test
+    void mergedListsDoNotStayRegisteredWithElements() {
+        //counts the containers currently registered as owners
+        class CountingPrimitive extends ConfigPrimitive {
+            private int owners;
+
+            private CountingPrimitive(Object object) {
+                super(object);
+            }
+
+            @Override
+            public void addOwner(@NotNull ConfigElement owner) {
+                owners++;
+                super.addOwner(owner);
+            }
+
+            @Override
+            public void removeOwner(@NotNull ConfigElement owner) {
+                owners--;
+                super.removeOwner(owner);
+            }
+        }
+
+        CountingPrimitive element = new CountingPrimitive(0);
+        defaults.put(LIST_KEY, new ArrayConfigList(List.of(element)));
+
+        ConfigNode overlay = new OverlayConfigNode(List.of(overrides, defaults), ListMergeStrategy.APPEND);
+        for(int i = 0; i < 1000; i++) {
+            overlay.put(DEFAULT_KEY, new ConfigPrimitive(i));
+            assertEquals(2, overlay.get(LIST_KEY).asConfigList().size());
+        }
+
+        assertEquals(1, element.owners);
+    }
+}
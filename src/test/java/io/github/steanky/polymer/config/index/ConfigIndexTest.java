@@ -0,0 +1,155 @@
+package io.github.steanky.polymer.config.index;
+
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ArrayConfigList;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.IntConfigList;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigIndexTest {
+    private static final String ID_KEY = "id";
+    private static final String WEIGHT_KEY = "weight";
+
+    private static ConfigNode item(String id, long weight) {
+        ConfigNode node = new LinkedConfigNode();
+        node.put(ID_KEY, new ConfigPrimitive(id));
+        node.put(WEIGHT_KEY, new ConfigPrimitive(weight));
+        return node;
+    }
+
+    @Test
+    void lookupByField() {
+        ConfigList items = new ArrayConfigList(List.of(item("stick", 1), item("bone", 2)));
+        ConfigIndex<Object> index = ConfigIndex.hashByField(items, ID_KEY);
+
+        assertSame(items.get(1), index.getAny("bone").orElseThrow());
+        assertTrue(index.get("diamond").isEmpty());
+    }
+
+    @Test
+    void followsContainerMutations() {
+        ConfigList items = new ArrayConfigList(List.of(item("stick", 1)));
+        ConfigIndex<Object> index = ConfigIndex.hashByField(items, ID_KEY);
+
+        ConfigNode diamond = item("diamond", 3);
+        items.add(diamond);
+        assertSame(diamond, index.getAny("diamond").orElseThrow());
+
+        items.set(1, item("emerald", 4));
+        assertTrue(index.get("diamond").isEmpty());
+        assertEquals(1, index.get("emerald").size());
+
+        items.remove(0);
+        assertTrue(index.get("stick").isEmpty());
+    }
+
+    @Test
+    void followsEntryMutations() {
+        ConfigNode stick = item("stick", 1);
+        ConfigNode registry = new LinkedConfigNode();
+        registry.put("first", stick);
+
+        ConfigIndex<Object> index = ConfigIndex.hashByField(registry, ID_KEY);
+        stick.put(ID_KEY, new ConfigPrimitive("branch"));
+
+        assertTrue(index.get("stick").isEmpty());
+        assertSame(stick, index.getAny("branch").orElseThrow());
+
+        registry.remove("first");
+        stick.put(ID_KEY, new ConfigPrimitive("log"));
+        assertTrue(index.keys().isEmpty());
+    }
+
+    @Test
+    void sortedRangeQuery() {
+        ConfigList items = new ArrayConfigList(List.of(item("a", 1), item("b", 5), item("c", 10)));
+        ConfigIndex<Long> index = ConfigIndex.sorted(items, entry -> entry.asConfigNode().get(WEIGHT_KEY).asNumber()
+                .longValue(), Comparator.naturalOrder());
+
+        assertEquals(List.of(5L, 10L), List.copyOf(index.range(2L, true, 10L, true).keySet()));
+    }
+
+    @Test
+    void retargetKeepsSharedEntries() {
+        ConfigNode shared = item("shared", 1);
+        ConfigList original = new ArrayConfigList(List.of(shared, item("old", 2)));
+        ConfigList reloaded = new ArrayConfigList(List.of(shared, item("new", 3)));
+
+        ConfigIndex<Object> index = ConfigIndex.hashByField(original, ID_KEY);
+        index.retarget(reloaded);
+
+        assertSame(shared, index.getAny("shared").orElseThrow());
+        assertTrue(index.get("old").isEmpty());
+        assertEquals(1, index.get("new").size());
+
+        original.add(item("ignored", 4));
+        assertTrue(index.get("ignored").isEmpty());
+    }
+
+    @Test
+    void retargetReusesUnchangedEntries() {
+        AtomicInteger extractions = new AtomicInteger();
+        ConfigList original = new ArrayConfigList(List.of(item("stick", 1), item("bone", 2)));
+        ConfigIndex<Object> index = ConfigIndex.hash(original, entry -> {
+            extractions.incrementAndGet();
+            return ConfigIndex.field(ID_KEY).apply(entry);
+        });
+
+        //a reload creates new entries, but only the changed one needs its key extracted
+        ConfigList reloaded = new ArrayConfigList(List.of(item("stick", 1), item("bone", 5)));
+        index.retarget(reloaded);
+
+        assertEquals(3, extractions.get());
+        assertSame(reloaded.get(0), index.getAny("stick").orElseThrow());
+        assertSame(reloaded.get(1), index.getAny("bone").orElseThrow());
+        assertEquals(1, index.get("stick").size());
+    }
+
+    @Test
+    void followsPrimitiveBackedLists() {
+        int[] initial = new int[20];
+        for(int i = 0; i < initial.length; i++) {
+            initial[i] = i;
+        }
+
+        IntConfigList values = new IntConfigList(initial);
+        ConfigIndex<Integer> index = ConfigIndex.hash(values, entry -> entry.asNumber().intValue());
+        assertEquals(20, index.keys().size());
+
+        //every element and notification is a new ConfigPrimitive, so entries must be matched by value
+        values.remove(3);
+        assertTrue(index.get(3).isEmpty());
+
+        values.set(0, new ConfigPrimitive(99));
+        assertTrue(index.get(0).isEmpty());
+        assertEquals(99, index.getAny(99).orElseThrow().asNumber().intValue());
+
+        values.addInt(3);
+        assertEquals(1, index.get(3).size());
+
+        values.clear();
+        assertTrue(index.keys().isEmpty());
+    }
+
+    @Test
+    void closeRemovesListeners() {
+        ConfigList items = new ArrayConfigList(List.of(item("stick", 1)));
+        ConfigIndex<Object> index = ConfigIndex.hashByField(items, ID_KEY);
+        index.close();
+
+        items.add(item("bone", 2));
+        assertTrue(index.keys().isEmpty());
+        for(ConfigElement element : items) {
+            assertDoesNotThrow(() -> element.asConfigNode().put(ID_KEY, new ConfigPrimitive("x")));
+        }
+    }
+}
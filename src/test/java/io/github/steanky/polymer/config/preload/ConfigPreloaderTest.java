@@ -0,0 +1,96 @@
+package io.github.steanky.polymer.config.preload;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.bridge.ConfigBridge;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigPreloaderTest {
+    private static ConfigBridge<ConfigNode> bridge(CountDownLatch latch, String value) {
+        return new ConfigBridge<>() {
+            @Override
+            public @NotNull Future<ConfigNode> read() throws IOException {
+                if(latch != null) {
+                    //every bridge waits for the others, so this only finishes if they are read in parallel
+                    latch.countDown();
+                    try {
+                        if(!latch.await(10, TimeUnit.SECONDS)) {
+                            throw new IOException("reads did not happen in parallel");
+                        }
+                    }
+                    catch (InterruptedException exception) {
+                        throw new IOException(exception);
+                    }
+                }
+
+                if(value == null) {
+                    throw new IOException("failed");
+                }
+
+                ConfigNode node = new LinkedConfigNode();
+                node.put("value", new ConfigPrimitive(value));
+                return CompletableFuture.completedFuture(node);
+            }
+
+            @Override
+            public @NotNull Future<Void> write(@NotNull ConfigNode node) {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public boolean readOnly() {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    void loadsInParallel() throws IOException {
+        ConfigPreloader preloader = new ConfigPreloader(3);
+        CountDownLatch latch = new CountDownLatch(3);
+        preloader.register("first", "a", bridge(latch, "1"));
+        preloader.registrar("second").register("a", bridge(latch, "2"));
+        preloader.registrar("second").register("b", bridge(latch, "3"));
+
+        PreloadReport report = preloader.start().join();
+        assertEquals(2, report.owners().size());
+        assertEquals("second", report.owners().get(1).owner());
+        assertEquals(2, report.owners().get(1).loaded());
+
+        assertEquals("2", preloader.get("second", "a").getElement("value").orElseThrow().asString());
+    }
+
+    @Test
+    void failuresAreReported() {
+        ConfigPreloader preloader = new ConfigPreloader(1);
+        preloader.register("mod", "broken", bridge(null, null));
+        preloader.register("mod", "working", bridge(null, "ok"));
+        preloader.start();
+
+        PreloadReport.OwnerTiming timing = preloader.await().owners().get(0);
+        assertEquals(1, timing.loaded());
+        assertEquals(1, timing.failed());
+        assertThrows(IOException.class, () -> preloader.get("mod", "broken"));
+    }
+
+    @Test
+    void registrationClosesOnStart() {
+        ConfigPreloader preloader = new ConfigPreloader(1);
+        preloader.register("mod", "a", bridge(null, "1"));
+        assertThrows(IllegalArgumentException.class, () -> preloader.register("mod", "a", bridge(null, "1")));
+
+        preloader.start();
+        assertThrows(IllegalStateException.class, () -> preloader.register("mod", "b", bridge(null, "1")));
+        assertThrows(IllegalStateException.class, preloader::start);
+    }
+}
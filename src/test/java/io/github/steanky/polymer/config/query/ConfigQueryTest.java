@@ -0,0 +1,103 @@
+package io.github.steanky.polymer.config.query;
+
+import io.github.steanky.polymer.config.BasicTreeBuilder;
+import io.github.steanky.polymer.config.ConfigElement;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigQueryTest {
+    private static final int WIDE_COUNT = 1000;
+
+    private final ConfigNode root;
+
+    ConfigQueryTest() {
+        Map<String, Object> mobs = new LinkedHashMap<>();
+        mobs.put("zombie", Map.of("health", 20L));
+        mobs.put("skeleton", Map.of("health", 15L));
+        mobs.put("boss", Map.of("health", 500L, "minions", List.of(Map.of("health", 5L))));
+
+        Map<String, Object> loot = new LinkedHashMap<>();
+        loot.put("common", List.of(Map.of("id", "stick", "weight", 50L), Map.of("id", "bone", "weight", 5L)));
+        loot.put("rare", Map.of("diamond", Map.of("id", "diamond", "weight", 11L)));
+
+        List<Object> wide = new ArrayList<>();
+        for(long i = 0; i < WIDE_COUNT; i++) {
+            wide.add(Map.of("value", i));
+        }
+
+        Map<String, Object> raw = new LinkedHashMap<>();
+        raw.put("mobs", mobs);
+        raw.put("loot", loot);
+        raw.put("numbers", List.of("a", "b", "c", "d"));
+        raw.put("wide", wide);
+
+        root = BasicTreeBuilder.INSTANCE.makeNode(raw, LinkedConfigNode::new);
+    }
+
+    private static List<Object> values(List<ConfigElement> elements) {
+        List<Object> values = new ArrayList<>();
+        for(ConfigElement element : elements) {
+            values.add(element.getType().isNumber() ? element.asNumber() : element.asString());
+        }
+
+        return values;
+    }
+
+    @Test
+    void wildcard() {
+        assertEquals(List.of(20L, 15L, 500L), values(ConfigQuery.compile("mobs.*.health").evaluate(root)));
+    }
+
+    @Test
+    void recursiveDescent() {
+        List<Object> health = values(ConfigQuery.compile("mobs.**.health").evaluate(root));
+        assertEquals(4, health.size());
+        assertTrue(health.contains(5L));
+    }
+
+    @Test
+    void filter() {
+        List<ConfigElement> heavy = ConfigQuery.compile("loot.**[?weight > 10].id").evaluate(root);
+        assertEquals(Set.of("stick", "diamond"), new HashSet<>(values(heavy)));
+
+        assertEquals(List.of("bone"), values(ConfigQuery.compile("loot.common[?id == 'bone'].id").evaluate(root)));
+        assertEquals(List.of(5L), values(ConfigQuery.compile("mobs.boss.minions[?(health)].health")
+                .evaluate(root)));
+    }
+
+    @Test
+    void indicesAndSlices() {
+        assertEquals(List.of("a"), values(ConfigQuery.compile("numbers[0]").evaluate(root)));
+        assertEquals(List.of("d"), values(ConfigQuery.compile("numbers[-1]").evaluate(root)));
+        assertEquals(List.of("b", "c"), values(ConfigQuery.compile("numbers[1:3]").evaluate(root)));
+        assertEquals(List.of("c", "d"), values(ConfigQuery.compile("numbers[-2:]").evaluate(root)));
+        assertEquals(List.of("a", "b", "c", "d"), values(ConfigQuery.compile("numbers[*]").evaluate(root)));
+    }
+
+    @Test
+    void emptyExpressionSelectsRoot() {
+        assertSame(root, ConfigQuery.compile("").evaluate(root).get(0));
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        for(String expression : List.of("wide.*.value", "**.value", "wide[10:900].value", "mobs.*.health")) {
+            ConfigQuery query = ConfigQuery.compile(expression);
+            assertEquals(query.evaluate(root), query.evaluateParallel(root));
+        }
+
+        assertEquals(WIDE_COUNT, ConfigQuery.compile("wide.*.value").evaluateParallel(root).size());
+    }
+
+    @Test
+    void malformedExpressionsAreRejected() {
+        for(String expression : List.of("mobs.", "mobs[", "mobs[?health >]", "mobs[abc]", "..")) {
+            assertThrows(IllegalArgumentException.class, () -> ConfigQuery.compile(expression));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.steanky.polymer.config.resolve;
+
+import io.github.steanky.polymer.config.ConfigPrimitive;
+import io.github.steanky.polymer.config.collection.ArrayConfigList;
+import io.github.steanky.polymer.config.collection.ConfigList;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigResolverTest {
+    private static ConfigNode tree() {
+        ConfigNode mob = new LinkedConfigNode();
+        mob.put("health", new ConfigPrimitive(20));
+        mob.put("name", new ConfigPrimitive("zombie"));
+
+        ConfigNode defaults = new LinkedConfigNode();
+        defaults.put("mob", mob);
+
+        ConfigList names = new ArrayConfigList();
+        names.add(new ConfigPrimitive("first"));
+        names.add(new ConfigPrimitive("${defaults.mob.name}"));
+
+        ConfigNode boss = new LinkedConfigNode();
+        boss.put("health", new ConfigPrimitive("${defaults.mob.health}"));
+        boss.put("title", new ConfigPrimitive("Giant ${boss.base} ($${literal})"));
+        boss.put("base", new ConfigPrimitive("${names.1}"));
+        boss.put("template", new ConfigPrimitive("${defaults.mob}"));
+
+        ConfigNode root = new LinkedConfigNode();
+        root.put("defaults", defaults);
+        root.put("names", names);
+        root.put("boss", boss);
+        return root;
+    }
+
+    @Test
+    void resolvesReferences() {
+        ConfigNode root = tree();
+        ConfigResolver resolver = new ConfigResolver(root);
+
+        assertEquals(20, resolver.get("boss", "health").orElseThrow().asNumber().intValue());
+        assertEquals("zombie", resolver.get("names", "1").orElseThrow().asString());
+        assertEquals("Giant zombie (${literal})", resolver.get("boss", "title").orElseThrow().asString());
+        assertSame(root.getElement("defaults", "mob").orElseThrow(), resolver.get("boss", "template").orElseThrow());
+        assertEquals(20, resolver.get("boss", "template", "health").orElseThrow().asNumber().intValue());
+        assertTrue(resolver.get("boss", "missing").isEmpty());
+        assertTrue(resolver.isTemplate("boss", "title"));
+        assertFalse(resolver.isTemplate("defaults", "mob", "name"));
+        assertTrue(resolver.errors().isEmpty());
+
+        resolver.close();
+    }
+
+    @Test
+    void reresolvesDependentsOnChange() {
+        ConfigNode root = tree();
+        ConfigResolver resolver = new ConfigResolver(root);
+
+        ConfigNode mob = root.getElement("defaults", "mob").orElseThrow().asConfigNode();
+        mob.put("name", new ConfigPrimitive("skeleton"));
+        assertEquals("Giant skeleton (${literal})", resolver.get("boss", "title").orElseThrow().asString());
+
+        //replacing an ancestor of a referenced value
+        ConfigNode newMob = new LinkedConfigNode();
+        newMob.put("health", new ConfigPrimitive(30));
+        newMob.put("name", new ConfigPrimitive("creeper"));
+        root.getElement("defaults").orElseThrow().asConfigNode().put("mob", newMob);
+        assertEquals(30, resolver.get("boss", "health").orElseThrow().asNumber().intValue());
+        assertEquals("Giant creeper (${literal})", resolver.get("boss", "title").orElseThrow().asString());
+
+        //new templates are found, and broken references are reported without throwing from the change
+        ConfigNode boss = root.getElement("boss").orElseThrow().asConfigNode();
+        boss.put("alias", new ConfigPrimitive("${boss.health}"));
+        assertEquals(30, resolver.get("boss", "alias").orElseThrow().asNumber().intValue());
+
+        newMob.remove("health");
+        assertEquals(2, resolver.errors().size());
+        assertThrows(IllegalStateException.class, () -> resolver.get("boss", "alias"));
+
+        newMob.put("health", new ConfigPrimitive(40));
+        assertTrue(resolver.errors().isEmpty());
+        assertEquals(40, resolver.get("boss", "alias").orElseThrow().asNumber().intValue());
+
+        resolver.close();
+    }
+
+    @Test
+    void detectsCycles() {
+        ConfigNode root = new LinkedConfigNode();
+        root.put("a", new ConfigPrimitive("${b}"));
+        root.put("b", new ConfigPrimitive("x${c}"));
+        root.put("c", new ConfigPrimitive("${a}"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new ConfigResolver(root));
+        assertTrue(exception.getMessage().startsWith("circular reference"));
+
+        ConfigNode other = new LinkedConfigNode();
+        other.put("a", new ConfigPrimitive("${b"));
+        assertThrows(IllegalArgumentException.class, () -> new ConfigResolver(other));
+    }
+}
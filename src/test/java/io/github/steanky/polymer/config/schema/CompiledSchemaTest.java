@@ -0,0 +1,120 @@
+package io.github.steanky.polymer.config.schema;
+
+import io.github.steanky.polymer.config.codec.JsonCodec;
+import io.github.steanky.polymer.config.collection.ConfigNode;
+import io.github.steanky.polymer.config.collection.LinkedConfigNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledSchemaTest {
+    private static final CompiledSchema MOB_SCHEMA = Schema.node()
+            .required("health", Schema.number().range(1, 100))
+            .optional("hostile", Schema.bool().defaultValue(true))
+            .optional("type", Schema.string().oneOf("zombie", "skeleton"))
+            .optional("drops", Schema.list(Schema.number().integral()))
+            .allowUnknownKeys(false)
+            .compile();
+
+    private static final CompiledSchema ROOT_SCHEMA = Schema.node()
+            .required("mobs", Schema.node().values(Schema.node()
+                    .required("health", Schema.number().range(1, 100))
+                    .optional("hostile", Schema.bool().defaultValue(true))))
+            .compile();
+
+    private static Map<String, Object> mob(Object health) {
+        Map<String, Object> mob = new HashMap<>();
+        mob.put("health", health);
+        return mob;
+    }
+
+    @Test
+    void validInputHasNoViolations() {
+        Map<String, Object> raw = mob(20L);
+        raw.put("type", "zombie");
+        raw.put("drops", List.of(1L, 2L, 3L));
+
+        ConfigNode node = MOB_SCHEMA.makeNode(raw, LinkedConfigNode::new);
+        assertEquals(20L, node.getElement("health").orElseThrow().asNumber());
+        assertEquals(3, node.getElement("drops").orElseThrow().asConfigList().size());
+    }
+
+    @Test
+    void defaultsAreFilledIn() {
+        ConfigNode node = MOB_SCHEMA.makeNode(mob(20L), LinkedConfigNode::new);
+        assertTrue(node.getElement("hostile").orElseThrow().asBoolean());
+    }
+
+    @Test
+    void everyViolationIsReportedWithPath() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("type", "creeper");
+        raw.put("drops", List.of(1L, 2.5D, "three"));
+        raw.put("unknown", 0L);
+
+        List<Violation> violations = new ArrayList<>();
+        MOB_SCHEMA.makeNode(raw, LinkedConfigNode::new, violations::add);
+
+        Set<String> paths = new HashSet<>();
+        for(Violation violation : violations) {
+            paths.add(violation.path());
+        }
+
+        assertEquals(Set.of("health", "type", "drops[1]", "drops[2]", "unknown"), paths);
+    }
+
+    @Test
+    void nestedViolationsHaveFullPaths() {
+        Map<String, Object> mobs = new LinkedHashMap<>();
+        mobs.put("zombie", mob(20L));
+        mobs.put("giant", mob(1000L));
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("mobs", mobs);
+
+        SchemaViolationException exception = assertThrows(SchemaViolationException.class,
+                () -> ROOT_SCHEMA.makeNode(raw, LinkedConfigNode::new));
+
+        assertEquals(1, exception.getViolations().size());
+        assertEquals("mobs.giant.health", exception.getViolations().get(0).path());
+    }
+
+    @Test
+    void nestedDefaultsAreFilledIn() {
+        Map<String, Object> mobs = new HashMap<>();
+        mobs.put("zombie", mob(20L));
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("mobs", mobs);
+
+        ConfigNode node = ROOT_SCHEMA.makeNode(raw, LinkedConfigNode::new);
+        assertTrue(node.getElement("mobs", "zombie", "hostile").orElseThrow().asBoolean());
+    }
+
+    @Test
+    void lazilyDecodedValuesAreChecked() throws IOException {
+        byte[] json = "{\"health\": 1000, \"type\": \"creeper\", \"drops\": [1, 2.5]}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        for(boolean lazy : new boolean[] {false, true}) {
+            Map<String, Object> raw = new JsonCodec(false, lazy).decode(new ByteArrayInputStream(json), true);
+
+            Set<String> paths = new HashSet<>();
+            MOB_SCHEMA.makeNode(raw, LinkedConfigNode::new, violation -> paths.add(violation.path()));
+            assertEquals(Set.of("health", "type", "drops[1]"), paths);
+        }
+    }
+
+    @Test
+    void recursiveSchemasAreRejected() {
+        Schema schema = Schema.node();
+        schema.optional("self", schema);
+
+        assertThrows(IllegalArgumentException.class, schema::compile);
+    }
+}